@@ -42,8 +42,8 @@ import com.syedbilalali.ocr.camera.CameraManager;
 import com.syedbilalali.ocr.decode.CaptureActivityHandler;
 import com.syedbilalali.ocr.decode.DecodeManager;
 import com.syedbilalali.ocr.decode.InactivityTimer;
+import com.syedbilalali.ocr.tess.TessEngine;
 import com.syedbilalali.ocr.tess.TesseractCallback;
-import com.syedbilalali.ocr.tess.TesseractThread;
 import com.syedbilalali.ocr.utils.Tools;
 import com.syedbilalali.ocr.view.ImageDialog;
 import com.syedbilalali.ocr.view.ScannerFinderView;
@@ -234,6 +234,8 @@ public class ScannerActivity extends AppCompatActivity implements Callback, Came
         if (null != mInactivityTimer) {
             mInactivityTimer.shutdown();
         }
+        // The engine is kept while scanning, but its language data is not worth holding on to after
+        TessEngine.release();
         super.onDestroy();
     }
 
@@ -335,7 +337,7 @@ public class ScannerActivity extends AppCompatActivity implements Callback, Came
         bmp = null;
         bmp = Tools.getFocusedBitmap(this, camera, data, getCropRect());
 
-        TesseractThread mTesseractThread = new TesseractThread(bmp, new TesseractCallback() {
+        TessEngine.Generate().detectText(bmp, new TesseractCallback() {
 
             @Override
             public void succeed(String result) {
@@ -352,9 +354,6 @@ public class ScannerActivity extends AppCompatActivity implements Callback, Came
                 mHandler.sendMessage(message);
             }
         });
-
-        Thread thread = new Thread(mTesseractThread);
-        thread.start();
     }
 
     @Override
@@ -21,6 +21,7 @@ import com.google.zxing.Resultview;
 import com.syedbilalali.ocr.R;
 import com.syedbilalali.ocr.ScannerActivity;
 import com.syedbilalali.ocr.camera.CameraManager;
+import com.syedbilalali.ocr.metrics.ScannerMetrics;
 
 
 /**
@@ -30,13 +31,19 @@ public final class CaptureActivityHandler extends Handler {
     private static final String TAG = CaptureActivityHandler.class.getName();
 
     private final ScannerActivity mActivity;
-    private final DecodeThread mDecodeThread;
+    private final DecodeExecutor mDecodeExecutor;
     private State mState;
 
     public CaptureActivityHandler(ScannerActivity activity) {
+        this(activity, DecodeExecutor.DEFAULT_WORKER_COUNT);
+    }
+
+    /**
+     * @param decodeWorkers The number of preview frames that may be decoded at the same time.
+     */
+    public CaptureActivityHandler(ScannerActivity activity, int decodeWorkers) {
         this.mActivity = activity;
-        mDecodeThread = new DecodeThread(activity);
-        mDecodeThread.start();
+        mDecodeExecutor = new DecodeExecutor(activity, decodeWorkers);
         mState = State.SUCCESS;
         // Start ourselves capturing previews and decoding.
         restartPreviewAndDecode();
@@ -50,28 +57,36 @@ public final class CaptureActivityHandler extends Handler {
             if (mState == State.PREVIEW) {
                 CameraManager.get().requestAutoFocus(this, R.id.auto_focus);
             }
+        } else if (message.what == R.id.decode) {
+            // Hand the frame to the decode workers, and keep requesting frames while any of them is idle.
+            ScannerMetrics.get().frameReceived();
+            if (mState == State.PREVIEW) {
+                byte[] data = (byte[]) message.obj;
+                // The preview callback sent the message without a delay, so its time is when the frame arrived.
+                if (mDecodeExecutor.decode(data, message.arg1, message.arg2, message.getWhen())) {
+                    CameraManager.get().requestPreviewFrame(this, R.id.decode);
+                }
+            } else {
+                ScannerMetrics.get().frameDropped();
+            }
         } else if (message.what == R.id.decode_succeeded) {
             Log.e(TAG, "Got decode succeeded message");
             mState = State.SUCCESS;
+            ScannerMetrics.get().resultDelivered();
             mActivity.handleDecode((Resultview) message.obj);
         } else if (message.what == R.id.decode_failed) {// We're decoding as fast as possible, so when one decode fails, start another.
             mState = State.PREVIEW;
-            CameraManager.get().requestPreviewFrame(mDecodeThread.getHandler(), R.id.decode);
+            CameraManager.get().requestPreviewFrame(this, R.id.decode);
         }
     }
 
     public void quitSynchronously() {
         mState = State.DONE;
         CameraManager.get().stopPreview();
-        Message quit = Message.obtain(mDecodeThread.getHandler(), R.id.quit);
-        quit.sendToTarget();
-        try {
-            mDecodeThread.join();
-        } catch (InterruptedException e) {
-            // continue
-        }
+        mDecodeExecutor.quit();
 
         // Be absolutely sure we don't send any queued up messages
+        removeMessages(R.id.decode);
         removeMessages(R.id.decode_succeeded);
         removeMessages(R.id.decode_failed);
     }
@@ -80,7 +95,8 @@ public final class CaptureActivityHandler extends Handler {
         if (mState != State.PREVIEW) {
             CameraManager.get().startPreview();
             mState = State.PREVIEW;
-            CameraManager.get().requestPreviewFrame(mDecodeThread.getHandler(), R.id.decode);
+            ScannerMetrics.get().sessionStarted();
+            CameraManager.get().requestPreviewFrame(this, R.id.decode);
             CameraManager.get().requestAutoFocus(this, R.id.auto_focus);
         }
     }
@@ -91,6 +107,8 @@ public final class CaptureActivityHandler extends Handler {
 
     public void onPause() {
         mState = State.DONE;
+        // A frame still being decoded must not report a result once the preview has stopped.
+        mDecodeExecutor.cancel();
         CameraManager.get().stopPreview();
     }
 }
\ No newline at end of file
@@ -0,0 +1,226 @@
+package com.syedbilalali.ocr.decode;
+
+import android.os.Message;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.google.zxing.Resultview;
+import com.syedbilalali.ocr.R;
+import com.syedbilalali.ocr.ScannerActivity;
+import com.syedbilalali.ocr.metrics.ScannerMetrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decodes preview frames on a fixed number of worker threads, each with its own {@link FrameDecoder}.
+ *
+ * Only the newest waiting frame is kept: a frame that arrives while all workers are busy replaces the one that was
+ * waiting before it. The first worker to find a result delivers {@code R.id.decode_succeeded} to the capture handler;
+ * every frame submitted before that point is then stale. Workers still decoding a stale frame are interrupted, which
+ * the readers check once per row, so they give up early and take the next frame; whatever they return is dropped
+ * instead of being reported. A failed frame is reported with {@code R.id.decode_failed} so the capture handler requests another one.
+ *
+ * Frames replaced or gone stale before a worker starts on them are counted as dropped in {@link ScannerMetrics}.
+ */
+final class DecodeExecutor {
+    private static final String TAG = DecodeExecutor.class.getName();
+
+    /**
+     * Leaves one core for the UI and the camera, and caps the pool because the camera does not produce frames fast
+     * enough to keep more workers busy.
+     */
+    static final int DEFAULT_WORKER_COUNT =
+            Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+
+    private final ScannerActivity mActivity;
+    private final Worker[] mWorkers;
+    private final Object mLock = new Object();
+
+    // All guarded by mLock.
+    private Frame mPending;
+    private int mIdleWorkers;
+    private int mGeneration;
+    private boolean mQuit;
+
+    DecodeExecutor(ScannerActivity activity, int workerCount) {
+        if (workerCount < 1) {
+            throw new IllegalArgumentException("workerCount must be at least 1: " + workerCount);
+        }
+        this.mActivity = activity;
+        mWorkers = new Worker[workerCount];
+        mIdleWorkers = workerCount;
+        for (int i = 0; i < workerCount; i++) {
+            mWorkers[i] = new Worker(i);
+            mWorkers[i].start();
+        }
+    }
+
+    /**
+     * Queues a preview frame for decoding, replacing any frame that is still waiting for a worker.
+     *
+     * @param receivedAt The {@link SystemClock#uptimeMillis()} at which the camera delivered the frame.
+     * @return whether another worker is still idle, i.e. whether the caller should request another frame right away.
+     */
+    boolean decode(byte[] data, int width, int height, long receivedAt) {
+        synchronized (mLock) {
+            if (mQuit) {
+                ScannerMetrics.get().frameDropped();
+                return false;
+            }
+            if (mPending != null) {
+                Log.v(TAG, "Dropping stale preview frame");
+                ScannerMetrics.get().frameDropped();
+            }
+            mPending = new Frame(data, width, height, receivedAt, mGeneration);
+            mLock.notify();
+            // The worker that picks up this frame is still counted as idle until it wakes.
+            return mIdleWorkers > 1;
+        }
+    }
+
+    /**
+     * Drops the waiting frame and cancels every frame in flight, so none of them is reported.
+     */
+    void cancel() {
+        synchronized (mLock) {
+            dropPending();
+            mGeneration++;
+            interruptStaleWorkers();
+        }
+    }
+
+    /**
+     * Stops all workers and waits for them to finish the frame they are decoding.
+     */
+    void quit() {
+        synchronized (mLock) {
+            mQuit = true;
+            dropPending();
+            mGeneration++;
+            interruptStaleWorkers();
+            mLock.notifyAll();
+        }
+        for (Worker worker : mWorkers) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                // continue
+            }
+        }
+    }
+
+    private Frame take() throws InterruptedException {
+        synchronized (mLock) {
+            // Workers are only interrupted under mLock while on a stale frame, so any interrupt still pending belongs
+            // to the frame this worker has finished with. Clear it, or it would end the wait below.
+            Thread.interrupted();
+            while (mPending == null && !mQuit) {
+                mLock.wait();
+            }
+            if (mQuit) {
+                return null;
+            }
+            Frame frame = mPending;
+            mPending = null;
+            mIdleWorkers--;
+            ((Worker) Thread.currentThread()).mFrame = frame;
+            return frame;
+        }
+    }
+
+    private void finish(Frame frame, Resultview result) {
+        Message message;
+        synchronized (mLock) {
+            mIdleWorkers++;
+            ((Worker) Thread.currentThread()).mFrame = null;
+            if (mQuit || frame.generation != mGeneration) {
+                return;
+            }
+            if (result != null) {
+                // First result wins; everything still in flight is now stale.
+                dropPending();
+                mGeneration++;
+                interruptStaleWorkers();
+                message = Message.obtain(mActivity.getCaptureActivityHandler(), R.id.decode_succeeded, result);
+            } else {
+                message = Message.obtain(mActivity.getCaptureActivityHandler(), R.id.decode_failed);
+            }
+        }
+        message.sendToTarget();
+    }
+
+    // Must hold mLock.
+    private void interruptStaleWorkers() {
+        for (Worker worker : mWorkers) {
+            Frame frame = worker.mFrame;
+            if (frame != null && frame.generation != mGeneration && worker != Thread.currentThread()) {
+                worker.interrupt();
+            }
+        }
+    }
+
+    // Must hold mLock.
+    private void dropPending() {
+        if (mPending != null) {
+            ScannerMetrics.get().frameDropped();
+            mPending = null;
+        }
+    }
+
+    private boolean isStale(Frame frame) {
+        synchronized (mLock) {
+            return mQuit || frame.generation != mGeneration;
+        }
+    }
+
+    private static final class Frame {
+        final byte[] data;
+        final int width;
+        final int height;
+        final long receivedAt;
+        final int generation;
+
+        Frame(byte[] data, int width, int height, long receivedAt, int generation) {
+            this.data = data;
+            this.width = width;
+            this.height = height;
+            this.receivedAt = receivedAt;
+            this.generation = generation;
+        }
+    }
+
+    /**
+     * This thread does the heavy lifting of decoding the images, one frame at a time.
+     */
+    private final class Worker extends Thread {
+        private final FrameDecoder mDecoder;
+        // The frame being decoded, if any. Guarded by mLock.
+        private Frame mFrame;
+
+        Worker(int index) {
+            super("DecodeWorker-" + index);
+            mDecoder = new FrameDecoder(mActivity);
+        }
+
+        @Override
+        public void run() {
+            try {
+                Frame frame;
+                while ((frame = take()) != null) {
+                    Resultview result;
+                    if (isStale(frame)) {
+                        ScannerMetrics.get().frameDropped();
+                        result = null;
+                    } else {
+                        ScannerMetrics.get().decodeStarted(
+                                TimeUnit.MILLISECONDS.toNanos(SystemClock.uptimeMillis() - frame.receivedAt));
+                        result = mDecoder.decode(frame.data, frame.width, frame.height);
+                    }
+                    finish(frame, result);
+                }
+            } catch (InterruptedException e) {
+                // exit
+            }
+        }
+    }
+}
@@ -1,47 +1,61 @@
 package com.syedbilalali.ocr.decode;
 
 import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.SystemClock;
 import android.text.TextUtils;
 
 import com.google.zxing.Resultview;
 import com.syedbilalali.ocr.utils.QrUtils;
 
+import java.util.Arrays;
+
 /**
  *
  * 解析图像二维码线程
+ *
+ * The image is first decoded at a small size, which is enough for most codes and cheap. If no code is found there,
+ * it is decoded again at the next larger size, up to the full size of the image, until a code is found or the time
+ * budget would be exceeded.
  */
 public class DecodeImageThread implements Runnable {
-    private static final int MAX_PICTURE_PIXEL = 256;
-    private byte[] mData;
-    private int mWidth;
-    private int mHeight;
+    /**
+     * Largest dimensions to try, in order; 0 means the image's own size.
+     */
+    private static final int[] PICTURE_PIXEL_STEPS = {256, 512, 1024, 0};
+    /**
+     * How long to go on trying larger sizes unless told otherwise.
+     */
+    public static final long DEFAULT_TIME_BUDGET_MS = 3000;
     private String mImgPath;
     private DecodeImageCallback mCallback;
+    private long mTimeBudgetMs;
 
     public DecodeImageThread(String imgPath, DecodeImageCallback callback) {
+        this(imgPath, callback, DEFAULT_TIME_BUDGET_MS);
+    }
+
+    /**
+     * @param timeBudgetMs how long to go on trying larger sizes. A size is not tried if, judging by how long the one
+     *                     before took, it would not be done in time. The smallest size is always tried.
+     */
+    public DecodeImageThread(String imgPath, DecodeImageCallback callback, long timeBudgetMs) {
         this.mImgPath = imgPath;
         this.mCallback = callback;
+        this.mTimeBudgetMs = timeBudgetMs;
     }
 
     @Override
     public void run() {
-        if (null == mData) {
-            if (!TextUtils.isEmpty(mImgPath)) {
-                Bitmap bitmap = QrUtils.decodeSampledBitmapFromFile(mImgPath, MAX_PICTURE_PIXEL, MAX_PICTURE_PIXEL);
-                this.mData = QrUtils.getYUV420sp(bitmap.getWidth(), bitmap.getHeight(), bitmap);
-                this.mWidth = bitmap.getWidth();
-                this.mHeight = bitmap.getHeight();
-            }
-        }
-
-        if (mData == null || mData.length == 0 || mWidth == 0 || mHeight == 0) {
+        BitmapFactory.Options bounds = TextUtils.isEmpty(mImgPath) ? null : QrUtils.decodeBitmapBounds(mImgPath);
+        if (bounds == null || bounds.outWidth <= 0 || bounds.outHeight <= 0) {
             if (null != mCallback) {
                 mCallback.decodeFail(0, "No image data");
             }
             return;
         }
 
-        final Resultview result = QrUtils.decodeImage(mData, mWidth, mHeight);
+        final Resultview result = decodeProgressively(bounds);
 
         if (null != mCallback) {
             if (null != result) {
@@ -51,4 +65,74 @@ public class DecodeImageThread implements Runnable {
             }
         }
     }
+
+    /**
+     * @param bounds the dimensions of the image, read once for all sizes
+     */
+    private Resultview decodeProgressively(BitmapFactory.Options bounds) {
+        final long start = SystemClock.elapsedRealtime();
+        final int[] sampleSizes = sampleSizes(bounds.outWidth, bounds.outHeight);
+        long lastStepMs = 0;
+        // Owned by this thread, so another gallery decode running at the same time cannot overwrite it.
+        byte[] luminance = null;
+        for (int i = 0; i < sampleSizes.length; i++) {
+            int sampleSize = sampleSizes[i];
+            if (i > 0 && !fitsBudget(SystemClock.elapsedRealtime() - start, lastStepMs, sampleSizes[i - 1], sampleSize,
+                    mTimeBudgetMs)) {
+                break;
+            }
+
+            final long stepStart = SystemClock.elapsedRealtime();
+            Bitmap bitmap;
+            try {
+                bitmap = QrUtils.decodeBitmapFromFile(mImgPath, sampleSize);
+            } catch (OutOfMemoryError e) {
+                // Too big to hold; the sizes already tried are all we can do.
+                break;
+            }
+            if (bitmap == null) {
+                break;
+            }
+            int width = bitmap.getWidth();
+            int height = bitmap.getHeight();
+            // Recycles the bitmap; the buffer is reused whenever it is big enough.
+            luminance = QrUtils.getLuminance(width, height, bitmap, luminance);
+            Resultview result = QrUtils.decodeImage(luminance, width, height);
+            if (result != null) {
+                return result;
+            }
+            lastStepMs = SystemClock.elapsedRealtime() - stepStart;
+        }
+        return null;
+    }
+
+    /**
+     * @return the sample sizes to decode an image of this size at, largest first. A size the image is too small to
+     * differ at is left out, since it would decode the same bitmap again.
+     */
+    static int[] sampleSizes(int width, int height) {
+        int[] sizes = new int[PICTURE_PIXEL_STEPS.length];
+        int count = 0;
+        for (int maxPixel : PICTURE_PIXEL_STEPS) {
+            int sampleSize = maxPixel > 0 ? QrUtils.calculateInSampleSize(width, height, maxPixel, maxPixel) : 1;
+            if (count == 0 || sampleSize != sizes[count - 1]) {
+                sizes[count++] = sampleSize;
+            }
+        }
+        return Arrays.copyOf(sizes, count);
+    }
+
+    /**
+     * @param elapsedMs      time spent on the sizes tried so far
+     * @param lastStepMs     time the last of them took
+     * @param lastSampleSize the sample size it was decoded at
+     * @param sampleSize     the sample size to try next
+     * @param budgetMs       how long all sizes together may take
+     * @return whether the next size, judging by the last one, would be done within the budget
+     */
+    static boolean fitsBudget(long elapsedMs, long lastStepMs, int lastSampleSize, int sampleSize, long budgetMs) {
+        // Each halving of the sample size makes four times as many pixels, and takes about four times as long.
+        long ratio = (long) (lastSampleSize / sampleSize) * (lastSampleSize / sampleSize);
+        return elapsedMs + lastStepMs * ratio <= budgetMs;
+    }
 }
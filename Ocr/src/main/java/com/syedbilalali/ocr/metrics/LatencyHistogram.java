@@ -0,0 +1,122 @@
+package com.syedbilalali.ocr.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts durations into a fixed set of buckets. Recording is lock-free and allocation-free, so it can be done from
+ * the camera and decode threads on every frame.
+ */
+public final class LatencyHistogram {
+
+    /**
+     * Upper bounds of the buckets in milliseconds, inclusive. One more bucket counts everything slower than the last.
+     */
+    public static final long[] BUCKET_BOUNDS_MS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000, 10000};
+
+    private static final long[] BUCKET_BOUNDS_NANOS = new long[BUCKET_BOUNDS_MS.length];
+
+    static {
+        for (int i = 0; i < BUCKET_BOUNDS_MS.length; i++) {
+            BUCKET_BOUNDS_NANOS[i] = TimeUnit.MILLISECONDS.toNanos(BUCKET_BOUNDS_MS[i]);
+        }
+    }
+
+    private final AtomicLongArray mCounts = new AtomicLongArray(BUCKET_BOUNDS_MS.length + 1);
+    private final AtomicLong mSumNanos = new AtomicLong();
+    private final AtomicLong mMaxNanos = new AtomicLong();
+
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        int bucket = 0;
+        while (bucket < BUCKET_BOUNDS_NANOS.length && nanos > BUCKET_BOUNDS_NANOS[bucket]) {
+            bucket++;
+        }
+        mCounts.incrementAndGet(bucket);
+        mSumNanos.addAndGet(nanos);
+        long max;
+        while (nanos > (max = mMaxNanos.get()) && !mMaxNanos.compareAndSet(max, nanos)) {
+            // another thread raised the max first; try again against its value
+        }
+    }
+
+    /**
+     * @return the counts so far. Buckets are read one at a time, so a snapshot taken while durations are being
+     * recorded may include part of them.
+     */
+    public Snapshot snapshot() {
+        long[] counts = new long[mCounts.length()];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = mCounts.get(i);
+        }
+        return new Snapshot(counts, mSumNanos.get(), mMaxNanos.get());
+    }
+
+    void reset() {
+        for (int i = 0; i < mCounts.length(); i++) {
+            mCounts.set(i, 0);
+        }
+        mSumNanos.set(0);
+        mMaxNanos.set(0);
+    }
+
+    public static final class Snapshot {
+        private final long[] mCounts;
+        private final long mCount;
+        private final long mSumNanos;
+        private final long mMaxNanos;
+
+        Snapshot(long[] counts, long sumNanos, long maxNanos) {
+            this.mCounts = counts;
+            long count = 0;
+            for (long c : counts) {
+                count += c;
+            }
+            this.mCount = count;
+            this.mSumNanos = sumNanos;
+            this.mMaxNanos = maxNanos;
+        }
+
+        public long getCount() {
+            return mCount;
+        }
+
+        /**
+         * @return the count of each bucket, bounded by {@link #BUCKET_BOUNDS_MS}, plus one for everything slower.
+         */
+        public long[] getBucketCounts() {
+            return mCounts.clone();
+        }
+
+        public double getMeanMillis() {
+            return mCount == 0 ? 0 : mSumNanos / 1e6 / mCount;
+        }
+
+        public double getMaxMillis() {
+            return mMaxNanos / 1e6;
+        }
+
+        /**
+         * @param quantile between 0 and 1, e.g. 0.95
+         * @return the upper bound of the bucket the quantile falls in, or the maximum if that is the last bucket; 0
+         * if nothing was recorded
+         */
+        public double getQuantileMillis(double quantile) {
+            if (mCount == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(quantile * mCount));
+            long seen = 0;
+            for (int i = 0; i < BUCKET_BOUNDS_MS.length; i++) {
+                seen += mCounts[i];
+                if (seen >= rank) {
+                    return Math.min(BUCKET_BOUNDS_MS[i], getMaxMillis());
+                }
+            }
+            return getMaxMillis();
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package com.syedbilalali.ocr.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters and latency histograms for the scanner's frame pipeline, kept for the life of the process. The scanner
+ * records into them as frames flow from the camera to the decoders; the host app pulls a {@link Snapshot} whenever
+ * it wants to export them, e.g. to compare preview sizes and decode worker counts across device models.
+ *
+ * Everything is lock-free, so recording never blocks the camera or decode threads.
+ */
+public final class ScannerMetrics {
+
+    public enum Mode {
+        /** Barcode and QR code decoding with zxing. */
+        QR,
+        /** Text recognition with Tesseract. */
+        OCR
+    }
+
+    private static final ScannerMetrics sScannerMetrics = new ScannerMetrics();
+    private static final long NO_SESSION = Long.MIN_VALUE;
+
+    private final AtomicLong mFramesReceived = new AtomicLong();
+    private final AtomicLong mFramesDropped = new AtomicLong();
+    private final LatencyHistogram mPreviewToDecode = new LatencyHistogram();
+    private final LatencyHistogram[] mDecodeDurations = new LatencyHistogram[Mode.values().length];
+    private final AtomicLong[] mDecodeSuccesses = new AtomicLong[Mode.values().length];
+    private final AtomicLong mSessions = new AtomicLong();
+    private final AtomicLong mSessionsWithResult = new AtomicLong();
+    private final LatencyHistogram mTimeToFirstResult = new LatencyHistogram();
+    private final AtomicLong mSessionStartNanos = new AtomicLong(NO_SESSION);
+    private final LatencyHistogram mOcrEngineInit = new LatencyHistogram();
+    private final LatencyHistogram mOcrRecognition = new LatencyHistogram();
+
+    private ScannerMetrics() {
+        for (int i = 0; i < mDecodeDurations.length; i++) {
+            mDecodeDurations[i] = new LatencyHistogram();
+            mDecodeSuccesses[i] = new AtomicLong();
+        }
+    }
+
+    public static ScannerMetrics get() {
+        return sScannerMetrics;
+    }
+
+    /**
+     * A preview frame reached the capture handler.
+     */
+    public void frameReceived() {
+        mFramesReceived.incrementAndGet();
+    }
+
+    /**
+     * A received preview frame was thrown away without being decoded: replaced by a newer one while every worker
+     * was busy, stale by the time a worker got to it, or received while the scanner was not scanning.
+     */
+    public void frameDropped() {
+        mFramesDropped.incrementAndGet();
+    }
+
+    /**
+     * A worker started decoding a frame.
+     *
+     * @param delayNanos time since the frame's preview callback
+     */
+    public void decodeStarted(long delayNanos) {
+        mPreviewToDecode.record(delayNanos);
+    }
+
+    public void decodeFinished(Mode mode, long durationNanos, boolean success) {
+        mDecodeDurations[mode.ordinal()].record(durationNanos);
+        if (success) {
+            mDecodeSuccesses[mode.ordinal()].incrementAndGet();
+        }
+    }
+
+    /**
+     * The scanner started looking for a result. A session that ends without one is simply replaced by the next.
+     */
+    public void sessionStarted() {
+        mSessions.incrementAndGet();
+        mSessionStartNanos.set(System.nanoTime());
+    }
+
+    /**
+     * The scanner delivered a result; only the first one of a session is timed.
+     */
+    public void resultDelivered() {
+        long start = mSessionStartNanos.getAndSet(NO_SESSION);
+        if (start != NO_SESSION) {
+            mSessionsWithResult.incrementAndGet();
+            mTimeToFirstResult.record(System.nanoTime() - start);
+        }
+    }
+
+    public void ocrEngineInitialized(long durationNanos) {
+        mOcrEngineInit.record(durationNanos);
+    }
+
+    public void ocrRecognized(long durationNanos) {
+        mOcrRecognition.record(durationNanos);
+    }
+
+    public Snapshot snapshot() {
+        LatencyHistogram.Snapshot[] decodeDurations = new LatencyHistogram.Snapshot[mDecodeDurations.length];
+        long[] decodeSuccesses = new long[mDecodeSuccesses.length];
+        for (int i = 0; i < decodeDurations.length; i++) {
+            decodeDurations[i] = mDecodeDurations[i].snapshot();
+            decodeSuccesses[i] = mDecodeSuccesses[i].get();
+        }
+        return new Snapshot(mFramesReceived.get(), mFramesDropped.get(), mPreviewToDecode.snapshot(),
+                decodeDurations, decodeSuccesses, mSessions.get(), mSessionsWithResult.get(),
+                mTimeToFirstResult.snapshot(), mOcrEngineInit.snapshot(), mOcrRecognition.snapshot());
+    }
+
+    /**
+     * Zeroes everything, e.g. after an export so the next snapshot covers only what happened since. Recording that
+     * races with a reset may be partly lost.
+     */
+    public void reset() {
+        mFramesReceived.set(0);
+        mFramesDropped.set(0);
+        mPreviewToDecode.reset();
+        for (int i = 0; i < mDecodeDurations.length; i++) {
+            mDecodeDurations[i].reset();
+            mDecodeSuccesses[i].set(0);
+        }
+        mSessions.set(0);
+        mSessionsWithResult.set(0);
+        mTimeToFirstResult.reset();
+        mOcrEngineInit.reset();
+        mOcrRecognition.reset();
+    }
+
+    /**
+     * The metrics at one point in time.
+     */
+    public static final class Snapshot {
+        private final long mFramesReceived;
+        private final long mFramesDropped;
+        private final LatencyHistogram.Snapshot mPreviewToDecode;
+        private final LatencyHistogram.Snapshot[] mDecodeDurations;
+        private final long[] mDecodeSuccesses;
+        private final long mSessions;
+        private final long mSessionsWithResult;
+        private final LatencyHistogram.Snapshot mTimeToFirstResult;
+        private final LatencyHistogram.Snapshot mOcrEngineInit;
+        private final LatencyHistogram.Snapshot mOcrRecognition;
+
+        Snapshot(long framesReceived, long framesDropped, LatencyHistogram.Snapshot previewToDecode,
+                 LatencyHistogram.Snapshot[] decodeDurations, long[] decodeSuccesses, long sessions,
+                 long sessionsWithResult, LatencyHistogram.Snapshot timeToFirstResult,
+                 LatencyHistogram.Snapshot ocrEngineInit, LatencyHistogram.Snapshot ocrRecognition) {
+            this.mFramesReceived = framesReceived;
+            this.mFramesDropped = framesDropped;
+            this.mPreviewToDecode = previewToDecode;
+            this.mDecodeDurations = decodeDurations;
+            this.mDecodeSuccesses = decodeSuccesses;
+            this.mSessions = sessions;
+            this.mSessionsWithResult = sessionsWithResult;
+            this.mTimeToFirstResult = timeToFirstResult;
+            this.mOcrEngineInit = ocrEngineInit;
+            this.mOcrRecognition = ocrRecognition;
+        }
+
+        public long getFramesReceived() {
+            return mFramesReceived;
+        }
+
+        public long getFramesDropped() {
+            return mFramesDropped;
+        }
+
+        /**
+         * @return time from each decoded frame's preview callback to a worker starting on it
+         */
+        public LatencyHistogram.Snapshot getPreviewToDecode() {
+            return mPreviewToDecode;
+        }
+
+        public LatencyHistogram.Snapshot getDecodeDuration(Mode mode) {
+            return mDecodeDurations[mode.ordinal()];
+        }
+
+        public long getDecodes(Mode mode) {
+            return mDecodeDurations[mode.ordinal()].getCount();
+        }
+
+        public long getDecodeSuccesses(Mode mode) {
+            return mDecodeSuccesses[mode.ordinal()];
+        }
+
+        /**
+         * @return the fraction of decodes in the mode that found a result, or 0 if there were none
+         */
+        public double getSuccessRate(Mode mode) {
+            long decodes = getDecodes(mode);
+            return decodes == 0 ? 0 : (double) getDecodeSuccesses(mode) / decodes;
+        }
+
+        public long getSessions() {
+            return mSessions;
+        }
+
+        public long getSessionsWithResult() {
+            return mSessionsWithResult;
+        }
+
+        public LatencyHistogram.Snapshot getTimeToFirstResult() {
+            return mTimeToFirstResult;
+        }
+
+        public LatencyHistogram.Snapshot getOcrEngineInit() {
+            return mOcrEngineInit;
+        }
+
+        public LatencyHistogram.Snapshot getOcrRecognition() {
+            return mOcrRecognition;
+        }
+
+        /**
+         * @return every metric as a flat name to value map, in a stable order, for exporting to a logging or
+         * analytics backend. Histograms appear as their count, mean, 50th, 95th and 99th percentiles and max.
+         */
+        public Map<String, Number> toMap() {
+            Map<String, Number> map = new LinkedHashMap<>();
+            map.put("frames.received", mFramesReceived);
+            map.put("frames.dropped", mFramesDropped);
+            putHistogram(map, "frames.previewToDecodeMs", mPreviewToDecode);
+            for (Mode mode : Mode.values()) {
+                String prefix = "decode." + mode.name().toLowerCase(Locale.ROOT);
+                map.put(prefix + ".successes", getDecodeSuccesses(mode));
+                map.put(prefix + ".successRate", getSuccessRate(mode));
+                putHistogram(map, prefix + ".durationMs", getDecodeDuration(mode));
+            }
+            map.put("sessions.started", mSessions);
+            map.put("sessions.withResult", mSessionsWithResult);
+            putHistogram(map, "sessions.timeToFirstResultMs", mTimeToFirstResult);
+            putHistogram(map, "ocr.engineInitMs", mOcrEngineInit);
+            putHistogram(map, "ocr.recognitionMs", mOcrRecognition);
+            return map;
+        }
+
+        private static void putHistogram(Map<String, Number> map, String name, LatencyHistogram.Snapshot histogram) {
+            map.put(name + ".count", histogram.getCount());
+            map.put(name + ".mean", histogram.getMeanMillis());
+            map.put(name + ".p50", histogram.getQuantileMillis(0.5));
+            map.put(name + ".p95", histogram.getQuantileMillis(0.95));
+            map.put(name + ".p99", histogram.getQuantileMillis(0.99));
+            map.put(name + ".max", histogram.getMaxMillis());
+        }
+
+        @Override
+        public String toString() {
+            return toMap().toString();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.syedbilalali.ocr.tess;
+
+import android.graphics.Bitmap;
+
+/**
+ * Recognizes text in images. An engine is expensive to create and holds native memory until it is released, so it is
+ * created once and used for many images. It is not thread-safe: it must only ever be used by one thread at a time,
+ * which {@link OcrEnginePool} takes care of.
+ */
+public interface OcrEngine {
+
+    /**
+     * @return the recognized text, possibly empty. The engine is left ready for the next image.
+     */
+    String recognize(Bitmap bitmap);
+
+    /**
+     * Asks a {@link #recognize} in progress on another thread to give up as soon as it can. May be called from any
+     * thread, and does nothing if the engine is idle.
+     */
+    void stop();
+
+    /**
+     * Frees the engine. It must not be used afterwards.
+     */
+    void release();
+
+    /**
+     * Creates engines; creation may be slow, as it loads the language data.
+     */
+    interface Factory {
+        OcrEngine create();
+    }
+}
@@ -0,0 +1,348 @@
+package com.syedbilalali.ocr.tess;
+
+import android.graphics.Bitmap;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Recognizes images on a fixed number of worker threads, each confined to an {@link OcrEngine} of its own that it
+ * creates as soon as it starts and keeps for every image after. An engine that fails on an image is released and
+ * replaced before the worker's next image, so a broken engine is never reused.
+ *
+ * Images wait in a bounded queue; once it is full, {@link #submit} refuses more rather than letting work pile up
+ * faster than the engines clear it. Every image has two timeouts: one still queued when the first, counted from
+ * submission, runs out is skipped, and one whose recognition takes longer than the second, counted from when an engine
+ * starts on it, is stopped.
+ */
+public final class OcrEnginePool {
+
+    /**
+     * Told the outcome of one image, on a worker or timeout thread.
+     */
+    public interface Callback {
+        void onResult(String text);
+
+        /**
+         * @param e a {@link TimeoutException} if the image timed out, {@link RejectedExecutionException} if the pool
+         *          was full or shut down, or whatever the engine threw
+         */
+        void onFailure(Exception e);
+    }
+
+    private final OcrEngine.Factory mFactory;
+    private final ThreadPoolExecutor mExecutor;
+    private final ScheduledExecutorService mTimeouts;
+
+    /**
+     * @param engines       How many engines, and so images, to run at once.
+     * @param queueCapacity How many images may wait for an engine.
+     */
+    public OcrEnginePool(OcrEngine.Factory factory, int engines, int queueCapacity) {
+        if (engines < 1) {
+            throw new IllegalArgumentException("engines must be at least 1: " + engines);
+        }
+        this.mFactory = factory;
+        mExecutor = new ThreadPoolExecutor(engines, engines, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<Runnable>(queueCapacity), new ThreadFactory() {
+            private int mCount;
+
+            @Override
+            public synchronized Thread newThread(Runnable r) {
+                return new EngineThread(r, "OcrEngine-" + mCount++);
+            }
+        });
+        ScheduledThreadPoolExecutor timeouts = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "OcrEngine-timeouts");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        // Nearly every timeout is cancelled, most of them long before they are due
+        timeouts.setRemoveOnCancelPolicy(true);
+        mTimeouts = timeouts;
+        // Load every engine's language data now, rather than on the first images
+        mExecutor.prestartAllCoreThreads();
+    }
+
+    /**
+     * Queues an image for recognition, with the same timeout for waiting in the queue and for recognition.
+     *
+     * @see #submit(Bitmap, long, long, TimeUnit, Callback)
+     */
+    public Future<String> submit(Bitmap bitmap, long timeout, TimeUnit unit, Callback callback) {
+        return submit(bitmap, timeout, timeout, unit, callback);
+    }
+
+    /**
+     * Queues an image for recognition.
+     *
+     * @param queueTimeout how long the image may wait for an engine before it is skipped
+     * @param runTimeout   how long recognition may take, from when an engine starts on the image, before it is stopped
+     * @param callback     told the outcome, or null to only use the returned future
+     * @return the recognized text; cancelled if the image times out
+     * @throws RejectedExecutionException if the queue is full or the pool is shut down; the callback is not told
+     */
+    public Future<String> submit(Bitmap bitmap, long queueTimeout, long runTimeout, TimeUnit unit,
+                                 Callback callback) {
+        final Job job = new Job(new Recognition(bitmap, System.nanoTime() + unit.toNanos(queueTimeout)), callback,
+                mTimeouts, unit.toNanos(runTimeout));
+        job.mTimeout = mTimeouts.schedule(job.mTimeOut, queueTimeout, unit);
+        try {
+            mExecutor.execute(job);
+        } catch (RejectedExecutionException e) {
+            job.mTimeout.cancel(false);
+            throw e;
+        }
+        return job;
+    }
+
+    /**
+     * Recognizes an image, waiting for it on the calling thread, with the same timeout for waiting in the queue and
+     * for recognition.
+     *
+     * @see #recognize(Bitmap, long, long, TimeUnit)
+     */
+    public String recognize(Bitmap bitmap, long timeout, TimeUnit unit)
+            throws InterruptedException, TimeoutException {
+        return recognize(bitmap, timeout, timeout, unit);
+    }
+
+    /**
+     * Recognizes an image, waiting for it on the calling thread.
+     *
+     * @param queueTimeout how long the image may wait for an engine before it is skipped
+     * @param runTimeout   how long recognition may take, from when an engine starts on the image, before it is stopped
+     * @throws RejectedExecutionException if the queue is full or the pool is shut down
+     * @throws TimeoutException if the image timed out
+     * @throws InterruptedException if interrupted while waiting; the image is then cancelled, and its engine stopped if
+     *                              it has started on it
+     * @throws RuntimeException whatever the engine threw
+     */
+    public String recognize(Bitmap bitmap, long queueTimeout, long runTimeout, TimeUnit unit)
+            throws InterruptedException, TimeoutException {
+        Future<String> future = submit(bitmap, queueTimeout, runTimeout, unit, null);
+        try {
+            return future.get();
+        } catch (CancellationException e) {
+            throw new TimeoutException("OCR timed out");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof TimeoutException) {
+                throw (TimeoutException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            throw e;
+        }
+    }
+
+    /**
+     * Cancels the queued images and releases every engine as soon as its current image is done or stopped.
+     */
+    public void shutdown() {
+        for (Runnable queued : mExecutor.shutdownNow()) {
+            ((Job) queued).cancel(false);
+        }
+        mTimeouts.shutdownNow();
+    }
+
+    /**
+     * A worker thread and its engine. The engine is only touched by this thread, apart from {@link OcrEngine#stop()}.
+     */
+    private final class EngineThread extends Thread {
+        private volatile OcrEngine mEngine;
+
+        EngineThread(Runnable worker, String name) {
+            super(worker, name);
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            try {
+                engine();
+            } catch (RuntimeException e) {
+                // Tried again on the first image
+            }
+            try {
+                super.run();
+            } finally {
+                releaseEngine();
+            }
+        }
+
+        OcrEngine engine() {
+            if (mEngine == null) {
+                mEngine = mFactory.create();
+            }
+            return mEngine;
+        }
+
+        void releaseEngine() {
+            OcrEngine engine = mEngine;
+            if (engine != null) {
+                mEngine = null;
+                engine.release();
+            }
+        }
+    }
+
+    private static final class Recognition implements Callable<String> {
+        private final Bitmap mBitmap;
+        private final long mQueueDeadline;
+        // The job running this recognition, set once it is created.
+        Job mJob;
+        // The engine recognizing the image, while it does. Guarded by this, so that a timeout can only stop the
+        // engine while it is on this image: not once it has moved on to the next, nor while or after it is released.
+        private OcrEngine mEngine;
+
+        Recognition(Bitmap bitmap, long queueDeadline) {
+            this.mBitmap = bitmap;
+            this.mQueueDeadline = queueDeadline;
+        }
+
+        @Override
+        public String call() throws TimeoutException {
+            if (System.nanoTime() - mQueueDeadline >= 0) {
+                throw new TimeoutException("OCR timed out while queued");
+            }
+            EngineThread thread = (EngineThread) Thread.currentThread();
+            OcrEngine engine = thread.engine();
+            mJob.started();
+            setEngine(engine);
+            if (mJob.isCancelled()) {
+                // Timed out or cancelled after it left the queue but before the engine was attached, so stop() could
+                // not reach the engine; the image is not worth recognizing now.
+                setEngine(null);
+                throw new CancellationException("OCR cancelled before recognition");
+            }
+            try {
+                return engine.recognize(mBitmap);
+            } catch (RuntimeException e) {
+                // Detached before it is released, so a timeout racing with the failure cannot stop a freed engine
+                setEngine(null);
+                thread.releaseEngine();
+                throw e;
+            } finally {
+                setEngine(null);
+            }
+        }
+
+        private synchronized void setEngine(OcrEngine engine) {
+            mEngine = engine;
+        }
+
+        /**
+         * Stops the engine if it is still recognizing this image.
+         */
+        synchronized void stop() {
+            if (mEngine != null) {
+                mEngine.stop();
+            }
+        }
+    }
+
+    private static final class Job extends FutureTask<String> {
+        private final Recognition mRecognition;
+        private final Callback mCallback;
+        private final ScheduledExecutorService mTimeouts;
+        private final long mRunTimeoutNanos;
+        private volatile boolean mTimedOut;
+        // The queue timeout until an engine starts on the image, then the recognition timeout.
+        volatile ScheduledFuture<?> mTimeout;
+        final Runnable mTimeOut = new Runnable() {
+            @Override
+            public void run() {
+                timeOut();
+            }
+        };
+
+        Job(Recognition recognition, Callback callback, ScheduledExecutorService timeouts, long runTimeoutNanos) {
+            super(recognition);
+            this.mRecognition = recognition;
+            this.mCallback = callback;
+            this.mTimeouts = timeouts;
+            this.mRunTimeoutNanos = runTimeoutNanos;
+            recognition.mJob = this;
+        }
+
+        /**
+         * An engine is about to start on the image: the time it spent queued no longer counts.
+         */
+        void started() {
+            ScheduledFuture<?> queueTimeout = mTimeout;
+            if (queueTimeout != null) {
+                queueTimeout.cancel(false);
+            }
+            try {
+                mTimeout = mTimeouts.schedule(mTimeOut, mRunTimeoutNanos, TimeUnit.NANOSECONDS);
+            } catch (RejectedExecutionException e) {
+                // The pool is shutting down; the image is not timed.
+            }
+        }
+
+        void timeOut() {
+            mTimedOut = true;
+            cancel(false);
+        }
+
+        /**
+         * Also stops the engine if it is recognizing the image: the engine does not check for interrupts, so
+         * interrupting its thread alone would leave it running to the end.
+         */
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            if (cancelled) {
+                mRecognition.stop();
+            }
+            return cancelled;
+        }
+
+        @Override
+        protected void done() {
+            ScheduledFuture<?> timeout = mTimeout;
+            if (timeout != null) {
+                timeout.cancel(false);
+            }
+            if (mCallback == null) {
+                return;
+            }
+            try {
+                mCallback.onResult(get());
+            } catch (CancellationException e) {
+                mCallback.onFailure(mTimedOut
+                        ? new TimeoutException("OCR timed out")
+                        : new RejectedExecutionException("OCR pool shut down"));
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                mCallback.onFailure(cause instanceof Exception ? (Exception) cause : new IllegalStateException(cause));
+            } catch (InterruptedException e) {
+                // Cannot happen, the job is done
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -37,9 +37,13 @@ public class TessDataManager {
         return initiated ? trainedDataPath : null;
     }
 
-    private static boolean initiated;
+    private static volatile boolean initiated;
 
-    public static void initTessTrainedData(Context context){
+    /**
+     * Copies the trained data out of the app's resources, once. Synchronized, since every engine of the pool calls it
+     * as it is created, and several are created at once.
+     */
+    public static synchronized void initTessTrainedData(Context context){
 
         if(initiated){
             return;
@@ -64,6 +68,9 @@ public class TessDataManager {
 
         if(!file.exists()) {
 
+            // Written under another name and renamed once complete, so the trained data file never exists half-written,
+            // even if the app is killed while writing it.
+            File tempFile = new File(subfolder, filename + ".tmp");
             try {
                 FileOutputStream fileOutputStream;
                 byte[] bytes = readRawTrainingData(context);
@@ -71,9 +78,15 @@ public class TessDataManager {
                     return;
                 }
                     
-                fileOutputStream = new FileOutputStream(file);
-                fileOutputStream.write(bytes);
-                fileOutputStream.close();
+                fileOutputStream = new FileOutputStream(tempFile);
+                try {
+                    fileOutputStream.write(bytes);
+                } finally {
+                    fileOutputStream.close();
+                }
+                if (!tempFile.renameTo(file)) {
+                    throw new IOException("Could not rename " + tempFile + " to " + file);
+                }
                 initiated = true;
                 Log.d(TAG, "Prepared training data file");
             } catch (FileNotFoundException e) {
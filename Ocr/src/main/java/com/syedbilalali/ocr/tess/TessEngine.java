@@ -3,47 +3,120 @@ package com.syedbilalali.ocr.tess;
 import android.graphics.Bitmap;
 import android.util.Log;
 
-import com.googlecode.tesseract.android.TessBaseAPI;
 import com.syedbilalali.ocr.MyApplication;
 import com.syedbilalali.ocr.utils.Tools;
 
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
 
 /**
  * Created by Fadi on 6/11/2014.
+ *
+ * A cheap handle onto the shared pool of Tesseract engines. The pool loads its engines the first time a handle is
+ * generated and keeps them for every later image, until {@link #release()}.
  */
 public class TessEngine {
 
     static final String TAG = "DBG_" + TessEngine.class.getName();
 
-    private TessEngine(){
+    /**
+     * Each engine holds tens of MB of native memory, so at most two, and fewer on small devices.
+     */
+    static final int ENGINE_COUNT =
+            Math.max(1, Math.min(2, Runtime.getRuntime().availableProcessors() / 2));
+    /** Preview frames are replaced by newer ones anyway, so only a couple may wait. */
+    static final int QUEUE_CAPACITY = 2;
+    /** A preview frame still waiting for an engine by then is stale. */
+    static final long FRAME_QUEUE_TIMEOUT_MS = 1000;
+    /** How long recognizing a preview frame may take, once an engine starts on it. */
+    static final long FRAME_TIMEOUT_MS = 2000;
+    /** A photo is worth waiting longer for. */
+    static final long PHOTO_TIMEOUT_MS = 10000;
+
+    private static OcrEnginePool sPool;
+
+    private final OcrEnginePool mPool;
+
+    private TessEngine(OcrEnginePool pool){
+        this.mPool = pool;
     }
 
     public static TessEngine Generate() {
-        return new TessEngine();
+        return new TessEngine(getPool());
+    }
+
+    private static synchronized OcrEnginePool getPool() {
+        if (sPool == null) {
+            sPool = new OcrEnginePool(new OcrEngine.Factory() {
+                @Override
+                public OcrEngine create() {
+                    return new TessOcrEngine(MyApplication.sAppContext);
+                }
+            }, ENGINE_COUNT, QUEUE_CAPACITY);
+        }
+        return sPool;
     }
 
+    /**
+     * Frees the engines' memory once their current images are done, and drops the queued ones. The next handle
+     * generated loads them again.
+     */
+    public static synchronized void release() {
+        if (sPool != null) {
+            sPool.shutdown();
+            sPool = null;
+        }
+    }
+
+    /**
+     * Recognizes a preview frame, waiting for the result.
+     *
+     * @return the phone numbers found in the bitmap, one per line, or an empty string if there are none, or the
+     * frame was refused because every engine is busy, timed out, or the calling thread was interrupted
+     */
     public String detectText(Bitmap bitmap) {
-        Log.d(TAG, "Initialization of TessBaseApi");
-        TessDataManager.initTessTrainedData(MyApplication.sAppContext);
-        TessBaseAPI tessBaseAPI = new TessBaseAPI();
-        String path = TessDataManager.getTesseractFolder();
-        Log.d(TAG, "Tess folder: " + path);
-        tessBaseAPI.setDebug(true);
-        tessBaseAPI.init(path, "eng");
-        // 白名单
-       // tessBaseAPI.setVariable(TessBaseAPI.VAR_CHAR_WHITELIST, "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789");
-        // 黑名单
-       /// tessBaseAPI.setVariable(TessBaseAPI.VAR_CHAR_BLACKLIST, "!@#$%^&*()_+=-[]}{;:'\"\\|~`,./<>?");
-        tessBaseAPI.setPageSegMode(TessBaseAPI.PageSegMode.PSM_AUTO_OSD);
-        Log.d(TAG, "Ended initialization of TessEngine");
         Log.d(TAG, "Running inspection on bitmap");
-        tessBaseAPI.setImage(bitmap);
-        String inspection = tessBaseAPI.getHOCRText(0);
-
-        Log.d(TAG, "Confidence values: " + tessBaseAPI.meanConfidence());
-        tessBaseAPI.end();
-        System.gc();
+        String inspection;
+        try {
+            inspection = mPool.recognize(bitmap, FRAME_QUEUE_TIMEOUT_MS, FRAME_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException | TimeoutException e) {
+            Log.d(TAG, "Skipped frame: " + e.getMessage());
+            return "";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "";
+        }
         return Tools.getTelNum(inspection);
     }
 
+    /**
+     * Recognizes a photo in the background. The callback is called on a pool thread, and told of failure if the
+     * photo could not be read, timed out, or was refused because the pool is full.
+     */
+    public void detectText(Bitmap bitmap, final TesseractCallback callback) {
+        if (bitmap == null) {
+            callback.fail();
+            return;
+        }
+        try {
+            mPool.submit(bitmap, PHOTO_TIMEOUT_MS, TimeUnit.MILLISECONDS, new OcrEnginePool.Callback() {
+                @Override
+                public void onResult(String text) {
+                    callback.succeed(Tools.getTelNum(text));
+                }
+
+                @Override
+                public void onFailure(Exception e) {
+                    Log.w(TAG, "Could not read photo", e);
+                    callback.fail();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            Log.w(TAG, "Could not read photo", e);
+            callback.fail();
+        }
+    }
+
 }
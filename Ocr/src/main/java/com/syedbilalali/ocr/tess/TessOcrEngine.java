@@ -0,0 +1,63 @@
+package com.syedbilalali.ocr.tess;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.util.Log;
+
+import com.googlecode.tesseract.android.TessBaseAPI;
+import com.syedbilalali.ocr.metrics.ScannerMetrics;
+
+/**
+ * An {@link OcrEngine} on one {@link TessBaseAPI}, with the English language data loaded once at creation.
+ */
+public class TessOcrEngine implements OcrEngine {
+
+    static final String TAG = "DBG_" + TessOcrEngine.class.getName();
+
+    private final TessBaseAPI mTessBaseAPI;
+
+    public TessOcrEngine(Context context) {
+        Log.d(TAG, "Initialization of TessBaseApi");
+        long start = System.nanoTime();
+        TessDataManager.initTessTrainedData(context);
+        String path = TessDataManager.getTesseractFolder();
+        Log.d(TAG, "Tess folder: " + path);
+        mTessBaseAPI = new TessBaseAPI();
+        if (!mTessBaseAPI.init(path, "eng")) {
+            mTessBaseAPI.end();
+            throw new IllegalStateException("Could not initialize Tesseract from " + path);
+        }
+        // 白名单
+        // mTessBaseAPI.setVariable(TessBaseAPI.VAR_CHAR_WHITELIST, "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789");
+        // 黑名单
+        // mTessBaseAPI.setVariable(TessBaseAPI.VAR_CHAR_BLACKLIST, "!@#$%^&*()_+=-[]}{;:'\"\\|~`,./<>?");
+        mTessBaseAPI.setPageSegMode(TessBaseAPI.PageSegMode.PSM_AUTO_OSD);
+        ScannerMetrics.get().ocrEngineInitialized(System.nanoTime() - start);
+        Log.d(TAG, "Ended initialization of TessEngine");
+    }
+
+    @Override
+    public String recognize(Bitmap bitmap) {
+        long start = System.nanoTime();
+        try {
+            mTessBaseAPI.setImage(bitmap);
+            String inspection = mTessBaseAPI.getHOCRText(0);
+            Log.d(TAG, "Confidence values: " + mTessBaseAPI.meanConfidence());
+            return inspection;
+        } finally {
+            // Drops the image and its results, but keeps the language data for the next image
+            mTessBaseAPI.clear();
+            ScannerMetrics.get().ocrRecognized(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public void stop() {
+        mTessBaseAPI.stop();
+    }
+
+    @Override
+    public void release() {
+        mTessBaseAPI.end();
+    }
+}
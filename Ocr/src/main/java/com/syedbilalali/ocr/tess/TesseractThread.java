@@ -5,7 +5,11 @@ import android.graphics.Bitmap;
 /**
  *
  * 解析拍照数字线程
+ *
+ * @deprecated Use {@link TessEngine#detectText(Bitmap, TesseractCallback)}, which queues the photo on the shared
+ * engine pool instead of needing a thread of its own.
  */
+@Deprecated
 public class TesseractThread implements Runnable {
 
     private Bitmap mBitmap;
@@ -20,14 +20,59 @@ import com.google.zxing.common.GlobalHistogramBinarizerView;
 import com.google.zxing.qrcode.QRCodeReaderview;
 import com.google.zxing.qrcode.QRCodeReaderview;
 
-import java.util.Arrays;
 import java.util.Hashtable;
 
 /**
  * 二维码相关功能类
  */
 public class QrUtils {
-    private static byte[] yuvs;
+    /**
+     * Rows of ARGB pixels read from the bitmap at a time by {@link #getLuminance}.
+     */
+    private static final int LUMINANCE_CHUNK_ROWS = 16;
+
+    /**
+     * Reads only the luminance of a bitmap, as the Y plane of the YUV420sp data {@link #getYUV420sp} would give. That
+     * is all {@link #decodeImage} reads; the chroma is not computed. Pixels are read a few rows at a time, so neither a
+     * copy of the whole bitmap nor a full YUV buffer is allocated.
+     *
+     * @param width  width of the bitmap
+     * @param height height of the bitmap
+     * @param scaled the bitmap, which is recycled
+     * @param reuse  a buffer to fill if it holds at least width * height bytes, or null. Buffers are never shared
+     *               between calls, so callers decoding at the same time each pass their own.
+     * @return width * height luminance values, row by row; reuse if it was big enough
+     */
+    public static byte[] getLuminance(int width, int height, Bitmap scaled, byte[] reuse) {
+        final int frameSize = width * height;
+        byte[] luminance = reuse != null && reuse.length >= frameSize ? reuse : new byte[frameSize];
+
+        int chunkRows = Math.min(LUMINANCE_CHUNK_ROWS, height);
+        int[] argb = new int[width * chunkRows];
+        for (int top = 0; top < height; top += chunkRows) {
+            int rows = Math.min(chunkRows, height - top);
+            scaled.getPixels(argb, 0, width, 0, top, width, rows);
+            toLuminance(argb, width * rows, luminance, top * width);
+        }
+
+        scaled.recycle();
+
+        return luminance;
+    }
+
+    /**
+     * Converts count ARGB pixels to luminance, written to luminance from offset on.
+     */
+    static void toLuminance(int[] argb, int count, byte[] luminance, int offset) {
+        for (int i = 0; i < count; i++) {
+            int pixel = argb[i];
+            // Same fixed-point weights as encodeYUV420SP; the result is always within 16..235, so needs no clamp.
+            luminance[offset++] = (byte) (((66 * ((pixel >> 16) & 0xff)
+                    + 129 * ((pixel >> 8) & 0xff)
+                    + 25 * (pixel & 0xff)
+                    + 128) >> 8) + 16);
+        }
+    }
 
     /**
      * YUV420sp
@@ -36,7 +81,9 @@ public class QrUtils {
      * @param inputHeight
      * @param scaled
      * @return
+     * @deprecated decoding only reads the Y plane; use {@link #getLuminance}, which skips the chroma.
      */
+    @Deprecated
     public static byte[] getYUV420sp(int inputWidth, int inputHeight, Bitmap scaled) {
         int[] argb = new int[inputWidth * inputHeight];
 
@@ -48,12 +95,8 @@ public class QrUtils {
         int requiredWidth = inputWidth % 2 == 0 ? inputWidth : inputWidth + 1;
         int requiredHeight = inputHeight % 2 == 0 ? inputHeight : inputHeight + 1;
 
-        int byteLength = requiredWidth * requiredHeight * 3 / 2;
-        if (yuvs == null || yuvs.length < byteLength) {
-            yuvs = new byte[byteLength];
-        } else {
-            Arrays.fill(yuvs, (byte) 0);
-        }
+        // Allocated per call: a shared buffer would be overwritten by a second decode running at the same time.
+        byte[] yuvs = new byte[requiredWidth * requiredHeight * 3 / 2];
 
         encodeYUV420SP(yuvs, argb, inputWidth, inputHeight);
 
@@ -70,7 +113,7 @@ public class QrUtils {
      * @param width
      * @param height
      */
-    private static void encodeYUV420SP(byte[] yuv420sp, int[] argb, int width, int height) {
+    static void encodeYUV420SP(byte[] yuv420sp, int[] argb, int width, int height) {
         // 帧图片的像素大小
         final int frameSize = width * height;
         // ---YUV数据---
@@ -127,8 +170,14 @@ public class QrUtils {
 
     public static int calculateInSampleSize(BitmapFactory.Options options, int reqWidth, int reqHeight) {
         // Raw height and width of image
-        final int height = options.outHeight;
-        final int width = options.outWidth;
+        return calculateInSampleSize(options.outWidth, options.outHeight, reqWidth, reqHeight);
+    }
+
+    /**
+     * @return the largest power of 2 to sample an image of width by height at that keeps it larger than reqWidth by
+     * reqHeight
+     */
+    public static int calculateInSampleSize(int width, int height, int reqWidth, int reqHeight) {
         int inSampleSize = 1;
 
         if (height > reqHeight || width > reqWidth) {
@@ -147,17 +196,33 @@ public class QrUtils {
     }
 
     public static Bitmap decodeSampledBitmapFromFile(String imgPath, int reqWidth, int reqHeight) {
-
         // First decode with inJustDecodeBounds=true to check dimensions
+        final BitmapFactory.Options bounds = decodeBitmapBounds(imgPath);
+
+        // Decode bitmap with inSampleSize set
+        return decodeBitmapFromFile(imgPath, calculateInSampleSize(bounds, reqWidth, reqHeight));
+    }
+
+    /**
+     * Reads only the dimensions of an image file.
+     *
+     * @return options whose outWidth and outHeight are the size of the image, or -1 if it could not be read
+     */
+    public static BitmapFactory.Options decodeBitmapBounds(String imgPath) {
         final BitmapFactory.Options options = new BitmapFactory.Options();
         options.inJustDecodeBounds = true;
         BitmapFactory.decodeFile(imgPath, options);
+        return options;
+    }
 
-        // Calculate inSampleSize
-        options.inSampleSize = calculateInSampleSize(options, reqWidth, reqHeight);
-
-        // Decode bitmap with inSampleSize set
-        options.inJustDecodeBounds = false;
+    /**
+     * Decodes an image file, keeping one pixel in every inSampleSize in each direction.
+     *
+     * @return the bitmap, or null if the file could not be decoded
+     */
+    public static Bitmap decodeBitmapFromFile(String imgPath, int inSampleSize) {
+        final BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = inSampleSize;
         return BitmapFactory.decodeFile(imgPath, options);
     }
 
@@ -0,0 +1,64 @@
+package com.syedbilalali.ocr.utils;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.BitmapRegionDecoder;
+import android.graphics.Rect;
+
+import com.google.zxing.TiledLuminanceSourceview;
+
+import java.io.IOException;
+
+/**
+ * Reads the tiles of a {@link TiledLuminanceSourceview} straight from an image file, decoding only the region of each
+ * tile. Used for scans too large to decode into one bitmap.
+ *
+ * {@link #recycle()} once every source reading from it is done with.
+ */
+public class RegionTileReader implements TiledLuminanceSourceview.TileReader {
+    private final BitmapRegionDecoder mDecoder;
+    private final Rect mRect = new Rect();
+    private final BitmapFactory.Options mOptions = new BitmapFactory.Options();
+    private int[] mArgb;
+
+    /**
+     * @throws IOException if the file is missing or not a JPEG or PNG image
+     */
+    public RegionTileReader(String imgPath) throws IOException {
+        mDecoder = BitmapRegionDecoder.newInstance(imgPath, false);
+        mOptions.inPreferredConfig = Bitmap.Config.ARGB_8888;
+    }
+
+    @Override
+    public int getWidth() {
+        return mDecoder.getWidth();
+    }
+
+    @Override
+    public int getHeight() {
+        return mDecoder.getHeight();
+    }
+
+    @Override
+    public void readTile(int left, int top, int width, int height, byte[] luminances) {
+        mRect.set(left, top, left + width, top + height);
+        Bitmap tile = mDecoder.decodeRegion(mRect, mOptions);
+        if (tile == null) {
+            throw new IllegalStateException("Could not decode region " + mRect);
+        }
+        int size = width * height;
+        if (mArgb == null || mArgb.length < size) {
+            mArgb = new int[size];
+        }
+        tile.getPixels(mArgb, 0, width, 0, 0, width, height);
+        tile.recycle();
+        QrUtils.toLuminance(mArgb, size, luminances, 0);
+    }
+
+    /**
+     * Frees the decoder. The tiles already read stay readable.
+     */
+    public void recycle() {
+        mDecoder.recycle();
+    }
+}
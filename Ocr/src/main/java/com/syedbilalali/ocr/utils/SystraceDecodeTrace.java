@@ -0,0 +1,43 @@
+package com.syedbilalali.ocr.utils;
+
+import android.os.Trace;
+
+import com.google.zxing.BarcodeFormatview;
+import com.google.zxing.DecodeTraceview;
+
+/**
+ * Shows every {@link DecodeTraceview} stage as a trace section, so decoding can be seen in systrace and Perfetto
+ * captures next to the camera and UI threads. Off by default; a host app turns it on with {@link #install()}.
+ */
+public class SystraceDecodeTrace implements DecodeTraceview.Listener, DecodeTraceview.Span {
+    private static final String[] SECTION_NAMES = new String[DecodeTraceview.Stage.values().length];
+
+    static {
+        for (DecodeTraceview.Stage stage : DecodeTraceview.Stage.values()) {
+            SECTION_NAMES[stage.ordinal()] = "zxing:" + stage.name();
+        }
+    }
+
+    private SystraceDecodeTrace() {
+    }
+
+    public static void install() {
+        DecodeTraceview.setListener(new SystraceDecodeTrace());
+    }
+
+    public static void uninstall() {
+        DecodeTraceview.setListener(null);
+    }
+
+    @Override
+    public DecodeTraceview.Span begin(DecodeTraceview.Stage stage, int width, int height) {
+        // Sections nest per thread, and stages begin and end on the same thread, so one stateless span will do
+        Trace.beginSection(SECTION_NAMES[stage.ordinal()]);
+        return this;
+    }
+
+    @Override
+    public void end(BarcodeFormatview format, boolean success) {
+        Trace.endSection();
+    }
+}
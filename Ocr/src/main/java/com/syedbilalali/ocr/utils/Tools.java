@@ -172,7 +172,6 @@ public class Tools {
 
     private static Pattern pattern = Pattern.compile("(1|861)\\d{10}$*");
 
-    private static StringBuilder bf = new StringBuilder();
 
     public static String getTelNum(String sParam){
         if(TextUtils.isEmpty(sParam)){
@@ -180,7 +179,8 @@ public class Tools {
         }
         
         Matcher matcher = pattern.matcher(sParam.trim());
-        bf.delete(0, bf.length());
+        // Local, since text from several decode workers may be parsed at once
+        StringBuilder bf = new StringBuilder();
 
         while (matcher.find()) {
             bf.append(matcher.group()).append("\n");
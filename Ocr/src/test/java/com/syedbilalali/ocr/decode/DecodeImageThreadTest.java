@@ -0,0 +1,43 @@
+package com.syedbilalali.ocr.decode;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the sizes a gallery image is decoded at, and when trying a larger one is given up.
+ */
+public class DecodeImageThreadTest {
+
+    @Test
+    public void largeImageTriesEverySize() {
+        // 256, 512 and 1024 px steps, then the image's own size
+        assertArrayEquals(new int[]{8, 4, 2, 1}, DecodeImageThread.sampleSizes(4000, 3000));
+    }
+
+    @Test
+    public void sizesTheImageCannotReachAreSkipped() {
+        assertArrayEquals(new int[]{2, 1}, DecodeImageThread.sampleSizes(900, 700));
+        assertArrayEquals(new int[]{1}, DecodeImageThread.sampleSizes(300, 200));
+    }
+
+    @Test
+    public void sampleSizesShrink() {
+        for (int width = 1; width < 5000; width += 97) {
+            int[] sizes = DecodeImageThread.sampleSizes(width, 5000 - width);
+            assertEquals(1, sizes[sizes.length - 1]);
+            for (int i = 1; i < sizes.length; i++) {
+                assertTrue(sizes[i] < sizes[i - 1]);
+            }
+        }
+    }
+
+    @Test
+    public void budgetCountsFourTimesTheTimePerHalving() {
+        // 100 ms at sample size 4 predicts 400 ms at 2 and 1600 ms at 1
+        assertTrue(DecodeImageThread.fitsBudget(200, 100, 4, 2, 600));
+        assertFalse(DecodeImageThread.fitsBudget(201, 100, 4, 2, 600));
+        assertTrue(DecodeImageThread.fitsBudget(0, 100, 4, 1, 1600));
+        assertFalse(DecodeImageThread.fitsBudget(0, 100, 4, 1, 1599));
+    }
+}
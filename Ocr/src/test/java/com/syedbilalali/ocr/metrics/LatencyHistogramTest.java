@@ -0,0 +1,120 @@
+package com.syedbilalali.ocr.metrics;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests which bucket durations are counted in and the quantiles read back from them.
+ */
+public class LatencyHistogramTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    public void boundsAreInclusive() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(MS);
+        histogram.record(MS + 1);
+        histogram.record(2 * MS);
+        histogram.record(10000 * MS);
+        histogram.record(10000 * MS + 1);
+        long[] counts = histogram.snapshot().getBucketCounts();
+        assertEquals(LatencyHistogram.BUCKET_BOUNDS_MS.length + 1, counts.length);
+        assertEquals(1, counts[0]);
+        assertEquals(2, counts[1]);
+        assertEquals(1, counts[counts.length - 2]);
+        assertEquals(1, counts[counts.length - 1]);
+    }
+
+    @Test
+    public void negativeDurationsCountAsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5 * MS);
+        histogram.record(0);
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(2, snapshot.getBucketCounts()[0]);
+        assertEquals(0, snapshot.getMeanMillis(), 0);
+        assertEquals(0, snapshot.getMaxMillis(), 0);
+    }
+
+    @Test
+    public void quantilesAreBucketBounds() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 90; i++) {
+            histogram.record(3 * MS);
+        }
+        for (int i = 0; i < 10; i++) {
+            histogram.record(150 * MS);
+        }
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(100, snapshot.getCount());
+        assertEquals(5, snapshot.getQuantileMillis(0), 0);
+        assertEquals(5, snapshot.getQuantileMillis(0.5), 0);
+        assertEquals(5, snapshot.getQuantileMillis(0.9), 0);
+        // The 200 ms bound is above anything recorded, so the max is the better answer
+        assertEquals(150, snapshot.getQuantileMillis(0.91), 0);
+        assertEquals(150, snapshot.getQuantileMillis(1), 0);
+        assertEquals(17.7, snapshot.getMeanMillis(), 1e-9);
+        assertEquals(150, snapshot.getMaxMillis(), 0);
+    }
+
+    @Test
+    public void quantileInLastBucketIsMax() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(MS);
+        histogram.record(25000 * MS);
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(1, snapshot.getQuantileMillis(0.5), 0);
+        assertEquals(25000, snapshot.getQuantileMillis(0.99), 0);
+    }
+
+    @Test
+    public void emptyHistogramReadsZero() {
+        LatencyHistogram.Snapshot snapshot = new LatencyHistogram().snapshot();
+        assertEquals(0, snapshot.getCount());
+        assertEquals(0, snapshot.getMeanMillis(), 0);
+        assertEquals(0, snapshot.getQuantileMillis(0.95), 0);
+    }
+
+    @Test
+    public void snapshotIsNotChangedByLaterRecords() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(MS);
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        snapshot.getBucketCounts()[0] = 100;
+        histogram.record(MS);
+        assertEquals(1, snapshot.getCount());
+        assertEquals(1, snapshot.getBucketCounts()[0]);
+        histogram.reset();
+        assertEquals(0, histogram.snapshot().getCount());
+        assertEquals(0, histogram.snapshot().getMaxMillis(), 0);
+    }
+
+    @Test
+    public void concurrentRecordsAreAllCounted() throws InterruptedException {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final long nanos = (t + 1) * 7 * MS;
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < 10000; i++) {
+                        histogram.record(nanos);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(40000, snapshot.getCount());
+        assertEquals(28, snapshot.getMaxMillis(), 0);
+        assertEquals(17.5, snapshot.getMeanMillis(), 1e-9);
+    }
+}
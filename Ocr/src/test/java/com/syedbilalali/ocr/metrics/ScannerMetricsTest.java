@@ -0,0 +1,79 @@
+package com.syedbilalali.ocr.metrics;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Iterator;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the scanner counters and how they are exported.
+ */
+public class ScannerMetricsTest {
+
+    private final ScannerMetrics mMetrics = ScannerMetrics.get();
+
+    @Before
+    public void reset() {
+        mMetrics.reset();
+    }
+
+    @Test
+    public void successRateIsPerMode() {
+        mMetrics.decodeFinished(ScannerMetrics.Mode.QR, 1000000, true);
+        mMetrics.decodeFinished(ScannerMetrics.Mode.QR, 1000000, false);
+        mMetrics.decodeFinished(ScannerMetrics.Mode.QR, 1000000, false);
+        mMetrics.decodeFinished(ScannerMetrics.Mode.QR, 1000000, true);
+        ScannerMetrics.Snapshot snapshot = mMetrics.snapshot();
+        assertEquals(4, snapshot.getDecodes(ScannerMetrics.Mode.QR));
+        assertEquals(0.5, snapshot.getSuccessRate(ScannerMetrics.Mode.QR), 0);
+        assertEquals(0, snapshot.getDecodes(ScannerMetrics.Mode.OCR));
+        assertEquals(0, snapshot.getSuccessRate(ScannerMetrics.Mode.OCR), 0);
+    }
+
+    @Test
+    public void onlyFirstResultOfSessionIsTimed() {
+        mMetrics.resultDelivered();
+        mMetrics.sessionStarted();
+        mMetrics.resultDelivered();
+        mMetrics.resultDelivered();
+        mMetrics.sessionStarted();
+        ScannerMetrics.Snapshot snapshot = mMetrics.snapshot();
+        assertEquals(2, snapshot.getSessions());
+        assertEquals(1, snapshot.getSessionsWithResult());
+        assertEquals(1, snapshot.getTimeToFirstResult().getCount());
+    }
+
+    @Test
+    public void resetZeroesEverything() {
+        mMetrics.frameReceived();
+        mMetrics.frameDropped();
+        mMetrics.decodeStarted(1000000);
+        mMetrics.ocrRecognized(1000000);
+        mMetrics.reset();
+        for (Number value : mMetrics.snapshot().toMap().values()) {
+            assertEquals(0, value.doubleValue(), 0);
+        }
+    }
+
+    @Test
+    public void mapIsInStableOrder() {
+        mMetrics.frameReceived();
+        mMetrics.frameReceived();
+        mMetrics.frameDropped();
+        Map<String, Number> map = mMetrics.snapshot().toMap();
+        Iterator<Map.Entry<String, Number>> entries = map.entrySet().iterator();
+        assertEntry("frames.received", 2L, entries.next());
+        assertEntry("frames.dropped", 1L, entries.next());
+        assertEquals("frames.previewToDecodeMs.count", entries.next().getKey());
+        assertTrue(map.containsKey("decode.ocr.successRate"));
+        assertTrue(map.containsKey("ocr.recognitionMs.p95"));
+    }
+
+    private static void assertEntry(String key, Number value, Map.Entry<String, Number> entry) {
+        assertEquals(key, entry.getKey());
+        assertEquals(value, entry.getValue());
+    }
+}
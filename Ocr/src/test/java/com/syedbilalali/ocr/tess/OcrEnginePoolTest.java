@@ -0,0 +1,359 @@
+package com.syedbilalali.ocr.tess;
+
+import android.graphics.Bitmap;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the life of the engines in {@link OcrEnginePool}, its queue and its timeouts, with stand-in engines that only
+ * count what is done with them and can be held in the middle of an image.
+ */
+public class OcrEnginePoolTest {
+
+    private final FakeFactory mFactory = new FakeFactory();
+    private OcrEnginePool mPool;
+
+    @After
+    public void shutdown() {
+        if (mPool != null) {
+            mPool.shutdown();
+        }
+    }
+
+    @Test
+    public void engineIsCreatedOnceAndReused() throws Exception {
+        mPool = new OcrEnginePool(mFactory, 1, 4);
+        for (int i = 0; i < 5; i++) {
+            assertEquals("engine 0 image " + i, mPool.recognize(null, 1, TimeUnit.SECONDS));
+        }
+        assertEquals(1, mFactory.mEngines.size());
+        assertEquals(1, mFactory.mEngines.get(0).mReleased.getCount());
+    }
+
+    @Test
+    public void engineIsReplacedAfterItThrows() throws Exception {
+        mPool = new OcrEnginePool(mFactory, 1, 4);
+        assertEquals("engine 0 image 0", mPool.recognize(null, 1, TimeUnit.SECONDS));
+        FakeEngine broken = mFactory.mEngines.get(0);
+        IllegalStateException failure = new IllegalStateException("broken");
+        broken.mFailNext = failure;
+        try {
+            mPool.recognize(null, 1, TimeUnit.SECONDS);
+            fail();
+        } catch (IllegalStateException e) {
+            assertSame(failure, e);
+        }
+        // Released before the failure is reported
+        assertEquals(0, broken.mReleased.getCount());
+        assertEquals("engine 1 image 0", mPool.recognize(null, 1, TimeUnit.SECONDS));
+        assertEquals("engine 1 image 1", mPool.recognize(null, 1, TimeUnit.SECONDS));
+        assertEquals(2, mFactory.mEngines.size());
+        assertEquals(2, broken.mImages);
+    }
+
+    @Test
+    public void failedCreationIsRetriedOnNextImage() throws Exception {
+        mFactory.mFailures = 1;
+        mPool = new OcrEnginePool(mFactory, 1, 4);
+        assertEquals("engine 0 image 0", mPool.recognize(null, 1, TimeUnit.SECONDS));
+        assertEquals(1, mFactory.mEngines.size());
+    }
+
+    @Test
+    public void enginesAreCreatedBeforeFirstImage() throws Exception {
+        mPool = new OcrEnginePool(mFactory, 3, 1);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (mFactory.mEngines.size() < 3 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(3, mFactory.mEngines.size());
+    }
+
+    @Test
+    public void queuedImageTimesOutWithoutBeingRecognized() throws Exception {
+        mPool = new OcrEnginePool(mFactory, 1, 2);
+        FakeEngine engine = holdNextImage();
+        Future<String> first = mPool.submit(null, 10, TimeUnit.SECONDS, null);
+        assertTrue(engine.mStarted.tryAcquire(1, TimeUnit.SECONDS));
+        try {
+            mPool.recognize(null, 100, 10000, TimeUnit.MILLISECONDS);
+            fail();
+        } catch (TimeoutException e) {
+            // expected
+        }
+        engine.mGate.countDown();
+        assertEquals("engine 0 image 0", first.get(1, TimeUnit.SECONDS));
+        // The timed out image was skipped
+        assertEquals("engine 0 image 1", mPool.recognize(null, 1, TimeUnit.SECONDS));
+        assertEquals(0, engine.mStops.get());
+    }
+
+    @Test
+    public void runningImageIsStoppedAtTimeout() throws Exception {
+        mPool = new OcrEnginePool(mFactory, 1, 2);
+        FakeEngine engine = holdNextImage();
+        final AtomicReference<Exception> failure = new AtomicReference<>();
+        final CountDownLatch told = new CountDownLatch(1);
+        mPool.submit(null, 10000, 100, TimeUnit.MILLISECONDS, new OcrEnginePool.Callback() {
+            @Override
+            public void onResult(String text) {
+                told.countDown();
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                failure.set(e);
+                told.countDown();
+            }
+        });
+        assertTrue(told.await(1, TimeUnit.SECONDS));
+        assertTrue(failure.get() instanceof TimeoutException);
+        // A stopped engine is fine to keep using
+        assertEquals("engine 0 image 1", mPool.recognize(null, 1, TimeUnit.SECONDS));
+        assertEquals(1, engine.mStops.get());
+        assertEquals(1, mFactory.mEngines.size());
+    }
+
+    @Test
+    public void imageTimedOutBeforeEngineIsAttachedIsNotRecognized() throws Exception {
+        // The engine is created for the image, slowly, so the image times out between leaving the queue and reaching
+        // the engine
+        mFactory.mFailures = 1;
+        mFactory.mCreateGate = new CountDownLatch(1);
+        mPool = new OcrEnginePool(mFactory, 1, 2);
+        Future<String> late = mPool.submit(null, 100, 10000, TimeUnit.MILLISECONDS, null);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (!late.isDone() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue(late.isCancelled());
+        mFactory.mCreateGate.countDown();
+        assertEquals("engine 0 image 0", mPool.recognize(null, 1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void interruptedWaitStopsEngine() throws Exception {
+        mPool = new OcrEnginePool(mFactory, 1, 2);
+        FakeEngine engine = holdNextImage();
+        final AtomicReference<Exception> thrown = new AtomicReference<>();
+        Thread waiter = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    mPool.recognize(null, 10, TimeUnit.SECONDS);
+                } catch (Exception e) {
+                    thrown.set(e);
+                }
+            }
+        });
+        waiter.start();
+        assertTrue(engine.mStarted.tryAcquire(1, TimeUnit.SECONDS));
+        waiter.interrupt();
+        waiter.join(1000);
+        assertTrue(thrown.get() instanceof InterruptedException);
+        // Stopped rather than left to run to the end, and kept
+        assertEquals("engine 0 image 1", mPool.recognize(null, 1, TimeUnit.SECONDS));
+        assertEquals(1, engine.mStops.get());
+        assertEquals(1, mFactory.mEngines.size());
+    }
+
+    @Test
+    public void recognitionTimeoutCountsFromStart() throws Exception {
+        mPool = new OcrEnginePool(mFactory, 1, 2);
+        FakeEngine engine = holdNextImage();
+        Future<String> first = mPool.submit(null, 10, TimeUnit.SECONDS, null);
+        assertTrue(engine.mStarted.tryAcquire(1, TimeUnit.SECONDS));
+        Future<String> second = mPool.submit(null, 5000, 300, TimeUnit.MILLISECONDS, null);
+        // Longer in the queue than it may take to recognize
+        Thread.sleep(400);
+        engine.mGate.countDown();
+        assertEquals("engine 0 image 0", first.get(1, TimeUnit.SECONDS));
+        assertEquals("engine 0 image 1", second.get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void fullQueueIsRejected() throws Exception {
+        mPool = new OcrEnginePool(mFactory, 1, 1);
+        FakeEngine engine = holdNextImage();
+        Future<String> running = mPool.submit(null, 10, TimeUnit.SECONDS, null);
+        assertTrue(engine.mStarted.tryAcquire(1, TimeUnit.SECONDS));
+        Future<String> queued = mPool.submit(null, 10, TimeUnit.SECONDS, null);
+        try {
+            mPool.submit(null, 10, TimeUnit.SECONDS, new OcrEnginePool.Callback() {
+                @Override
+                public void onResult(String text) {
+                    fail("not told of a refused image");
+                }
+
+                @Override
+                public void onFailure(Exception e) {
+                    fail("not told of a refused image");
+                }
+            });
+            fail();
+        } catch (RejectedExecutionException e) {
+            // expected
+        }
+        engine.mGate.countDown();
+        assertEquals("engine 0 image 0", running.get(1, TimeUnit.SECONDS));
+        assertEquals("engine 0 image 1", queued.get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void engineThatFailsWhenStoppedIsNotStoppedAfterRelease() throws Exception {
+        mPool = new OcrEnginePool(mFactory, 1, 2);
+        FakeEngine engine = holdNextImage();
+        engine.mFailWhenStopped = true;
+        try {
+            mPool.recognize(null, 10000, 100, TimeUnit.MILLISECONDS);
+            fail();
+        } catch (TimeoutException e) {
+            // expected
+        }
+        assertEquals("engine 1 image 0", mPool.recognize(null, 1, TimeUnit.SECONDS));
+        assertEquals(0, engine.mReleased.getCount());
+        assertEquals(1, engine.mStops.get());
+        assertFalse(engine.mUsedAfterRelease);
+    }
+
+    @Test
+    public void shutdownReleasesEngines() throws Exception {
+        mPool = new OcrEnginePool(mFactory, 2, 4);
+        mPool.recognize(null, 1, TimeUnit.SECONDS);
+        mPool.shutdown();
+        for (FakeEngine engine : mFactory.mEngines) {
+            assertTrue(engine.mReleased.await(1, TimeUnit.SECONDS));
+        }
+    }
+
+    /**
+     * @return the pool's only engine, which will wait in the middle of its next image until stopped or its gate is
+     * opened
+     */
+    private FakeEngine holdNextImage() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (mFactory.mEngines.isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        FakeEngine engine = mFactory.mEngines.get(0);
+        engine.mGate = new CountDownLatch(1);
+        return engine;
+    }
+
+    private static final class FakeFactory implements OcrEngine.Factory {
+        final List<FakeEngine> mEngines = new CopyOnWriteArrayList<>();
+        // How many creations still to fail
+        volatile int mFailures;
+        // Creation waits on it, if set
+        volatile CountDownLatch mCreateGate;
+
+        @Override
+        public synchronized OcrEngine create() {
+            if (mFailures > 0) {
+                mFailures--;
+                throw new IllegalStateException("No language data");
+            }
+            CountDownLatch gate = mCreateGate;
+            if (gate != null) {
+                try {
+                    gate.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            FakeEngine engine = new FakeEngine(mEngines.size());
+            mEngines.add(engine);
+            return engine;
+        }
+    }
+
+    private static final class FakeEngine implements OcrEngine {
+        final int mId;
+        final CountDownLatch mReleased = new CountDownLatch(1);
+        // Only touched by the worker the engine is confined to, and read once it is done
+        volatile int mImages;
+        volatile RuntimeException mFailNext;
+        // Images wait on it until it is opened, by the test or by stop()
+        volatile CountDownLatch mGate;
+        volatile boolean mFailWhenStopped;
+        volatile boolean mUsedAfterRelease;
+        final Semaphore mStarted = new Semaphore(0);
+        final AtomicInteger mStops = new AtomicInteger();
+
+        FakeEngine(int id) {
+            this.mId = id;
+        }
+
+        @Override
+        public String recognize(Bitmap bitmap) {
+            checkNotReleased();
+            int image = mImages++;
+            mStarted.release();
+            CountDownLatch gate = mGate;
+            if (gate != null) {
+                // Like native Tesseract, deaf to interrupts: only stop() or the test ends the wait
+                boolean interrupted = false;
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+                while (gate.getCount() > 0) {
+                    if (System.nanoTime() > deadline) {
+                        throw new IllegalStateException("never stopped");
+                    }
+                    try {
+                        gate.await(10, TimeUnit.MILLISECONDS);
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+                if (mFailWhenStopped && mStops.get() > 0) {
+                    throw new IllegalStateException("stopped");
+                }
+            }
+            RuntimeException failure = mFailNext;
+            if (failure != null) {
+                mFailNext = null;
+                throw failure;
+            }
+            return "engine " + mId + " image " + image;
+        }
+
+        @Override
+        public void stop() {
+            checkNotReleased();
+            mStops.incrementAndGet();
+            CountDownLatch gate = mGate;
+            if (gate != null) {
+                gate.countDown();
+            }
+        }
+
+        @Override
+        public void release() {
+            checkNotReleased();
+            mReleased.countDown();
+        }
+
+        private void checkNotReleased() {
+            if (mReleased.getCount() == 0) {
+                mUsedAfterRelease = true;
+                fail("used after release");
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.syedbilalali.ocr.utils;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests that the luminance read from gallery bitmaps is the Y plane the full YUV420sp conversion gives.
+ */
+public class QrUtilsTest {
+
+    @Test
+    public void luminanceMatchesYPlane() {
+        Random random = new Random(0x7e5L);
+        int width = 37;
+        int height = 23;
+        int[] argb = new int[width * height];
+        for (int i = 0; i < argb.length; i++) {
+            argb[i] = random.nextInt();
+        }
+        // The extremes, which the dropped clamp would have mattered for
+        argb[0] = 0xff000000;
+        argb[1] = 0xffffffff;
+        argb[2] = 0x00ff00ff;
+
+        byte[] yuv = new byte[(width + 1) * (height + 1) * 3 / 2];
+        QrUtils.encodeYUV420SP(yuv, argb, width, height);
+        byte[] luminance = new byte[width * height];
+        QrUtils.toLuminance(argb, argb.length, luminance, 0);
+        for (int i = 0; i < luminance.length; i++) {
+            assertEquals("pixel " + i, yuv[i], luminance[i]);
+            int y = luminance[i] & 0xff;
+            assertTrue(y >= 16 && y <= 235);
+        }
+    }
+
+    @Test
+    public void luminanceIsWrittenFromOffset() {
+        int[] argb = {0xffffffff, 0xff000000, 0xff808080};
+        byte[] luminance = new byte[5];
+        QrUtils.toLuminance(argb, 2, luminance, 2);
+        assertArrayEquals(new byte[]{0, 0, (byte) 235, 16, 0}, luminance);
+    }
+}
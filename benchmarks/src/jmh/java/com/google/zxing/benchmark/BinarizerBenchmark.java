@@ -0,0 +1,73 @@
+/*
+ * Copyright 2023 ZXing authors
+ *
+ * Licensed under the Apache License, Versionv 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.benchmark;
+
+import com.google.zxing.LuminanceSourceview;
+import com.google.zxing.NotFoundExceptionview;
+import com.google.zxing.common.BitArrayview;
+import com.google.zxing.common.BitMatrixview;
+import com.google.zxing.common.GlobalHistogramBinarizerView;
+import com.google.zxing.common.HybridBinarizerView;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Thresholding a whole image, and a single row, with each binarizer. A new binarizer is made for
+ * every operation, as the readers do for every frame.
+ */
+@State(Scope.Thread)
+public class BinarizerBenchmark {
+
+  /**
+   * Width by height: a VGA and a 1080p preview frame, and a square photo.
+   */
+  @Param({"640x480", "1920x1080", "2048x2048"})
+  public String shape;
+
+  private int height;
+  private LuminanceSourceview source;
+  private BitArrayview row;
+
+  @Setup
+  public void setUp() {
+    int separator = shape.indexOf('x');
+    int width = Integer.parseInt(shape.substring(0, separator));
+    height = Integer.parseInt(shape.substring(separator + 1));
+    source = SyntheticImages.render(SyntheticImages.qrCode(SyntheticImages.QR_CONTENTS, width, height), 1L);
+    row = new BitArrayview(width);
+  }
+
+  @Benchmark
+  public BitMatrixview globalHistogramMatrix() throws NotFoundExceptionview {
+    return new GlobalHistogramBinarizerView(source).getBlackMatrix();
+  }
+
+  @Benchmark
+  public BitArrayview globalHistogramRow() throws NotFoundExceptionview {
+    return new GlobalHistogramBinarizerView(source).getBlackRow(height / 2, row);
+  }
+
+  @Benchmark
+  public BitMatrixview hybridMatrix() throws NotFoundExceptionview {
+    return new HybridBinarizerView(source).getBlackMatrix();
+  }
+
+}
@@ -0,0 +1,295 @@
+/*
+ * Copyright 2023 ZXing authors
+ *
+ * Licensed under the Apache License, Versionv 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.benchmark;
+
+import com.google.zxing.BarcodeFormatview;
+import com.google.zxing.BinarizerView;
+import com.google.zxing.BinaryBitmapview;
+import com.google.zxing.DecodeHintTypeview;
+import com.google.zxing.LuminanceSourceview;
+import com.google.zxing.MultiFormatReaderview;
+import com.google.zxing.ReaderExceptionview;
+import com.google.zxing.Readerview;
+import com.google.zxing.Resultview;
+import com.google.zxing.common.GlobalHistogramBinarizerView;
+import com.google.zxing.common.HybridBinarizerView;
+import com.google.zxing.oned.MultiFormatOneDReaderview;
+import com.google.zxing.qrcode.QRCodeReaderview;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Runs the {@link GoldenCorpus} through each reader that handles a format, with each binarizer,
+ * and writes one JSON line per (reader, binarizer, format, distortion), plus one per (reader,
+ * binarizer, format) over all distortions with {@code "distortion":"ALL"}. Each line has the
+ * corpus version, the number of images and how many were decoded to the expected text, the
+ * success rate, the mean and 95th percentile time per image in ms, and the bytes allocated per
+ * image. Lines for the same keys from two builds can be joined to compare them.
+ *
+ * <p>Arguments: {@code [--images N] [--warmup N] [--try-harder] [--format FORMAT]... [--out FILE]}.
+ * By default 25 images per format and distortion, two untimed passes over each set first, and
+ * output to stdout. Run with {@code ./gradlew :benchmarks:corpus -PcorpusArgs="..."}.</p>
+ *
+ * <p>Decode stages are reported to JFR, see {@link JfrDecodeTrace}.</p>
+ */
+public final class CorpusHarness {
+
+  private static final String USAGE =
+      "Usage: [--images N] [--warmup N] [--try-harder] [--format FORMAT]... [--out FILE]";
+
+  private enum ReaderKind {
+    MULTI_FORMAT {
+      @Override
+      Readerview create(Map<DecodeHintTypeview,?> hints) {
+        MultiFormatReaderview reader = new MultiFormatReaderview();
+        reader.setHints(hints);
+        return reader;
+      }
+
+      @Override
+      Resultview decode(Readerview reader, BinaryBitmapview image, Map<DecodeHintTypeview,?> hints)
+          throws ReaderExceptionview {
+        // As a scanning app would: hints set once, not on every image
+        return ((MultiFormatReaderview) reader).decodeWithState(image);
+      }
+    },
+    QR_CODE {
+      @Override
+      Readerview create(Map<DecodeHintTypeview,?> hints) {
+        return new QRCodeReaderview();
+      }
+    },
+    ONE_D {
+      @Override
+      Readerview create(Map<DecodeHintTypeview,?> hints) {
+        return new MultiFormatOneDReaderview(hints);
+      }
+    };
+
+    abstract Readerview create(Map<DecodeHintTypeview,?> hints);
+
+    Resultview decode(Readerview reader, BinaryBitmapview image, Map<DecodeHintTypeview,?> hints)
+        throws ReaderExceptionview {
+      return reader.decode(image, hints);
+    }
+
+    boolean handles(BarcodeFormatview format) {
+      switch (this) {
+        case QR_CODE:
+          return format == BarcodeFormatview.QR_CODE;
+        case ONE_D:
+          return format != BarcodeFormatview.QR_CODE;
+        default:
+          return true;
+      }
+    }
+  }
+
+  private enum BinarizerKind {
+    GLOBAL_HISTOGRAM {
+      @Override
+      BinarizerView create(LuminanceSourceview source) {
+        return new GlobalHistogramBinarizerView(source);
+      }
+    },
+    HYBRID {
+      @Override
+      BinarizerView create(LuminanceSourceview source) {
+        return new HybridBinarizerView(source);
+      }
+    };
+
+    abstract BinarizerView create(LuminanceSourceview source);
+  }
+
+  /**
+   * Outcomes of a set of images.
+   */
+  private static final class Stats {
+    private final List<Long> nanos = new ArrayList<>();
+    private int decoded;
+    private long allocatedBytes;
+
+    void add(Stats other) {
+      nanos.addAll(other.nanos);
+      decoded += other.decoded;
+      allocatedBytes += other.allocatedBytes;
+    }
+  }
+
+  private CorpusHarness() {
+  }
+
+  public static void main(String[] args) throws IOException {
+    JfrDecodeTrace.install();
+    int images = 25;
+    int warmup = 2;
+    String out = null;
+    Map<DecodeHintTypeview,Object> hints = new EnumMap<>(DecodeHintTypeview.class);
+    hints.put(DecodeHintTypeview.RETURN_CODABAR_START_END, Boolean.TRUE);
+    List<BarcodeFormatview> formats = new ArrayList<>();
+    for (int i = 0; i < args.length; i++) {
+      String arg = args[i];
+      if ("--images".equals(arg) && i + 1 < args.length) {
+        images = Integer.parseInt(args[++i]);
+      } else if ("--warmup".equals(arg) && i + 1 < args.length) {
+        warmup = Integer.parseInt(args[++i]);
+      } else if ("--try-harder".equals(arg)) {
+        hints.put(DecodeHintTypeview.TRY_HARDER, Boolean.TRUE);
+      } else if ("--format".equals(arg) && i + 1 < args.length) {
+        formats.add(BarcodeFormatview.valueOf(args[++i]));
+      } else if ("--out".equals(arg) && i + 1 < args.length) {
+        out = args[++i];
+      } else {
+        System.err.println(USAGE);
+        System.exit(2);
+        return;
+      }
+    }
+    if (formats.isEmpty()) {
+      formats.addAll(Arrays.asList(GoldenCorpus.FORMATS));
+    }
+
+    PrintWriter writer = out == null
+        ? new PrintWriter(new OutputStreamWriter(System.out, "UTF-8"))
+        : new PrintWriter(new OutputStreamWriter(new FileOutputStream(out), "UTF-8"));
+    try {
+      run(formats, images, warmup, hints, writer);
+    } finally {
+      writer.flush();
+      if (out != null) {
+        writer.close();
+      }
+    }
+  }
+
+  private static void run(List<BarcodeFormatview> formats,
+                          int images,
+                          int warmup,
+                          Map<DecodeHintTypeview,?> hints,
+                          PrintWriter writer) {
+    for (BarcodeFormatview format : formats) {
+      Map<ReaderKind,Map<BinarizerKind,Stats>> totals = new EnumMap<>(ReaderKind.class);
+      for (GoldenCorpus.Distortion distortion : GoldenCorpus.Distortion.values()) {
+        // One set at a time, so the corpus is never all in memory
+        List<GoldenCorpus.Sample> samples = GoldenCorpus.generate(format, distortion, images);
+        for (ReaderKind readerKind : ReaderKind.values()) {
+          if (!readerKind.handles(format)) {
+            continue;
+          }
+          if (!totals.containsKey(readerKind)) {
+            totals.put(readerKind, new EnumMap<BinarizerKind,Stats>(BinarizerKind.class));
+          }
+          for (BinarizerKind binarizerKind : BinarizerKind.values()) {
+            Readerview reader = readerKind.create(hints);
+            for (int i = 0; i < warmup; i++) {
+              measure(samples, readerKind, reader, binarizerKind, hints);
+            }
+            Stats stats = measure(samples, readerKind, reader, binarizerKind, hints);
+            write(writer, readerKind, binarizerKind, format, distortion.name(), stats);
+            Stats total = totals.get(readerKind).get(binarizerKind);
+            if (total == null) {
+              total = new Stats();
+              totals.get(readerKind).put(binarizerKind, total);
+            }
+            total.add(stats);
+          }
+        }
+      }
+      for (Map.Entry<ReaderKind,Map<BinarizerKind,Stats>> byReader : totals.entrySet()) {
+        for (Map.Entry<BinarizerKind,Stats> byBinarizer : byReader.getValue().entrySet()) {
+          write(writer, byReader.getKey(), byBinarizer.getKey(), format, "ALL", byBinarizer.getValue());
+        }
+      }
+      writer.flush();
+    }
+  }
+
+  private static Stats measure(List<GoldenCorpus.Sample> samples,
+                               ReaderKind readerKind,
+                               Readerview reader,
+                               BinarizerKind binarizerKind,
+                               Map<DecodeHintTypeview,?> hints) {
+    Stats stats = new Stats();
+    for (GoldenCorpus.Sample sample : samples) {
+      long allocatedBefore = allocatedBytes();
+      long start = System.nanoTime();
+      Resultview result;
+      try {
+        result = readerKind.decode(reader, new BinaryBitmapview(binarizerKind.create(sample.source)), hints);
+      } catch (ReaderExceptionview re) {
+        result = null;
+      } finally {
+        reader.reset();
+      }
+      stats.nanos.add(System.nanoTime() - start);
+      stats.allocatedBytes += allocatedBytes() - allocatedBefore;
+      if (result != null && result.getBarcodeFormat() == sample.format
+          && sample.expectedText.equals(result.getText())) {
+        stats.decoded++;
+      }
+    }
+    return stats;
+  }
+
+  /**
+   * @return bytes allocated by this thread so far, or 0 if the JVM cannot tell
+   */
+  private static long allocatedBytes() {
+    java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    if (bean instanceof com.sun.management.ThreadMXBean) {
+      return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+    return 0;
+  }
+
+  private static void write(PrintWriter writer,
+                            ReaderKind reader,
+                            BinarizerKind binarizer,
+                            BarcodeFormatview format,
+                            String distortion,
+                            Stats stats) {
+    int images = stats.nanos.size();
+    long[] sorted = new long[images];
+    long sum = 0;
+    for (int i = 0; i < images; i++) {
+      sorted[i] = stats.nanos.get(i);
+      sum += sorted[i];
+    }
+    Arrays.sort(sorted);
+    long p95 = images == 0 ? 0 : sorted[Math.max(0, (int) Math.ceil(images * 0.95) - 1)];
+    writer.println(String.format(Locale.ROOT,
+        "{\"corpusVersion\":%d,\"reader\":\"%s\",\"binarizer\":\"%s\",\"format\":\"%s\",\"distortion\":\"%s\","
+            + "\"images\":%d,\"decoded\":%d,\"successRate\":%.4f,\"meanMs\":%.3f,\"p95Ms\":%.3f,"
+            + "\"bytesPerImage\":%d}",
+        GoldenCorpus.VERSION, reader, binarizer, format, distortion,
+        images, stats.decoded, images == 0 ? 0.0 : (double) stats.decoded / images,
+        images == 0 ? 0.0 : sum / 1e6 / images, p95 / 1e6,
+        images == 0 ? 0 : stats.allocatedBytes / images));
+  }
+
+}
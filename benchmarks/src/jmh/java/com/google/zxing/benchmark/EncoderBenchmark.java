@@ -0,0 +1,65 @@
+/*
+ * Copyright 2023 ZXing authors
+ *
+ * Licensed under the Apache License, Versionv 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.zxing.benchmark;
+
+import com.google.zxing.WriterExceptionview;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevelview;
+import com.google.zxing.qrcode.encoder.Encoderview;
+import com.google.zxing.qrcode.encoder.QRCodeview;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Arrays;
+
+/**
+ * Encoding text into a QR code, including choosing its version and mask.
+ */
+@State(Scope.Thread)
+public class EncoderBenchmark {
+
+  /**
+   * How many bytes of text to encode: a short URL, and a symbol around version 20.
+   */
+  @Param({"60", "500"})
+  public int length;
+
+  @Param({"L", "H"})
+  public String ecLevel;
+
+  private String contents;
+  private ErrorCorrectionLevelview level;
+
+  @Setup
+  public void setUp() {
+    char[] chars = new char[length];
+    String source = SyntheticImages.QR_CONTENTS;
+    for (int i = 0; i < length; i++) {
+      chars[i] = source.charAt(i % source.length());
+    }
+    contents = new String(chars);
+    level = ErrorCorrectionLevelview.valueOf(ecLevel);
+  }
+
+  @Benchmark
+  public QRCodeview encode() throws WriterExceptionview {
+    return Encoderview.encode(contents, level);
+  }
+
+}
@@ -0,0 +1,326 @@
+/*
+ * Copyright 2023 ZXing authors
+ *
+ * Licensed under the Apache License, Versionv 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.benchmark;
+
+import com.google.zxing.BarcodeFormatview;
+import com.google.zxing.LuminanceSourceview;
+import com.google.zxing.NotFoundExceptionview;
+import com.google.zxing.RGBLuminanceSourceview;
+import com.google.zxing.common.BitArrayview;
+import com.google.zxing.common.BitMatrixview;
+import com.google.zxing.common.HybridBinarizerView;
+import com.google.zxing.common.PerspectiveTransformviews;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A fixed set of barcode images for measuring how often, and how fast, each format is decoded.
+ * Each image is drawn with the library's writers and then put through one {@link Distortion}.
+ * Every payload and distortion parameter comes from a seed derived from the format, distortion
+ * and image index, so the same {@link #VERSION} always yields the same pixels.
+ *
+ * Bump {@link #VERSION} whenever anything here changes what is drawn, so that results from
+ * different corpora are not compared.
+ */
+public final class GoldenCorpus {
+
+  public static final int VERSION = 1;
+
+  /**
+   * The formats the module's writers can draw.
+   */
+  public static final BarcodeFormatview[] FORMATS = {
+      BarcodeFormatview.QR_CODE,
+      BarcodeFormatview.CODE_128,
+      BarcodeFormatview.CODE_39,
+      BarcodeFormatview.CODE_93,
+      BarcodeFormatview.CODABAR,
+      BarcodeFormatview.EAN_13,
+      BarcodeFormatview.EAN_8,
+      BarcodeFormatview.UPC_A,
+      BarcodeFormatview.ITF,
+  };
+
+  private static final int QR_SIZE = 240;
+  private static final int ONE_D_WIDTH = 320;
+  private static final int ONE_D_HEIGHT = 100;
+  // White space added around the writer's output, so rotated and warped corners stay in the image
+  private static final int BORDER = 40;
+  private static final int BLACK = 30;
+  private static final int WHITE = 225;
+
+  public enum Distortion {
+    /** Clean greyscale render. */
+    NONE,
+    /** Box blur, applied twice, of radius 1 or 2. */
+    BLUR,
+    /** Gaussian noise with a standard deviation of 6 to 14 levels. */
+    NOISE,
+    /** Each corner moved inwards by up to an eighth of the image. */
+    PERSPECTIVE,
+    /** Black and white 35 to 60 levels apart, around mid grey. */
+    LOW_CONTRAST,
+    /** Rotated 5 to 15 degrees either way. */
+    ROTATION,
+  }
+
+  /**
+   * One image, and the text a reader should find in it.
+   */
+  public static final class Sample {
+    public final BarcodeFormatview format;
+    public final Distortion distortion;
+    public final String expectedText;
+    public final LuminanceSourceview source;
+
+    Sample(BarcodeFormatview format, Distortion distortion, String expectedText, LuminanceSourceview source) {
+      this.format = format;
+      this.distortion = distortion;
+      this.expectedText = expectedText;
+      this.source = source;
+    }
+  }
+
+  private GoldenCorpus() {
+  }
+
+  /**
+   * @return the first count images of one format with one distortion
+   */
+  public static List<Sample> generate(BarcodeFormatview format, Distortion distortion, int count) {
+    List<Sample> samples = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      long seed = ((long) VERSION << 48) ^ ((long) format.ordinal() << 32) ^ ((long) distortion.ordinal() << 24) ^ i;
+      Random random = new Random(seed);
+      String text = payload(format, random);
+      BitMatrixview matrix = format == BarcodeFormatview.QR_CODE
+          ? SyntheticImages.qrCode(text, QR_SIZE)
+          : SyntheticImages.oneD(format, text, ONE_D_WIDTH, ONE_D_HEIGHT);
+      samples.add(new Sample(format, distortion, text, draw(matrix, distortion, random)));
+    }
+    return samples;
+  }
+
+  /**
+   * @return the binarized rows a 1D scan starts with, the middle one and those an eighth of the
+   *         height above and below it, of the first count images of one format with every
+   *         distortion. Rows that can't be binarized are left out.
+   */
+  public static List<BitArrayview> rows(BarcodeFormatview format, int count) {
+    List<BitArrayview> rows = new ArrayList<>();
+    for (Distortion distortion : Distortion.values()) {
+      for (Sample sample : generate(format, distortion, count)) {
+        HybridBinarizerView binarizer = new HybridBinarizerView(sample.source);
+        int height = sample.source.getHeight();
+        for (int y : new int[] {height / 2, height / 2 - height / 8, height / 2 + height / 8}) {
+          try {
+            rows.add(binarizer.getBlackRow(y, null));
+          } catch (NotFoundExceptionview ignored) {
+            // leave it out
+          }
+        }
+      }
+    }
+    return rows;
+  }
+
+  /**
+   * @return text of a typical length and alphabet for the format, with check digits where the
+   *         format's reader returns them
+   */
+  static String payload(BarcodeFormatview format, Random random) {
+    switch (format) {
+      case QR_CODE:
+        return "https://example.com/" + randomChars(random, 10 + random.nextInt(50),
+            "abcdefghijklmnopqrstuvwxyz0123456789-_/?=&");
+      case CODE_128:
+        return randomChars(random, 6 + random.nextInt(10), "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefgh0123456789-./");
+      case CODE_39:
+      case CODE_93:
+        return randomChars(random, 5 + random.nextInt(8), "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789-. ");
+      case CODABAR:
+        // Start and end guards are returned too, with RETURN_CODABAR_START_END
+        return 'A' + randomChars(random, 6 + random.nextInt(8), "0123456789") + 'B';
+      case EAN_13:
+        return withCheckDigit(randomChars(random, 12, "0123456789"));
+      case EAN_8:
+        return withCheckDigit(randomChars(random, 7, "0123456789"));
+      case UPC_A:
+        return withCheckDigit(randomChars(random, 11, "0123456789"));
+      case ITF:
+        return randomChars(random, 2 * (4 + random.nextInt(4)), "0123456789");
+      default:
+        throw new IllegalArgumentException("No payload for " + format);
+    }
+  }
+
+  private static String randomChars(Random random, int length, String alphabet) {
+    char[] chars = new char[length];
+    for (int i = 0; i < length; i++) {
+      chars[i] = alphabet.charAt(random.nextInt(alphabet.length()));
+    }
+    return new String(chars);
+  }
+
+  /**
+   * Appends the UPC/EAN check digit.
+   */
+  private static String withCheckDigit(String digits) {
+    int sum = 0;
+    for (int i = digits.length() - 1, weight = 3; i >= 0; i--, weight = 4 - weight) {
+      sum += weight * (digits.charAt(i) - '0');
+    }
+    return digits + (10 - sum % 10) % 10;
+  }
+
+  private static LuminanceSourceview draw(BitMatrixview matrix, Distortion distortion, Random random) {
+    int width = matrix.getWidth() + 2 * BORDER;
+    int height = matrix.getHeight() + 2 * BORDER;
+    float[] image = new float[width * height];
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < width; x++) {
+        int mx = x - BORDER;
+        int my = y - BORDER;
+        boolean black = mx >= 0 && my >= 0 && mx < matrix.getWidth() && my < matrix.getHeight() && matrix.get(mx, my);
+        image[y * width + x] = black ? BLACK : WHITE;
+      }
+    }
+
+    switch (distortion) {
+      case NONE:
+        break;
+      case BLUR:
+        int radius = 1 + random.nextInt(2);
+        image = boxBlur(boxBlur(image, width, height, radius), width, height, radius);
+        break;
+      case NOISE:
+        float sigma = 6 + random.nextInt(9);
+        for (int i = 0; i < image.length; i++) {
+          image[i] += (float) random.nextGaussian() * sigma;
+        }
+        break;
+      case PERSPECTIVE:
+        float maxShift = Math.min(width, height) / 8.0f;
+        image = warp(image, width, height, PerspectiveTransformviews.quadrilateralToQuadrilateral(
+            random.nextFloat() * maxShift, random.nextFloat() * maxShift,
+            width - random.nextFloat() * maxShift, random.nextFloat() * maxShift,
+            width - random.nextFloat() * maxShift, height - random.nextFloat() * maxShift,
+            random.nextFloat() * maxShift, height - random.nextFloat() * maxShift,
+            0, 0, width, 0, width, height, 0, height));
+        break;
+      case LOW_CONTRAST:
+        float range = 35 + random.nextInt(26);
+        for (int i = 0; i < image.length; i++) {
+          image[i] = 128 + (image[i] - (BLACK + WHITE) / 2.0f) * range / (WHITE - BLACK);
+        }
+        break;
+      case ROTATION:
+        double degrees = (5 + random.nextInt(11)) * (random.nextBoolean() ? 1 : -1);
+        image = rotate(image, width, height, Math.toRadians(degrees));
+        break;
+    }
+
+    int[] pixels = new int[width * height];
+    for (int i = 0; i < pixels.length; i++) {
+      int value = Math.max(0, Math.min(255, Math.round(image[i])));
+      pixels[i] = 0xFF000000 | (value << 16) | (value << 8) | value;
+    }
+    return new RGBLuminanceSourceview(width, height, pixels);
+  }
+
+  private static float[] boxBlur(float[] image, int width, int height, int radius) {
+    float[] horizontal = new float[image.length];
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < width; x++) {
+        float sum = 0;
+        for (int dx = -radius; dx <= radius; dx++) {
+          sum += image[y * width + Math.max(0, Math.min(width - 1, x + dx))];
+        }
+        horizontal[y * width + x] = sum / (2 * radius + 1);
+      }
+    }
+    float[] result = new float[image.length];
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < width; x++) {
+        float sum = 0;
+        for (int dy = -radius; dy <= radius; dy++) {
+          sum += horizontal[Math.max(0, Math.min(height - 1, y + dy)) * width + x];
+        }
+        result[y * width + x] = sum / (2 * radius + 1);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @param transform maps each point of the result to where it comes from in image
+   */
+  private static float[] warp(float[] image, int width, int height, PerspectiveTransformviews transform) {
+    float[] result = new float[image.length];
+    float[] points = new float[2 * width];
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < width; x++) {
+        points[2 * x] = x + 0.5f;
+        points[2 * x + 1] = y + 0.5f;
+      }
+      transform.transformPoints(points);
+      for (int x = 0; x < width; x++) {
+        result[y * width + x] = sample(image, width, height, points[2 * x] - 0.5f, points[2 * x + 1] - 0.5f);
+      }
+    }
+    return result;
+  }
+
+  private static float[] rotate(float[] image, int width, int height, double angle) {
+    float[] result = new float[image.length];
+    float cos = (float) Math.cos(angle);
+    float sin = (float) Math.sin(angle);
+    float cx = width / 2.0f;
+    float cy = height / 2.0f;
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < width; x++) {
+        float dx = x - cx;
+        float dy = y - cy;
+        result[y * width + x] = sample(image, width, height, cx + dx * cos + dy * sin, cy - dx * sin + dy * cos);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Bilinear interpolation; outside the image is white.
+   */
+  private static float sample(float[] image, int width, int height, float x, float y) {
+    int x0 = (int) Math.floor(x);
+    int y0 = (int) Math.floor(y);
+    float fx = x - x0;
+    float fy = y - y0;
+    float top = (1 - fx) * pixel(image, width, height, x0, y0) + fx * pixel(image, width, height, x0 + 1, y0);
+    float bottom = (1 - fx) * pixel(image, width, height, x0, y0 + 1) + fx * pixel(image, width, height, x0 + 1, y0 + 1);
+    return (1 - fy) * top + fy * bottom;
+  }
+
+  private static float pixel(float[] image, int width, int height, int x, int y) {
+    if (x < 0 || y < 0 || x >= width || y >= height) {
+      return WHITE;
+    }
+    return image[y * width + x];
+  }
+
+}
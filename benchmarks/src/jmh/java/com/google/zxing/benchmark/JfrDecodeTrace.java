@@ -0,0 +1,96 @@
+/*
+ * Copyright 2023 ZXing authors
+ *
+ * Licensed under the Apache License, Versionv 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.zxing.benchmark;
+
+import com.google.zxing.BarcodeFormatview;
+import com.google.zxing.DecodeTraceview;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Records every {@link DecodeTraceview} stage as a {@code com.google.zxing.DecodeStage} JFR
+ * event, with the stage, the size of what it worked on, the barcode format and whether it
+ * succeeded. Start the JVM with {@code -XX:StartFlightRecording=filename=decode.jfr} and look at
+ * the events in JDK Mission Control or with {@code jfr print --events DecodeStage decode.jfr}.
+ *
+ * <p>While no recording has the event enabled, stages are not timed at all.</p>
+ */
+public final class JfrDecodeTrace implements DecodeTraceview.Listener {
+
+  private static final EventType EVENT_TYPE = EventType.getEventType(DecodeStageEvent.class);
+
+  @Name("com.google.zxing.DecodeStage")
+  @Label("Decode Stage")
+  @Category("ZXing")
+  @Description("One stage of decoding a barcode")
+  static final class DecodeStageEvent extends Event implements DecodeTraceview.Span {
+
+    @Label("Stage")
+    String stage;
+
+    @Label("Width")
+    @Description("Width of the image, or of the QR symbol in modules")
+    int width;
+
+    @Label("Height")
+    int height;
+
+    @Label("Format")
+    String format;
+
+    @Label("Success")
+    boolean success;
+
+    @Override
+    public void end(BarcodeFormatview format, boolean success) {
+      end();
+      if (shouldCommit()) {
+        this.format = format == null ? null : format.name();
+        this.success = success;
+        commit();
+      }
+    }
+  }
+
+  private JfrDecodeTrace() {
+  }
+
+  /**
+   * Makes JFR the {@link DecodeTraceview} listener for the whole process.
+   */
+  public static void install() {
+    DecodeTraceview.setListener(new JfrDecodeTrace());
+  }
+
+  @Override
+  public DecodeTraceview.Span begin(DecodeTraceview.Stage stage, int width, int height) {
+    if (!EVENT_TYPE.isEnabled()) {
+      return null;
+    }
+    DecodeStageEvent event = new DecodeStageEvent();
+    event.stage = stage.name();
+    event.width = width;
+    event.height = height;
+    event.begin();
+    return event;
+  }
+
+}
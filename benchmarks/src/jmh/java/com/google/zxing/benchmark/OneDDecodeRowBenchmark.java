@@ -0,0 +1,105 @@
+/*
+ * Copyright 2023 ZXing authors
+ *
+ * Licensed under the Apache License, Versionv 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.zxing.benchmark;
+
+import com.google.zxing.BarcodeFormatview;
+import com.google.zxing.ReaderExceptionview;
+import com.google.zxing.common.BitArrayview;
+import com.google.zxing.oned.CodaBarReaderview;
+import com.google.zxing.oned.Code128Readerview;
+import com.google.zxing.oned.Code39Readerview;
+import com.google.zxing.oned.EAN13Readerview;
+import com.google.zxing.oned.ITFReaderview;
+import com.google.zxing.oned.OneDReaderview;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+/**
+ * Decoding binarized rows with each 1D reader, through the public decodeRow that every row of a
+ * scan goes through. The rows are those {@link GoldenCorpus#rows} takes from the golden corpus
+ * images of the format, so they include blurred, noisy and rotated ones that don't decode. The
+ * score is rows per second. {@code com.google.zxing.oned.PatternMatchBenchmark} matches
+ * characters in the same rows with the lookup tables and with the linear scans they replaced.
+ */
+@State(Scope.Thread)
+public class OneDDecodeRowBenchmark {
+
+  /** Images of each distortion the rows are taken from. */
+  static final int IMAGES = 20;
+  /** Three rows from each image of each of the six distortions. */
+  static final int ROWS = 6 * IMAGES * 3;
+
+  @Param({"CODE_128", "CODE_39", "CODABAR", "EAN_13", "ITF"})
+  public String format;
+
+  private OneDReaderview reader;
+  private BitArrayview[] rows;
+
+  @Setup
+  public void setUp() {
+    BarcodeFormatview barcodeFormat = BarcodeFormatview.valueOf(format);
+    switch (barcodeFormat) {
+      case CODE_128:
+        reader = new Code128Readerview();
+        break;
+      case CODE_39:
+        reader = new Code39Readerview();
+        break;
+      case CODABAR:
+        reader = new CodaBarReaderview();
+        break;
+      case EAN_13:
+        reader = new EAN13Readerview();
+        break;
+      case ITF:
+        reader = new ITFReaderview();
+        break;
+      default:
+        throw new IllegalArgumentException(format);
+    }
+    List<BitArrayview> corpusRows = GoldenCorpus.rows(barcodeFormat, IMAGES);
+    if (corpusRows.size() != ROWS) {
+      throw new IllegalStateException("Expected " + ROWS + " rows, got " + corpusRows.size());
+    }
+    rows = corpusRows.toArray(new BitArrayview[0]);
+  }
+
+  /**
+   * @return how many of the rows decoded
+   */
+  @Benchmark
+  @OperationsPerInvocation(ROWS)
+  public int decodeRow() {
+    int decoded = 0;
+    for (BitArrayview row : rows) {
+      try {
+        reader.decodeRow(0, row, null);
+        decoded++;
+      } catch (ReaderExceptionview re) {
+        // most rows of a damaged image don't decode
+      }
+    }
+    return decoded;
+  }
+
+}
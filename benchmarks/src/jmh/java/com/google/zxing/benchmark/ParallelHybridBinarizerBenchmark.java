@@ -0,0 +1,80 @@
+/*
+ * Copyright 2023 ZXing authors
+ *
+ * Licensed under the Apache License, Versionv 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.zxing.benchmark;
+
+import com.google.zxing.LuminanceSourceview;
+import com.google.zxing.NotFoundExceptionview;
+import com.google.zxing.common.BitMatrixview;
+import com.google.zxing.common.HybridBinarizerView;
+import com.google.zxing.common.ParallelHybridBinarizerView;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * How {@link ParallelHybridBinarizerView} scales with threads on photo-sized images, next to
+ * {@link HybridBinarizerView} on the same pixels. With one thread no executor is given, so only the
+ * summed-area table differs from the hybrid binarizer.
+ */
+@State(Scope.Thread)
+public class ParallelHybridBinarizerBenchmark {
+
+  /**
+   * Both at least {@link ParallelHybridBinarizerView#PARALLEL_MIN_PIXELS}: a 4 and a 12 megapixel photo.
+   */
+  @Param({"2048x2048", "4000x3000"})
+  public String shape;
+
+  @Param({"1", "2", "4", "8"})
+  public int threads;
+
+  private LuminanceSourceview source;
+  private ExecutorService executor;
+
+  @Setup
+  public void setUp() {
+    int separator = shape.indexOf('x');
+    int width = Integer.parseInt(shape.substring(0, separator));
+    int height = Integer.parseInt(shape.substring(separator + 1));
+    source = SyntheticImages.render(SyntheticImages.qrCode(SyntheticImages.QR_CONTENTS, width, height), 1L);
+    executor = threads == 1 ? null : new ForkJoinPool(threads);
+  }
+
+  @TearDown
+  public void tearDown() {
+    if (executor != null) {
+      executor.shutdown();
+    }
+  }
+
+  @Benchmark
+  public BitMatrixview parallelHybridMatrix() throws NotFoundExceptionview {
+    return new ParallelHybridBinarizerView(source, executor).getBlackMatrix();
+  }
+
+  @Benchmark
+  public BitMatrixview hybridMatrix() throws NotFoundExceptionview {
+    return new HybridBinarizerView(source).getBlackMatrix();
+  }
+
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2023 ZXing authors
+ *
+ * Licensed under the Apache License, Versionv 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.zxing.benchmark;
+
+import com.google.zxing.common.reedsolomon.GenericGFview;
+import com.google.zxing.common.reedsolomon.ReedSolomonDecoderview;
+import com.google.zxing.common.reedsolomon.ReedSolomonEncoderview;
+import com.google.zxing.common.reedsolomon.ReedSolomonExceptionview;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+
+/**
+ * Correcting one QR code block, the largest kind (version 40-H: 15 data and 30 error correction
+ * codewords), with no errors and with as many as can be corrected.
+ */
+@State(Scope.Thread)
+public class ReedSolomonBenchmark {
+
+  private static final int DATA_CODEWORDS = 15;
+  private static final int EC_CODEWORDS = 30;
+
+  @Param({"0", "15"})
+  public int errors;
+
+  private final ReedSolomonDecoderview decoder =
+      new ReedSolomonDecoderview(GenericGFview.QR_CODE_FIELD_256);
+  private int[] received;
+  private int[] scratch;
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(3L);
+    int[] codewords = new int[DATA_CODEWORDS + EC_CODEWORDS];
+    for (int i = 0; i < DATA_CODEWORDS; i++) {
+      codewords[i] = random.nextInt(256);
+    }
+    new ReedSolomonEncoderview(GenericGFview.QR_CODE_FIELD_256).encode(codewords, EC_CODEWORDS);
+    // Corrupt evenly spaced codewords, so the errors are the same every run
+    int step = codewords.length / Math.max(errors, 1);
+    for (int i = 0; i < errors; i++) {
+      codewords[i * step] ^= 1 + random.nextInt(255);
+    }
+    received = codewords;
+    scratch = new int[codewords.length];
+  }
+
+  @Benchmark
+  public int[] decode() throws ReedSolomonExceptionview {
+    // decode() corrects in place, so start from the received codewords each time
+    System.arraycopy(received, 0, scratch, 0, received.length);
+    decoder.decode(scratch, EC_CODEWORDS);
+    return scratch;
+  }
+
+}
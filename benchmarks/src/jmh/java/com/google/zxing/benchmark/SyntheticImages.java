@@ -0,0 +1,170 @@
+/*
+ * Copyright 2023 ZXing authors
+ *
+ * Licensed under the Apache License, Versionv 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.benchmark;
+
+import com.google.zxing.BarcodeFormatview;
+import com.google.zxing.LuminanceSourceview;
+import com.google.zxing.RGBLuminanceSourceview;
+import com.google.zxing.WriterExceptionview;
+import com.google.zxing.Writerview;
+import com.google.zxing.common.BitMatrixview;
+import com.google.zxing.oned.CodaBarWriterview;
+import com.google.zxing.oned.Code128Writerview;
+import com.google.zxing.oned.Code39Writerview;
+import com.google.zxing.oned.Code93Writerview;
+import com.google.zxing.oned.EAN13Writerview;
+import com.google.zxing.oned.EAN8Writerview;
+import com.google.zxing.oned.ITFWriterview;
+import com.google.zxing.oned.UPCAWriterview;
+import com.google.zxing.qrcode.QRCodeWriterview;
+
+import java.util.Random;
+
+/**
+ * Benchmark inputs, drawn with the library's own writers. Everything is derived from fixed
+ * seeds, so every run measures the same pixels.
+ */
+public final class SyntheticImages {
+
+  /**
+   * Something like a URL, long enough to need a version 5 or so symbol.
+   */
+  public static final String QR_CONTENTS = "https://example.com/scan?id=0123456789&ref=benchmark-input";
+
+  private static final int BLACK = 40;
+  private static final int WHITE = 210;
+  // Kept below HybridBinarizer's minimum dynamic range, so flat areas are still seen as flat
+  private static final int NOISE = 8;
+
+  private SyntheticImages() {
+  }
+
+  /**
+   * @return a QR code of {@link #QR_CONTENTS}, with its quiet zone, scaled to about size pixels
+   */
+  public static BitMatrixview qrCode(int size) {
+    return qrCode(QR_CONTENTS, size);
+  }
+
+  /**
+   * @return a 1D barcode with a typical payload for the format, at least width pixels wide
+   */
+  public static BitMatrixview oneD(BarcodeFormatview format, int width, int height) {
+    String contents;
+    switch (format) {
+      case CODE_128:
+        contents = "BENCH-128-0042";
+        break;
+      case CODE_39:
+        contents = "BENCH39 0042";
+        break;
+      case CODABAR:
+        contents = "A0123456789B";
+        break;
+      case EAN_13:
+        contents = "5901234123457";
+        break;
+      case ITF:
+        contents = "00012345678905";
+        break;
+      default:
+        throw new IllegalArgumentException("No writer for " + format);
+    }
+    return oneD(format, contents, width, height);
+  }
+
+  /**
+   * @return contents as a 1D barcode of the given format, at least width pixels wide
+   */
+  public static BitMatrixview oneD(BarcodeFormatview format, String contents, int width, int height) {
+    Writerview writer;
+    switch (format) {
+      case CODE_128:
+        writer = new Code128Writerview();
+        break;
+      case CODE_39:
+        writer = new Code39Writerview();
+        break;
+      case CODE_93:
+        writer = new Code93Writerview();
+        break;
+      case CODABAR:
+        writer = new CodaBarWriterview();
+        break;
+      case EAN_13:
+        writer = new EAN13Writerview();
+        break;
+      case EAN_8:
+        writer = new EAN8Writerview();
+        break;
+      case UPC_A:
+        writer = new UPCAWriterview();
+        break;
+      case ITF:
+        writer = new ITFWriterview();
+        break;
+      default:
+        throw new IllegalArgumentException("No writer for " + format);
+    }
+    try {
+      return writer.encode(contents, format, width, height);
+    } catch (WriterExceptionview we) {
+      throw new IllegalStateException(we);
+    }
+  }
+
+  /**
+   * @return contents as a QR code, with its quiet zone, scaled to about size pixels
+   */
+  public static BitMatrixview qrCode(String contents, int size) {
+    return qrCode(contents, size, size);
+  }
+
+  /**
+   * @return contents as a QR code as large as fits, centred in a width by height image
+   */
+  public static BitMatrixview qrCode(String contents, int width, int height) {
+    try {
+      return new QRCodeWriterview().encode(contents, BarcodeFormatview.QR_CODE, width, height);
+    } catch (WriterExceptionview we) {
+      throw new IllegalStateException(we);
+    }
+  }
+
+  /**
+   * Renders a matrix as a greyscale photo might show it: dark and light but not black and white,
+   * lit more brightly on one side than the other, and with some noise.
+   */
+  public static LuminanceSourceview render(BitMatrixview matrix, long seed) {
+    int width = matrix.getWidth();
+    int height = matrix.getHeight();
+    Random random = new Random(seed);
+    int[] pixels = new int[width * height];
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < width; x++) {
+        int base = matrix.get(x, y) ? BLACK : WHITE;
+        // Up to a fifth darker towards the right
+        int lit = base - base * x / (5 * width);
+        int value = lit + random.nextInt(2 * NOISE + 1) - NOISE;
+        value = Math.max(0, Math.min(255, value));
+        pixels[y * width + x] = 0xFF000000 | (value << 16) | (value << 8) | value;
+      }
+    }
+    return new RGBLuminanceSourceview(width, height, pixels);
+  }
+
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2023 ZXing authors
+ *
+ * Licensed under the Apache License, Versionv 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.zxing.oned;
+
+import com.google.zxing.BarcodeFormatview;
+import com.google.zxing.benchmark.GoldenCorpus;
+import com.google.zxing.common.BitArrayview;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+/**
+ * Matching characters in binarized rows with {@link PatternMatcherview}, against the linear scan
+ * over every pattern that Code 128, the UPC/EAN family and ITF used before. Both match the same
+ * counters: those of every run of each row with the runs after it, as a reader would while
+ * looking for characters. The rows are the same golden corpus rows
+ * {@link com.google.zxing.benchmark.OneDDecodeRowBenchmark} decodes, and the score is rows per
+ * second. Lives in the readers' package because the pattern tables are package private.
+ */
+@State(Scope.Thread)
+public class PatternMatchBenchmark {
+
+  private static final int IMAGES = 20;
+  /** Three rows from each image of each of the six distortions. */
+  private static final int ROWS = 6 * IMAGES * 3;
+
+  @Param({"CODE_128", "EAN_13", "ITF"})
+  public String format;
+
+  private int[][] patterns;
+  private float maxIndividualVariance;
+  private float maxAvgVariance;
+  // Runs between the counters of one character: 2 for ITF, whose digits are interleaved
+  private int stride;
+  private PatternMatcherview matcher;
+  private int[][] runLengths;
+  private int[] counters;
+
+  @Setup
+  public void setUp() {
+    BarcodeFormatview barcodeFormat = BarcodeFormatview.valueOf(format);
+    // The variances are those of each reader.
+    switch (barcodeFormat) {
+      case CODE_128:
+        patterns = Code128Readerview.CODE_PATTERNS;
+        maxIndividualVariance = 0.7f;
+        maxAvgVariance = 0.25f;
+        stride = 1;
+        break;
+      case EAN_13:
+        patterns = UPCEANReaderview.L_AND_G_PATTERNS;
+        maxIndividualVariance = 0.7f;
+        maxAvgVariance = 0.48f;
+        stride = 1;
+        break;
+      case ITF:
+        patterns = ITFReaderview.PATTERNS;
+        maxIndividualVariance = 0.78f;
+        maxAvgVariance = 0.38f;
+        stride = 2;
+        break;
+      default:
+        throw new IllegalArgumentException(format);
+    }
+    matcher = new PatternMatcherview(patterns, maxIndividualVariance, maxAvgVariance);
+    counters = new int[patterns[0].length];
+
+    List<BitArrayview> rows = GoldenCorpus.rows(barcodeFormat, IMAGES);
+    if (rows.size() != ROWS) {
+      throw new IllegalStateException("Expected " + ROWS + " rows, got " + rows.size());
+    }
+    runLengths = new int[ROWS][];
+    for (int i = 0; i < ROWS; i++) {
+      RunLengthRowview runs = new RunLengthRowview(rows.get(i));
+      runLengths[i] = new int[runs.getRunCount()];
+      for (int run = 0; run < runLengths[i].length; run++) {
+        runLengths[i][run] = runs.getRunLength(run);
+      }
+    }
+    if (lookupTable() != linearScan()) {
+      throw new IllegalStateException("The lookup table and the linear scan disagree");
+    }
+  }
+
+  /**
+   * @return a checksum of the patterns matched
+   */
+  @Benchmark
+  @OperationsPerInvocation(ROWS)
+  public int lookupTable() {
+    int checksum = 0;
+    int span = (counters.length - 1) * stride + 1;
+    for (int[] row : runLengths) {
+      for (int start = 0; start + span <= row.length; start++) {
+        fillCounters(row, start);
+        checksum = 31 * checksum + matcher.match(counters);
+      }
+    }
+    return checksum;
+  }
+
+  /**
+   * @return a checksum of the patterns matched
+   */
+  @Benchmark
+  @OperationsPerInvocation(ROWS)
+  public int linearScan() {
+    int checksum = 0;
+    int span = (counters.length - 1) * stride + 1;
+    for (int[] row : runLengths) {
+      for (int start = 0; start + span <= row.length; start++) {
+        fillCounters(row, start);
+        checksum = 31 * checksum + matchLinearly(counters);
+      }
+    }
+    return checksum;
+  }
+
+  private void fillCounters(int[] row, int start) {
+    for (int i = 0; i < counters.length; i++) {
+      counters[i] = row[start + i * stride];
+    }
+  }
+
+  /**
+   * The loop the readers ran before {@link PatternMatcherview}.
+   */
+  private int matchLinearly(int[] counters) {
+    float bestVariance = maxAvgVariance; // worst variance we'll accept
+    int bestMatch = -1;
+    for (int d = 0; d < patterns.length; d++) {
+      float variance = OneDReaderview.patternMatchVariance(counters, patterns[d], maxIndividualVariance);
+      if (variance < bestVariance) {
+        bestVariance = variance;
+        bestMatch = d;
+      }
+    }
+    return bestMatch;
+  }
+
+}
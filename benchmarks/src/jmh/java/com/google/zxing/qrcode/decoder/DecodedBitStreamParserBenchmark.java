@@ -0,0 +1,97 @@
+/*
+ * Copyright 2023 ZXing authors
+ *
+ * Licensed under the Apache License, Versionv 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.zxing.qrcode.decoder;
+
+import com.google.zxing.FormatExceptionview;
+import com.google.zxing.WriterExceptionview;
+import com.google.zxing.common.BitMatrixview;
+import com.google.zxing.common.DecoderResultview;
+import com.google.zxing.qrcode.encoder.ByteMatrixview;
+import com.google.zxing.qrcode.encoder.Encoderview;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Turning the corrected data codewords of a QR code into text. The codewords are read out of a
+ * symbol made by {@link Encoderview}, as {@link Decoderview} would read them. Lives in the
+ * decoder's package because the parser and the classes that feed it are package private.
+ */
+@State(Scope.Thread)
+public class DecodedBitStreamParserBenchmark {
+
+  /**
+   * Contents chosen to be encoded in each mode the parser handles most.
+   */
+  @Param({"BYTE", "ALPHANUMERIC", "NUMERIC"})
+  public String mode;
+
+  private byte[] dataBytes;
+  private Versionv version;
+  private ErrorCorrectionLevelview ecLevel;
+
+  @Setup
+  public void setUp() throws WriterExceptionview, FormatExceptionview {
+    String contents;
+    switch (mode) {
+      case "BYTE":
+        contents = "https://example.com/scan?id=0123456789&ref=benchmark-input&lang=en";
+        break;
+      case "ALPHANUMERIC":
+        contents = "BENCHMARK INPUT 0123456789 $%*+-./: ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+        break;
+      case "NUMERIC":
+        contents = "012345678901234567890123456789012345678901234567890123456789";
+        break;
+      default:
+        throw new IllegalArgumentException(mode);
+    }
+    ByteMatrixview modules = Encoderview.encode(contents, ErrorCorrectionLevelview.M).getMatrix();
+    BitMatrixview bits = new BitMatrixview(modules.getWidth(), modules.getHeight());
+    for (int y = 0; y < modules.getHeight(); y++) {
+      for (int x = 0; x < modules.getWidth(); x++) {
+        if (modules.get(x, y) == 1) {
+          bits.set(x, y);
+        }
+      }
+    }
+
+    BitMatrixParserview parser = new BitMatrixParserview(bits);
+    version = parser.readVersion();
+    ecLevel = parser.readFormatInformation().getErrorCorrectionLevel();
+    DataBlockview[] blocks = DataBlockview.getDataBlocks(parser.readCodewords(), version, ecLevel);
+    int totalBytes = 0;
+    for (DataBlockview block : blocks) {
+      totalBytes += block.getNumDataCodewords();
+    }
+    // The symbol has no errors, so the data codewords need no correcting
+    dataBytes = new byte[totalBytes];
+    int offset = 0;
+    for (DataBlockview block : blocks) {
+      System.arraycopy(block.getCodewords(), 0, dataBytes, offset, block.getNumDataCodewords());
+      offset += block.getNumDataCodewords();
+    }
+  }
+
+  @Benchmark
+  public DecoderResultview parse() throws FormatExceptionview {
+    return DecodedBitStreamParserview.decode(dataBytes, version, ecLevel, null);
+  }
+
+}
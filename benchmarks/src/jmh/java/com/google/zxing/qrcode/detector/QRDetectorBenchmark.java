@@ -0,0 +1,72 @@
+/*
+ * Copyright 2023 ZXing authors
+ *
+ * Licensed under the Apache License, Versionv 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.qrcode.detector;
+
+import com.google.zxing.DecodeHintTypeview;
+import com.google.zxing.FormatExceptionview;
+import com.google.zxing.NotFoundExceptionview;
+import com.google.zxing.benchmark.SyntheticImages;
+import com.google.zxing.common.BitMatrixview;
+import com.google.zxing.common.DetectorResultview;
+import com.google.zxing.common.HybridBinarizerView;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Finding the finder patterns, and the whole of detection, on an already binarized image. Lives
+ * in the detector's package because {@link FinderPatternFinderview#find} is package private.
+ */
+@State(Scope.Thread)
+public class QRDetectorBenchmark {
+
+  @Param({"640", "2048"})
+  public int size;
+
+  @Param({"false", "true"})
+  public boolean tryHarder;
+
+  private BitMatrixview image;
+  private Map<DecodeHintTypeview,Object> hints;
+
+  @Setup
+  public void setUp() throws NotFoundExceptionview {
+    image = new HybridBinarizerView(SyntheticImages.render(SyntheticImages.qrCode(size), 2L))
+        .getBlackMatrix();
+    hints = new EnumMap<>(DecodeHintTypeview.class);
+    if (tryHarder) {
+      hints.put(DecodeHintTypeview.TRY_HARDER, Boolean.TRUE);
+    }
+  }
+
+  @Benchmark
+  public FinderPatternInfoview findFinderPatterns() throws NotFoundExceptionview {
+    return new FinderPatternFinderview(image).find(hints);
+  }
+
+  @Benchmark
+  public DetectorResultview detect() throws NotFoundExceptionview, FormatExceptionview {
+    return new Detectorview(image).detect(hints);
+  }
+
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2023 ZXing authors
+ *
+ * Licensed under the Apache License, Versionv 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.batch;
+
+import com.google.zxing.BatchDecoderview;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+
+/**
+ * Decodes directories and lists of image files on a desktop JVM, writing a line of JSON for each
+ * to stdout as it finishes; see {@link BatchDecoderview#run} for the arguments. Images are read
+ * with {@link ImageIOImageLoader}. Run with
+ * {@code ./gradlew :benchmarks:batch -PbatchArgs="--threads 8 scans/"}.
+ *
+ * <p>Exits with status 2 if the arguments are not understood.</p>
+ */
+public final class BatchDecodeMain {
+
+  private BatchDecodeMain() {
+  }
+
+  public static void main(String[] args) throws IOException, InterruptedException {
+    // Flushed at every line, so that results can be followed as they come
+    PrintStream out = new PrintStream(new FileOutputStream(FileDescriptor.out), true, "UTF-8");
+    int found;
+    try {
+      found = BatchDecoderview.run(args, new ImageIOImageLoader(), out);
+    } catch (IllegalArgumentException iae) {
+      System.err.println(iae.getMessage());
+      System.exit(2);
+      return;
+    } finally {
+      out.flush();
+    }
+    System.err.println(found + " with a barcode");
+  }
+
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2023 ZXing authors
+ *
+ * Licensed under the Apache License, Versionv 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.batch;
+
+import com.google.zxing.BatchDecoderview;
+import com.google.zxing.LuminanceSourceview;
+import com.google.zxing.PlanarYUVLuminanceSourceview;
+import com.google.zxing.TiledLuminanceSourceview;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+/**
+ * Reads image files with {@link ImageIO}, in whatever formats it supports, into luminance.
+ * Pixels are converted a row at a time, so only the decoded image and its luminance are held,
+ * not a copy of its pixels as ints. Transparent pixels count as white.
+ *
+ * <p>Images of more pixels than a threshold are not read whole. They get a
+ * {@link TiledLuminanceSourceview} over an {@link ImageIOTileReader} instead, which reads a strip
+ * of the image at a time. Decode them with a window size (see {@link BatchDecoderview}) so that
+ * only a window's worth of the image is ever held.</p>
+ */
+public final class ImageIOImageLoader implements BatchDecoderview.ImageLoader {
+
+  /**
+   * Images of more pixels than this, 4096 by 4096, are read in tiles by default.
+   */
+  public static final long DEFAULT_MAX_WHOLE_PIXELS = 4096L * 4096L;
+
+  private final long maxWholePixels;
+
+  public ImageIOImageLoader() {
+    this(DEFAULT_MAX_WHOLE_PIXELS);
+  }
+
+  /**
+   * @param maxWholePixels the most pixels an image may have to be read whole; larger ones are
+   *                       read in tiles as they are needed
+   */
+  public ImageIOImageLoader(long maxWholePixels) {
+    if (maxWholePixels < 1) {
+      throw new IllegalArgumentException("Bad pixel count: " + maxWholePixels);
+    }
+    this.maxWholePixels = maxWholePixels;
+  }
+
+  @Override
+  public LuminanceSourceview load(File file) throws IOException {
+    try (ImageInputStream input = open(file)) {
+      ImageReader reader = readerFor(input);
+      try {
+        // Only the header is read so far
+        int width = reader.getWidth(0);
+        int height = reader.getHeight(0);
+        if ((long) width * height > maxWholePixels) {
+          return new TiledLuminanceSourceview(new ImageIOTileReader(file, width, height));
+        }
+        byte[] luminances = new byte[width * height];
+        toLuminance(reader.read(0), luminances);
+        return new PlanarYUVLuminanceSourceview(luminances, width, height, 0, 0, width, height, false);
+      } finally {
+        reader.dispose();
+      }
+    }
+  }
+
+  static ImageInputStream open(File file) throws IOException {
+    ImageInputStream input = ImageIO.createImageInputStream(file);
+    if (input == null) {
+      throw new IOException("Could not open " + file);
+    }
+    return input;
+  }
+
+  /**
+   * @return a reader for the first image of the stream, which the caller must dispose of
+   */
+  static ImageReader readerFor(ImageInputStream input) throws IOException {
+    Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+    if (!readers.hasNext()) {
+      throw new IOException("Unsupported image format");
+    }
+    ImageReader reader = readers.next();
+    reader.setInput(input, true, true);
+    return reader;
+  }
+
+  /**
+   * Converts the whole of an image into {@code luminances}, row by row.
+   */
+  static void toLuminance(BufferedImage image, byte[] luminances) {
+    int width = image.getWidth();
+    int height = image.getHeight();
+    int[] row = new int[width];
+    for (int y = 0; y < height; y++) {
+      image.getRGB(0, y, width, 1, row, 0, width);
+      int offset = y * width;
+      for (int x = 0; x < width; x++) {
+        int pixel = row[x];
+        int luminance;
+        if ((pixel & 0xFF000000) == 0) {
+          luminance = 0xFF;
+        } else {
+          // The same green-favouring average as RGBLuminanceSourceview
+          luminance = (((pixel >> 16) & 0xFF) + ((pixel >> 7) & 0x1FE) + (pixel & 0xFF)) / 4;
+        }
+        luminances[offset + x] = (byte) luminance;
+      }
+    }
+  }
+
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2023 ZXing authors
+ *
+ * Licensed under the Apache License, Versionv 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.batch;
+
+import com.google.zxing.TiledLuminanceSourceview;
+
+import java.awt.Rectangle;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+/**
+ * Reads the tiles of an image file with {@link ImageReader#read(int, ImageReadParam)}, decoding
+ * only the region asked for. Most formats store an image in rows from the top, so the reader
+ * still has to go through the rows above a region to get to it; to do that once per row of
+ * tiles rather than once per tile, a full-width strip the height of the tiles is read and kept
+ * until a tile from another strip is asked for. Only that strip is held, never the whole image.
+ *
+ * <p>The file is opened again for every strip, so nothing needs closing when the source is done
+ * with. A failure to read it surfaces as an {@link UncheckedIOException} from the source.</p>
+ */
+final class ImageIOTileReader implements TiledLuminanceSourceview.TileReader {
+
+  private final File file;
+  private final int width;
+  private final int height;
+  private byte[] strip;
+  private int stripTop;
+  private int stripHeight;
+
+  ImageIOTileReader(File file, int width, int height) {
+    this.file = file;
+    this.width = width;
+    this.height = height;
+  }
+
+  @Override
+  public int getWidth() {
+    return width;
+  }
+
+  @Override
+  public int getHeight() {
+    return height;
+  }
+
+  @Override
+  public void readTile(int left, int top, int width, int height, byte[] luminances) {
+    if (strip == null || top != stripTop || height != stripHeight) {
+      readStrip(top, height);
+    }
+    for (int y = 0; y < height; y++) {
+      System.arraycopy(strip, y * this.width + left, luminances, y * width, width);
+    }
+  }
+
+  private void readStrip(int top, int height) {
+    // Forgotten first, so that a strip which failed to read is not mistaken for the old one
+    strip = null;
+    byte[] luminances = new byte[width * height];
+    try (ImageInputStream input = ImageIOImageLoader.open(file)) {
+      ImageReader reader = ImageIOImageLoader.readerFor(input);
+      try {
+        ImageReadParam param = reader.getDefaultReadParam();
+        param.setSourceRegion(new Rectangle(0, top, width, height));
+        ImageIOImageLoader.toLuminance(reader.read(0, param), luminances);
+      } finally {
+        reader.dispose();
+      }
+    } catch (IOException ioe) {
+      throw new UncheckedIOException(ioe);
+    }
+    strip = luminances;
+    stripTop = top;
+    stripHeight = height;
+  }
+
+}
@@ -0,0 +1,469 @@
+/*
+ * Copyright 2023 ZXing authors
+ *
+ * Licensed under the Apache License, Versionv 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing;
+
+import com.google.zxing.common.HybridBinarizerView;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Decodes many image files, several at a time, and writes one line of JSON per file as each
+ * finishes. Files are taken from an iterator as workers become free, and only a few more than
+ * there are workers are in flight at once, so the number of files does not bound memory.
+ *
+ * <p>Each line is an object with the file's path, and either the {@code text}, {@code format}
+ * and result {@code points} of the barcode found, or an {@code error}. {@code loadMs} and
+ * {@code decodeMs} give how long reading the image and decoding it took. Lines come in the order
+ * files finish, not the order they were given.</p>
+ *
+ * <p>Reading image files is platform specific, so it is left to an {@link ImageLoader}. On a
+ * desktop JVM, {@code com.google.zxing.batch.BatchDecodeMain} in the benchmarks module runs a
+ * batch from the command line with a loader built on ImageIO.</p>
+ *
+ * <p>Binarizing an image needs its whole luminance at once. For very large images, such as a
+ * {@link TiledLuminanceSourceview} over a page scan, a window size can be given: each image is
+ * then decoded one window at a time, and no more than a window is held.</p>
+ */
+public final class BatchDecoderview {
+
+  /**
+   * Reads an image file into luminance data. Called from several worker threads at once.
+   */
+  public interface ImageLoader {
+    LuminanceSourceview load(File file) throws IOException;
+  }
+
+  private static final String USAGE =
+      "Usage: [--threads N] [--try-harder] [--window SIZE] [--format FORMAT]... " +
+      "(FILE | DIRECTORY | @LIST_FILE)...";
+
+  private final ImageLoader loader;
+  private final Map<DecodeHintTypeview,?> hints;
+  private final int threads;
+  private final int windowSize;
+
+  /**
+   * @param loader reads each file
+   * @param hints passed to every worker's reader; may be null
+   * @param threads how many files to decode at once
+   */
+  public BatchDecoderview(ImageLoader loader, Map<DecodeHintTypeview,?> hints, int threads) {
+    this(loader, hints, threads, 0);
+  }
+
+  /**
+   * @param loader reads each file
+   * @param hints passed to every worker's reader; may be null
+   * @param threads how many files to decode at once
+   * @param windowSize width and height of the windows to decode images larger than this in, or 0
+   *                   to decode every image whole. Windows overlap by half, so a barcode up to
+   *                   half this size always lies wholly within one. Images whose source does not
+   *                   support cropping are decoded whole.
+   */
+  public BatchDecoderview(ImageLoader loader, Map<DecodeHintTypeview,?> hints, int threads, int windowSize) {
+    if (threads < 1) {
+      throw new IllegalArgumentException("Bad thread count: " + threads);
+    }
+    if (windowSize < 0 || windowSize == 1) {
+      throw new IllegalArgumentException("Bad window size: " + windowSize);
+    }
+    this.loader = loader;
+    this.hints = hints;
+    this.threads = threads;
+    this.windowSize = windowSize;
+  }
+
+  /**
+   * Decodes every file, writing a line for each to {@code out} as it finishes. Output is only
+   * written from the calling thread.
+   *
+   * @return how many files had a barcode
+   * @throws IOException if writing to {@code out} failed
+   * @throws InterruptedException if interrupted while waiting; files in flight are abandoned
+   */
+  public int decode(Iterator<File> files, Appendable out) throws IOException, InterruptedException {
+    final ThreadLocal<MultiFormatReaderview> readers = new ThreadLocal<MultiFormatReaderview>() {
+      @Override
+      protected MultiFormatReaderview initialValue() {
+        // One reader per worker, set up once and reused for every file that worker decodes
+        MultiFormatReaderview reader = new MultiFormatReaderview();
+        reader.setHints(hints);
+        return reader;
+      }
+    };
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      CompletionService<Line> completionService = new ExecutorCompletionService<>(executor);
+      int maxInFlight = 2 * threads;
+      int inFlight = 0;
+      int found = 0;
+      while (files.hasNext()) {
+        if (inFlight == maxInFlight) {
+          found += write(completionService.take(), out);
+          inFlight--;
+        }
+        completionService.submit(new DecodeTask(files.next(), loader, readers, windowSize));
+        inFlight++;
+      }
+      for (; inFlight > 0; inFlight--) {
+        found += write(completionService.take(), out);
+      }
+      return found;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static int write(Future<Line> future, Appendable out)
+      throws IOException, InterruptedException {
+    Line line;
+    try {
+      line = future.get();
+    } catch (ExecutionException ee) {
+      // DecodeTask catches everything it expects; anything else is a bug worth surfacing
+      throw new IllegalStateException(ee.getCause());
+    }
+    out.append(line.json).append('\n');
+    return line.found ? 1 : 0;
+  }
+
+  /**
+   * Runs a batch from command line arguments: {@code --threads N} (default: one per processor),
+   * {@code --try-harder}, {@code --window SIZE} (default: decode images whole),
+   * {@code --format FORMAT} (repeatable; default: all formats), then any
+   * number of files, directories (searched recursively) and {@code @LIST_FILE}s naming one file
+   * per line.
+   *
+   * @return how many files had a barcode
+   * @throws IllegalArgumentException if the arguments are not understood
+   */
+  public static int run(String[] args, ImageLoader loader, Appendable out)
+      throws IOException, InterruptedException {
+    int threads = Runtime.getRuntime().availableProcessors();
+    int windowSize = 0;
+    Map<DecodeHintTypeview,Object> hints = new EnumMap<>(DecodeHintTypeview.class);
+    Collection<BarcodeFormatview> formats = new ArrayList<>();
+    List<String> inputs = new ArrayList<>();
+    for (int i = 0; i < args.length; i++) {
+      String arg = args[i];
+      if ("--threads".equals(arg) && i + 1 < args.length) {
+        threads = Integer.parseInt(args[++i]);
+      } else if ("--window".equals(arg) && i + 1 < args.length) {
+        windowSize = Integer.parseInt(args[++i]);
+      } else if ("--try-harder".equals(arg)) {
+        hints.put(DecodeHintTypeview.TRY_HARDER, Boolean.TRUE);
+      } else if ("--format".equals(arg) && i + 1 < args.length) {
+        formats.add(BarcodeFormatview.valueOf(args[++i]));
+      } else if (arg.startsWith("--")) {
+        throw new IllegalArgumentException(USAGE);
+      } else {
+        inputs.add(arg);
+      }
+    }
+    if (inputs.isEmpty()) {
+      throw new IllegalArgumentException(USAGE);
+    }
+    if (!formats.isEmpty()) {
+      hints.put(DecodeHintTypeview.POSSIBLE_FORMATS, formats);
+    }
+    return new BatchDecoderview(loader, hints, threads, windowSize).decode(new InputIterator(inputs), out);
+  }
+
+  /**
+   * The result of one file, already formatted.
+   */
+  private static final class Line {
+    final String json;
+    final boolean found;
+
+    Line(String json, boolean found) {
+      this.json = json;
+      this.found = found;
+    }
+  }
+
+  private static final class DecodeTask implements Callable<Line> {
+
+    private final File file;
+    private final ImageLoader loader;
+    private final ThreadLocal<MultiFormatReaderview> readers;
+    private final int windowSize;
+
+    DecodeTask(File file, ImageLoader loader, ThreadLocal<MultiFormatReaderview> readers, int windowSize) {
+      this.file = file;
+      this.loader = loader;
+      this.readers = readers;
+      this.windowSize = windowSize;
+    }
+
+    @Override
+    public Line call() {
+      StringBuilder json = new StringBuilder(256);
+      json.append("{\"file\":");
+      appendString(json, file.getPath());
+      long start = System.nanoTime();
+      LuminanceSourceview source;
+      try {
+        source = loader.load(file);
+      } catch (IOException | RuntimeException | Error e) {
+        // Errors too, such as running out of memory on one huge image: the next file may be fine
+        json.append(",\"error\":");
+        appendString(json, "Could not load image: " + e);
+        return new Line(json.append('}').toString(), false);
+      }
+      long loaded = System.nanoTime();
+      Resultview result;
+      String error = null;
+      try {
+        result = decode(new BinaryBitmapview(new HybridBinarizerView(source)), readers.get(), windowSize);
+      } catch (NotFoundExceptionview nfe) {
+        result = null;
+        error = "No barcode found";
+      } catch (RuntimeException | Error e) {
+        result = null;
+        error = "Decoding failed: " + e;
+      }
+      long decoded = System.nanoTime();
+
+      if (result != null) {
+        json.append(",\"text\":");
+        appendString(json, result.getText());
+        json.append(",\"format\":\"").append(result.getBarcodeFormat()).append('"');
+        json.append(",\"points\":");
+        appendPoints(json, result.getResultPoints());
+      } else {
+        json.append(",\"error\":");
+        appendString(json, error);
+      }
+      json.append(",\"loadMs\":").append((loaded - start) / 1000000);
+      json.append(",\"decodeMs\":").append((decoded - loaded) / 1000000);
+      return new Line(json.append('}').toString(), result != null);
+    }
+  }
+
+  /**
+   * Decodes the whole image, or if it is larger than windowSize and can be cropped, each window
+   * in turn until one has a barcode. Only that window's part of the image is binarized.
+   */
+  private static Resultview decode(BinaryBitmapview image, MultiFormatReaderview reader, int windowSize)
+      throws NotFoundExceptionview {
+    int width = image.getWidth();
+    int height = image.getHeight();
+    if (windowSize == 0 || !image.isCropSupported() || (width <= windowSize && height <= windowSize)) {
+      return reader.decodeWithState(image);
+    }
+    int windowWidth = Math.min(windowSize, width);
+    int windowHeight = Math.min(windowSize, height);
+    for (int top : windowStarts(height, windowSize)) {
+      for (int left : windowStarts(width, windowSize)) {
+        Resultview result;
+        try {
+          result = reader.decodeWithState(image.crop(left, top, windowWidth, windowHeight));
+        } catch (NotFoundExceptionview nfe) {
+          continue;
+        }
+        ResultPointview[] points = result.getResultPoints();
+        if (points != null) {
+          for (int i = 0; i < points.length; i++) {
+            if (points[i] != null) {
+              points[i] = new ResultPointview(points[i].getX() + left, points[i].getY() + top);
+            }
+          }
+        }
+        return result;
+      }
+    }
+    throw NotFoundExceptionview.getNotFoundInstance();
+  }
+
+  /**
+   * @return where windows start along a side of the given length, half a window apart, the last
+   *  ending at the end of the side
+   */
+  static int[] windowStarts(int length, int windowSize) {
+    if (length <= windowSize) {
+      return new int[] {0};
+    }
+    int step = windowSize / 2;
+    int[] starts = new int[(length - windowSize + step - 1) / step + 1];
+    for (int i = 0; i < starts.length - 1; i++) {
+      starts[i] = i * step;
+    }
+    starts[starts.length - 1] = length - windowSize;
+    return starts;
+  }
+
+  /**
+   * Appends the points as an array of [x, y] pairs. Missing points are left out, and so are those
+   * with a NaN or infinite coordinate, which JSON has no number for.
+   */
+  static void appendPoints(StringBuilder json, ResultPointview[] points) {
+    json.append('[');
+    if (points != null) {
+      boolean first = true;
+      for (ResultPointview point : points) {
+        if (point == null || !isFinite(point.getX()) || !isFinite(point.getY())) {
+          continue;
+        }
+        if (!first) {
+          json.append(',');
+        }
+        first = false;
+        json.append('[').append(point.getX()).append(',').append(point.getY()).append(']');
+      }
+    }
+    json.append(']');
+  }
+
+  private static boolean isFinite(float value) {
+    return !Float.isNaN(value) && !Float.isInfinite(value);
+  }
+
+  private static void appendString(StringBuilder json, String value) {
+    json.append('"');
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      switch (c) {
+        case '"':
+          json.append("\\\"");
+          break;
+        case '\\':
+          json.append("\\\\");
+          break;
+        case '\n':
+          json.append("\\n");
+          break;
+        case '\r':
+          json.append("\\r");
+          break;
+        case '\t':
+          json.append("\\t");
+          break;
+        default:
+          if (c < 0x20) {
+            json.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+          } else {
+            json.append(c);
+          }
+      }
+    }
+    json.append('"');
+  }
+
+  /**
+   * The files named by command line inputs, found as they are asked for: a directory is only
+   * listed when reached, and a list file is read a line at a time.
+   */
+  private static final class InputIterator implements Iterator<File> {
+
+    private final Iterator<String> inputs;
+    // Files and directories still to visit, next first
+    private final Deque<File> pending = new ArrayDeque<>();
+    private BufferedReader listReader;
+    private File next;
+
+    InputIterator(List<String> inputs) {
+      this.inputs = inputs.iterator();
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (next == null) {
+        try {
+          next = advance();
+        } catch (IOException ioe) {
+          throw new IllegalStateException(ioe);
+        }
+      }
+      return next != null;
+    }
+
+    @Override
+    public File next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      File file = next;
+      next = null;
+      return file;
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+
+    private File advance() throws IOException {
+      while (true) {
+        if (!pending.isEmpty()) {
+          File file = pending.pop();
+          if (!file.isDirectory()) {
+            return file;
+          }
+          String[] names = file.list();
+          if (names != null) {
+            Arrays.sort(names);
+            for (int i = names.length - 1; i >= 0; i--) {
+              pending.push(new File(file, names[i]));
+            }
+          }
+        } else if (listReader != null) {
+          String line = listReader.readLine();
+          if (line == null) {
+            listReader.close();
+            listReader = null;
+          } else if (!line.trim().isEmpty()) {
+            pending.push(new File(line.trim()));
+          }
+        } else if (inputs.hasNext()) {
+          String input = inputs.next();
+          if (input.startsWith("@")) {
+            listReader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(input.substring(1)), "UTF-8"));
+          } else {
+            pending.push(new File(input));
+          }
+        } else {
+          return null;
+        }
+      }
+    }
+  }
+
+}
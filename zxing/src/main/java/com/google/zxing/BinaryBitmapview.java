@@ -28,7 +28,8 @@ import com.google.zxing.common.BitMatrixview;
 public final class BinaryBitmapview {
 
   private final BinarizerView binarizerView;
-  private BitMatrixview matrix;
+  private final Object matrixLock = new Object();
+  private volatile BitMatrixview matrix;
 
   public BinaryBitmapview(BinarizerView binarizerView) {
     if (binarizerView == null) {
@@ -62,7 +63,8 @@ public final class BinaryBitmapview {
    * @return The array of bits for this row (true means black).
    * @throws NotFoundExceptionview if row can't be binarized
    */
-  public BitArrayview getBlackRow(int y, BitArrayview row) throws NotFoundExceptionview {
+  public synchronized BitArrayview getBlackRow(int y, BitArrayview row) throws NotFoundExceptionview {
+    // Binarizers reuse their buffers from one row to the next, so rows are read one at a time.
     return binarizerView.getBlackRow(y, row);
   }
 
@@ -80,11 +82,26 @@ public final class BinaryBitmapview {
     // reasons for this:
     // 1. This work will never be done if the caller only installs 1D Reader objects, or if a
     //    1D Reader finds a barcode before the 2D Readers run.
-    // 2. This work will only be done once even if the caller installs multiple 2D Readers.
-    if (matrix == null) {
-      matrix = binarizerView.getBlackMatrix();
+    // 2. This work will only be done once even if the caller installs multiple 2D Readers, and
+    //    even if they run on different threads at once. It has its own lock, so 1D Readers can
+    //    go on reading rows in the meantime.
+    BitMatrixview result = matrix;
+    if (result == null) {
+      synchronized (matrixLock) {
+        result = matrix;
+        if (result == null) {
+          DecodeTraceview.Span span =
+              DecodeTraceview.begin(DecodeTraceview.Stage.BINARIZATION, getWidth(), getHeight());
+          try {
+            result = binarizerView.getBlackMatrix();
+            matrix = result;
+          } finally {
+            DecodeTraceview.end(span, null, result != null);
+          }
+        }
+      }
     }
-    return matrix;
+    return result;
   }
 
   /**
@@ -109,6 +126,20 @@ public final class BinaryBitmapview {
     return new BinaryBitmapview(binarizerView.createBinarizer(newSource));
   }
 
+  /**
+   * Returns a new object with the image data shrunk by a whole factor in each direction, for
+   * looking for large features quickly. Coordinates in it are those of this bitmap divided by
+   * the factor.
+   *
+   * @param factor how many pixels of this bitmap, in each direction, make one of the new one
+   * @return A downsampled version of this object.
+   */
+  public BinaryBitmapview downsample(int factor) {
+    LuminanceSourceview newSource =
+        new DownsampledLuminanceSourceview(binarizerView.getLuminanceSource(), factor);
+    return new BinaryBitmapview(binarizerView.createBinarizer(newSource));
+  }
+
   /**
    * @return Whether this bitmap supports counter-clockwise rotation.
    */
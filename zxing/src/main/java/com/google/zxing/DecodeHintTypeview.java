@@ -17,6 +17,7 @@
 package com.google.zxing;
 
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 /**
  * Encapsulates a type of hint that a caller may pass to a barcode reader to help it
@@ -49,6 +50,10 @@ public enum DecodeHintTypeview {
   /**
    * Spend more time to try to find a barcode; optimize for accuracy, not speed.
    * Doesn't matter what it maps to; use {@link Boolean#TRUE}.
+   *
+   * <p>1D readers that find nothing in the rows of an image then read its columns too, from the
+   * binarized image. Unlike the rotation this replaced, that works on every source, camera frames
+   * included, so every frame without a 1D barcode costs a column sweep.</p>
    */
   TRY_HARDER(Void.class),
 
@@ -98,6 +103,31 @@ public enum DecodeHintTypeview {
    */
   ALLOWED_EAN_EXTENSIONS(int[].class),
 
+  /**
+   * Lets readers spread the scan of one image over several threads. 1D readers scan rows on
+   * several threads when trying harder; rows are still tried from the middle out, and the barcode
+   * found is the one a single thread would find. The QR Code detector searches tall images for
+   * finder patterns in horizontal bands, one thread per band.
+   * Maps to the {@link ExecutorService} to run the extra threads on.
+   */
+  ROW_SCAN_EXECUTOR(ExecutorService.class),
+
+  /**
+   * Lets 1D readers that find nothing in the rows of an image go on to read its columns and lines
+   * tilted 30 and 60 degrees either way, straight from the binarized image. A barcode read along
+   * such a line only counts if a line next to it reads the same. Doesn't matter what it maps to;
+   * use {@link Boolean#TRUE}.
+   */
+  SCAN_TILTED_LINES(Void.class),
+
+  /**
+   * Lets the QR Code reader look for finder patterns in shrunken copies of a large image before
+   * the image itself, and binarize only the part of the full image the code is in to read it.
+   * Maps to an {@link Integer}, how many times the image may be halved: 1 for half size, 2 to
+   * start at a quarter. If nothing is found that way the full image is searched as usual.
+   */
+  QR_DETECTION_PYRAMID(Integer.class),
+
   // End of enumeration values.
   ;
 
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2023 ZXing authors
+ *
+ * Licensed under the Apache License, Versionv 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing;
+
+/**
+ * Reports how long each stage of decoding takes, to a process-wide {@link Listener} that turns
+ * the stages into platform events: JFR events on a desktop JVM, or trace sections on a device.
+ *
+ * <p>Stages are reported with {@link #begin} and {@link #end}. Without a listener,
+ * {@link #begin} is one volatile read and returns null, and {@link #end} returns straight away,
+ * so the calls can stay in the decoding code.</p>
+ */
+public final class DecodeTraceview {
+
+  public enum Stage {
+    /** Reading the whole luminance matrix out of a {@link LuminanceSourceview}. */
+    LUMINANCE,
+    /** Turning luminance into a black and white matrix. */
+    BINARIZATION,
+    /** Searching a black and white matrix for QR finder patterns. */
+    FINDER_SEARCH,
+    /** Finding the alignment pattern and sampling the QR module grid. */
+    GRID_SAMPLING,
+    /** Reed-Solomon correction of a QR symbol's codewords. */
+    ERROR_CORRECTION,
+    /** Turning a QR symbol's data codewords into text. */
+    BITSTREAM_PARSING,
+    /** One attempt by {@link com.google.zxing.qrcode.QRCodeReaderview} on an image. */
+    QR_CODE_DECODE,
+    /** Scanning an image's rows with a 1D reader. */
+    ONE_D_ROW_SCAN,
+  }
+
+  /**
+   * A stage in progress.
+   */
+  public interface Span {
+
+    /**
+     * @param format the barcode format the stage worked on, or null if not known yet
+     * @param success whether the stage produced its result
+     */
+    void end(BarcodeFormatview format, boolean success);
+  }
+
+  /**
+   * Receives stages. Called from every thread that decodes, so must be thread-safe.
+   */
+  public interface Listener {
+
+    /**
+     * A stage is starting on the calling thread; it will be ended on the same thread.
+     *
+     * @param width width of the image, or of the QR symbol in modules, the stage works on
+     * @param height height of the same
+     * @return the span to end when the stage is over, or null not to hear of it again
+     */
+    Span begin(Stage stage, int width, int height);
+  }
+
+  private static volatile Listener listener;
+
+  private DecodeTraceview() {
+  }
+
+  /**
+   * @param listener the listener to receive every stage from now on, or null for none
+   */
+  public static void setListener(Listener listener) {
+    DecodeTraceview.listener = listener;
+  }
+
+  /**
+   * @return the span of the stage, or null if nobody is listening
+   */
+  public static Span begin(Stage stage, int width, int height) {
+    Listener current = listener;
+    return current == null ? null : current.begin(stage, width, height);
+  }
+
+  /**
+   * Ends a span returned by {@link #begin}, which may be null.
+   */
+  public static void end(Span span, BarcodeFormatview format, boolean success) {
+    if (span != null) {
+      span.end(format, success);
+    }
+  }
+
+}
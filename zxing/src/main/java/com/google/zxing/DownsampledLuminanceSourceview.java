@@ -0,0 +1,108 @@
+/*
+ * Copyright 2023 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing;
+
+/**
+ * A {@link LuminanceSourceview} that shrinks another one by a whole factor in each direction,
+ * each of its pixels being the average of a square block of the original's. Pixels left over at
+ * the right and bottom edges, too few to fill a block, are dropped.
+ *
+ * The reduced image is computed once, when this object is created.
+ */
+public final class DownsampledLuminanceSourceview extends LuminanceSourceview {
+
+  private final int factor;
+  private final byte[] luminances;
+
+  /**
+   * @param delegate the image to shrink
+   * @param factor how many pixels of the original, in each direction, make one of this image
+   */
+  public DownsampledLuminanceSourceview(LuminanceSourceview delegate, int factor) {
+    super(shrunkDimension(delegate.getWidth(), factor), shrunkDimension(delegate.getHeight(), factor));
+    this.factor = factor;
+    int width = getWidth();
+    int height = getHeight();
+    luminances = new byte[width * height];
+    int[] sums = new int[width];
+    byte[] row = null;
+    int half = factor * factor / 2;
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < width; x++) {
+        sums[x] = 0;
+      }
+      for (int dy = 0; dy < factor; dy++) {
+        row = delegate.getRow(y * factor + dy, row);
+        if (factor == 2) {
+          // The usual case, halving, is worth doing without the inner loop
+          for (int x = 0, offset = 0; x < width; x++, offset += 2) {
+            sums[x] += (row[offset] & 0xFF) + (row[offset + 1] & 0xFF);
+          }
+        } else {
+          for (int x = 0, offset = 0; x < width; x++) {
+            int sum = 0;
+            for (int dx = 0; dx < factor; dx++) {
+              sum += row[offset++] & 0xFF;
+            }
+            sums[x] += sum;
+          }
+        }
+      }
+      int offset = y * width;
+      for (int x = 0; x < width; x++) {
+        luminances[offset + x] = (byte) ((sums[x] + half) / (factor * factor));
+      }
+    }
+  }
+
+  /**
+   * Checked before the superclass is constructed, so that a factor of 0 is reported as such
+   * rather than by dividing by it.
+   */
+  private static int shrunkDimension(int dimension, int factor) {
+    if (factor < 1 || dimension / factor == 0) {
+      throw new IllegalArgumentException("Cannot shrink image by " + factor);
+    }
+    return dimension / factor;
+  }
+
+  /**
+   * @return how many pixels of the original, in each direction, make one of this image
+   */
+  public int getFactor() {
+    return factor;
+  }
+
+  @Override
+  public byte[] getRow(int y, byte[] row) {
+    if (y < 0 || y >= getHeight()) {
+      throw new IllegalArgumentException("Requested row is outside the image: " + y);
+    }
+    int width = getWidth();
+    if (row == null || row.length < width) {
+      row = new byte[width];
+    }
+    System.arraycopy(luminances, y * width, row, 0, width);
+    return row;
+  }
+
+  @Override
+  public byte[] getMatrix() {
+    return luminances;
+  }
+
+}
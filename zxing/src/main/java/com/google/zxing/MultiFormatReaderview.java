@@ -21,7 +21,14 @@ import com.google.zxing.qrcode.QRCodeReaderview;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 /**
  * MultiFormatReader is a convenience class and the main entry point into the library for most uses.
@@ -35,6 +42,7 @@ public final class MultiFormatReaderview implements Readerview {
 
   private Map<DecodeHintTypeview,?> hints;
   private Readerview[] readerviews;
+  private ExecutorService executor;
 
   /**
    * This version of decode honors the intent of Reader.decode(BinaryBitmap) in that it
@@ -90,7 +98,88 @@ public final class MultiFormatReaderview implements Readerview {
    */
   public void setHints(Map<DecodeHintTypeview,?> hints) {
     this.hints = hints;
+    this.readerviews = createReaders(hints);
+  }
+
+  /**
+   * Turns on parallel mode for {@link #decodeWithBinarizers(BinarizerView...)}: every combination
+   * of binarizer and reader is submitted to the given executor at once, and the first one to find
+   * a barcode wins. Pass null to go back to trying them one after another on the calling thread.
+   *
+   * @param executor The executor to run decode attempts on, or null for sequential decoding
+   */
+  public void setExecutor(ExecutorService executor) {
+    this.executor = executor;
+  }
 
+  /**
+   * Decodes one image with several binarizers, using the state set up by calling setHints()
+   * previously. The binarizers should all wrap the same luminance source.
+   *
+   * <p>Without an executor, the binarizers are tried in order, each with every reader, exactly as
+   * if decodeWithState() had been called once per binarizer. With an executor (see
+   * {@link #setExecutor(ExecutorService)}), each (binarizer, reader) pair runs as its own task with
+   * its own reader. The tasks of one binarizer share one bitmap, so the image is binarized once per
+   * binarizer however many readers look at it. The first result is returned as soon as it is
+   * available, and the remaining tasks are cancelled by interrupting them; the readers check for
+   * this between rows and give up early.</p>
+   *
+   * @param binarizers The binarizers to try, in order of preference
+   * @return The contents of the image
+   * @throws NotFoundExceptionview If no combination found a barcode
+   */
+  public Resultview decodeWithBinarizers(BinarizerView... binarizers) throws NotFoundExceptionview {
+    if (readerviews == null) {
+      setHints(null);
+    }
+    ExecutorService executor = this.executor;
+    if (executor == null || binarizers.length * readerviews.length < 2) {
+      for (BinarizerView binarizer : binarizers) {
+        try {
+          return decodeInternal(new BinaryBitmapview(binarizer));
+        } catch (NotFoundExceptionview nfe) {
+          // continue
+        }
+      }
+      throw NotFoundExceptionview.getNotFoundInstance();
+    }
+    return decodeInParallel(executor, binarizers);
+  }
+
+  private Resultview decodeInParallel(ExecutorService executor, BinarizerView[] binarizers)
+      throws NotFoundExceptionview {
+    CompletionService<Resultview> completionService = new ExecutorCompletionService<>(executor);
+    List<Future<Resultview>> futures = new ArrayList<>();
+    try {
+      for (BinarizerView binarizer : binarizers) {
+        // The bitmap caches its matrix, so it is shared, but readers keep per-decode state, so
+        // every task gets instances of its own.
+        BinaryBitmapview image = new BinaryBitmapview(binarizer);
+        for (Readerview readerview : createReaders(hints)) {
+          futures.add(completionService.submit(new DecodeTask(readerview, image, hints)));
+        }
+      }
+      for (int i = 0; i < futures.size(); i++) {
+        try {
+          Resultview resultview = completionService.take().get();
+          if (resultview != null) {
+            return resultview;
+          }
+        } catch (ExecutionException ee) {
+          // continue -- this combination failed unexpectedly
+        }
+      }
+    } catch (InterruptedException ie) {
+      Thread.currentThread().interrupt();
+    } finally {
+      for (Future<Resultview> future : futures) {
+        future.cancel(true);
+      }
+    }
+    throw NotFoundExceptionview.getNotFoundInstance();
+  }
+
+  private static Readerview[] createReaders(Map<DecodeHintTypeview,?> hints) {
     boolean tryHarder = hints != null && hints.containsKey(DecodeHintTypeview.TRY_HARDER);
     @SuppressWarnings("unchecked")
     Collection<BarcodeFormatview> formats =
@@ -132,7 +221,7 @@ public final class MultiFormatReaderview implements Readerview {
         readerviews.add(new MultiFormatOneDReaderview(hints));
       }
     }
-    this.readerviews = readerviews.toArray(new Readerview[readerviews.size()]);
+    return readerviews.toArray(new Readerview[readerviews.size()]);
   }
 
   @Override
@@ -157,4 +246,26 @@ public final class MultiFormatReaderview implements Readerview {
     throw NotFoundExceptionview.getNotFoundInstance();
   }
 
+  private static final class DecodeTask implements Callable<Resultview> {
+
+    private final Readerview readerview;
+    private final BinaryBitmapview image;
+    private final Map<DecodeHintTypeview,?> hints;
+
+    DecodeTask(Readerview readerview, BinaryBitmapview image, Map<DecodeHintTypeview,?> hints) {
+      this.readerview = readerview;
+      this.image = image;
+      this.hints = hints;
+    }
+
+    @Override
+    public Resultview call() {
+      try {
+        return readerview.decode(image, hints);
+      } catch (ReaderExceptionview re) {
+        return null;
+      }
+    }
+  }
+
 }
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2023 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing;
+
+import android.graphics.Bitmap;
+
+/**
+ * A {@link LuminanceSourceview} over the Y plane of a landscape camera frame which presents the
+ * frame rotated by 90 degrees clockwise, as seen on a portrait screen. The crop rectangle is given
+ * in rotated coordinates and is mapped back onto the unrotated data by index arithmetic, so only
+ * the pixels that are actually requested are ever touched and the full frame is never copied.
+ *
+ * In rotated coordinates the image is {@code dataHeight} wide and {@code dataWidth} tall, and the
+ * pixel at (x, y) is {@code yuvData[(dataHeight - 1 - x) * dataWidth + y]}.
+ */
+public final class RotatedPlanarYUVLuminanceSourceview extends LuminanceSourceview {
+
+  private final byte[] yuvData;
+  private final int dataWidth;
+  private final int dataHeight;
+  private final int left;
+  private final int top;
+
+  /**
+   * @param yuvData The unrotated camera frame. Only the leading Y plane is read.
+   * @param dataWidth The width of the unrotated frame.
+   * @param dataHeight The height of the unrotated frame.
+   * @param left The left edge of the crop rectangle, in rotated coordinates.
+   * @param top The top edge of the crop rectangle, in rotated coordinates.
+   * @param width The width of the crop rectangle, in rotated coordinates.
+   * @param height The height of the crop rectangle, in rotated coordinates.
+   */
+  public RotatedPlanarYUVLuminanceSourceview(byte[] yuvData,
+                                             int dataWidth,
+                                             int dataHeight,
+                                             int left,
+                                             int top,
+                                             int width,
+                                             int height) {
+    super(width, height);
+
+    // After rotation the frame is dataHeight wide and dataWidth tall.
+    if (left < 0 || top < 0 || left + width > dataHeight || top + height > dataWidth) {
+      throw new IllegalArgumentException("Crop rectangle does not fit within image data.");
+    }
+    if (yuvData.length < dataWidth * dataHeight) {
+      throw new IllegalArgumentException("Image data is smaller than its dimensions.");
+    }
+
+    this.yuvData = yuvData;
+    this.dataWidth = dataWidth;
+    this.dataHeight = dataHeight;
+    this.left = left;
+    this.top = top;
+  }
+
+  @Override
+  public byte[] getRow(int y, byte[] row) {
+    if (y < 0 || y >= getHeight()) {
+      throw new IllegalArgumentException("Requested row is outside the image: " + y);
+    }
+    int width = getWidth();
+    if (row == null || row.length < width) {
+      row = new byte[width];
+    }
+    // A rotated row is an unrotated column, walked from the bottom up.
+    byte[] yuv = yuvData;
+    int stride = dataWidth;
+    int inputOffset = (dataHeight - 1 - left) * stride + top + y;
+    for (int x = 0; x < width; x++, inputOffset -= stride) {
+      row[x] = yuv[inputOffset];
+    }
+    return row;
+  }
+
+  @Override
+  public byte[] getMatrix() {
+    int width = getWidth();
+    int height = getHeight();
+    byte[] matrix = new byte[width * height];
+    byte[] yuv = yuvData;
+
+    // Walk the unrotated data row by row so the reads stay sequential; each unrotated row
+    // segment becomes one column of the result.
+    int inputOffset = (dataHeight - 1 - left) * dataWidth + top;
+    for (int x = 0; x < width; x++, inputOffset -= dataWidth) {
+      for (int y = 0, outputOffset = x; y < height; y++, outputOffset += width) {
+        matrix[outputOffset] = yuv[inputOffset + y];
+      }
+    }
+    return matrix;
+  }
+
+  @Override
+  public boolean isCropSupported() {
+    return true;
+  }
+
+  @Override
+  public LuminanceSourceview crop(int left, int top, int width, int height) {
+    return new RotatedPlanarYUVLuminanceSourceview(yuvData,
+                                                   dataWidth,
+                                                   dataHeight,
+                                                   this.left + left,
+                                                   this.top + top,
+                                                   width,
+                                                   height);
+  }
+
+  public Bitmap renderCroppedGreyscaleBitmap() {
+    int width = getWidth();
+    int height = getHeight();
+    byte[] matrix = getMatrix();
+    int area = width * height;
+    int[] pixels = new int[area];
+    for (int i = 0; i < area; i++) {
+      int grey = matrix[i] & 0xff;
+      pixels[i] = 0xFF000000 | (grey * 0x00010101);
+    }
+
+    Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+    bitmap.setPixels(pixels, 0, width, 0, 0, width, height);
+    return bitmap;
+  }
+}
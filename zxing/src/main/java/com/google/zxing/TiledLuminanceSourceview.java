@@ -0,0 +1,208 @@
+/*
+ * Copyright 2023 ZXing authors
+ *
+ * Licensed under the Apache License, Versionv 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A {@link LuminanceSourceview} over an image too large to hold in memory at once, such as a
+ * page scanned at high resolution. The image is read in square tiles, on demand, from a
+ * {@link TileReader}, and only the most recently used tiles are kept.
+ *
+ * {@link #getRow(int, byte[])} needs no more than one row of tiles. {@link #getMatrix()} still
+ * returns the whole of this source as one array, and binarizers other than for 1D rows call it,
+ * so on an uncropped source they hold the whole image after all. Memory stays bounded only if
+ * large images are cropped before they are binarized: decode windows of the image, as
+ * {@link BatchDecoderview} does when given a window size, rather than the whole of it. That
+ * includes the multiple barcode readers, which start by decoding the whole image they are given,
+ * so give them crops too. Crops share the tiles already read, so overlapping windows read each
+ * tile about once.
+ *
+ * A source and its crops may be read from several threads at once.
+ */
+public final class TiledLuminanceSourceview extends LuminanceSourceview {
+
+  /**
+   * Reads the luminance of a rectangle of the full image.
+   */
+  public interface TileReader {
+
+    /**
+     * @return width of the full image
+     */
+    int getWidth();
+
+    /**
+     * @return height of the full image
+     */
+    int getHeight();
+
+    /**
+     * Fills {@code luminances} with the rectangle, row by row, {@code width} bytes to a row.
+     * The rectangle always lies within the image. Called by one thread at a time.
+     */
+    void readTile(int left, int top, int width, int height, byte[] luminances);
+  }
+
+  public static final int DEFAULT_TILE_SIZE = 256;
+
+  private final TileCache tiles;
+  private final int left;
+  private final int top;
+
+  /**
+   * @param reader where to read the image from
+   * @param tileSize width and height of a tile
+   * @param maxTiles how many tiles to keep. At least a full row of tiles is always kept, so that
+   *                 reading one row after another does not read each tile again for every row.
+   */
+  public TiledLuminanceSourceview(TileReader reader, int tileSize, int maxTiles) {
+    this(new TileCache(reader, tileSize, maxTiles), 0, 0, reader.getWidth(), reader.getHeight());
+  }
+
+  /**
+   * Keeps two full rows of tiles of {@link #DEFAULT_TILE_SIZE}.
+   */
+  public TiledLuminanceSourceview(TileReader reader) {
+    this(reader, DEFAULT_TILE_SIZE,
+         2 * ((reader.getWidth() + DEFAULT_TILE_SIZE - 1) / DEFAULT_TILE_SIZE));
+  }
+
+  private TiledLuminanceSourceview(TileCache tiles, int left, int top, int width, int height) {
+    super(width, height);
+    if (left + width > tiles.dataWidth || top + height > tiles.dataHeight) {
+      throw new IllegalArgumentException("Crop rectangle does not fit within image data.");
+    }
+    this.tiles = tiles;
+    this.left = left;
+    this.top = top;
+  }
+
+  @Override
+  public byte[] getRow(int y, byte[] row) {
+    if (y < 0 || y >= getHeight()) {
+      throw new IllegalArgumentException("Requested row is outside the image: " + y);
+    }
+    int width = getWidth();
+    if (row == null || row.length < width) {
+      row = new byte[width];
+    }
+    tiles.copy(left, top + y, width, 1, row, width);
+    return row;
+  }
+
+  @Override
+  public byte[] getMatrix() {
+    int width = getWidth();
+    int height = getHeight();
+    byte[] matrix = new byte[width * height];
+    tiles.copy(left, top, width, height, matrix, width);
+    return matrix;
+  }
+
+  @Override
+  public boolean isCropSupported() {
+    return true;
+  }
+
+  @Override
+  public LuminanceSourceview crop(int left, int top, int width, int height) {
+    return new TiledLuminanceSourceview(tiles, this.left + left, this.top + top, width, height);
+  }
+
+  /**
+   * The tiles of one image read so far, least recently used first.
+   */
+  private static final class TileCache {
+
+    // In access order, so the first tile is the one used longest ago
+    private final Map<Integer,byte[]> tiles = new LinkedHashMap<>(16, 0.75f, true);
+    private final TileReader reader;
+    private final int tileSize;
+    private final int maxTiles;
+    private final int dataWidth;
+    private final int dataHeight;
+    private final int tilesAcross;
+    // The array of the tile last dropped, to be refilled by the next one read
+    private byte[] spare;
+
+    TileCache(TileReader reader, int tileSize, int maxTiles) {
+      if (tileSize < 1) {
+        throw new IllegalArgumentException("Bad tile size: " + tileSize);
+      }
+      this.reader = reader;
+      this.tileSize = tileSize;
+      dataWidth = reader.getWidth();
+      dataHeight = reader.getHeight();
+      tilesAcross = (dataWidth + tileSize - 1) / tileSize;
+      this.maxTiles = Math.max(maxTiles, tilesAcross);
+    }
+
+    /**
+     * Copies a rectangle of the image into {@code dest}, {@code destStride} bytes to a row,
+     * reading the tiles it covers that are not kept.
+     */
+    synchronized void copy(int left, int top, int width, int height, byte[] dest, int destStride) {
+      int right = left + width;
+      int bottom = top + height;
+      for (int tileY = top / tileSize; tileY * tileSize < bottom; tileY++) {
+        int tileTop = tileY * tileSize;
+        int fromY = Math.max(top, tileTop);
+        int toY = Math.min(bottom, tileTop + tileSize);
+        for (int tileX = left / tileSize; tileX * tileSize < right; tileX++) {
+          int tileLeft = tileX * tileSize;
+          int tileWidth = Math.min(tileSize, dataWidth - tileLeft);
+          byte[] tile = getTile(tileX, tileY, tileWidth);
+          int fromX = Math.max(left, tileLeft);
+          int count = Math.min(right, tileLeft + tileWidth) - fromX;
+          for (int y = fromY; y < toY; y++) {
+            System.arraycopy(tile, (y - tileTop) * tileWidth + fromX - tileLeft,
+                             dest, (y - top) * destStride + fromX - left,
+                             count);
+          }
+        }
+      }
+    }
+
+    private byte[] getTile(int tileX, int tileY, int tileWidth) {
+      Integer key = tileY * tilesAcross + tileX;
+      byte[] tile = tiles.get(key);
+      if (tile == null) {
+        int tileTop = tileY * tileSize;
+        int tileHeight = Math.min(tileSize, dataHeight - tileTop);
+        int size = tileWidth * tileHeight;
+        if (spare != null && spare.length >= size) {
+          tile = spare;
+        } else {
+          tile = new byte[size];
+        }
+        spare = null;
+        reader.readTile(tileX * tileSize, tileTop, tileWidth, tileHeight, tile);
+        tiles.put(key, tile);
+        if (tiles.size() > maxTiles) {
+          Iterator<byte[]> eldest = tiles.values().iterator();
+          spare = eldest.next();
+          eldest.remove();
+        }
+      }
+      return tile;
+    }
+  }
+
+}
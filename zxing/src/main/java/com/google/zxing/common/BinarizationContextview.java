@@ -0,0 +1,218 @@
+/*
+ * Copyright 2023 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.common;
+
+import com.google.zxing.DecodeTraceview;
+import com.google.zxing.LuminanceSourceview;
+
+/**
+ * Holds the per-frame data that binarizers derive from a {@link LuminanceSourceview}, so that
+ * several binarizers working on the same frame compute it only once: the luminance matrix
+ * itself, the luminance histogram of every row, the sampled histogram that
+ * {@link GlobalHistogramBinarizerView} uses for the whole image, and the sum, minimum and maximum
+ * of every block that {@link HybridBinarizerView} works with.
+ *
+ * <p>Everything is computed lazily on first use. This class is thread-safe, so binarizers
+ * sharing a context may run on different threads.</p>
+ */
+public final class BinarizationContextview {
+
+  static final int LUMINANCE_BITS = 5;
+  static final int LUMINANCE_SHIFT = 8 - LUMINANCE_BITS;
+  static final int LUMINANCE_BUCKETS = 1 << LUMINANCE_BITS;
+
+  private final LuminanceSourceview source;
+  private byte[] luminances;
+  private int[] rowHistograms;
+  private int[] matrixHistogram;
+  private int[] blockSums;
+  private int[] blockMins;
+  private int[] blockMaxes;
+
+  public BinarizationContextview(LuminanceSourceview source) {
+    this.source = source;
+  }
+
+  public LuminanceSourceview getLuminanceSource() {
+    return source;
+  }
+
+  /**
+   * @return The luminance matrix of the source, fetched once. Do not modify the contents.
+   */
+  public synchronized byte[] getMatrix() {
+    if (luminances == null) {
+      luminances = readMatrix(source);
+    }
+    return luminances;
+  }
+
+  /**
+   * Fetches the luminance matrix of a source, reported as the
+   * {@link DecodeTraceview.Stage#LUMINANCE} stage.
+   */
+  static byte[] readMatrix(LuminanceSourceview source) {
+    DecodeTraceview.Span span =
+        DecodeTraceview.begin(DecodeTraceview.Stage.LUMINANCE, source.getWidth(), source.getHeight());
+    byte[] matrix = null;
+    try {
+      matrix = source.getMatrix();
+    } finally {
+      DecodeTraceview.end(span, null, matrix != null);
+    }
+    return matrix;
+  }
+
+  /**
+   * @return The histogram of every row, {@link #LUMINANCE_BUCKETS} counts per row, row after row.
+   *         Do not modify the contents.
+   */
+  synchronized int[] getRowHistograms() {
+    if (rowHistograms == null) {
+      byte[] localLuminances = getMatrix();
+      int width = source.getWidth();
+      int height = source.getHeight();
+      int[] histograms = new int[height * LUMINANCE_BUCKETS];
+      for (int y = 0, offset = 0; y < height; y++, offset += width) {
+        int base = y * LUMINANCE_BUCKETS;
+        for (int x = 0; x < width; x++) {
+          histograms[base + ((localLuminances[offset + x] & 0xff) >> LUMINANCE_SHIFT)]++;
+        }
+      }
+      rowHistograms = histograms;
+    }
+    return rowHistograms;
+  }
+
+  /**
+   * @return The histogram of the middle four fifths of four rows spread over the image, as used
+   *         to pick a single black point for the whole image. Do not modify the contents.
+   */
+  synchronized int[] getMatrixHistogram() {
+    if (matrixHistogram == null) {
+      byte[] localLuminances = getMatrix();
+      int width = source.getWidth();
+      int height = source.getHeight();
+      int[] histogram = new int[LUMINANCE_BUCKETS];
+      for (int y = 1; y < 5; y++) {
+        int offset = (height * y / 5) * width;
+        int right = (width * 4) / 5;
+        for (int x = width / 5; x < right; x++) {
+          histogram[(localLuminances[offset + x] & 0xff) >> LUMINANCE_SHIFT]++;
+        }
+      }
+      matrixHistogram = histogram;
+    }
+    return matrixHistogram;
+  }
+
+  /**
+   * @return The luminance sum of each block, row-major over {@link #getBlockColumns()} columns.
+   */
+  int[] getBlockSums() {
+    calculateBlockStatistics();
+    return blockSums;
+  }
+
+  /**
+   * @return The minimum luminance of each block, laid out like {@link #getBlockSums()}.
+   */
+  int[] getBlockMins() {
+    calculateBlockStatistics();
+    return blockMins;
+  }
+
+  /**
+   * @return The maximum luminance of each block, laid out like {@link #getBlockSums()}.
+   */
+  int[] getBlockMaxes() {
+    calculateBlockStatistics();
+    return blockMaxes;
+  }
+
+  /**
+   * @return The number of block columns; a partial block at the right edge counts as one.
+   */
+  int getBlockColumns() {
+    return blockCount(source.getWidth());
+  }
+
+  /**
+   * @return The number of block rows; a partial block at the bottom edge counts as one.
+   */
+  int getBlockRows() {
+    return blockCount(source.getHeight());
+  }
+
+  private static int blockCount(int size) {
+    int count = size >> HybridBinarizerView.BLOCK_SIZE_POWER;
+    if ((size & HybridBinarizerView.BLOCK_SIZE_MASK) != 0) {
+      count++;
+    }
+    return count;
+  }
+
+  /**
+   * Fractional blocks at the right and bottom edges are computed from the last BLOCK_SIZE pixels
+   * of the row or column, overlapping the previous block, exactly as HybridBinarizer does.
+   */
+  private synchronized void calculateBlockStatistics() {
+    if (blockSums != null) {
+      return;
+    }
+    byte[] localLuminances = getMatrix();
+    int width = source.getWidth();
+    int height = source.getHeight();
+    int subWidth = getBlockColumns();
+    int subHeight = getBlockRows();
+    int blockSize = HybridBinarizerView.BLOCK_SIZE;
+    int maxYOffset = height - blockSize;
+    int maxXOffset = width - blockSize;
+    int[] sums = new int[subWidth * subHeight];
+    int[] mins = new int[sums.length];
+    int[] maxes = new int[sums.length];
+    for (int y = 0; y < subHeight; y++) {
+      int yoffset = Math.min(y << HybridBinarizerView.BLOCK_SIZE_POWER, maxYOffset);
+      for (int x = 0; x < subWidth; x++) {
+        int xoffset = Math.min(x << HybridBinarizerView.BLOCK_SIZE_POWER, maxXOffset);
+        int sum = 0;
+        int min = 0xFF;
+        int max = 0;
+        for (int yy = 0, offset = yoffset * width + xoffset; yy < blockSize; yy++, offset += width) {
+          for (int xx = 0; xx < blockSize; xx++) {
+            int pixel = localLuminances[offset + xx] & 0xFF;
+            sum += pixel;
+            if (pixel < min) {
+              min = pixel;
+            }
+            if (pixel > max) {
+              max = pixel;
+            }
+          }
+        }
+        int index = y * subWidth + x;
+        sums[index] = sum;
+        mins[index] = min;
+        maxes[index] = max;
+      }
+    }
+    blockMins = mins;
+    blockMaxes = maxes;
+    blockSums = sums;
+  }
+
+}
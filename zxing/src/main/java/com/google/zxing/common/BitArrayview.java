@@ -19,18 +19,23 @@ package com.google.zxing.common;
 import java.util.Arrays;
 
 /**
- * <p>A simple, fast array of bits, represented compactly by an array of ints internally.</p>
+ * <p>A simple, fast array of bits, represented compactly by an array of longs internally, so that
+ * searching for the next set or unset bit steps over 64 bits at a time.</p>
+ *
+ * <p>{@link #getBitArray()} and {@link #setBulk(int, int)} still present the bits as 32-bit ints,
+ * but {@link #getBitArray()} now returns a copy: writing to it no longer changes this array, as
+ * it did when the bits were stored in ints.</p>
  *
  * @author Sean Owen
  */
 public final class BitArrayview implements Cloneable {
 
-  private int[] bits;
+  private long[] bits;
   private int size;
 
   public BitArrayview() {
     this.size = 0;
-    this.bits = new int[1];
+    this.bits = new long[1];
   }
 
   public BitArrayview(int size) {
@@ -40,6 +45,14 @@ public final class BitArrayview implements Cloneable {
 
   // For testing only
   BitArrayview(int[] bits, int size) {
+    this.bits = new long[(bits.length + 1) / 2];
+    this.size = size;
+    for (int i = 0; i < bits.length; i++) {
+      setBulk(i * 32, bits[i]);
+    }
+  }
+
+  private BitArrayview(long[] bits, int size) {
     this.bits = bits;
     this.size = size;
   }
@@ -53,8 +66,8 @@ public final class BitArrayview implements Cloneable {
   }
 
   private void ensureCapacity(int size) {
-    if (size > bits.length * 32) {
-      int[] newBits = makeArray(size);
+    if (size > bits.length * 64) {
+      long[] newBits = makeArray(size);
       System.arraycopy(bits, 0, newBits, 0, bits.length);
       this.bits = newBits;
     }
@@ -65,7 +78,7 @@ public final class BitArrayview implements Cloneable {
    * @return true iff bit i is set
    */
   public boolean get(int i) {
-    return (bits[i / 32] & (1 << (i & 0x1F))) != 0;
+    return (bits[i >> 6] & (1L << (i & 0x3F))) != 0;
   }
 
   /**
@@ -74,7 +87,7 @@ public final class BitArrayview implements Cloneable {
    * @param i bit to set
    */
   public void set(int i) {
-    bits[i / 32] |= 1 << (i & 0x1F);
+    bits[i >> 6] |= 1L << (i & 0x3F);
   }
 
   /**
@@ -83,7 +96,7 @@ public final class BitArrayview implements Cloneable {
    * @param i bit to set
    */
   public void flip(int i) {
-    bits[i / 32] ^= 1 << (i & 0x1F);
+    bits[i >> 6] ^= 1L << (i & 0x3F);
   }
 
   /**
@@ -96,17 +109,17 @@ public final class BitArrayview implements Cloneable {
     if (from >= size) {
       return size;
     }
-    int bitsOffset = from / 32;
-    int currentBits = bits[bitsOffset];
+    int bitsOffset = from >> 6;
+    long currentBits = bits[bitsOffset];
     // mask off lesser bits first
-    currentBits &= ~((1 << (from & 0x1F)) - 1);
+    currentBits &= -1L << (from & 0x3F);
     while (currentBits == 0) {
       if (++bitsOffset == bits.length) {
         return size;
       }
       currentBits = bits[bitsOffset];
     }
-    int result = (bitsOffset * 32) + Integer.numberOfTrailingZeros(currentBits);
+    int result = (bitsOffset << 6) + Long.numberOfTrailingZeros(currentBits);
     return result > size ? size : result;
   }
 
@@ -119,29 +132,30 @@ public final class BitArrayview implements Cloneable {
     if (from >= size) {
       return size;
     }
-    int bitsOffset = from / 32;
-    int currentBits = ~bits[bitsOffset];
+    int bitsOffset = from >> 6;
+    long currentBits = ~bits[bitsOffset];
     // mask off lesser bits first
-    currentBits &= ~((1 << (from & 0x1F)) - 1);
+    currentBits &= -1L << (from & 0x3F);
     while (currentBits == 0) {
       if (++bitsOffset == bits.length) {
         return size;
       }
       currentBits = ~bits[bitsOffset];
     }
-    int result = (bitsOffset * 32) + Integer.numberOfTrailingZeros(currentBits);
+    int result = (bitsOffset << 6) + Long.numberOfTrailingZeros(currentBits);
     return result > size ? size : result;
   }
 
   /**
    * Sets a block of 32 bits, starting at bit i.
    *
-   * @param i first bit to set
+   * @param i first bit to set, a multiple of 32
    * @param newBits the new value of the next 32 bits. Note again that the least-significant bit
    * corresponds to bit i, the next-least-significant to i+1, and so on.
    */
   public void setBulk(int i, int newBits) {
-    bits[i / 32] = newBits;
+    int shift = i & 0x20;
+    bits[i >> 6] = (bits[i >> 6] & ~(0xFFFFFFFFL << shift)) | ((newBits & 0xFFFFFFFFL) << shift);
   }
 
   /**
@@ -158,13 +172,13 @@ public final class BitArrayview implements Cloneable {
       return;
     }
     end--; // will be easier to treat this as the last actually set bit -- inclusive
-    int firstInt = start / 32;
-    int lastInt = end / 32;
-    for (int i = firstInt; i <= lastInt; i++) {
-      int firstBit = i > firstInt ? 0 : start & 0x1F;
-      int lastBit = i < lastInt ? 31 : end & 0x1F;
+    int firstLong = start >> 6;
+    int lastLong = end >> 6;
+    for (int i = firstLong; i <= lastLong; i++) {
+      int firstBit = i > firstLong ? 0 : start & 0x3F;
+      int lastBit = i < lastLong ? 63 : end & 0x3F;
       // Ones from firstBit to lastBit, inclusive
-      int mask = (2 << lastBit) - (1 << firstBit);
+      long mask = (-1L >>> (63 - lastBit)) & (-1L << firstBit);
       bits[i] |= mask;
     }
   }
@@ -196,13 +210,13 @@ public final class BitArrayview implements Cloneable {
       return true; // empty range matches
     }
     end--; // will be easier to treat this as the last actually set bit -- inclusive
-    int firstInt = start / 32;
-    int lastInt = end / 32;
-    for (int i = firstInt; i <= lastInt; i++) {
-      int firstBit = i > firstInt ? 0 : start & 0x1F;
-      int lastBit = i < lastInt ? 31 : end & 0x1F;
+    int firstLong = start >> 6;
+    int lastLong = end >> 6;
+    for (int i = firstLong; i <= lastLong; i++) {
+      int firstBit = i > firstLong ? 0 : start & 0x3F;
+      int lastBit = i < lastLong ? 63 : end & 0x3F;
       // Ones from firstBit to lastBit, inclusive
-      int mask = (2 << lastBit) - (1 << firstBit);
+      long mask = (-1L >>> (63 - lastBit)) & (-1L << firstBit);
 
       // Return false if we're looking for 1s and the masked bits[i] isn't all 1s (that is,
       // equals the mask, or we're looking for 0s and the masked portion is not all 0s
@@ -216,7 +230,7 @@ public final class BitArrayview implements Cloneable {
   public void appendBit(boolean bit) {
     ensureCapacity(size + 1);
     if (bit) {
-      bits[size / 32] |= 1 << (size & 0x1F);
+      bits[size >> 6] |= 1L << (size & 0x3F);
     }
     size++;
   }
@@ -252,7 +266,7 @@ public final class BitArrayview implements Cloneable {
       throw new IllegalArgumentException("Sizes don't match");
     }
     for (int i = 0; i < bits.length; i++) {
-      // The last int could be incomplete (i.e. not have 32 bits in
+      // The last long could be incomplete (i.e. not have 64 bits in
       // it) but there is no problem since 0 XOR 0 == 0.
       bits[i] ^= other.bits[i];
     }
@@ -262,7 +276,7 @@ public final class BitArrayview implements Cloneable {
    *
    * @param bitOffset first bit to start writing
    * @param array array to write into. Bytes are written most-significant byte first. This is the opposite
-   *  of the internal representation, which is exposed by {@link #getBitArray()}
+   *  of the internal representation, which is exposed by {@link #getLongBitArray()}
    * @param offset position in array to start writing
    * @param numBytes how many bytes to write
    */
@@ -280,10 +294,28 @@ public final class BitArrayview implements Cloneable {
   }
 
   /**
-   * @return underlying array of ints. The first element holds the first 32 bits, and the least
-   *         significant bit is bit 0.
+   * <p>Incompatible change: this used to return the array the bits were stored in, so callers
+   * could change bits by writing to it. The bits are now stored in longs and this returns a copy,
+   * so such writes are silently lost. Write with {@link #setBulk(int, int)} or to
+   * {@link #getLongBitArray()} instead.</p>
+   *
+   * @return a copy of the bits as an array of ints. The first element holds the first 32 bits, and
+   *         the least significant bit is bit 0. Changes to it do not affect this array.
+   * @see #getLongBitArray()
    */
   public int[] getBitArray() {
+    int[] ints = new int[(size + 31) / 32];
+    for (int i = 0; i < ints.length; i++) {
+      ints[i] = (int) (bits[i >> 1] >>> ((i & 1) << 5));
+    }
+    return ints;
+  }
+
+  /**
+   * @return underlying array of longs. The first element holds the first 64 bits, and the least
+   *         significant bit is bit 0. Changes to it change this array.
+   */
+  public long[] getLongBitArray() {
     return bits;
   }
 
@@ -291,36 +323,30 @@ public final class BitArrayview implements Cloneable {
    * Reverses all bits in the array.
    */
   public void reverse() {
-    int[] newBits = new int[bits.length];
-    // reverse all int's first
-    int len = (size - 1) / 32;
+    long[] newBits = new long[bits.length];
+    // reverse all long's first
+    int len = (size - 1) / 64;
     int oldBitsLen = len + 1;
     for (int i = 0; i < oldBitsLen; i++) {
-      long x = bits[i];
-      x = ((x >>  1) & 0x55555555L) | ((x & 0x55555555L) <<  1);
-      x = ((x >>  2) & 0x33333333L) | ((x & 0x33333333L) <<  2);
-      x = ((x >>  4) & 0x0f0f0f0fL) | ((x & 0x0f0f0f0fL) <<  4);
-      x = ((x >>  8) & 0x00ff00ffL) | ((x & 0x00ff00ffL) <<  8);
-      x = ((x >> 16) & 0x0000ffffL) | ((x & 0x0000ffffL) << 16);
-      newBits[len - i] = (int) x;
+      newBits[len - i] = Long.reverse(bits[i]);
     }
-    // now correct the int's if the bit size isn't a multiple of 32
-    if (size != oldBitsLen * 32) {
-      int leftOffset = oldBitsLen * 32 - size;
-      int currentInt = newBits[0] >>> leftOffset;
+    // now correct the long's if the bit size isn't a multiple of 64
+    if (size != oldBitsLen * 64) {
+      int leftOffset = oldBitsLen * 64 - size;
+      long currentLong = newBits[0] >>> leftOffset;
       for (int i = 1; i < oldBitsLen; i++) {
-        int nextInt = newBits[i];
-        currentInt |= nextInt << (32 - leftOffset);
-        newBits[i - 1] = currentInt;
-        currentInt = nextInt >>> leftOffset;
+        long nextLong = newBits[i];
+        currentLong |= nextLong << (64 - leftOffset);
+        newBits[i - 1] = currentLong;
+        currentLong = nextLong >>> leftOffset;
       }
-      newBits[oldBitsLen - 1] = currentInt;
+      newBits[oldBitsLen - 1] = currentLong;
     }
     bits = newBits;
   }
 
-  private static int[] makeArray(int size) {
-    return new int[(size + 31) / 32];
+  private static long[] makeArray(int size) {
+    return new long[(size + 63) / 64];
   }
 
   @Override
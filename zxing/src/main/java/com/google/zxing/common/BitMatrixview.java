@@ -23,11 +23,11 @@ import java.util.Arrays;
  * module, x is the column position, and y is the row position. The ordering is always x, y.
  * The origin is at the top-left.</p>
  *
- * <p>Internally the bits are represented in a 1-D array of 32-bit ints. However, each row begins
- * with a new int. This is done intentionally so that we can copy out a row into a BitArrayview very
+ * <p>Internally the bits are represented in a 1-D array of 64-bit longs. However, each row begins
+ * with a new long. This is done intentionally so that we can copy out a row into a BitArrayview very
  * efficiently.</p>
  *
- * <p>The ordering of bits is row-major. Within each int, the least significant bits are used first,
+ * <p>The ordering of bits is row-major. Within each long, the least significant bits are used first,
  * meaning they represent lower x values. This is compatible with BitArrayview's implementation.</p>
  *
  * @author Sean Owen
@@ -38,7 +38,7 @@ public final class BitMatrixview implements Cloneable {
   private final int width;
   private final int height;
   private final int rowSize;
-  private final int[] bits;
+  private final long[] bits;
 
   /**
    * Creates an empty square {@link BitMatrixview}.
@@ -61,11 +61,11 @@ public final class BitMatrixview implements Cloneable {
     }
     this.width = width;
     this.height = height;
-    this.rowSize = (width + 31) / 32;
-    bits = new int[rowSize * height];
+    this.rowSize = (width + 63) / 64;
+    bits = new long[rowSize * height];
   }
 
-  private BitMatrixview(int width, int height, int rowSize, int[] bits) {
+  private BitMatrixview(int width, int height, int rowSize, long[] bits) {
     this.width = width;
     this.height = height;
     this.rowSize = rowSize;
@@ -158,8 +158,8 @@ public final class BitMatrixview implements Cloneable {
    * @return value of given bit in matrix
    */
   public boolean get(int x, int y) {
-    int offset = y * rowSize + (x / 32);
-    return ((bits[offset] >>> (x & 0x1f)) & 1) != 0;
+    int offset = y * rowSize + (x >> 6);
+    return ((bits[offset] >>> (x & 0x3f)) & 1) != 0;
   }
 
   /**
@@ -169,13 +169,13 @@ public final class BitMatrixview implements Cloneable {
    * @param y The vertical component (i.e. which row)
    */
   public void set(int x, int y) {
-    int offset = y * rowSize + (x / 32);
-    bits[offset] |= 1 << (x & 0x1f);
+    int offset = y * rowSize + (x >> 6);
+    bits[offset] |= 1L << (x & 0x3f);
   }
 
   public void unset(int x, int y) {
-    int offset = y * rowSize + (x / 32);
-    bits[offset] &= ~(1 << (x & 0x1f));
+    int offset = y * rowSize + (x >> 6);
+    bits[offset] &= ~(1L << (x & 0x3f));
   }
 
   /**
@@ -185,8 +185,8 @@ public final class BitMatrixview implements Cloneable {
    * @param y The vertical component (i.e. which row)
    */
   public void flip(int x, int y) {
-    int offset = y * rowSize + (x / 32);
-    bits[offset] ^= 1 << (x & 0x1f);
+    int offset = y * rowSize + (x >> 6);
+    bits[offset] ^= 1L << (x & 0x3f);
   }
 
   /**
@@ -196,17 +196,12 @@ public final class BitMatrixview implements Cloneable {
    * @param mask XOR mask
    */
   public void xor(BitMatrixview mask) {
-    if (width != mask.getWidth() || height != mask.getHeight()
-        || rowSize != mask.getRowSize()) {
+    if (width != mask.getWidth() || height != mask.getHeight()) {
       throw new IllegalArgumentException("input matrix dimensions do not match");
     }
-    BitArrayview rowArray = new BitArrayview(width / 32 + 1);
-    for (int y = 0; y < height; y++) {
-      int offset = y * rowSize;
-      int[] row = mask.getRow(y, rowArray).getBitArray();
-      for (int x = 0; x < rowSize; x++) {
-        bits[offset + x] ^= row[x];
-      }
+    long[] maskBits = mask.bits;
+    for (int i = 0; i < bits.length; i++) {
+      bits[i] ^= maskBits[i];
     }
   }
 
@@ -243,11 +238,70 @@ public final class BitMatrixview implements Cloneable {
     for (int y = top; y < bottom; y++) {
       int offset = y * rowSize;
       for (int x = left; x < right; x++) {
-        bits[offset + (x / 32)] |= 1 << (x & 0x1f);
+        bits[offset + (x >> 6)] |= 1L << (x & 0x3f);
       }
     }
   }
 
+  /**
+   * <p>Sets a square region of the bit matrix to false.</p>
+   *
+   * @param left The horizontal position to begin at (inclusive)
+   * @param top The vertical position to begin at (inclusive)
+   * @param width The width of the region
+   * @param height The height of the region
+   */
+  public void unsetRegion(int left, int top, int width, int height) {
+    if (top < 0 || left < 0) {
+      throw new IllegalArgumentException("Left and top must be nonnegative");
+    }
+    if (height < 1 || width < 1) {
+      throw new IllegalArgumentException("Height and width must be at least 1");
+    }
+    int right = left + width;
+    int bottom = top + height;
+    if (bottom > this.height || right > this.width) {
+      throw new IllegalArgumentException("The region must fit inside the matrix");
+    }
+    for (int y = top; y < bottom; y++) {
+      int offset = y * rowSize;
+      for (int x = left; x < right; x++) {
+        bits[offset + (x >> 6)] &= ~(1L << (x & 0x3f));
+      }
+    }
+  }
+
+  /**
+   * <p>Thresholds a segment of one row of luminance values into the matrix: the bit of every pixel
+   * whose luminance is at most {@code threshold} is set, and all other bits are left as they are.
+   * The bits are gathered 64 at a time and each word of the matrix is written once, which is
+   * much cheaper than calling {@link #set(int, int)} per pixel.</p>
+   *
+   * @param left The horizontal position of the first pixel of the segment
+   * @param y The row of the segment
+   * @param width The number of pixels in the segment
+   * @param luminances Luminance values, one unsigned byte per pixel
+   * @param offset The index in {@code luminances} of the first pixel of the segment
+   * @param threshold The highest luminance that is black; -1 leaves the segment untouched
+   */
+  public void setThresholded(int left, int y, int width, byte[] luminances, int offset, int threshold) {
+    int x = left;
+    int right = left + width;
+    int index = y * rowSize + (x >> 6);
+    while (x < right) {
+      int bit = x & 0x3f;
+      int count = Math.min(right - x, 64 - bit);
+      long word = 0;
+      for (int i = 0; i < count; i++) {
+        // The sign bit of pixel - threshold - 1 is set exactly when the pixel is black.
+        word |= (long) (((luminances[offset + i] & 0xff) - threshold - 1) >>> 31) << i;
+      }
+      bits[index++] |= word << bit;
+      x += count;
+      offset += count;
+    }
+  }
+
   /**
    * A fast method to retrieve one row of data from the matrix as a BitArrayview.
    *
@@ -262,10 +316,7 @@ public final class BitMatrixview implements Cloneable {
     } else {
       row.clear();
     }
-    int offset = y * rowSize;
-    for (int x = 0; x < rowSize; x++) {
-      row.setBulk(x * 32, bits[offset + x]);
-    }
+    System.arraycopy(bits, y * rowSize, row.getLongBitArray(), 0, rowSize);
     return row;
   }
 
@@ -274,7 +325,7 @@ public final class BitMatrixview implements Cloneable {
    * @param row {@link BitArrayview} to copy from
    */
   public void setRow(int y, BitArrayview row) {
-    System.arraycopy(row.getBitArray(), 0, bits, y * rowSize, rowSize);
+    System.arraycopy(row.getLongBitArray(), 0, bits, y * rowSize, rowSize);
   }
 
   /**
@@ -307,8 +358,8 @@ public final class BitMatrixview implements Cloneable {
     int bottom = -1;
 
     for (int y = 0; y < height; y++) {
-      for (int x32 = 0; x32 < rowSize; x32++) {
-        int theBits = bits[y * rowSize + x32];
+      for (int x64 = 0; x64 < rowSize; x64++) {
+        long theBits = bits[y * rowSize + x64];
         if (theBits != 0) {
           if (y < top) {
             top = y;
@@ -316,23 +367,13 @@ public final class BitMatrixview implements Cloneable {
           if (y > bottom) {
             bottom = y;
           }
-          if (x32 * 32 < left) {
-            int bit = 0;
-            while ((theBits << (31 - bit)) == 0) {
-              bit++;
-            }
-            if ((x32 * 32 + bit) < left) {
-              left = x32 * 32 + bit;
-            }
+          int first = x64 * 64 + Long.numberOfTrailingZeros(theBits);
+          if (first < left) {
+            left = first;
           }
-          if (x32 * 32 + 31 > right) {
-            int bit = 31;
-            while ((theBits >>> bit) == 0) {
-              bit--;
-            }
-            if ((x32 * 32 + bit) > right) {
-              right = x32 * 32 + bit;
-            }
+          int last = x64 * 64 + 63 - Long.numberOfLeadingZeros(theBits);
+          if (last > right) {
+            right = last;
           }
         }
       }
@@ -359,14 +400,7 @@ public final class BitMatrixview implements Cloneable {
       return null;
     }
     int y = bitsOffset / rowSize;
-    int x = (bitsOffset % rowSize) * 32;
-
-    int theBits = bits[bitsOffset];
-    int bit = 0;
-    while ((theBits << (31 - bit)) == 0) {
-      bit++;
-    }
-    x += bit;
+    int x = (bitsOffset % rowSize) * 64 + Long.numberOfTrailingZeros(bits[bitsOffset]);
     return new int[] {x, y};
   }
 
@@ -380,14 +414,7 @@ public final class BitMatrixview implements Cloneable {
     }
 
     int y = bitsOffset / rowSize;
-    int x = (bitsOffset % rowSize) * 32;
-
-    int theBits = bits[bitsOffset];
-    int bit = 31;
-    while ((theBits >>> bit) == 0) {
-      bit--;
-    }
-    x += bit;
+    int x = (bitsOffset % rowSize) * 64 + 63 - Long.numberOfLeadingZeros(bits[bitsOffset]);
 
     return new int[] {x, y};
   }
@@ -407,10 +434,10 @@ public final class BitMatrixview implements Cloneable {
   }
 
   /**
-   * @return The row size of the matrix
+   * @return The row size of the matrix, in 32-bit ints as in {@link BitArrayview#getBitArray()}
    */
   public int getRowSize() {
-    return rowSize;
+    return (width + 31) / 32;
   }
 
   @Override
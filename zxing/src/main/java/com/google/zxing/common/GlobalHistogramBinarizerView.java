@@ -33,18 +33,39 @@ import com.google.zxing.NotFoundExceptionview;
  */
 public class GlobalHistogramBinarizerView extends BinarizerView {
 
-  private static final int LUMINANCE_BITS = 5;
-  private static final int LUMINANCE_SHIFT = 8 - LUMINANCE_BITS;
-  private static final int LUMINANCE_BUCKETS = 1 << LUMINANCE_BITS;
+  private static final int LUMINANCE_SHIFT = BinarizationContextview.LUMINANCE_SHIFT;
+  private static final int LUMINANCE_BUCKETS = BinarizationContextview.LUMINANCE_BUCKETS;
   private static final byte[] EMPTY = new byte[0];
 
   private byte[] luminances;
   private final int[] buckets;
+  private final BinarizationContextview context;
 
   public GlobalHistogramBinarizerView(LuminanceSourceview source) {
     super(source);
     luminances = EMPTY;
     buckets = new int[LUMINANCE_BUCKETS];
+    context = null;
+  }
+
+  /**
+   * Creates a binarizer which takes its luminance data and histograms from a context shared with
+   * other binarizers over the same frame, instead of computing them itself.
+   *
+   * @param context The per-frame data to reuse
+   */
+  public GlobalHistogramBinarizerView(BinarizationContextview context) {
+    super(context.getLuminanceSource());
+    luminances = EMPTY;
+    buckets = new int[LUMINANCE_BUCKETS];
+    this.context = context;
+  }
+
+  /**
+   * @return The shared per-frame data, or null if this binarizer was created without one.
+   */
+  protected final BinarizationContextview getContext() {
+    return context;
   }
 
   // Applies simple sharpening to the row data to improve performance of the 1D Readers.
@@ -58,26 +79,36 @@ public class GlobalHistogramBinarizerView extends BinarizerView {
       row.clear();
     }
 
-    initArrays(width);
-    byte[] localLuminances = source.getRow(y, luminances);
-    int[] localBuckets = buckets;
-    for (int x = 0; x < width; x++) {
-      localBuckets[(localLuminances[x] & 0xff) >> LUMINANCE_SHIFT]++;
+    byte[] localLuminances;
+    int offset;
+    int blackPoint;
+    if (context != null) {
+      localLuminances = context.getMatrix();
+      offset = y * width;
+      blackPoint = estimateBlackPoint(context.getRowHistograms(), y * LUMINANCE_BUCKETS);
+    } else {
+      initArrays(width);
+      localLuminances = source.getRow(y, luminances);
+      offset = 0;
+      int[] localBuckets = buckets;
+      for (int x = 0; x < width; x++) {
+        localBuckets[(localLuminances[x] & 0xff) >> LUMINANCE_SHIFT]++;
+      }
+      blackPoint = estimateBlackPoint(localBuckets, 0);
     }
-    int blackPoint = estimateBlackPoint(localBuckets);
 
     if (width < 3) {
       // Special case for very small images
       for (int x = 0; x < width; x++) {
-        if ((localLuminances[x] & 0xff) < blackPoint) {
+        if ((localLuminances[offset + x] & 0xff) < blackPoint) {
           row.set(x);
         }
       }
     } else {
-      int left = localLuminances[0] & 0xff;
-      int center = localLuminances[1] & 0xff;
+      int left = localLuminances[offset] & 0xff;
+      int center = localLuminances[offset + 1] & 0xff;
       for (int x = 1; x < width - 1; x++) {
-        int right = localLuminances[x + 1] & 0xff;
+        int right = localLuminances[offset + x + 1] & 0xff;
         // A simple -1 4 -1 box filter with a weight of 2.
         if (((center * 4) - left - right) / 2 < blackPoint) {
           row.set(x);
@@ -99,31 +130,32 @@ public class GlobalHistogramBinarizerView extends BinarizerView {
 
     // Quickly calculates the histogram by sampling four rows from the image. This proved to be
     // more robust on the blackbox tests than sampling a diagonal as we used to do.
-    initArrays(width);
-    int[] localBuckets = buckets;
-    for (int y = 1; y < 5; y++) {
-      int row = height * y / 5;
-      byte[] localLuminances = source.getRow(row, luminances);
-      int right = (width * 4) / 5;
-      for (int x = width / 5; x < right; x++) {
-        int pixel = localLuminances[x] & 0xff;
-        localBuckets[pixel >> LUMINANCE_SHIFT]++;
+    int blackPoint;
+    if (context != null) {
+      blackPoint = estimateBlackPoint(context.getMatrixHistogram(), 0);
+    } else {
+      // Local buffers rather than the row ones, so this can run while another thread reads rows.
+      int[] localBuckets = new int[LUMINANCE_BUCKETS];
+      byte[] rowLuminances = new byte[width];
+      for (int y = 1; y < 5; y++) {
+        int row = height * y / 5;
+        byte[] localLuminances = source.getRow(row, rowLuminances);
+        int right = (width * 4) / 5;
+        for (int x = width / 5; x < right; x++) {
+          int pixel = localLuminances[x] & 0xff;
+          localBuckets[pixel >> LUMINANCE_SHIFT]++;
+        }
       }
+      blackPoint = estimateBlackPoint(localBuckets, 0);
     }
-    int blackPoint = estimateBlackPoint(localBuckets);
 
     // We delay reading the entire image luminance until the black point estimation succeeds.
     // Although we end up reading four rows twice, it is consistent with our motto of
     // "fail quickly" which is necessary for continuous scanning.
-    byte[] localLuminances = source.getMatrix();
+    byte[] localLuminances = context != null ? context.getMatrix() : BinarizationContextview.readMatrix(source);
+    // Pixels strictly darker than the black point are black.
     for (int y = 0; y < height; y++) {
-      int offset = y * width;
-      for (int x = 0; x < width; x++) {
-        int pixel = localLuminances[offset + x] & 0xff;
-        if (pixel < blackPoint) {
-          matrix.set(x, y);
-        }
-      }
+      matrix.setThresholded(0, y, width, localLuminances, y * width, blackPoint - 1);
     }
 
     return matrix;
@@ -131,6 +163,9 @@ public class GlobalHistogramBinarizerView extends BinarizerView {
 
   @Override
   public BinarizerView createBinarizer(LuminanceSourceview source) {
+    if (context != null && context.getLuminanceSource() == source) {
+      return new GlobalHistogramBinarizerView(context);
+    }
     return new GlobalHistogramBinarizerView(source);
   }
 
@@ -143,19 +178,24 @@ public class GlobalHistogramBinarizerView extends BinarizerView {
     }
   }
 
-  private static int estimateBlackPoint(int[] buckets) throws NotFoundExceptionview {
+  /**
+   * @param buckets Histogram counts; {@link #LUMINANCE_BUCKETS} of them are read
+   * @param start Index of the first count in {@code buckets}
+   */
+  private static int estimateBlackPoint(int[] buckets, int start) throws NotFoundExceptionview {
     // Find the tallest peak in the histogram.
-    int numBuckets = buckets.length;
+    int numBuckets = LUMINANCE_BUCKETS;
     int maxBucketCount = 0;
     int firstPeak = 0;
     int firstPeakSize = 0;
     for (int x = 0; x < numBuckets; x++) {
-      if (buckets[x] > firstPeakSize) {
+      int count = buckets[start + x];
+      if (count > firstPeakSize) {
         firstPeak = x;
-        firstPeakSize = buckets[x];
+        firstPeakSize = count;
       }
-      if (buckets[x] > maxBucketCount) {
-        maxBucketCount = buckets[x];
+      if (count > maxBucketCount) {
+        maxBucketCount = count;
       }
     }
 
@@ -165,7 +205,7 @@ public class GlobalHistogramBinarizerView extends BinarizerView {
     for (int x = 0; x < numBuckets; x++) {
       int distanceToBiggest = x - firstPeak;
       // Encourage more distant second peaks by multiplying by square of distance.
-      int score = buckets[x] * distanceToBiggest * distanceToBiggest;
+      int score = buckets[start + x] * distanceToBiggest * distanceToBiggest;
       if (score > secondPeakScore) {
         secondPeak = x;
         secondPeakScore = score;
@@ -190,7 +230,7 @@ public class GlobalHistogramBinarizerView extends BinarizerView {
     int bestValleyScore = -1;
     for (int x = secondPeak - 1; x > firstPeak; x--) {
       int fromFirst = x - firstPeak;
-      int score = fromFirst * fromFirst * (secondPeak - x) * (maxBucketCount - buckets[x]);
+      int score = fromFirst * fromFirst * (secondPeak - x) * (maxBucketCount - buckets[start + x]);
       if (score > bestValleyScore) {
         bestValley = x;
         bestValleyScore = score;
@@ -41,11 +41,11 @@ public final class HybridBinarizerView extends GlobalHistogramBinarizerView {
 
   // This class uses 5x5 blocks to compute local luminance, where each block is 8x8 pixels.
   // So this is the smallest dimension in each axis we can accept.
-  private static final int BLOCK_SIZE_POWER = 3;
-  private static final int BLOCK_SIZE = 1 << BLOCK_SIZE_POWER; // ...0100...00
-  private static final int BLOCK_SIZE_MASK = BLOCK_SIZE - 1;   // ...0011...11
-  private static final int MINIMUM_DIMENSION = BLOCK_SIZE * 5;
-  private static final int MIN_DYNAMIC_RANGE = 24;
+  static final int BLOCK_SIZE_POWER = 3;
+  static final int BLOCK_SIZE = 1 << BLOCK_SIZE_POWER; // ...0100...00
+  static final int BLOCK_SIZE_MASK = BLOCK_SIZE - 1;   // ...0011...11
+  static final int MINIMUM_DIMENSION = BLOCK_SIZE * 5;
+  static final int MIN_DYNAMIC_RANGE = 24;
 
   private BitMatrixview matrix;
 
@@ -53,6 +53,16 @@ public final class HybridBinarizerView extends GlobalHistogramBinarizerView {
     super(source);
   }
 
+  /**
+   * Creates a binarizer which takes its luminance data and block statistics from a context shared
+   * with other binarizers over the same frame, instead of computing them itself.
+   *
+   * @param context The per-frame data to reuse
+   */
+  public HybridBinarizerView(BinarizationContextview context) {
+    super(context);
+  }
+
   /**
    * Calculates the final BitMatrixview once for all requests. This could be called once from the
    * constructor instead, but there are some advantages to doing it lazily, such as making
@@ -67,7 +77,8 @@ public final class HybridBinarizerView extends GlobalHistogramBinarizerView {
     int width = source.getWidth();
     int height = source.getHeight();
     if (width >= MINIMUM_DIMENSION && height >= MINIMUM_DIMENSION) {
-      byte[] luminances = source.getMatrix();
+      BinarizationContextview context = getContext();
+      byte[] luminances = context != null ? context.getMatrix() : BinarizationContextview.readMatrix(source);
       int subWidth = width >> BLOCK_SIZE_POWER;
       if ((width & BLOCK_SIZE_MASK) != 0) {
         subWidth++;
@@ -76,7 +87,9 @@ public final class HybridBinarizerView extends GlobalHistogramBinarizerView {
       if ((height & BLOCK_SIZE_MASK) != 0) {
         subHeight++;
       }
-      int[][] blackPoints = calculateBlackPoints(luminances, subWidth, subHeight, width, height);
+      int[][] blackPoints = context != null ?
+          calculateBlackPoints(context, subWidth, subHeight) :
+          calculateBlackPoints(luminances, subWidth, subHeight, width, height);
 
       BitMatrixview newMatrix = new BitMatrixview(width, height);
       calculateThresholdForBlock(luminances, subWidth, subHeight, width, height, blackPoints, newMatrix);
@@ -90,6 +103,10 @@ public final class HybridBinarizerView extends GlobalHistogramBinarizerView {
 
   @Override
   public BinarizerView createBinarizer(LuminanceSourceview source) {
+    BinarizationContextview context = getContext();
+    if (context != null && context.getLuminanceSource() == source) {
+      return new HybridBinarizerView(context);
+    }
     return new HybridBinarizerView(source);
   }
 
@@ -130,26 +147,23 @@ public final class HybridBinarizerView extends GlobalHistogramBinarizerView {
     }
   }
 
-  private static int cap(int value, int min, int max) {
+  static int cap(int value, int min, int max) {
     return value < min ? min : value > max ? max : value;
   }
 
   /**
    * Applies a single threshold to a block of pixels.
    */
-  private static void thresholdBlock(byte[] luminances,
-                                     int xoffset,
-                                     int yoffset,
-                                     int threshold,
-                                     int stride,
-                                     BitMatrixview matrix) {
+  static void thresholdBlock(byte[] luminances,
+                             int xoffset,
+                             int yoffset,
+                             int threshold,
+                             int stride,
+                             BitMatrixview matrix) {
+    // Comparison needs to be <= so that black == 0 pixels are black even if the threshold is 0,
+    // which is what setThresholded does.
     for (int y = 0, offset = yoffset * stride + xoffset; y < BLOCK_SIZE; y++, offset += stride) {
-      for (int x = 0; x < BLOCK_SIZE; x++) {
-        // Comparison needs to be <= so that black == 0 pixels are black even if the threshold is 0.
-        if ((luminances[offset + x] & 0xFF) <= threshold) {
-          matrix.set(xoffset + x, yoffset + y);
-        }
-      }
+      matrix.setThresholded(xoffset, yoffset + y, BLOCK_SIZE, luminances, offset, threshold);
     }
   }
 
@@ -202,36 +216,61 @@ public final class HybridBinarizerView extends GlobalHistogramBinarizerView {
           }
         }
 
-        // The default estimate is the average of the values in the block.
-        int average = sum >> (BLOCK_SIZE_POWER * 2);
-        if (max - min <= MIN_DYNAMIC_RANGE) {
-          // If variation within the block is low, assume this is a block with only light or only
-          // dark pixels. In that case we do not want to use the average, as it would divide this
-          // low contrast area into black and white pixels, essentially creating data out of noise.
-          //
-          // The default assumption is that the block is light/background. Since no estimate for
-          // the level of dark pixels exists locally, use half the min for the block.
-          average = min / 2;
-
-          if (y > 0 && x > 0) {
-            // Correct the "white background" assumption for blocks that have neighbors by comparing
-            // the pixels in this block to the previously calculated black points. This is based on
-            // the fact that dark barcode symbology is always surrounded by some amount of light
-            // background for which reasonable black point estimates were made. The bp estimated at
-            // the boundaries is used for the interior.
-
-            // The (min < bp) is arbitrary but works better than other heuristics that were tried.
-            int averageNeighborBlackPoint =
-                (blackPoints[y - 1][x] + (2 * blackPoints[y][x - 1]) + blackPoints[y - 1][x - 1]) / 4;
-            if (min < averageNeighborBlackPoint) {
-              average = averageNeighborBlackPoint;
-            }
-          }
-        }
-        blackPoints[y][x] = average;
+        blackPoints[y][x] = blackPointForBlock(sum, min, max, blackPoints, x, y);
       }
     }
     return blackPoints;
   }
 
+  /**
+   * Same as {@link #calculateBlackPoints(byte[], int, int, int, int)}, but starts from the block
+   * statistics a shared context has already gathered.
+   */
+  private static int[][] calculateBlackPoints(BinarizationContextview context, int subWidth, int subHeight) {
+    int[] sums = context.getBlockSums();
+    int[] mins = context.getBlockMins();
+    int[] maxes = context.getBlockMaxes();
+    int[][] blackPoints = new int[subHeight][subWidth];
+    for (int y = 0, index = 0; y < subHeight; y++) {
+      for (int x = 0; x < subWidth; x++, index++) {
+        blackPoints[y][x] = blackPointForBlock(sums[index], mins[index], maxes[index], blackPoints, x, y);
+      }
+    }
+    return blackPoints;
+  }
+
+  /**
+   * Derives the black point of one block from its statistics and the black points already
+   * calculated for the blocks above and to the left of it.
+   */
+  static int blackPointForBlock(int sum, int min, int max, int[][] blackPoints, int x, int y) {
+    // The default estimate is the average of the values in the block.
+    int average = sum >> (BLOCK_SIZE_POWER * 2);
+    if (max - min <= MIN_DYNAMIC_RANGE) {
+      // If variation within the block is low, assume this is a block with only light or only
+      // dark pixels. In that case we do not want to use the average, as it would divide this
+      // low contrast area into black and white pixels, essentially creating data out of noise.
+      //
+      // The default assumption is that the block is light/background. Since no estimate for
+      // the level of dark pixels exists locally, use half the min for the block.
+      average = min / 2;
+
+      if (y > 0 && x > 0) {
+        // Correct the "white background" assumption for blocks that have neighbors by comparing
+        // the pixels in this block to the previously calculated black points. This is based on
+        // the fact that dark barcode symbology is always surrounded by some amount of light
+        // background for which reasonable black point estimates were made. The bp estimated at
+        // the boundaries is used for the interior.
+
+        // The (min < bp) is arbitrary but works better than other heuristics that were tried.
+        int averageNeighborBlackPoint =
+            (blackPoints[y - 1][x] + (2 * blackPoints[y][x - 1]) + blackPoints[y - 1][x - 1]) / 4;
+        if (min < averageNeighborBlackPoint) {
+          average = averageNeighborBlackPoint;
+        }
+      }
+    }
+    return average;
+  }
+
 }
@@ -0,0 +1,318 @@
+/*
+ * Copyright 2023 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.common;
+
+import com.google.zxing.BinarizerView;
+import com.google.zxing.LuminanceSourceview;
+import com.google.zxing.NotFoundExceptionview;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import static com.google.zxing.common.HybridBinarizerView.BLOCK_SIZE;
+import static com.google.zxing.common.HybridBinarizerView.BLOCK_SIZE_MASK;
+import static com.google.zxing.common.HybridBinarizerView.BLOCK_SIZE_POWER;
+import static com.google.zxing.common.HybridBinarizerView.MINIMUM_DIMENSION;
+
+/**
+ * A variant of {@link HybridBinarizerView} for large images, such as multi-megapixel document
+ * photos, which produces exactly the same {@link BitMatrixview}.
+ *
+ * <p>The 5x5 neighbourhood average of every block is read from a summed-area table over the
+ * black-point grid in four lookups, rather than adding up 25 black points per block. On images of
+ * at least {@link #PARALLEL_MIN_PIXELS} pixels, gathering the block statistics and thresholding
+ * the blocks are split into bands of block rows which run on the given executor. Only the black
+ * points themselves are computed sequentially, because each depends on its upper and left
+ * neighbours; that is one cheap step per 64 pixels.</p>
+ */
+public final class ParallelHybridBinarizerView extends GlobalHistogramBinarizerView {
+
+  /**
+   * Images smaller than this are binarized on the calling thread, where the cost of handing
+   * bands to other threads would outweigh the work saved.
+   */
+  public static final int PARALLEL_MIN_PIXELS = 1 << 21;
+
+  private static final int BANDS_PER_THREAD = 4;
+
+  private final ExecutorService executor;
+  private BitMatrixview matrix;
+
+  /**
+   * @param source The luminance data to binarize
+   * @param executor The executor to run bands on, for example a {@link java.util.concurrent.ForkJoinPool},
+   *                 or null to binarize on the calling thread
+   */
+  public ParallelHybridBinarizerView(LuminanceSourceview source, ExecutorService executor) {
+    super(source);
+    this.executor = executor;
+  }
+
+  /**
+   * @param context The per-frame data to reuse
+   * @param executor The executor to run bands on, or null to binarize on the calling thread
+   */
+  public ParallelHybridBinarizerView(BinarizationContextview context, ExecutorService executor) {
+    super(context);
+    this.executor = executor;
+  }
+
+  @Override
+  public BitMatrixview getBlackMatrix() throws NotFoundExceptionview {
+    if (matrix != null) {
+      return matrix;
+    }
+    LuminanceSourceview source = getLuminanceSource();
+    int width = source.getWidth();
+    int height = source.getHeight();
+    if (width < MINIMUM_DIMENSION || height < MINIMUM_DIMENSION) {
+      // If the image is too small, fall back to the global histogram approach.
+      matrix = super.getBlackMatrix();
+      return matrix;
+    }
+
+    BinarizationContextview context = getContext();
+    byte[] luminances = context != null ? context.getMatrix() : BinarizationContextview.readMatrix(source);
+    int subWidth = width >> BLOCK_SIZE_POWER;
+    if ((width & BLOCK_SIZE_MASK) != 0) {
+      subWidth++;
+    }
+    int subHeight = height >> BLOCK_SIZE_POWER;
+    if ((height & BLOCK_SIZE_MASK) != 0) {
+      subHeight++;
+    }
+    boolean parallel = executor != null && (long) width * height >= PARALLEL_MIN_PIXELS;
+
+    int[] sums;
+    int[] mins;
+    int[] maxes;
+    if (context != null) {
+      sums = context.getBlockSums();
+      mins = context.getBlockMins();
+      maxes = context.getBlockMaxes();
+    } else {
+      sums = new int[subWidth * subHeight];
+      mins = new int[sums.length];
+      maxes = new int[sums.length];
+      BlockStatistics statistics = new BlockStatistics(luminances, width, height, subWidth, sums, mins, maxes);
+      if (parallel) {
+        runInBands(subHeight, statistics);
+      } else {
+        statistics.run(0, subHeight);
+      }
+    }
+
+    int[] blackPointSums = calculateBlackPointSums(sums, mins, maxes, subWidth, subHeight);
+
+    BitMatrixview newMatrix = new BitMatrixview(width, height);
+    Thresholds thresholds = new Thresholds(luminances, width, height, subWidth, subHeight, blackPointSums, newMatrix);
+    if (parallel) {
+      runInBands(subHeight, thresholds);
+    } else {
+      thresholds.run(0, subHeight);
+    }
+    matrix = newMatrix;
+    return matrix;
+  }
+
+  @Override
+  public BinarizerView createBinarizer(LuminanceSourceview source) {
+    BinarizationContextview context = getContext();
+    if (context != null && context.getLuminanceSource() == source) {
+      return new ParallelHybridBinarizerView(context, executor);
+    }
+    return new ParallelHybridBinarizerView(source, executor);
+  }
+
+  /**
+   * Calculates the black point of every block as HybridBinarizer does, and returns the summed-area
+   * table of the black-point grid: entry (x, y) of the (subWidth + 1) wide table is the sum of all
+   * black points above and to the left of block (x, y).
+   */
+  private static int[] calculateBlackPointSums(int[] sums, int[] mins, int[] maxes, int subWidth, int subHeight) {
+    int[][] blackPoints = new int[subHeight][subWidth];
+    int tableWidth = subWidth + 1;
+    int[] table = new int[tableWidth * (subHeight + 1)];
+    for (int y = 0, index = 0; y < subHeight; y++) {
+      int[] blackRow = blackPoints[y];
+      int rowSum = 0;
+      int above = y * tableWidth;
+      int current = above + tableWidth;
+      for (int x = 0; x < subWidth; x++, index++) {
+        int blackPoint = HybridBinarizerView.blackPointForBlock(sums[index], mins[index], maxes[index], blackPoints, x, y);
+        blackRow[x] = blackPoint;
+        rowSum += blackPoint;
+        table[current + x + 1] = table[above + x + 1] + rowSum;
+      }
+    }
+    return table;
+  }
+
+  /**
+   * Splits the block rows into bands and runs them on the executor, waiting for all of them.
+   */
+  private void runInBands(int blockRows, final BandTask task) throws NotFoundExceptionview {
+    // When the height is not a multiple of the block size, the last block row is shifted up and
+    // overlaps the one before it. Both must be thresholded by the same thread, since they write
+    // to the same matrix rows, so the split points only ever fall before the last but one row.
+    int splittableRows = blockRows - 1;
+    int bands = Math.min(splittableRows, Runtime.getRuntime().availableProcessors() * BANDS_PER_THREAD);
+    List<Callable<Void>> callables = new ArrayList<>(bands);
+    for (int i = 0; i < bands; i++) {
+      final int start = splittableRows * i / bands;
+      final int end = i == bands - 1 ? blockRows : splittableRows * (i + 1) / bands;
+      callables.add(new Callable<Void>() {
+        @Override
+        public Void call() {
+          task.run(start, end);
+          return null;
+        }
+      });
+    }
+    try {
+      for (Future<Void> future : executor.invokeAll(callables)) {
+        future.get();
+      }
+    } catch (InterruptedException ie) {
+      Thread.currentThread().interrupt();
+      throw NotFoundExceptionview.getNotFoundInstance();
+    } catch (ExecutionException ee) {
+      Throwable cause = ee.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new IllegalStateException(cause);
+    }
+  }
+
+  private interface BandTask {
+    /**
+     * Processes block rows [start, end).
+     */
+    void run(int start, int end);
+  }
+
+  /**
+   * Gathers the sum, minimum and maximum of every block.
+   */
+  private static final class BlockStatistics implements BandTask {
+
+    private final byte[] luminances;
+    private final int width;
+    private final int height;
+    private final int subWidth;
+    private final int[] sums;
+    private final int[] mins;
+    private final int[] maxes;
+
+    BlockStatistics(byte[] luminances, int width, int height, int subWidth, int[] sums, int[] mins, int[] maxes) {
+      this.luminances = luminances;
+      this.width = width;
+      this.height = height;
+      this.subWidth = subWidth;
+      this.sums = sums;
+      this.mins = mins;
+      this.maxes = maxes;
+    }
+
+    @Override
+    public void run(int start, int end) {
+      int maxYOffset = height - BLOCK_SIZE;
+      int maxXOffset = width - BLOCK_SIZE;
+      for (int y = start; y < end; y++) {
+        int yoffset = Math.min(y << BLOCK_SIZE_POWER, maxYOffset);
+        for (int x = 0, index = y * subWidth; x < subWidth; x++, index++) {
+          int xoffset = Math.min(x << BLOCK_SIZE_POWER, maxXOffset);
+          int sum = 0;
+          int min = 0xFF;
+          int max = 0;
+          for (int yy = 0, offset = yoffset * width + xoffset; yy < BLOCK_SIZE; yy++, offset += width) {
+            for (int xx = 0; xx < BLOCK_SIZE; xx++) {
+              int pixel = luminances[offset + xx] & 0xFF;
+              sum += pixel;
+              if (pixel < min) {
+                min = pixel;
+              }
+              if (pixel > max) {
+                max = pixel;
+              }
+            }
+          }
+          sums[index] = sum;
+          mins[index] = min;
+          maxes[index] = max;
+        }
+      }
+    }
+  }
+
+  /**
+   * Thresholds every block against the average black point of the 5x5 blocks around it.
+   */
+  private static final class Thresholds implements BandTask {
+
+    private final byte[] luminances;
+    private final int width;
+    private final int height;
+    private final int subWidth;
+    private final int subHeight;
+    private final int[] blackPointSums;
+    private final BitMatrixview matrix;
+
+    Thresholds(byte[] luminances,
+               int width,
+               int height,
+               int subWidth,
+               int subHeight,
+               int[] blackPointSums,
+               BitMatrixview matrix) {
+      this.luminances = luminances;
+      this.width = width;
+      this.height = height;
+      this.subWidth = subWidth;
+      this.subHeight = subHeight;
+      this.blackPointSums = blackPointSums;
+      this.matrix = matrix;
+    }
+
+    @Override
+    public void run(int start, int end) {
+      int maxYOffset = height - BLOCK_SIZE;
+      int maxXOffset = width - BLOCK_SIZE;
+      int tableWidth = subWidth + 1;
+      int[] table = blackPointSums;
+      for (int y = start; y < end; y++) {
+        int yoffset = Math.min(y << BLOCK_SIZE_POWER, maxYOffset);
+        int top = HybridBinarizerView.cap(y, 2, subHeight - 3);
+        int upper = (top - 2) * tableWidth;
+        int lower = (top + 3) * tableWidth;
+        for (int x = 0; x < subWidth; x++) {
+          int xoffset = Math.min(x << BLOCK_SIZE_POWER, maxXOffset);
+          int left = HybridBinarizerView.cap(x, 2, subWidth - 3);
+          int sum = table[lower + left + 3] - table[lower + left - 2] - table[upper + left + 3] + table[upper + left - 2];
+          int average = sum / 25;
+          HybridBinarizerView.thresholdBlock(luminances, xoffset, yoffset, average, width, matrix);
+        }
+      }
+    }
+  }
+
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2023 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.common;
+
+import com.google.zxing.ResultPointview;
+
+/**
+ * <p>Reads straight scanlines at a given angle out of a {@link BitMatrixview}, as
+ * {@link BitArrayview}s a 1D reader can decode, so that columns and tilted barcodes can be
+ * scanned without rotating and binarizing the image again.</p>
+ *
+ * <p>The angle is in degrees, clockwise from the x axis since y grows downwards, and must be in
+ * [-45, 135). Lines closer to horizontal are read left to right with one sample per column, and
+ * the others top to bottom with one sample per row, taking the nearest pixel. A line at 0 degrees
+ * is a row of the matrix and one at 90 degrees is a column. The lines are one pixel apart along
+ * that column or row, and together they cover the whole matrix.</p>
+ */
+public final class ScanlineSamplerview {
+
+  private final BitMatrixview matrix;
+  private final int angle;
+  // Steep lines step along y and have x = intercept + slope * y; the others the other way round.
+  private final boolean steep;
+  private final float slope;
+  private final int majorSize;
+  private final int minorSize;
+  private final int minIntercept;
+  private final int lineCount;
+
+  /**
+   * @param matrix the binarized image to read lines from
+   * @param angle the direction of the lines in degrees, in [-45, 135)
+   */
+  public ScanlineSamplerview(BitMatrixview matrix, int angle) {
+    if (angle < -45 || angle >= 135) {
+      throw new IllegalArgumentException("Angle must be in [-45, 135): " + angle);
+    }
+    this.matrix = matrix;
+    this.angle = angle;
+    steep = angle >= 45;
+    if (angle == 0 || angle == 90) {
+      slope = 0.0f;
+    } else {
+      double radians = Math.toRadians(steep ? 90 - angle : angle);
+      slope = (float) Math.tan(radians);
+    }
+    majorSize = steep ? matrix.getHeight() : matrix.getWidth();
+    minorSize = steep ? matrix.getWidth() : matrix.getHeight();
+    // The intercepts of all lines that cross the matrix at all.
+    float drift = slope * (majorSize - 1);
+    minIntercept = (int) Math.floor(-Math.max(0.0f, drift));
+    int maxIntercept = (int) Math.ceil(minorSize - 1 - Math.min(0.0f, drift));
+    lineCount = maxIntercept - minIntercept + 1;
+  }
+
+  /**
+   * @return the direction of the lines in degrees
+   */
+  public int getAngle() {
+    return angle;
+  }
+
+  /**
+   * @return how many lines cover the matrix
+   */
+  public int getLineCount() {
+    return lineCount;
+  }
+
+  /**
+   * Reads one line. Its bits are in order along the line, and there are as many as the line has
+   * pixels inside the matrix.
+   *
+   * @param line the line to read, in [0, {@link #getLineCount()})
+   * @param row an optional preallocated array. If null or not the size of the line, it will be
+   *            ignored. Always use the returned object.
+   * @return the pixels of the line (true means black)
+   */
+  public BitArrayview sampleLine(int line, BitArrayview row) {
+    int intercept = minIntercept + line;
+    int start = getLineStart(intercept);
+    int end = getLineEnd(intercept, start);
+    int length = end - start;
+    if (row == null || row.getSize() != length) {
+      row = new BitArrayview(length);
+    } else {
+      row.clear();
+    }
+    if (slope == 0.0f) {
+      // A plain row or column
+      for (int i = 0; i < length; i++) {
+        if (steep ? matrix.get(intercept, start + i) : matrix.get(start + i, intercept)) {
+          row.set(i);
+        }
+      }
+    } else {
+      for (int i = 0; i < length; i++) {
+        int major = start + i;
+        int minor = nearest(intercept, major);
+        if (steep ? matrix.get(minor, major) : matrix.get(major, minor)) {
+          row.set(i);
+        }
+      }
+    }
+    return row;
+  }
+
+  /**
+   * Maps a position on a line, as read by {@link #sampleLine(int, BitArrayview)}, back to the
+   * matrix.
+   *
+   * @param line the line
+   * @param position the offset along the line, in samples
+   * @return the point of the matrix
+   */
+  public ResultPointview toImagePoint(int line, float position) {
+    int intercept = minIntercept + line;
+    float major = getLineStart(intercept) + position;
+    float minor = intercept + slope * major;
+    return steep ? new ResultPointview(minor, major) : new ResultPointview(major, minor);
+  }
+
+  private int nearest(int intercept, int major) {
+    return (int) Math.floor(intercept + slope * major + 0.5f);
+  }
+
+  private boolean isInside(int intercept, int major) {
+    int minor = nearest(intercept, major);
+    return minor >= 0 && minor < minorSize;
+  }
+
+  /**
+   * @return the first sample of the line inside the matrix, or majorSize if there is none
+   */
+  private int getLineStart(int intercept) {
+    int start;
+    if (slope == 0.0f) {
+      return intercept >= 0 && intercept < minorSize ? 0 : majorSize;
+    } else if (slope > 0.0f) {
+      start = (int) Math.ceil((-0.5f - intercept) / slope);
+    } else {
+      start = (int) Math.ceil((minorSize - 0.5f - intercept) / slope);
+    }
+    start = Math.max(0, start);
+    // Correct for rounding in the division.
+    while (start > 0 && isInside(intercept, start - 1)) {
+      start--;
+    }
+    while (start < majorSize && !isInside(intercept, start)) {
+      start++;
+    }
+    return start;
+  }
+
+  /**
+   * @return the sample just past the last one of the line inside the matrix
+   */
+  private int getLineEnd(int intercept, int start) {
+    if (start == majorSize || slope == 0.0f) {
+      return majorSize;
+    }
+    int end;
+    if (slope > 0.0f) {
+      end = (int) Math.ceil((minorSize - 0.5f - intercept) / slope);
+    } else {
+      end = (int) Math.ceil((-0.5f - intercept) / slope);
+    }
+    end = Math.min(majorSize, Math.max(start, end));
+    while (end > start && !isInside(intercept, end - 1)) {
+      end--;
+    }
+    while (end < majorSize && isInside(intercept, end)) {
+      end++;
+    }
+    return end;
+  }
+
+}
@@ -0,0 +1,420 @@
+/*
+ * Copyright 2023 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.common;
+
+import com.google.zxing.BinarizerView;
+import com.google.zxing.LuminanceSourceview;
+import com.google.zxing.NotFoundExceptionview;
+
+import static com.google.zxing.common.HybridBinarizerView.BLOCK_SIZE;
+import static com.google.zxing.common.HybridBinarizerView.BLOCK_SIZE_MASK;
+import static com.google.zxing.common.HybridBinarizerView.BLOCK_SIZE_POWER;
+import static com.google.zxing.common.HybridBinarizerView.MINIMUM_DIMENSION;
+import static com.google.zxing.common.HybridBinarizerView.MIN_DYNAMIC_RANGE;
+
+/**
+ * A {@link HybridBinarizerView} for continuous scanning, where consecutive frames are nearly
+ * identical. It keeps the block thresholds and the {@link BitMatrixview} of the previous frame in a
+ * {@link State} and only redoes the blocks whose mean, minimum, maximum or moments moved by more
+ * than the state's tolerance, or whose threshold changed because a neighbouring block was redone.
+ * Every other block keeps its bits from the previous frame.
+ *
+ * <p>The moments, luminance weighted by position across, down and diagonally through the block,
+ * are what catch a pattern shifting within a block: stripes or modules moving by a pixel or two
+ * often keep the block's sum, minimum and maximum. Even with a tolerance of 0 a block can still
+ * change in ways that keep every statistic, so every {@link State#DEFAULT_REFRESH_INTERVAL}
+ * frames the whole frame is binarized from scratch, which bounds how long stale bits can last.</p>
+ *
+ * <p>The matrix returned by {@link #getBlackMatrix()} belongs to the state and is overwritten by the next frame, so it must
+ * not be kept once that frame has been handed to a binarizer sharing the state. Binarizers over the same frame, the
+ * same {@link BinarizationContextview} or else the same source, share one matrix, computed once.</p>
+ */
+public final class TemporalHybridBinarizerView extends GlobalHistogramBinarizerView {
+
+  private final State state;
+  private BitMatrixview matrix;
+
+  public TemporalHybridBinarizerView(LuminanceSourceview source, State state) {
+    super(source);
+    this.state = state;
+  }
+
+  /**
+   * @param context The per-frame data to reuse
+   * @param state What is remembered from the previous frame
+   */
+  public TemporalHybridBinarizerView(BinarizationContextview context, State state) {
+    super(context);
+    this.state = state;
+  }
+
+  @Override
+  public BitMatrixview getBlackMatrix() throws NotFoundExceptionview {
+    if (matrix != null) {
+      return matrix;
+    }
+    LuminanceSourceview source = getLuminanceSource();
+    int width = source.getWidth();
+    int height = source.getHeight();
+    if (width < MINIMUM_DIMENSION || height < MINIMUM_DIMENSION) {
+      // If the image is too small, fall back to the global histogram approach.
+      matrix = super.getBlackMatrix();
+      return matrix;
+    }
+    BinarizationContextview context = getContext();
+    byte[] luminances = context != null ? context.getMatrix() : BinarizationContextview.readMatrix(source);
+    synchronized (state) {
+      matrix = state.update(context != null ? context : source, luminances, width, height, context);
+    }
+    return matrix;
+  }
+
+  /**
+   * Only a binarizer over this same frame shares the state. Any other source, such as a crop or a
+   * downsampled copy, is not the next frame of the stream and would throw away what the state
+   * remembers, so it gets a plain {@link HybridBinarizerView}.
+   */
+  @Override
+  public BinarizerView createBinarizer(LuminanceSourceview source) {
+    BinarizationContextview context = getContext();
+    if (context != null && context.getLuminanceSource() == source) {
+      return new TemporalHybridBinarizerView(context, state);
+    }
+    if (source == getLuminanceSource()) {
+      return new TemporalHybridBinarizerView(source, state);
+    }
+    return new HybridBinarizerView(source);
+  }
+
+  /**
+   * What a {@link TemporalHybridBinarizerView} remembers from one frame to the next. Use one state
+   * per stream of frames, and do not binarize two different frames with it at the same time.
+   */
+  public static final class State {
+
+    /**
+     * By how many luminance levels a block's mean, minimum or maximum may move before the block is
+     * redone.
+     */
+    public static final int DEFAULT_TOLERANCE = 2;
+
+    /**
+     * How often the whole frame is binarized from scratch: about once a second of preview.
+     */
+    public static final int DEFAULT_REFRESH_INTERVAL = 30;
+
+    private final int tolerance;
+    private final int refreshInterval;
+    private int framesSinceRefresh;
+    // The context or source of the frame the matrix was last computed for
+    private Object frame;
+    private int width;
+    private int height;
+    private int subWidth;
+    private int subHeight;
+    private int[] sums;
+    private int[] mins;
+    private int[] maxes;
+    private int[] momentsX;
+    private int[] momentsY;
+    private int[] momentsXY;
+    private int[] previousSums;
+    private int[] previousMins;
+    private int[] previousMaxes;
+    private int[] previousMomentsX;
+    private int[] previousMomentsY;
+    private int[] previousMomentsXY;
+    private int[][] blackPoints;
+    private int[] averages;
+    private boolean[] blackPointChanged;
+    private boolean[] dirty;
+    private BitMatrixview matrix;
+
+    public State() {
+      this(DEFAULT_TOLERANCE);
+    }
+
+    /**
+     * @param tolerance By how many luminance levels a block's mean, minimum or maximum may move
+     *                  before the block is redone, scaled likewise for the moments; 0 redoes
+     *                  every block whose statistics changed at all
+     */
+    public State(int tolerance) {
+      this(tolerance, DEFAULT_REFRESH_INTERVAL);
+    }
+
+    /**
+     * @param tolerance As for {@link #State(int)}
+     * @param refreshInterval Every how many frames the whole frame is binarized from scratch; 1
+     *                        does it every frame
+     */
+    public State(int tolerance, int refreshInterval) {
+      if (tolerance < 0) {
+        throw new IllegalArgumentException("Tolerance must be nonnegative");
+      }
+      if (refreshInterval < 1) {
+        throw new IllegalArgumentException("Refresh interval must be positive");
+      }
+      this.tolerance = tolerance;
+      this.refreshInterval = refreshInterval;
+    }
+
+    /**
+     * Forgets the previous frame, so the next one is binarized from scratch.
+     */
+    public synchronized void reset() {
+      matrix = null;
+      frame = null;
+    }
+
+    /**
+     * @param frame Identifies the frame; binarizing the same frame again, as parallel readers of
+     *              one frame do, returns the matrix already computed and does not count as a frame
+     */
+    private BitMatrixview update(Object frame,
+                                 byte[] luminances,
+                                 int width,
+                                 int height,
+                                 BinarizationContextview context) {
+      if (matrix != null && frame == this.frame && width == this.width && height == this.height) {
+        return matrix;
+      }
+      this.frame = frame;
+      boolean fresh = matrix == null || width != this.width || height != this.height;
+      if (fresh) {
+        allocate(width, height);
+      } else if (++framesSinceRefresh >= refreshInterval) {
+        fresh = true;
+        matrix.clear();
+      }
+      if (fresh) {
+        framesSinceRefresh = 0;
+      }
+      if (context != null) {
+        int[] contextSums = context.getBlockSums();
+        System.arraycopy(contextSums, 0, sums, 0, contextSums.length);
+        System.arraycopy(context.getBlockMins(), 0, mins, 0, contextSums.length);
+        System.arraycopy(context.getBlockMaxes(), 0, maxes, 0, contextSums.length);
+        calculateBlockStatistics(luminances, false);
+      } else {
+        calculateBlockStatistics(luminances, true);
+      }
+      updateBlackPoints(fresh);
+      updateAverages(fresh);
+      markOverlappingBlocks();
+
+      // Thresholding only ever sets bits, so clear every block that is redone first; where the
+      // edge blocks overlap their neighbours, the result is the union of both, as in HybridBinarizer.
+      int maxYOffset = height - BLOCK_SIZE;
+      int maxXOffset = width - BLOCK_SIZE;
+      for (int y = 0, index = 0; y < subHeight; y++) {
+        int yoffset = Math.min(y << BLOCK_SIZE_POWER, maxYOffset);
+        for (int x = 0; x < subWidth; x++, index++) {
+          if (dirty[index] && !fresh) {
+            matrix.unsetRegion(Math.min(x << BLOCK_SIZE_POWER, maxXOffset), yoffset, BLOCK_SIZE, BLOCK_SIZE);
+          }
+        }
+      }
+      for (int y = 0, index = 0; y < subHeight; y++) {
+        int yoffset = Math.min(y << BLOCK_SIZE_POWER, maxYOffset);
+        for (int x = 0; x < subWidth; x++, index++) {
+          if (dirty[index]) {
+            int xoffset = Math.min(x << BLOCK_SIZE_POWER, maxXOffset);
+            HybridBinarizerView.thresholdBlock(luminances, xoffset, yoffset, averages[index], width, matrix);
+          }
+        }
+      }
+      return matrix;
+    }
+
+    private void allocate(int width, int height) {
+      this.width = width;
+      this.height = height;
+      subWidth = (width >> BLOCK_SIZE_POWER) + ((width & BLOCK_SIZE_MASK) != 0 ? 1 : 0);
+      subHeight = (height >> BLOCK_SIZE_POWER) + ((height & BLOCK_SIZE_MASK) != 0 ? 1 : 0);
+      int blocks = subWidth * subHeight;
+      sums = new int[blocks];
+      mins = new int[blocks];
+      maxes = new int[blocks];
+      momentsX = new int[blocks];
+      momentsY = new int[blocks];
+      momentsXY = new int[blocks];
+      previousSums = new int[blocks];
+      previousMins = new int[blocks];
+      previousMaxes = new int[blocks];
+      previousMomentsX = new int[blocks];
+      previousMomentsY = new int[blocks];
+      previousMomentsXY = new int[blocks];
+      blackPoints = new int[subHeight][subWidth];
+      averages = new int[blocks];
+      blackPointChanged = new boolean[blocks];
+      dirty = new boolean[blocks];
+      matrix = new BitMatrixview(width, height);
+    }
+
+    /**
+     * Computes the moments of every block about its centre: each pixel weighted by twice its
+     * offset from the centre across, so the weights are whole numbers from -7 to 7, by the same
+     * down, and by the product of the two.
+     *
+     * @param all Whether to compute the sums, minimums and maximums too, or only the moments
+     */
+    private void calculateBlockStatistics(byte[] luminances, boolean all) {
+      int maxYOffset = height - BLOCK_SIZE;
+      int maxXOffset = width - BLOCK_SIZE;
+      for (int y = 0, index = 0; y < subHeight; y++) {
+        int yoffset = Math.min(y << BLOCK_SIZE_POWER, maxYOffset);
+        for (int x = 0; x < subWidth; x++, index++) {
+          int xoffset = Math.min(x << BLOCK_SIZE_POWER, maxXOffset);
+          int sum = 0;
+          int min = 0xFF;
+          int max = 0;
+          int momentX = 0;
+          int momentY = 0;
+          int momentXY = 0;
+          for (int yy = 0, offset = yoffset * width + xoffset; yy < BLOCK_SIZE; yy++, offset += width) {
+            int rowSum = 0;
+            int rowMomentX = 0;
+            for (int xx = 0; xx < BLOCK_SIZE; xx++) {
+              int pixel = luminances[offset + xx] & 0xFF;
+              rowSum += pixel;
+              rowMomentX += (2 * xx - BLOCK_SIZE + 1) * pixel;
+              if (all) {
+                if (pixel < min) {
+                  min = pixel;
+                }
+                if (pixel > max) {
+                  max = pixel;
+                }
+              }
+            }
+            int weightY = 2 * yy - BLOCK_SIZE + 1;
+            sum += rowSum;
+            momentX += rowMomentX;
+            momentY += weightY * rowSum;
+            momentXY += weightY * rowMomentX;
+          }
+          momentsX[index] = momentX;
+          momentsY[index] = momentY;
+          momentsXY[index] = momentXY;
+          if (all) {
+            sums[index] = sum;
+            mins[index] = min;
+            maxes[index] = max;
+          }
+        }
+      }
+    }
+
+    /**
+     * Recomputes the black point of every block whose statistics moved, and of every low contrast
+     * block whose black point depends on a neighbour that changed. The statistics a block is
+     * compared against are those from the last time it was redone, so slow drift is still caught.
+     */
+    private void updateBlackPoints(boolean fresh) {
+      int sumTolerance = tolerance << (BLOCK_SIZE_POWER * 2);
+      // Noise of up to the tolerance on every pixel typically moves the moments across and down by
+      // about ten times the tolerance, and the diagonal one by about a hundred times; a pattern of
+      // any real contrast moving by a pixel moves them by far more
+      int momentTolerance = tolerance << 5;
+      int crossMomentTolerance = tolerance << 8;
+      for (int y = 0, index = 0; y < subHeight; y++) {
+        int[] blackRow = blackPoints[y];
+        for (int x = 0; x < subWidth; x++, index++) {
+          int sum = sums[index];
+          int min = mins[index];
+          int max = maxes[index];
+          boolean moved = fresh ||
+              Math.abs(sum - previousSums[index]) > sumTolerance ||
+              Math.abs(min - previousMins[index]) > tolerance ||
+              Math.abs(max - previousMaxes[index]) > tolerance ||
+              Math.abs(momentsX[index] - previousMomentsX[index]) > momentTolerance ||
+              Math.abs(momentsY[index] - previousMomentsY[index]) > momentTolerance ||
+              Math.abs(momentsXY[index] - previousMomentsXY[index]) > crossMomentTolerance;
+          boolean neighbourChanged = y > 0 && x > 0 &&
+              (blackPointChanged[index - 1] ||
+               blackPointChanged[index - subWidth] ||
+               blackPointChanged[index - subWidth - 1]);
+          dirty[index] = moved;
+          if (moved || (max - min <= MIN_DYNAMIC_RANGE && neighbourChanged)) {
+            int blackPoint = HybridBinarizerView.blackPointForBlock(sum, min, max, blackPoints, x, y);
+            blackPointChanged[index] = fresh || blackPoint != blackRow[x];
+            blackRow[x] = blackPoint;
+          } else {
+            blackPointChanged[index] = false;
+          }
+          if (moved) {
+            previousSums[index] = sum;
+            previousMins[index] = min;
+            previousMaxes[index] = max;
+            previousMomentsX[index] = momentsX[index];
+            previousMomentsY[index] = momentsY[index];
+            previousMomentsXY[index] = momentsXY[index];
+          }
+        }
+      }
+    }
+
+    /**
+     * Recomputes the 5x5 average of every block, and marks those whose threshold changed.
+     */
+    private void updateAverages(boolean fresh) {
+      for (int y = 0, index = 0; y < subHeight; y++) {
+        int top = HybridBinarizerView.cap(y, 2, subHeight - 3);
+        for (int x = 0; x < subWidth; x++, index++) {
+          int left = HybridBinarizerView.cap(x, 2, subWidth - 3);
+          int sum = 0;
+          for (int z = -2; z <= 2; z++) {
+            int[] blackRow = blackPoints[top + z];
+            sum += blackRow[left - 2] + blackRow[left - 1] + blackRow[left] + blackRow[left + 1] + blackRow[left + 2];
+          }
+          int average = sum / 25;
+          if (fresh || average != averages[index]) {
+            dirty[index] = true;
+            averages[index] = average;
+          }
+        }
+      }
+    }
+
+    /**
+     * A partial block at the right or bottom edge overlaps the block next to it. Clearing one of
+     * them also clears pixels the other set, so both have to be redone together.
+     */
+    private void markOverlappingBlocks() {
+      if ((width & BLOCK_SIZE_MASK) != 0) {
+        for (int y = 0; y < subHeight; y++) {
+          int last = y * subWidth + subWidth - 1;
+          if (dirty[last] || dirty[last - 1]) {
+            dirty[last] = true;
+            dirty[last - 1] = true;
+          }
+        }
+      }
+      if ((height & BLOCK_SIZE_MASK) != 0) {
+        int lastRow = (subHeight - 1) * subWidth;
+        for (int x = 0; x < subWidth; x++) {
+          if (dirty[lastRow + x] || dirty[lastRow - subWidth + x]) {
+            dirty[lastRow + x] = true;
+            dirty[lastRow - subWidth + x] = true;
+          }
+        }
+      }
+    }
+  }
+
+}
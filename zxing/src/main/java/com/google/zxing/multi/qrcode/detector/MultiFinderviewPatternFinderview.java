@@ -20,6 +20,7 @@ import com.google.zxing.DecodeHintTypeview;
 import com.google.zxing.NotFoundExceptionview;
 import com.google.zxing.ResultPointview;
 import com.google.zxing.ResultPointCallbackview;
+import com.google.zxing.common.BitArrayview;
 import com.google.zxing.common.BitMatrixview;
 import com.google.zxing.qrcode.detector.FinderPatternview;
 import com.google.zxing.qrcode.detector.FinderPatternFinderview;
@@ -247,26 +248,33 @@ final class MultiFinderviewPatternFinderview extends FinderPatternFinderview {
     }
 
     int[] stateCount = new int[5];
+    BitArrayview row = null;
     for (int i = iSkip - 1; i < maxI; i += iSkip) {
       // Get a row of black/white values
+      row = image.getRow(i, row);
       stateCount[0] = 0;
       stateCount[1] = 0;
       stateCount[2] = 0;
       stateCount[3] = 0;
       stateCount[4] = 0;
       int currentState = 0;
-      for (int j = 0; j < maxJ; j++) {
-        if (image.get(j, i)) {
-          // Black pixel
+      // A run of same-colored pixels at a time, as in FinderPatternFinderview
+      int j = 0;
+      while (j < maxJ) {
+        boolean black = row.get(j);
+        int runEnd = black ? row.getNextUnset(j) : row.getNextSet(j);
+        int runLength = runEnd - j;
+        if (black) {
           if ((currentState & 1) == 1) { // Counting white pixels
             currentState++;
           }
-          stateCount[currentState]++;
-        } else { // White pixel
+          stateCount[currentState] += runLength;
+        } else { // White pixels
           if ((currentState & 1) == 0) { // Counting black pixels
             if (currentState == 4) { // A winner?
               if (foundPatternCross(stateCount) && handlePossibleCenter(stateCount, i, j, pureBarcode)) { // Yes
-                // Clear state to start looking again
+                // Clear state to start looking again after this pixel
+                runEnd = j + 1;
                 currentState = 0;
                 stateCount[0] = 0;
                 stateCount[1] = 0;
@@ -277,17 +285,18 @@ final class MultiFinderviewPatternFinderview extends FinderPatternFinderview {
                 stateCount[0] = stateCount[2];
                 stateCount[1] = stateCount[3];
                 stateCount[2] = stateCount[4];
-                stateCount[3] = 1;
+                stateCount[3] = runLength;
                 stateCount[4] = 0;
                 currentState = 3;
               }
             } else {
-              stateCount[++currentState]++;
+              stateCount[++currentState] += runLength;
             }
           } else { // Counting white pixels
-            stateCount[currentState]++;
+            stateCount[currentState] += runLength;
           }
         }
+        j = runEnd;
       } // for j=...
 
       if (foundPatternCross(stateCount)) {
@@ -21,7 +21,6 @@ import com.google.zxing.DecodeHintTypeview;
 import com.google.zxing.NotFoundExceptionview;
 import com.google.zxing.Resultview;
 import com.google.zxing.ResultPointview;
-import com.google.zxing.common.BitArrayview;
 
 import java.util.Arrays;
 import java.util.Map;
@@ -52,6 +51,8 @@ public final class CodaBarReaderview extends OneDReaderview {
       0x00c, 0x018, 0x045, 0x051, 0x054, 0x015, 0x01A, 0x029, 0x00B, 0x00E, // -$:/.+ABCD
   };
 
+  private static final int[] CHARACTER_INDICES = PatternMatcherview.indexEncodings(CHARACTER_ENCODINGS, 7);
+
   // minimal number of characters that should be present (including start and stop characters)
   // under normal circumstances this should be set to 3, but can be set higher
   // as a last-ditch attempt to reduce false positives.
@@ -77,7 +78,7 @@ public final class CodaBarReaderview extends OneDReaderview {
   }
 
   @Override
-  public Resultview decodeRow(int rowNumber, BitArrayview row, Map<DecodeHintTypeview,?> hints) throws NotFoundExceptionview {
+  public Resultview decodeRow(int rowNumber, RunLengthRowview row, Map<DecodeHintTypeview,?> hints) throws NotFoundExceptionview {
 
     Arrays.fill(counters, 0);
     setCounters(row);
@@ -227,27 +228,18 @@ public final class CodaBarReaderview extends OneDReaderview {
    * uses our builtin "counters" member for storage.
    * @param row row to count from
    */
-  private void setCounters(BitArrayview row) throws NotFoundExceptionview {
+  private void setCounters(RunLengthRowview row) throws NotFoundExceptionview {
     counterLength = 0;
-    // Start from the first white bit.
+    // Start from the first white bit, which always begins a run.
     int i = row.getNextUnset(0);
     int end = row.getSize();
     if (i >= end) {
       throw NotFoundExceptionview.getNotFoundInstance();
     }
-    boolean isWhite = true;
-    int count = 0;
-    while (i < end) {
-      if (row.get(i) != isWhite) {
-        count++;
-      } else {
-        counterAppend(count);
-        count = 1;
-        isWhite = !isWhite;
-      }
-      i++;
+    int runCount = row.getRunCount();
+    for (int run = row.getRunIndex(i); run < runCount; run++) {
+      counterAppend(row.getRunLength(run));
     }
-    counterAppend(count);
   }
 
   private void counterAppend(int e) {
@@ -334,12 +326,7 @@ public final class CodaBarReaderview extends OneDReaderview {
       }
     }
 
-    for (int i = 0; i < CHARACTER_ENCODINGS.length; i++) {
-      if (CHARACTER_ENCODINGS[i] == pattern) {
-        return i;
-      }
-    }
-    return -1;
+    return CHARACTER_INDICES[pattern];
   }
 
 }
@@ -23,7 +23,6 @@ import com.google.zxing.FormatExceptionview;
 import com.google.zxing.NotFoundExceptionview;
 import com.google.zxing.Resultview;
 import com.google.zxing.ResultPointview;
-import com.google.zxing.common.BitArrayview;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -166,64 +165,54 @@ public final class Code128Readerview extends OneDReaderview {
   private static final int CODE_START_C = 105;
   private static final int CODE_STOP = 106;
 
-  private static int[] findStartPattern(BitArrayview row) throws NotFoundExceptionview {
-    int width = row.getSize();
+  private static final PatternMatcherview CODE_MATCHER =
+      new PatternMatcherview(CODE_PATTERNS, MAX_INDIVIDUAL_VARIANCE, MAX_AVG_VARIANCE);
+
+  private static int[] findStartPattern(RunLengthRowview row) throws NotFoundExceptionview {
     int rowOffset = row.getNextSet(0);
 
     int counterPosition = 0;
     int[] counters = new int[6];
     int patternStart = rowOffset;
-    boolean isWhite = false;
     int patternLength = counters.length;
 
-    for (int i = rowOffset; i < width; i++) {
-      if (row.get(i) != isWhite) {
-        counters[counterPosition]++;
-      } else {
-        if (counterPosition == patternLength - 1) {
-          float bestVariance = MAX_AVG_VARIANCE;
-          int bestMatch = -1;
-          for (int startCode = CODE_START_A; startCode <= CODE_START_C; startCode++) {
-            float variance = patternMatchVariance(counters, CODE_PATTERNS[startCode],
-                MAX_INDIVIDUAL_VARIANCE);
-            if (variance < bestVariance) {
-              bestVariance = variance;
-              bestMatch = startCode;
-            }
-          }
-          // Look for whitespace before start pattern, >= 50% of width of start pattern
-          if (bestMatch >= 0 &&
-              row.isRange(Math.max(0, patternStart - (i - patternStart) / 2), patternStart, false)) {
-            return new int[]{patternStart, i, bestMatch};
+    // The pattern is checked at the end of every run that is followed by another one.
+    int lastRun = row.getRunCount() - 1;
+    for (int run = row.getRunIndex(rowOffset); run < lastRun; run++) {
+      counters[counterPosition] = row.getRunLength(run);
+      int i = row.getRunEnd(run);
+      if (counterPosition == patternLength - 1) {
+        float bestVariance = MAX_AVG_VARIANCE;
+        int bestMatch = -1;
+        for (int startCode = CODE_START_A; startCode <= CODE_START_C; startCode++) {
+          float variance = patternMatchVariance(counters, CODE_PATTERNS[startCode],
+              MAX_INDIVIDUAL_VARIANCE);
+          if (variance < bestVariance) {
+            bestVariance = variance;
+            bestMatch = startCode;
           }
-          patternStart += counters[0] + counters[1];
-          System.arraycopy(counters, 2, counters, 0, counterPosition - 1);
-          counters[counterPosition - 1] = 0;
-          counters[counterPosition] = 0;
-          counterPosition--;
-        } else {
-          counterPosition++;
         }
-        counters[counterPosition] = 1;
-        isWhite = !isWhite;
+        // Look for whitespace before start pattern, >= 50% of width of start pattern
+        if (bestMatch >= 0 &&
+            row.isRange(Math.max(0, patternStart - (i - patternStart) / 2), patternStart, false)) {
+          return new int[]{patternStart, i, bestMatch};
+        }
+        patternStart += counters[0] + counters[1];
+        System.arraycopy(counters, 2, counters, 0, counterPosition - 1);
+        counters[counterPosition - 1] = 0;
+        counters[counterPosition] = 0;
+        counterPosition--;
+      } else {
+        counterPosition++;
       }
     }
     throw NotFoundExceptionview.getNotFoundInstance();
   }
 
-  private static int decodeCode(BitArrayview row, int[] counters, int rowOffset)
+  private static int decodeCode(RunLengthRowview row, int[] counters, int rowOffset)
       throws NotFoundExceptionview {
     recordPattern(row, rowOffset, counters);
-    float bestVariance = MAX_AVG_VARIANCE; // worst variance we'll accept
-    int bestMatch = -1;
-    for (int d = 0; d < CODE_PATTERNS.length; d++) {
-      int[] pattern = CODE_PATTERNS[d];
-      float variance = patternMatchVariance(counters, pattern, MAX_INDIVIDUAL_VARIANCE);
-      if (variance < bestVariance) {
-        bestVariance = variance;
-        bestMatch = d;
-      }
-    }
+    int bestMatch = CODE_MATCHER.match(counters);
     // TODO We're overlooking the fact that the STOP pattern has 7 values, not 6.
     if (bestMatch >= 0) {
       return bestMatch;
@@ -233,7 +222,7 @@ public final class Code128Readerview extends OneDReaderview {
   }
 
   @Override
-  public Resultview decodeRow(int rowNumber, BitArrayview row, Map<DecodeHintTypeview,?> hints)
+  public Resultview decodeRow(int rowNumber, RunLengthRowview row, Map<DecodeHintTypeview,?> hints)
       throws NotFoundExceptionview, FormatExceptionview, ChecksumExceptionvew {
 
     boolean convertFNC1 = hints != null && hints.containsKey(DecodeHintTypeview.ASSUME_GS1);
@@ -23,7 +23,6 @@ import com.google.zxing.FormatExceptionview;
 import com.google.zxing.NotFoundExceptionview;
 import com.google.zxing.Resultview;
 import com.google.zxing.ResultPointview;
-import com.google.zxing.common.BitArrayview;
 
 import java.util.Arrays;
 import java.util.Map;
@@ -55,6 +54,8 @@ public final class Code39Readerview extends OneDReaderview {
 
   static final int ASTERISK_ENCODING = CHARACTER_ENCODINGS[39];
 
+  private static final int[] CHARACTER_INDICES = PatternMatcherview.indexEncodings(CHARACTER_ENCODINGS, 9);
+
   private final boolean usingCheckDigit;
   private final boolean extendedMode;
   private final StringBuilder decodeRowResult;
@@ -97,7 +98,7 @@ public final class Code39Readerview extends OneDReaderview {
   }
 
   @Override
-  public Resultview decodeRow(int rowNumber, BitArrayview row, Map<DecodeHintTypeview,?> hints)
+  public Resultview decodeRow(int rowNumber, RunLengthRowview row, Map<DecodeHintTypeview,?> hints)
       throws NotFoundExceptionview, ChecksumExceptionvew, FormatExceptionview {
 
     int[] theCounters = counters;
@@ -177,35 +178,31 @@ public final class Code39Readerview extends OneDReaderview {
 
   }
 
-  private static int[] findAsteriskPattern(BitArrayview row, int[] counters) throws NotFoundExceptionview {
-    int width = row.getSize();
+  private static int[] findAsteriskPattern(RunLengthRowview row, int[] counters) throws NotFoundExceptionview {
     int rowOffset = row.getNextSet(0);
 
     int counterPosition = 0;
     int patternStart = rowOffset;
-    boolean isWhite = false;
     int patternLength = counters.length;
 
-    for (int i = rowOffset; i < width; i++) {
-      if (row.get(i) != isWhite) {
-        counters[counterPosition]++;
-      } else {
-        if (counterPosition == patternLength - 1) {
-          // Look for whitespace before start pattern, >= 50% of width of start pattern
-          if (toNarrowWidePattern(counters) == ASTERISK_ENCODING &&
-              row.isRange(Math.max(0, patternStart - ((i - patternStart) / 2)), patternStart, false)) {
-            return new int[]{patternStart, i};
-          }
-          patternStart += counters[0] + counters[1];
-          System.arraycopy(counters, 2, counters, 0, counterPosition - 1);
-          counters[counterPosition - 1] = 0;
-          counters[counterPosition] = 0;
-          counterPosition--;
-        } else {
-          counterPosition++;
+    // The pattern is checked at the end of every run that is followed by another one.
+    int lastRun = row.getRunCount() - 1;
+    for (int run = row.getRunIndex(rowOffset); run < lastRun; run++) {
+      counters[counterPosition] = row.getRunLength(run);
+      int i = row.getRunEnd(run);
+      if (counterPosition == patternLength - 1) {
+        // Look for whitespace before start pattern, >= 50% of width of start pattern
+        if (toNarrowWidePattern(counters) == ASTERISK_ENCODING &&
+            row.isRange(Math.max(0, patternStart - ((i - patternStart) / 2)), patternStart, false)) {
+          return new int[]{patternStart, i};
         }
-        counters[counterPosition] = 1;
-        isWhite = !isWhite;
+        patternStart += counters[0] + counters[1];
+        System.arraycopy(counters, 2, counters, 0, counterPosition - 1);
+        counters[counterPosition - 1] = 0;
+        counters[counterPosition] = 0;
+        counterPosition--;
+      } else {
+        counterPosition++;
       }
     }
     throw NotFoundExceptionview.getNotFoundInstance();
@@ -257,12 +254,11 @@ public final class Code39Readerview extends OneDReaderview {
   }
 
   private static char patternToChar(int pattern) throws NotFoundExceptionview {
-    for (int i = 0; i < CHARACTER_ENCODINGS.length; i++) {
-      if (CHARACTER_ENCODINGS[i] == pattern) {
-        return ALPHABET_STRING.charAt(i);
-      }
+    int index = pattern >= 0 && pattern < CHARACTER_INDICES.length ? CHARACTER_INDICES[pattern] : -1;
+    if (index < 0) {
+      throw NotFoundExceptionview.getNotFoundInstance();
     }
-    throw NotFoundExceptionview.getNotFoundInstance();
+    return ALPHABET_STRING.charAt(index);
   }
 
   private static String decodeExtended(CharSequence encoded) throws FormatExceptionview {
@@ -23,7 +23,6 @@ import com.google.zxing.FormatExceptionview;
 import com.google.zxing.NotFoundExceptionview;
 import com.google.zxing.Resultview;
 import com.google.zxing.ResultPointview;
-import com.google.zxing.common.BitArrayview;
 
 import java.util.Arrays;
 import java.util.Map;
@@ -54,6 +53,8 @@ public final class Code93Readerview extends OneDReaderview {
   };
   private static final int ASTERISK_ENCODING = CHARACTER_ENCODINGS[47];
 
+  private static final int[] CHARACTER_INDICES = PatternMatcherview.indexEncodings(CHARACTER_ENCODINGS, 9);
+
   private final StringBuilder decodeRowResult;
   private final int[] counters;
 
@@ -63,7 +64,7 @@ public final class Code93Readerview extends OneDReaderview {
   }
 
   @Override
-  public Resultview decodeRow(int rowNumber, BitArrayview row, Map<DecodeHintTypeview,?> hints)
+  public Resultview decodeRow(int rowNumber, RunLengthRowview row, Map<DecodeHintTypeview,?> hints)
       throws NotFoundExceptionview, ChecksumExceptionvew, FormatExceptionview {
 
     int[] start = findAsteriskPattern(row);
@@ -128,35 +129,30 @@ public final class Code93Readerview extends OneDReaderview {
 
   }
 
-  private int[] findAsteriskPattern(BitArrayview row) throws NotFoundExceptionview {
-    int width = row.getSize();
+  private int[] findAsteriskPattern(RunLengthRowview row) throws NotFoundExceptionview {
     int rowOffset = row.getNextSet(0);
 
     Arrays.fill(counters, 0);
     int[] theCounters = counters;
     int patternStart = rowOffset;
-    boolean isWhite = false;
     int patternLength = theCounters.length;
 
     int counterPosition = 0;
-    for (int i = rowOffset; i < width; i++) {
-      if (row.get(i) != isWhite) {
-        theCounters[counterPosition]++;
-      } else {
-        if (counterPosition == patternLength - 1) {
-          if (toPattern(theCounters) == ASTERISK_ENCODING) {
-            return new int[]{patternStart, i};
-          }
-          patternStart += theCounters[0] + theCounters[1];
-          System.arraycopy(theCounters, 2, theCounters, 0, counterPosition - 1);
-          theCounters[counterPosition - 1] = 0;
-          theCounters[counterPosition] = 0;
-          counterPosition--;
-        } else {
-          counterPosition++;
+    // The pattern is checked at the end of every run that is followed by another one.
+    int lastRun = row.getRunCount() - 1;
+    for (int run = row.getRunIndex(rowOffset); run < lastRun; run++) {
+      theCounters[counterPosition] = row.getRunLength(run);
+      if (counterPosition == patternLength - 1) {
+        if (toPattern(theCounters) == ASTERISK_ENCODING) {
+          return new int[]{patternStart, row.getRunEnd(run)};
         }
-        theCounters[counterPosition] = 1;
-        isWhite = !isWhite;
+        patternStart += theCounters[0] + theCounters[1];
+        System.arraycopy(theCounters, 2, theCounters, 0, counterPosition - 1);
+        theCounters[counterPosition - 1] = 0;
+        theCounters[counterPosition] = 0;
+        counterPosition--;
+      } else {
+        counterPosition++;
       }
     }
     throw NotFoundExceptionview.getNotFoundInstance();
@@ -186,12 +182,11 @@ public final class Code93Readerview extends OneDReaderview {
   }
 
   private static char patternToChar(int pattern) throws NotFoundExceptionview {
-    for (int i = 0; i < CHARACTER_ENCODINGS.length; i++) {
-      if (CHARACTER_ENCODINGS[i] == pattern) {
-        return ALPHABET[i];
-      }
+    int index = pattern >= 0 && pattern < CHARACTER_INDICES.length ? CHARACTER_INDICES[pattern] : -1;
+    if (index < 0) {
+      throw NotFoundExceptionview.getNotFoundInstance();
     }
-    throw NotFoundExceptionview.getNotFoundInstance();
+    return ALPHABET[index];
   }
 
   private static String decodeExtended(CharSequence encoded) throws FormatExceptionview {
@@ -18,7 +18,6 @@ package com.google.zxing.oned;
 
 import com.google.zxing.BarcodeFormatview;
 import com.google.zxing.NotFoundExceptionview;
-import com.google.zxing.common.BitArrayview;
 
 /**
  * <p>Implements decoding of the EAN-13 format.</p>
@@ -69,7 +68,7 @@ public final class EAN13Readerview extends UPCEANReaderview {
   }
 
   @Override
-  protected int decodeMiddle(BitArrayview row,
+  protected int decodeMiddle(RunLengthRowview row,
                              int[] startRange,
                              StringBuilder resultString) throws NotFoundExceptionview {
     int[] counters = decodeMiddleCounters;
@@ -83,7 +82,7 @@ public final class EAN13Readerview extends UPCEANReaderview {
     int lgPatternFound = 0;
 
     for (int x = 0; x < 6 && rowOffset < end; x++) {
-      int bestMatch = decodeDigit(row, counters, rowOffset, L_AND_G_PATTERNS);
+      int bestMatch = decodeDigit(row, counters, rowOffset, L_AND_G_PATTERN_MATCHER);
       resultString.append((char) ('0' + bestMatch % 10));
       for (int counter : counters) {
         rowOffset += counter;
@@ -99,7 +98,7 @@ public final class EAN13Readerview extends UPCEANReaderview {
     rowOffset = middleRange[1];
 
     for (int x = 0; x < 6 && rowOffset < end; x++) {
-      int bestMatch = decodeDigit(row, counters, rowOffset, L_PATTERNS);
+      int bestMatch = decodeDigit(row, counters, rowOffset, L_PATTERN_MATCHER);
       resultString.append((char) ('0' + bestMatch));
       for (int counter : counters) {
         rowOffset += counter;
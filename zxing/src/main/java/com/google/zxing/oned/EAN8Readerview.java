@@ -18,7 +18,6 @@ package com.google.zxing.oned;
 
 import com.google.zxing.BarcodeFormatview;
 import com.google.zxing.NotFoundExceptionview;
-import com.google.zxing.common.BitArrayview;
 
 /**
  * <p>Implements decoding of the EAN-8 format.</p>
@@ -34,7 +33,7 @@ public final class EAN8Readerview extends UPCEANReaderview {
   }
 
   @Override
-  protected int decodeMiddle(BitArrayview row,
+  protected int decodeMiddle(RunLengthRowview row,
                              int[] startRange,
                              StringBuilder result) throws NotFoundExceptionview {
     int[] counters = decodeMiddleCounters;
@@ -46,7 +45,7 @@ public final class EAN8Readerview extends UPCEANReaderview {
     int rowOffset = startRange[1];
 
     for (int x = 0; x < 4 && rowOffset < end; x++) {
-      int bestMatch = decodeDigit(row, counters, rowOffset, L_PATTERNS);
+      int bestMatch = decodeDigit(row, counters, rowOffset, L_PATTERN_MATCHER);
       result.append((char) ('0' + bestMatch));
       for (int counter : counters) {
         rowOffset += counter;
@@ -57,7 +56,7 @@ public final class EAN8Readerview extends UPCEANReaderview {
     rowOffset = middleRange[1];
 
     for (int x = 0; x < 4 && rowOffset < end; x++) {
-      int bestMatch = decodeDigit(row, counters, rowOffset, L_PATTERNS);
+      int bestMatch = decodeDigit(row, counters, rowOffset, L_PATTERN_MATCHER);
       result.append((char) ('0' + bestMatch));
       for (int counter : counters) {
         rowOffset += counter;
@@ -22,7 +22,6 @@ import com.google.zxing.FormatExceptionview;
 import com.google.zxing.NotFoundExceptionview;
 import com.google.zxing.Resultview;
 import com.google.zxing.ResultPointview;
-import com.google.zxing.common.BitArrayview;
 
 import java.util.Map;
 
@@ -81,8 +80,11 @@ public final class ITFReaderview extends OneDReaderview {
       {N, W, N, W, N}  // 9
   };
 
+  private static final PatternMatcherview DIGIT_MATCHER =
+      new PatternMatcherview(PATTERNS, MAX_INDIVIDUAL_VARIANCE, MAX_AVG_VARIANCE);
+
   @Override
-  public Resultview decodeRow(int rowNumber, BitArrayview row, Map<DecodeHintTypeview,?> hints)
+  public Resultview decodeRow(int rowNumber, RunLengthRowview row, Map<DecodeHintTypeview,?> hints)
       throws FormatExceptionview, NotFoundExceptionview {
 
     // Find out where the Middle section (payload) starts & ends
@@ -137,7 +139,7 @@ public final class ITFReaderview extends OneDReaderview {
    * @param resultString {@link StringBuilder} to append decoded chars to
    * @throws NotFoundExceptionview if decoding could not complete successfully
    */
-  private static void decodeMiddle(BitArrayview row,
+  private static void decodeMiddle(RunLengthRowview row,
                                    int payloadStart,
                                    int payloadEnd,
                                    StringBuilder resultString) throws NotFoundExceptionview {
@@ -180,7 +182,7 @@ public final class ITFReaderview extends OneDReaderview {
    * @return Array, containing index of start of 'start block' and end of
    *         'start block'
    */
-  private int[] decodeStart(BitArrayview row) throws NotFoundExceptionview {
+  private int[] decodeStart(RunLengthRowview row) throws NotFoundExceptionview {
     int endStart = skipWhiteSpace(row);
     int[] startPattern = findGuardPattern(row, endStart, START_PATTERN);
 
@@ -209,20 +211,14 @@ public final class ITFReaderview extends OneDReaderview {
    * @param startPattern index into row of the start or end pattern.
    * @throws NotFoundExceptionview if the quiet zone cannot be found
    */
-  private void validateQuietZone(BitArrayview row, int startPattern) throws NotFoundExceptionview {
+  private void validateQuietZone(RunLengthRowview row, int startPattern) throws NotFoundExceptionview {
 
     int quietCount = this.narrowLineWidth * 10;  // expect to find this many pixels of quiet zone
 
     // if there are not so many pixel at all let's try as many as possible
     quietCount = quietCount < startPattern ? quietCount : startPattern;
 
-    for (int i = startPattern - 1; quietCount > 0 && i >= 0; i--) {
-      if (row.get(i)) {
-        break;
-      }
-      quietCount--;
-    }
-    if (quietCount != 0) {
+    if (!row.isRange(startPattern - quietCount, startPattern, false)) {
       // Unable to find the necessary number of quiet zone pixels.
       throw NotFoundExceptionview.getNotFoundInstance();
     }
@@ -235,7 +231,7 @@ public final class ITFReaderview extends OneDReaderview {
    * @return index of the first black line.
    * @throws NotFoundExceptionview Throws exception if no black lines are found in the row
    */
-  private static int skipWhiteSpace(BitArrayview row) throws NotFoundExceptionview {
+  private static int skipWhiteSpace(RunLengthRowview row) throws NotFoundExceptionview {
     int width = row.getSize();
     int endStart = row.getNextSet(0);
     if (endStart == width) {
@@ -252,10 +248,10 @@ public final class ITFReaderview extends OneDReaderview {
    * @return Array, containing index of start of 'end block' and end of 'end
    *         block'
    */
-  private int[] decodeEnd(BitArrayview row) throws NotFoundExceptionview {
+  private int[] decodeEnd(RunLengthRowview row) throws NotFoundExceptionview {
 
     // For convenience, reverse the row and then
-    // search from 'the start' for the end block
+    // search from 'the start' for the end block. Reversing the runs is cheap.
     row.reverse();
     try {
       int endStart = skipWhiteSpace(row);
@@ -289,34 +285,29 @@ public final class ITFReaderview extends OneDReaderview {
    *         ints
    * @throws NotFoundExceptionview if pattern is not found
    */
-  private static int[] findGuardPattern(BitArrayview row,
+  private static int[] findGuardPattern(RunLengthRowview row,
                                         int rowOffset,
                                         int[] pattern) throws NotFoundExceptionview {
     int patternLength = pattern.length;
     int[] counters = new int[patternLength];
-    int width = row.getSize();
-    boolean isWhite = false;
 
     int counterPosition = 0;
     int patternStart = rowOffset;
-    for (int x = rowOffset; x < width; x++) {
-      if (row.get(x) != isWhite) {
-        counters[counterPosition]++;
-      } else {
-        if (counterPosition == patternLength - 1) {
-          if (patternMatchVariance(counters, pattern, MAX_INDIVIDUAL_VARIANCE) < MAX_AVG_VARIANCE) {
-            return new int[]{patternStart, x};
-          }
-          patternStart += counters[0] + counters[1];
-          System.arraycopy(counters, 2, counters, 0, counterPosition - 1);
-          counters[counterPosition - 1] = 0;
-          counters[counterPosition] = 0;
-          counterPosition--;
-        } else {
-          counterPosition++;
+    // The pattern is checked at the end of every run that is followed by another one.
+    int lastRun = row.getRunCount() - 1;
+    for (int run = row.getRunIndex(rowOffset); run < lastRun; run++) {
+      counters[counterPosition] = row.getRunLength(run);
+      if (counterPosition == patternLength - 1) {
+        if (patternMatchVariance(counters, pattern, MAX_INDIVIDUAL_VARIANCE) < MAX_AVG_VARIANCE) {
+          return new int[]{patternStart, row.getRunEnd(run)};
         }
-        counters[counterPosition] = 1;
-        isWhite = !isWhite;
+        patternStart += counters[0] + counters[1];
+        System.arraycopy(counters, 2, counters, 0, counterPosition - 1);
+        counters[counterPosition - 1] = 0;
+        counters[counterPosition] = 0;
+        counterPosition--;
+      } else {
+        counterPosition++;
       }
     }
     throw NotFoundExceptionview.getNotFoundInstance();
@@ -331,17 +322,7 @@ public final class ITFReaderview extends OneDReaderview {
    * @throws NotFoundExceptionview if digit cannot be decoded
    */
   private static int decodeDigit(int[] counters) throws NotFoundExceptionview {
-    float bestVariance = MAX_AVG_VARIANCE; // worst variance we'll accept
-    int bestMatch = -1;
-    int max = PATTERNS.length;
-    for (int i = 0; i < max; i++) {
-      int[] pattern = PATTERNS[i];
-      float variance = patternMatchVariance(counters, pattern, MAX_INDIVIDUAL_VARIANCE);
-      if (variance < bestVariance) {
-        bestVariance = variance;
-        bestMatch = i;
-      }
-    }
+    int bestMatch = DIGIT_MATCHER.match(counters);
     if (bestMatch >= 0) {
       return bestMatch;
     } else {
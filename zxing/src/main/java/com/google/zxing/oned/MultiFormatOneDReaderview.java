@@ -22,7 +22,6 @@ import com.google.zxing.NotFoundExceptionview;
 import com.google.zxing.Readerview;
 import com.google.zxing.ReaderExceptionview;
 import com.google.zxing.Resultview;
-import com.google.zxing.common.BitArrayview;
 import com.google.zxing.oned.rss.RSS14Readerview;
 import com.google.zxing.oned.rss.expanded.RSSExpandedReaderview;
 
@@ -36,9 +35,11 @@ import java.util.Map;
  */
 public final class MultiFormatOneDReaderview extends OneDReaderview {
 
+  private final Map<DecodeHintTypeview,?> hints;
   private final OneDReaderview[] readers;
 
   public MultiFormatOneDReaderview(Map<DecodeHintTypeview,?> hints) {
+    this.hints = hints;
     @SuppressWarnings("unchecked")
     Collection<BarcodeFormatview> possibleFormats = hints == null ? null :
         (Collection<BarcodeFormatview>) hints.get(DecodeHintTypeview.POSSIBLE_FORMATS);
@@ -89,7 +90,7 @@ public final class MultiFormatOneDReaderview extends OneDReaderview {
 
   @Override
   public Resultview decodeRow(int rowNumber,
-                              BitArrayview row,
+                              RunLengthRowview row,
                               Map<DecodeHintTypeview,?> hints) throws NotFoundExceptionview {
     for (OneDReaderview reader : readers) {
       try {
@@ -102,6 +103,11 @@ public final class MultiFormatOneDReaderview extends OneDReaderview {
     throw NotFoundExceptionview.getNotFoundInstance();
   }
 
+  @Override
+  protected OneDReaderview createRowReader() {
+    return new MultiFormatOneDReaderview(hints);
+  }
+
   @Override
   public void reset() {
     for (Readerview readerview : readers) {
@@ -22,7 +22,6 @@ import com.google.zxing.NotFoundExceptionview;
 import com.google.zxing.Readerview;
 import com.google.zxing.ReaderExceptionview;
 import com.google.zxing.Resultview;
-import com.google.zxing.common.BitArrayview;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -68,7 +67,7 @@ public final class MultiFormatUPCEANReaderview extends OneDReaderview {
 
   @Override
   public Resultview decodeRow(int rowNumber,
-                              BitArrayview row,
+                              RunLengthRowview row,
                               Map<DecodeHintTypeview,?> hints) throws NotFoundExceptionview {
     // Compute this location once and reuse it on multiple implementations
     int[] startGuardPattern = UPCEANReaderview.findStartGuardPattern(row);
@@ -19,6 +19,7 @@ package com.google.zxing.oned;
 import com.google.zxing.BinaryBitmapview;
 import com.google.zxing.ChecksumExceptionvew;
 import com.google.zxing.DecodeHintTypeview;
+import com.google.zxing.DecodeTraceview;
 import com.google.zxing.FormatExceptionview;
 import com.google.zxing.NotFoundExceptionview;
 import com.google.zxing.Readerview;
@@ -27,10 +28,16 @@ import com.google.zxing.Resultview;
 import com.google.zxing.ResultMetadataTypeview;
 import com.google.zxing.ResultPointview;
 import com.google.zxing.common.BitArrayview;
+import com.google.zxing.common.BitMatrixview;
+import com.google.zxing.common.ScanlineSamplerview;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.EnumMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 /**
  * Encapsulates functionality and implementation that is common to all families
@@ -41,46 +48,72 @@ import java.util.Map;
  */
 public abstract class OneDReaderview implements Readerview {
 
+  /**
+   * The directions of the lines tried when no row decodes while trying harder, in degrees
+   * clockwise: the columns, as rotating the image used to give. Rotating was skipped for sources
+   * that can't rotate, such as camera frames, but the columns are read from every image.
+   */
+  private static final int[] COLUMN_ANGLES = {90};
+
+  /**
+   * The directions of the lines tried when no row decodes and
+   * {@link DecodeHintTypeview#SCAN_TILTED_LINES} is set: columns first, then lines tilted either
+   * way from the rows and from the columns.
+   */
+  private static final int[] TILTED_ANGLES = {90, 30, -30, 60, 120};
+
   @Override
   public Resultview decode(BinaryBitmapview image) throws NotFoundExceptionview, FormatExceptionview {
     return decode(image, null);
   }
 
-  // Note that we don't try rotation without the try harder flag, even if rotation was supported.
+  // Note that we don't try other directions without the try harder or tilted lines flags.
   @Override
   public Resultview decode(BinaryBitmapview image,
                            Map<DecodeHintTypeview,?> hints) throws NotFoundExceptionview, FormatExceptionview {
+    DecodeTraceview.Span span =
+        DecodeTraceview.begin(DecodeTraceview.Stage.ONE_D_ROW_SCAN, image.getWidth(), image.getHeight());
+    Resultview resultview = null;
     try {
-      return doDecode(image, hints);
-    } catch (NotFoundExceptionview nfe) {
-      boolean tryHarder = hints != null && hints.containsKey(DecodeHintTypeview.TRY_HARDER);
-      if (tryHarder && image.isRotateSupported()) {
-        BinaryBitmapview rotatedImage = image.rotateCounterClockwise();
-        Resultview resultview = doDecode(rotatedImage, hints);
-        // Record that we found it rotated 90 degrees CCW / 270 degrees CW
-        Map<ResultMetadataTypeview,?> metadata = resultview.getResultMetadata();
-        int orientation = 270;
-        if (metadata != null && metadata.containsKey(ResultMetadataTypeview.ORIENTATION)) {
-          // But if we found it reversed in doDecode(), add in that result here:
-          orientation = (orientation +
-              (Integer) metadata.get(ResultMetadataTypeview.ORIENTATION)) % 360;
-        }
-        resultview.putMetadata(ResultMetadataTypeview.ORIENTATION, orientation);
-        // Update result points
-        ResultPointview[] points = resultview.getResultPoints();
-        if (points != null) {
-          int height = rotatedImage.getHeight();
-          for (int i = 0; i < points.length; i++) {
-            points[i] = new ResultPointview(height - points[i].getY() - 1, points[i].getX());
-          }
-        }
-        return resultview;
-      } else {
-        throw nfe;
+      try {
+        resultview = doDecode(image, hints);
+      } catch (NotFoundExceptionview nfe) {
+        resultview = decodeOtherDirections(image, hints, nfe);
       }
+      return resultview;
+    } finally {
+      DecodeTraceview.end(span, resultview == null ? null : resultview.getBarcodeFormat(), resultview != null);
     }
   }
 
+  /**
+   * Reads columns, and tilted lines if asked to, straight out of the binarized image, rather than
+   * rotating the luminance data and binarizing it again.
+   */
+  private Resultview decodeOtherDirections(BinaryBitmapview image,
+                                           Map<DecodeHintTypeview,?> hints,
+                                           NotFoundExceptionview nfe) throws NotFoundExceptionview {
+    boolean tryHarder = hints != null && hints.containsKey(DecodeHintTypeview.TRY_HARDER);
+    boolean tiltedLines = hints != null && hints.containsKey(DecodeHintTypeview.SCAN_TILTED_LINES);
+    if (!tryHarder && !tiltedLines) {
+      throw nfe;
+    }
+    BitMatrixview matrix = image.getBlackMatrix();
+    for (int angle : tiltedLines ? TILTED_ANGLES : COLUMN_ANGLES) {
+      ScanlineSamplerview sampler = new ScanlineSamplerview(matrix, angle);
+      int lineCount = sampler.getLineCount();
+      int lineStep = Math.max(1, lineCount >> (angle == 90 ? 8 : 6));
+      // Readers that piece a barcode together from several lines must not mix directions.
+      reset();
+      try {
+        return scan(new SampledLines(sampler), lineStep, lineCount, hints);
+      } catch (NotFoundExceptionview ignored) {
+        // continue with the next direction
+      }
+    }
+    throw nfe;
+  }
+
   @Override
   public void reset() {
     // do nothing
@@ -102,10 +135,7 @@ public abstract class OneDReaderview implements Readerview {
    */
   private Resultview doDecode(BinaryBitmapview image,
                               Map<DecodeHintTypeview,?> hints) throws NotFoundExceptionview {
-    int width = image.getWidth();
     int height = image.getHeight();
-    BitArrayview row = new BitArrayview(width);
-
     boolean tryHarder = hints != null && hints.containsKey(DecodeHintTypeview.TRY_HARDER);
     int rowStep = Math.max(1, height >> (tryHarder ? 8 : 5));
     int maxLines;
@@ -114,64 +144,213 @@ public abstract class OneDReaderview implements Readerview {
     } else {
       maxLines = 15; // 15 rows spaced 1/32 apart is roughly the middle half of the image
     }
+    return scan(new ImageRows(image), rowStep, maxLines, hints);
+  }
 
-    int middle = height / 2;
-    for (int x = 0; x < maxLines; x++) {
+  /**
+   * Examines scanlines from the middle outward, lineStep lines apart, as described for rows in
+   * {@link #doDecode(BinaryBitmapview, Map)}. When trying harder with a
+   * {@link DecodeHintTypeview#ROW_SCAN_EXECUTOR}, the lines are scanned on several threads at once.
+   */
+  private Resultview scan(Scanlines scanlines,
+                          int lineStep,
+                          int maxLines,
+                          Map<DecodeHintTypeview,?> hints) throws NotFoundExceptionview {
+    int lineCount = scanlines.getCount();
+    // Stop before the first line that runs off the top or bottom.
+    int middle = lineCount / 2;
+    int lines = 0;
+    while (lines < maxLines && isRowInImage(middle, lineStep, lines, lineCount)) {
+      lines++;
+    }
+
+    // This means we will only ever draw result points *once* in the life of this method
+    // since we want to avoid drawing the wrong points after flipping the row, and,
+    // don't want to clutter with noise from every single row scan -- just the scans
+    // that start on the center line.
+    Map<DecodeHintTypeview,?> laterHints = hints;
+    if (hints != null && hints.containsKey(DecodeHintTypeview.NEED_RESULT_POINT_CALLBACK)) {
+      Map<DecodeHintTypeview,Object> newHints = new EnumMap<>(DecodeHintTypeview.class);
+      newHints.putAll(hints);
+      newHints.remove(DecodeHintTypeview.NEED_RESULT_POINT_CALLBACK);
+      laterHints = newHints;
+    }
+
+    boolean tryHarder = hints != null && hints.containsKey(DecodeHintTypeview.TRY_HARDER);
+    ExecutorService executor = tryHarder ?
+        (ExecutorService) hints.get(DecodeHintTypeview.ROW_SCAN_EXECUTOR) : null;
+    if (executor != null && lines > 1) {
+      return scanInParallel(scanlines, executor, middle, lineStep, lines, hints, laterHints);
+    }
+
+    BitArrayview row = null;
+    RunLengthRowview runs = new RunLengthRowview();
+    for (int x = 0; x < lines; x++) {
 
-      // Scanning from the middle out. Determine which row we're looking at next:
-      int rowStepsAboveOrBelow = (x + 1) / 2;
-      boolean isAbove = (x & 0x01) == 0; // i.e. is x even?
-      int rowNumber = middle + rowStep * (isAbove ? rowStepsAboveOrBelow : -rowStepsAboveOrBelow);
-      if (rowNumber < 0 || rowNumber >= height) {
-        // Oops, if we run off the top or bottom, stop
-        break;
+      // Give up early if a parallel decode has already found the barcode elsewhere.
+      if (Thread.currentThread().isInterrupted()) {
+        throw NotFoundExceptionview.getNotFoundInstance();
       }
 
+      int rowNumber = getRowNumber(middle, lineStep, x);
+
       // Estimate black point for this row and load it:
       try {
-        row = image.getBlackRow(rowNumber, row);
+        row = scanlines.getLine(rowNumber, row);
+      } catch (NotFoundExceptionview ignored) {
+        continue;
+      }
+      // Find the transitions once; every reader works from the same runs.
+      runs.setRow(row);
+
+      Resultview resultview = decodeLine(this, scanlines, rowNumber, runs, hints, laterHints);
+      if (resultview != null) {
+        return scanlines.toImage(resultview);
+      }
+      // Only rows up to the first one tried upside down get the callback.
+      hints = laterHints;
+    }
+
+    throw NotFoundExceptionview.getNotFoundInstance();
+  }
+
+  /**
+   * Scanning from the middle out. Determine which row we're looking at for attempt x.
+   */
+  private static int getRowNumber(int middle, int rowStep, int x) {
+    int rowStepsAboveOrBelow = (x + 1) / 2;
+    boolean isAbove = (x & 0x01) == 0; // i.e. is x even?
+    return middle + rowStep * (isAbove ? rowStepsAboveOrBelow : -rowStepsAboveOrBelow);
+  }
+
+  private static boolean isRowInImage(int middle, int rowStep, int x, int height) {
+    int rowNumber = getRowNumber(middle, rowStep, x);
+    return rowNumber >= 0 && rowNumber < height;
+  }
+
+  /**
+   * Looks for a barcode in one line, both ways. Lines other than the rows of the image cross
+   * bars at angles the readers were not tuned for, where noise or other symbols sometimes pass for
+   * a barcode, so a barcode found on one only counts if a line next to it reads the same.
+   *
+   * @return the barcode found, or null if there is none in the line
+   */
+  private static Resultview decodeLine(OneDReaderview reader,
+                                       Scanlines scanlines,
+                                       int line,
+                                       RunLengthRowview runs,
+                                       Map<DecodeHintTypeview,?> hints,
+                                       Map<DecodeHintTypeview,?> laterHints) {
+    Resultview resultview = decodeRowBothWays(reader, line, runs, hints, laterHints);
+    if (resultview == null || !scanlines.needsConfirmation()) {
+      return resultview;
+    }
+    BitArrayview row = null;
+    RunLengthRowview neighbourRuns = new RunLengthRowview();
+    for (int neighbour = line - 1; neighbour <= line + 1; neighbour += 2) {
+      if (neighbour < 0 || neighbour >= scanlines.getCount()) {
+        continue;
+      }
+      try {
+        row = scanlines.getLine(neighbour, row);
       } catch (NotFoundExceptionview ignored) {
         continue;
       }
+      neighbourRuns.setRow(row);
+      Resultview confirmation = decodeRowBothWays(reader, neighbour, neighbourRuns, laterHints, laterHints);
+      if (confirmation != null &&
+          confirmation.getBarcodeFormat() == resultview.getBarcodeFormat() &&
+          confirmation.getText().equals(resultview.getText())) {
+        return resultview;
+      }
+    }
+    return null;
+  }
 
-      // While we have the image data in a BitArrayview, it's fairly cheap to reverse it in place to
-      // handle decoding upside down barcodes.
-      for (int attempt = 0; attempt < 2; attempt++) {
-        if (attempt == 1) { // trying again?
-          row.reverse(); // reverse the row and continue
-          // This means we will only ever draw result points *once* in the life of this method
-          // since we want to avoid drawing the wrong points after flipping the row, and,
-          // don't want to clutter with noise from every single row scan -- just the scans
-          // that start on the center line.
-          if (hints != null && hints.containsKey(DecodeHintTypeview.NEED_RESULT_POINT_CALLBACK)) {
-            Map<DecodeHintTypeview,Object> newHints = new EnumMap<>(DecodeHintTypeview.class);
-            newHints.putAll(hints);
-            newHints.remove(DecodeHintTypeview.NEED_RESULT_POINT_CALLBACK);
-            hints = newHints;
+  /**
+   * Looks for a barcode in one row, and if there is none, in the same row read right to left.
+   * Reversing the order of the runs is cheap, so we do it in place to handle decoding upside
+   * down barcodes; the runs are left reversed afterwards.
+   *
+   * @return the barcode found, or null if there is none in the row
+   */
+  private static Resultview decodeRowBothWays(OneDReaderview reader,
+                                              int rowNumber,
+                                              RunLengthRowview runs,
+                                              Map<DecodeHintTypeview,?> hints,
+                                              Map<DecodeHintTypeview,?> reversedHints) {
+    for (int attempt = 0; attempt < 2; attempt++) {
+      if (attempt == 1) { // trying again?
+        runs.reverse(); // reverse the row and continue
+      }
+      try {
+        // Look for a barcode
+        Resultview resultview = reader.decodeRow(rowNumber, runs, attempt == 0 ? hints : reversedHints);
+        // We found our barcode
+        if (attempt == 1) {
+          // But it was upside down, so note that
+          resultview.putMetadata(ResultMetadataTypeview.ORIENTATION, 180);
+          // And remember to flip the result points horizontally.
+          ResultPointview[] points = resultview.getResultPoints();
+          if (points != null) {
+            int width = runs.getSize();
+            points[0] = new ResultPointview(width - points[0].getX() - 1, points[0].getY());
+            points[1] = new ResultPointview(width - points[1].getX() - 1, points[1].getY());
           }
         }
-        try {
-          // Look for a barcode
-          Resultview resultview = decodeRow(rowNumber, row, hints);
-          // We found our barcode
-          if (attempt == 1) {
-            // But it was upside down, so note that
-            resultview.putMetadata(ResultMetadataTypeview.ORIENTATION, 180);
-            // And remember to flip the result points horizontally.
-            ResultPointview[] points = resultview.getResultPoints();
-            if (points != null) {
-              points[0] = new ResultPointview(width - points[0].getX() - 1, points[0].getY());
-              points[1] = new ResultPointview(width - points[1].getX() - 1, points[1].getY());
-            }
-          }
-          return resultview;
-        } catch (ReaderExceptionview re) {
-          // continue -- just couldn't decode this row
+        return resultview;
+      } catch (ReaderExceptionview re) {
+        // continue -- just couldn't decode this row
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Like the sequential scan in {@link #scan(Scanlines, int, int, Map)}, but lines are handed out
+   * in the same middle-first order to this thread and to helper tasks on the executor, each with
+   * a reader of its own from {@link #createRowReader()}. Once a line decodes, no line further from
+   * the middle is started, and the result of the line closest to the middle wins, so the barcode
+   * found is the one the sequential scan would have found.
+   */
+  private Resultview scanInParallel(Scanlines scanlines,
+                                    ExecutorService executor,
+                                    int middle,
+                                    int lineStep,
+                                    int lines,
+                                    Map<DecodeHintTypeview,?> hints,
+                                    Map<DecodeHintTypeview,?> laterHints) throws NotFoundExceptionview {
+    RowScan scan = new RowScan(scanlines, middle, lineStep, lines, hints, laterHints);
+    int helpers = Math.min(lines - 1, Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+    List<Future<?>> futures = new ArrayList<>(helpers);
+    try {
+      for (int i = 0; i < helpers; i++) {
+        OneDReaderview reader = createRowReader();
+        if (reader == null) {
+          break;
         }
+        futures.add(executor.submit(new RowScanTask(scan, reader)));
+      }
+      // This thread scans lines too, so the scan finishes even if no helper ever gets to run.
+      scan.run(this);
+      return scanlines.toImage(scan.awaitResult());
+    } finally {
+      for (Future<?> future : futures) {
+        future.cancel(true);
       }
     }
+  }
 
-    throw NotFoundExceptionview.getNotFoundInstance();
+  /**
+   * Creates another reader of the same kind and with the same configuration as this one, for
+   * scanning rows on another thread when {@link DecodeHintTypeview#ROW_SCAN_EXECUTOR} is set.
+   * Readers that keep state from one row to the next only see the rows scanned by their own
+   * thread.
+   *
+   * @return a new reader, or null if this reader only scans rows on the calling thread
+   */
+  protected OneDReaderview createRowReader() {
+    return null;
   }
 
   /**
@@ -236,6 +415,52 @@ public abstract class OneDReaderview implements Readerview {
     recordPattern(row, start + 1, counters);
   }
 
+  /**
+   * Like {@link #recordPattern(BitArrayview, int, int[])}, but reads the counts straight off the
+   * runs of the row: the first count is what is left of the run containing {@code start}, and the
+   * others are the widths of the runs after it.
+   *
+   * @param row row to count from
+   * @param start offset into row to start at
+   * @param counters array into which to record counts
+   * @throws NotFoundExceptionview if counters cannot be filled entirely from row before running out
+   *  of pixels
+   */
+  protected static void recordPattern(RunLengthRowview row,
+                                      int start,
+                                      int[] counters) throws NotFoundExceptionview {
+    int numCounters = counters.length;
+    if (start >= row.getSize()) {
+      throw NotFoundExceptionview.getNotFoundInstance();
+    }
+    int run = row.getRunIndex(start);
+    // The last counter may run off the side of the image, but it must at least begin.
+    if (row.getRunCount() - run < numCounters) {
+      throw NotFoundExceptionview.getNotFoundInstance();
+    }
+    counters[0] = row.getRunEnd(run) - start;
+    for (int i = 1; i < numCounters; i++) {
+      counters[i] = row.getRunLength(run + i);
+    }
+  }
+
+  /**
+   * Like {@link #recordPatternInReverse(BitArrayview, int, int[])}: records the widths of the
+   * {@code counters.length} runs that precede the run containing {@code start}. There must be at
+   * least one more run before them.
+   */
+  protected static void recordPatternInReverse(RunLengthRowview row, int start, int[] counters)
+      throws NotFoundExceptionview {
+    int numCounters = counters.length;
+    int first = row.getRunIndex(start) - numCounters;
+    if (first < 1) {
+      throw NotFoundExceptionview.getNotFoundInstance();
+    }
+    for (int i = 0; i < numCounters; i++) {
+      counters[i] = row.getRunLength(first + i);
+    }
+  }
+
   /**
    * Determines how closely a set of observed counts of runs of black/white values matches a given
    * target pattern. This is reported as the ratio of the total variance from the expected pattern
@@ -290,7 +515,259 @@ public abstract class OneDReaderview implements Readerview {
    * @throws ChecksumExceptionvew if a potential barcode is found but does not pass its checksum
    * @throws FormatExceptionview if a potential barcode is found but format is invalid
    */
-  public abstract Resultview decodeRow(int rowNumber, BitArrayview row, Map<DecodeHintTypeview,?> hints)
+  public Resultview decodeRow(int rowNumber, BitArrayview row, Map<DecodeHintTypeview,?> hints)
+      throws NotFoundExceptionview, ChecksumExceptionvew, FormatExceptionview {
+    return decodeRow(rowNumber, new RunLengthRowview(row), hints);
+  }
+
+  /**
+   * <p>Attempts to decode a one-dimensional barcode format given the runs of a single row of
+   * an image. A reader may reverse the row while it works, but must restore it before returning,
+   * since the same row is handed to several readers.</p>
+   *
+   * @param rowNumber row number from top of the row
+   * @param row the runs of black and white pixels of the row
+   * @param hints decode hints
+   * @return {@link Resultview} containing encoded string and start/end of barcode
+   * @throws NotFoundExceptionview if no potential barcode is found
+   * @throws ChecksumExceptionvew if a potential barcode is found but does not pass its checksum
+   * @throws FormatExceptionview if a potential barcode is found but format is invalid
+   */
+  public abstract Resultview decodeRow(int rowNumber, RunLengthRowview row, Map<DecodeHintTypeview,?> hints)
       throws NotFoundExceptionview, ChecksumExceptionvew, FormatExceptionview;
 
+  /**
+   * The rows of one parallel scan, shared by the threads taking part in it. Rows are claimed one
+   * at a time in middle-first order, so the rows of each thread interleave with those of the
+   * others and a slow row never holds up a whole band.
+   */
+  private static final class RowScan {
+
+    private final Scanlines scanlines;
+    private final int middle;
+    private final int rowStep;
+    private final Map<DecodeHintTypeview,?> hints;
+    private final Map<DecodeHintTypeview,?> laterHints;
+    private final boolean[] finished;
+
+    // All guarded by this.
+    private int nextLine;
+    private int unfinishedLine;
+    private int bestLine;
+    private Resultview bestResult;
+    private boolean abandoned;
+
+    RowScan(Scanlines scanlines,
+            int middle,
+            int rowStep,
+            int lines,
+            Map<DecodeHintTypeview,?> hints,
+            Map<DecodeHintTypeview,?> laterHints) {
+      this.scanlines = scanlines;
+      this.middle = middle;
+      this.rowStep = rowStep;
+      this.hints = hints;
+      this.laterHints = laterHints;
+      finished = new boolean[lines];
+      bestLine = lines;
+    }
+
+    /**
+     * Scans lines with the given reader until there are none left that could improve on the best
+     * result so far.
+     */
+    void run(OneDReaderview reader) {
+      BitArrayview row = null;
+      RunLengthRowview runs = new RunLengthRowview();
+      int line;
+      while ((line = claimLine()) >= 0) {
+        Resultview resultview = null;
+        try {
+          int rowNumber = getRowNumber(middle, rowStep, line);
+          row = scanlines.getLine(rowNumber, row);
+          runs.setRow(row);
+          resultview = decodeLine(reader, scanlines, rowNumber, runs, line == 0 ? hints : laterHints, laterHints);
+        } catch (NotFoundExceptionview ignored) {
+          // continue -- the row could not be binarized
+        } finally {
+          finishLine(line, resultview);
+        }
+      }
+    }
+
+    /**
+     * Waits for every row closer to the middle than the best result to be finished.
+     *
+     * @return the result of the row closest to the middle that decoded
+     * @throws NotFoundExceptionview if no row decoded, or the calling thread was interrupted
+     */
+    synchronized Resultview awaitResult() throws NotFoundExceptionview {
+      // Every row before nextLine has been claimed by a thread that is running, so it finishes.
+      try {
+        while (unfinishedLine < Math.min(nextLine, bestLine)) {
+          wait();
+        }
+      } catch (InterruptedException ie) {
+        abandoned = true;
+        Thread.currentThread().interrupt();
+        throw NotFoundExceptionview.getNotFoundInstance();
+      }
+      if (bestResult == null) {
+        throw NotFoundExceptionview.getNotFoundInstance();
+      }
+      return bestResult;
+    }
+
+    /**
+     * @return the next row to scan, or -1 if no row left could improve on the best result
+     */
+    private synchronized int claimLine() {
+      if (abandoned || nextLine >= bestLine || Thread.currentThread().isInterrupted()) {
+        return -1;
+      }
+      return nextLine++;
+    }
+
+    private synchronized void finishLine(int line, Resultview resultview) {
+      finished[line] = true;
+      while (unfinishedLine < nextLine && finished[unfinishedLine]) {
+        unfinishedLine++;
+      }
+      if (resultview != null && line < bestLine) {
+        bestLine = line;
+        bestResult = resultview;
+      }
+      notifyAll();
+    }
+  }
+
+  private static final class RowScanTask implements Runnable {
+
+    private final RowScan scan;
+    private final OneDReaderview reader;
+
+    RowScanTask(RowScan scan, OneDReaderview reader) {
+      this.scan = scan;
+      this.reader = reader;
+    }
+
+    @Override
+    public void run() {
+      scan.run(reader);
+    }
+  }
+
+  /**
+   * The parallel lines of an image that a scan reads one at a time.
+   */
+  private interface Scanlines {
+
+    /**
+     * @return how many lines there are
+     */
+    int getCount();
+
+    /**
+     * Reads one line. May be called from several threads at once.
+     *
+     * @param line the line to read
+     * @param row an optional preallocated array
+     * @return the pixels of the line (true means black)
+     * @throws NotFoundExceptionview if the line can't be binarized
+     */
+    BitArrayview getLine(int line, BitArrayview row) throws NotFoundExceptionview;
+
+    /**
+     * Maps the result points of a barcode found on a line, whose x is the position along the line
+     * and whose y is the line itself, to the image, and records the direction it was read in.
+     */
+    Resultview toImage(Resultview resultview);
+
+    /**
+     * @return true if a barcode found on a line must also be found on a line next to it
+     */
+    boolean needsConfirmation();
+  }
+
+  /**
+   * The rows of an image, binarized one at a time.
+   */
+  private static final class ImageRows implements Scanlines {
+
+    private final BinaryBitmapview image;
+
+    ImageRows(BinaryBitmapview image) {
+      this.image = image;
+    }
+
+    @Override
+    public int getCount() {
+      return image.getHeight();
+    }
+
+    @Override
+    public BitArrayview getLine(int line, BitArrayview row) throws NotFoundExceptionview {
+      // The bitmap reads one row at a time, whichever thread asks.
+      return image.getBlackRow(line, row);
+    }
+
+    @Override
+    public Resultview toImage(Resultview resultview) {
+      return resultview;
+    }
+
+    @Override
+    public boolean needsConfirmation() {
+      return false;
+    }
+  }
+
+  /**
+   * The lines of a binarized image in one direction, read by a {@link ScanlineSamplerview}.
+   */
+  private static final class SampledLines implements Scanlines {
+
+    private final ScanlineSamplerview sampler;
+
+    SampledLines(ScanlineSamplerview sampler) {
+      this.sampler = sampler;
+    }
+
+    @Override
+    public int getCount() {
+      return sampler.getLineCount();
+    }
+
+    @Override
+    public BitArrayview getLine(int line, BitArrayview row) {
+      return sampler.sampleLine(line, row);
+    }
+
+    @Override
+    public Resultview toImage(Resultview resultview) {
+      // Record which way the lines ran: 90 degrees CW, along the columns, is 270 degrees CCW.
+      Map<ResultMetadataTypeview,?> metadata = resultview.getResultMetadata();
+      int orientation = (360 - sampler.getAngle()) % 360;
+      if (metadata != null && metadata.containsKey(ResultMetadataTypeview.ORIENTATION)) {
+        // But if we found it reversed, add in that result here:
+        orientation = (orientation +
+            (Integer) metadata.get(ResultMetadataTypeview.ORIENTATION)) % 360;
+      }
+      resultview.putMetadata(ResultMetadataTypeview.ORIENTATION, orientation);
+      // Update result points
+      ResultPointview[] points = resultview.getResultPoints();
+      if (points != null) {
+        for (int i = 0; i < points.length; i++) {
+          points[i] = sampler.toImagePoint((int) points[i].getY(), points[i].getX());
+        }
+      }
+      return resultview;
+    }
+
+    @Override
+    public boolean needsConfirmation() {
+      return true;
+    }
+  }
+
 }
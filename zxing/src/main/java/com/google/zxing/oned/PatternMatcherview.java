@@ -0,0 +1,188 @@
+/*
+ * Copyright 2023 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.oned;
+
+import java.util.Arrays;
+
+/**
+ * <p>Finds which of a table of bar/space patterns a set of counters matches best, giving the same
+ * answer as calling {@link OneDReaderview#patternMatchVariance(int[], int[], float)} on every
+ * pattern and keeping the lowest variance, but without comparing against every pattern.</p>
+ *
+ * <p>All patterns must be the same number of modules wide. The counters are scaled to that width,
+ * and since no element may be off by more than the maximum individual variance, which is less
+ * than one module, each element can only be the width just below or just above its scaled
+ * counter. The patterns are indexed by their element widths, so only those few combinations are
+ * looked up, and the variance is only computed for the patterns actually found.</p>
+ *
+ * <p>Instances are immutable and can be shared between threads.</p>
+ */
+final class PatternMatcherview {
+
+  private final int[][] patterns;
+  private final int numCounters;
+  private final int modules;
+  private final int maxWidth;
+  private final float maxIndividualVariance;
+  private final float maxAvgVariance;
+  // powers[i] is the weight of element i in a lookup key, which has one digit per element.
+  private final int[] powers;
+  // Pattern index by key, or -1 where there is no pattern.
+  private final int[] lookup;
+
+  /**
+   * @param patterns the patterns, all of the same total width in modules. Only as many elements
+   *                 of each as the first pattern has are used.
+   * @param maxIndividualVariance the most any counter can differ from its element before the
+   *                              pattern is rejected, in modules; less than 1
+   * @param maxAvgVariance the worst variance accepted, as returned by patternMatchVariance
+   */
+  PatternMatcherview(int[][] patterns, float maxIndividualVariance, float maxAvgVariance) {
+    if (maxIndividualVariance >= 1.0f) {
+      throw new IllegalArgumentException("Individual variance must be less than one module");
+    }
+    this.patterns = patterns;
+    this.maxIndividualVariance = maxIndividualVariance;
+    this.maxAvgVariance = maxAvgVariance;
+    numCounters = patterns[0].length;
+    int firstModules = 0;
+    int widest = 0;
+    for (int i = 0; i < numCounters; i++) {
+      firstModules += patterns[0][i];
+    }
+    for (int[] pattern : patterns) {
+      int patternModules = 0;
+      for (int i = 0; i < numCounters; i++) {
+        patternModules += pattern[i];
+        widest = Math.max(widest, pattern[i]);
+      }
+      if (patternModules != firstModules) {
+        throw new IllegalArgumentException("Patterns must all be the same width");
+      }
+    }
+    modules = firstModules;
+    maxWidth = widest;
+
+    powers = new int[numCounters];
+    int size = 1;
+    for (int i = 0; i < numCounters; i++) {
+      powers[i] = size;
+      size *= maxWidth + 1;
+    }
+    lookup = new int[size];
+    Arrays.fill(lookup, -1);
+    // Going backwards leaves the first of any identical patterns in the table, as a linear
+    // search would find it first.
+    for (int index = patterns.length - 1; index >= 0; index--) {
+      int key = 0;
+      for (int i = 0; i < numCounters; i++) {
+        key += patterns[index][i] * powers[i];
+      }
+      lookup[key] = index;
+    }
+  }
+
+  /**
+   * @param counters observed counters, as many as the patterns have elements
+   * @return index of the pattern with the lowest variance below the maximum average variance,
+   *         the first one if several are equally good, or -1 if there is none
+   */
+  int match(int[] counters) {
+    int total = 0;
+    for (int i = 0; i < numCounters; i++) {
+      total += counters[i];
+    }
+    if (total < modules) {
+      // If we don't even have one pixel per unit of bar width, assume this is too small
+      // to reliably match, so fail:
+      return -1;
+    }
+    // These are the same calculations as in patternMatchVariance, so they reject exactly the
+    // same elements.
+    float unitBarWidth = (float) total / modules;
+    float maxVariance = maxIndividualVariance * unitBarWidth;
+
+    int key = 0;
+    int ambiguous = 0;
+    for (int i = 0; i < numCounters; i++) {
+      int counter = counters[i];
+      int lower = (int) (counter / unitBarWidth);
+      int upper = lower + 1;
+      boolean lowerFits = lower >= 1 && lower <= maxWidth && fits(counter, lower, unitBarWidth, maxVariance);
+      boolean upperFits = upper >= 1 && upper <= maxWidth && fits(counter, upper, unitBarWidth, maxVariance);
+      if (lowerFits) {
+        key += lower * powers[i];
+        if (upperFits) {
+          ambiguous |= 1 << i;
+        }
+      } else if (upperFits) {
+        key += upper * powers[i];
+      } else {
+        return -1;
+      }
+    }
+
+    float bestVariance = maxAvgVariance;
+    int bestMatch = -1;
+    // Try every way of rounding the elements that could go either way.
+    int roundedUp = ambiguous;
+    while (true) {
+      int candidateKey = key;
+      for (int bits = roundedUp; bits != 0; bits &= bits - 1) {
+        candidateKey += powers[Integer.numberOfTrailingZeros(bits)];
+      }
+      int index = lookup[candidateKey];
+      if (index >= 0) {
+        float variance = OneDReaderview.patternMatchVariance(counters, patterns[index], maxIndividualVariance);
+        if (variance < bestVariance || (variance == bestVariance && bestMatch > index)) {
+          bestVariance = variance;
+          bestMatch = index;
+        }
+      }
+      if (roundedUp == 0) {
+        break;
+      }
+      roundedUp = (roundedUp - 1) & ambiguous;
+    }
+    return bestMatch;
+  }
+
+  /**
+   * Inverts a table of character encodings, so that the character of a narrow/wide pattern can
+   * be looked up directly instead of searched for.
+   *
+   * @param encodings the pattern of each character
+   * @param bits how many bits the patterns have
+   * @return the index in encodings of every possible pattern, or -1 where no character has it.
+   *         Where several characters share a pattern, the first one.
+   */
+  static int[] indexEncodings(int[] encodings, int bits) {
+    int[] indices = new int[1 << bits];
+    Arrays.fill(indices, -1);
+    for (int i = encodings.length - 1; i >= 0; i--) {
+      indices[encodings[i]] = i;
+    }
+    return indices;
+  }
+
+  private static boolean fits(int counter, int width, float unitBarWidth, float maxVariance) {
+    float scaledPattern = width * unitBarWidth;
+    float variance = counter > scaledPattern ? counter - scaledPattern : scaledPattern - counter;
+    return variance <= maxVariance;
+  }
+
+}
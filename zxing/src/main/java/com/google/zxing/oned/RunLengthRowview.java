@@ -0,0 +1,238 @@
+/*
+ * Copyright 2023 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.oned;
+
+import com.google.zxing.common.BitArrayview;
+
+/**
+ * <p>One row of a binarized image, stored as the widths of its alternating runs of white and
+ * black pixels. The transitions of a row are found once, however many 1D readers then look at
+ * it, and the readers step from run to run instead of from pixel to pixel.</p>
+ *
+ * <p>Run {@code i} covers pixels {@link #getRunStart(int)} (inclusive) to {@link #getRunEnd(int)}
+ * (exclusive). The same queries as on {@link BitArrayview} are answered from the runs, and
+ * {@link #reverse()} flips the row by reversing the order of the runs rather than the bits.</p>
+ *
+ * <p>Instances are not thread-safe.</p>
+ */
+public final class RunLengthRowview {
+
+  private int size;
+  private int runCount;
+  // starts[i] is the first pixel of run i, and starts[runCount] is the size of the row.
+  private int[] starts;
+  private boolean firstIsBlack;
+  // The run found by the last lookup; readers mostly move forward a little at a time.
+  private int cachedRun;
+
+  public RunLengthRowview() {
+    starts = new int[16];
+  }
+
+  public RunLengthRowview(BitArrayview row) {
+    this();
+    setRow(row);
+  }
+
+  /**
+   * Replaces the contents of this row with the runs of the given bits.
+   *
+   * @param row the black/white pixel data of the row
+   */
+  public void setRow(BitArrayview row) {
+    size = row.getSize();
+    runCount = 0;
+    cachedRun = 0;
+    boolean black = size > 0 && row.get(0);
+    firstIsBlack = black;
+    int position = 0;
+    while (position < size) {
+      if (runCount + 2 > starts.length) {
+        int[] newStarts = new int[starts.length * 2];
+        System.arraycopy(starts, 0, newStarts, 0, runCount);
+        starts = newStarts;
+      }
+      starts[runCount++] = position;
+      position = black ? row.getNextUnset(position) : row.getNextSet(position);
+      black = !black;
+    }
+    starts[runCount] = size;
+  }
+
+  /**
+   * @return the number of pixels in the row
+   */
+  public int getSize() {
+    return size;
+  }
+
+  /**
+   * @return the number of runs in the row
+   */
+  public int getRunCount() {
+    return runCount;
+  }
+
+  /**
+   * @param pixel a position in the row
+   * @return index of the run containing the pixel, or {@link #getRunCount()} if the pixel is
+   *         at or past the end of the row
+   */
+  public int getRunIndex(int pixel) {
+    if (pixel >= size) {
+      return runCount;
+    }
+    int run = cachedRun;
+    if (pixel >= starts[run]) {
+      // Try the cached run and the one after it before searching.
+      if (pixel < starts[run + 1]) {
+        return run;
+      }
+      if (pixel < starts[run + 2]) {
+        cachedRun = run + 1;
+        return run + 1;
+      }
+    }
+    int low = 0;
+    int high = runCount - 1;
+    while (low < high) {
+      int middle = (low + high + 1) >>> 1;
+      if (starts[middle] <= pixel) {
+        low = middle;
+      } else {
+        high = middle - 1;
+      }
+    }
+    cachedRun = low;
+    return low;
+  }
+
+  /**
+   * @param run index of a run
+   * @return the first pixel of the run
+   */
+  public int getRunStart(int run) {
+    return starts[run];
+  }
+
+  /**
+   * @param run index of a run
+   * @return the pixel just past the end of the run
+   */
+  public int getRunEnd(int run) {
+    return starts[run + 1];
+  }
+
+  /**
+   * @param run index of a run
+   * @return the number of pixels in the run
+   */
+  public int getRunLength(int run) {
+    return starts[run + 1] - starts[run];
+  }
+
+  /**
+   * @param run index of a run
+   * @return true iff the run is black
+   */
+  public boolean isBlack(int run) {
+    return firstIsBlack == ((run & 0x01) == 0);
+  }
+
+  /**
+   * @param i pixel to get
+   * @return true iff pixel i is black
+   */
+  public boolean get(int i) {
+    return isBlack(getRunIndex(i));
+  }
+
+  /**
+   * @param from first pixel to check
+   * @return index of the first black pixel at or after the given one, or the size of the row
+   */
+  public int getNextSet(int from) {
+    if (from >= size) {
+      return size;
+    }
+    int run = getRunIndex(from);
+    return isBlack(run) ? from : starts[run + 1];
+  }
+
+  /**
+   * @param from first pixel to check
+   * @return index of the first white pixel at or after the given one, or the size of the row
+   */
+  public int getNextUnset(int from) {
+    if (from >= size) {
+      return size;
+    }
+    int run = getRunIndex(from);
+    return isBlack(run) ? starts[run + 1] : from;
+  }
+
+  /**
+   * @param start start of range, inclusive
+   * @param end end of range, exclusive
+   * @param value if true, checks that the pixels in the range are black, otherwise white
+   * @return true iff all pixels in the range are black, or all are white, according to value
+   * @throws IllegalArgumentException if end is less than start or the range is not contained in the row
+   */
+  public boolean isRange(int start, int end, boolean value) {
+    if (end < start || start < 0 || end > size) {
+      throw new IllegalArgumentException();
+    }
+    if (end == start) {
+      return true; // empty range matches
+    }
+    int run = getRunIndex(start);
+    return isBlack(run) == value && starts[run + 1] >= end;
+  }
+
+  /**
+   * Reverses the row, so that pixel i becomes pixel {@code getSize() - 1 - i}.
+   */
+  public void reverse() {
+    // Run i of the reversed row is run runCount - 1 - i of this one, and its start is the
+    // mirror image of that run's end.
+    for (int i = 0, j = runCount; i <= j; i++, j--) {
+      int temp = starts[i];
+      starts[i] = size - starts[j];
+      starts[j] = size - temp;
+    }
+    if (runCount > 0) {
+      firstIsBlack = (firstIsBlack == ((runCount & 0x01) == 1));
+    }
+    cachedRun = 0;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder result = new StringBuilder(size);
+    for (int run = 0; run < runCount; run++) {
+      char c = isBlack(run) ? 'X' : '.';
+      for (int i = starts[run]; i < starts[run + 1]; i++) {
+        if ((i & 0x07) == 0) {
+          result.append(' ');
+        }
+        result.append(c);
+      }
+    }
+    return result.toString();
+  }
+
+}
@@ -23,7 +23,6 @@ import com.google.zxing.DecodeHintTypeview;
 import com.google.zxing.FormatExceptionview;
 import com.google.zxing.NotFoundExceptionview;
 import com.google.zxing.Resultview;
-import com.google.zxing.common.BitArrayview;
 
 import java.util.Map;
 
@@ -39,7 +38,7 @@ public final class UPCAReaderview extends UPCEANReaderview {
 
   @Override
   public Resultview decodeRow(int rowNumber,
-                              BitArrayview row,
+                              RunLengthRowview row,
                               int[] startGuardRange,
                               Map<DecodeHintTypeview,?> hints)
       throws NotFoundExceptionview, FormatExceptionview, ChecksumExceptionvew {
@@ -47,7 +46,7 @@ public final class UPCAReaderview extends UPCEANReaderview {
   }
 
   @Override
-  public Resultview decodeRow(int rowNumber, BitArrayview row, Map<DecodeHintTypeview,?> hints)
+  public Resultview decodeRow(int rowNumber, RunLengthRowview row, Map<DecodeHintTypeview,?> hints)
       throws NotFoundExceptionview, FormatExceptionview, ChecksumExceptionvew {
     return maybeReturnResult(ean13Reader.decodeRow(rowNumber, row, hints));
   }
@@ -69,7 +68,7 @@ public final class UPCAReaderview extends UPCEANReaderview {
   }
 
   @Override
-  protected int decodeMiddle(BitArrayview row, int[] startRange, StringBuilder resultString)
+  protected int decodeMiddle(RunLengthRowview row, int[] startRange, StringBuilder resultString)
       throws NotFoundExceptionview {
     return ean13Reader.decodeMiddle(row, startRange, resultString);
   }
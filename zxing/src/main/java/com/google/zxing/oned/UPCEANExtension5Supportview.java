@@ -21,7 +21,6 @@ import com.google.zxing.NotFoundExceptionview;
 import com.google.zxing.Resultview;
 import com.google.zxing.ResultMetadataTypeview;
 import com.google.zxing.ResultPointview;
-import com.google.zxing.common.BitArrayview;
 
 import java.util.EnumMap;
 import java.util.Map;
@@ -38,7 +37,7 @@ final class UPCEANExtension5Supportview {
   private final int[] decodeMiddleCounters = new int[4];
   private final StringBuilder decodeRowStringBuffer = new StringBuilder();
 
-  Resultview decodeRow(int rowNumber, BitArrayview row, int[] extensionStartRange) throws NotFoundExceptionview {
+  Resultview decodeRow(int rowNumber, RunLengthRowview row, int[] extensionStartRange) throws NotFoundExceptionview {
 
     StringBuilder result = decodeRowStringBuffer;
     result.setLength(0);
@@ -61,7 +60,7 @@ final class UPCEANExtension5Supportview {
     return extensionResultview;
   }
 
-  private int decodeMiddle(BitArrayview row, int[] startRange, StringBuilder resultString) throws NotFoundExceptionview {
+  private int decodeMiddle(RunLengthRowview row, int[] startRange, StringBuilder resultString) throws NotFoundExceptionview {
     int[] counters = decodeMiddleCounters;
     counters[0] = 0;
     counters[1] = 0;
@@ -73,7 +72,7 @@ final class UPCEANExtension5Supportview {
     int lgPatternFound = 0;
 
     for (int x = 0; x < 5 && rowOffset < end; x++) {
-      int bestMatch = UPCEANReaderview.decodeDigit(row, counters, rowOffset, UPCEANReaderview.L_AND_G_PATTERNS);
+      int bestMatch = UPCEANReaderview.decodeDigit(row, counters, rowOffset, UPCEANReaderview.L_AND_G_PATTERN_MATCHER);
       resultString.append((char) ('0' + bestMatch % 10));
       for (int counter : counters) {
         rowOffset += counter;
@@ -19,7 +19,6 @@ package com.google.zxing.oned;
 import com.google.zxing.NotFoundExceptionview;
 import com.google.zxing.ReaderExceptionview;
 import com.google.zxing.Resultview;
-import com.google.zxing.common.BitArrayview;
 
 final class UPCEANExtensionSupportview {
 
@@ -28,7 +27,7 @@ final class UPCEANExtensionSupportview {
   private final UPCEANExtension2Supportview twoSupport = new UPCEANExtension2Supportview();
   private final UPCEANExtension5Supportview fiveSupport = new UPCEANExtension5Supportview();
 
-  Resultview decodeRow(int rowNumber, BitArrayview row, int rowOffset) throws NotFoundExceptionview {
+  Resultview decodeRow(int rowNumber, RunLengthRowview row, int rowOffset) throws NotFoundExceptionview {
     int[] extensionStartRange = UPCEANReaderview.findGuardPattern(row, rowOffset, false, EXTENSION_START_PATTERN);
     try {
       return fiveSupport.decodeRow(rowNumber, row, extensionStartRange);
@@ -26,7 +26,6 @@ import com.google.zxing.Resultview;
 import com.google.zxing.ResultMetadataTypeview;
 import com.google.zxing.ResultPointview;
 import com.google.zxing.ResultPointCallbackview;
-import com.google.zxing.common.BitArrayview;
 
 import java.util.Arrays;
 import java.util.Map;
@@ -94,6 +93,11 @@ public abstract class UPCEANReaderview extends OneDReaderview {
     }
   }
 
+  static final PatternMatcherview L_PATTERN_MATCHER =
+      new PatternMatcherview(L_PATTERNS, MAX_INDIVIDUAL_VARIANCE, MAX_AVG_VARIANCE);
+  static final PatternMatcherview L_AND_G_PATTERN_MATCHER =
+      new PatternMatcherview(L_AND_G_PATTERNS, MAX_INDIVIDUAL_VARIANCE, MAX_AVG_VARIANCE);
+
   private final StringBuilder decodeRowStringBuffer;
   private final UPCEANExtensionSupportview extensionReader;
   private final EANManufacturerOrgSupportview eanManSupport;
@@ -104,7 +108,7 @@ public abstract class UPCEANReaderview extends OneDReaderview {
     eanManSupport = new EANManufacturerOrgSupportview();
   }
 
-  static int[] findStartGuardPattern(BitArrayview row) throws NotFoundExceptionview {
+  static int[] findStartGuardPattern(RunLengthRowview row) throws NotFoundExceptionview {
     boolean foundStart = false;
     int[] startRange = null;
     int nextStart = 0;
@@ -126,13 +130,13 @@ public abstract class UPCEANReaderview extends OneDReaderview {
   }
 
   @Override
-  public Resultview decodeRow(int rowNumber, BitArrayview row, Map<DecodeHintTypeview,?> hints)
+  public Resultview decodeRow(int rowNumber, RunLengthRowview row, Map<DecodeHintTypeview,?> hints)
       throws NotFoundExceptionview, ChecksumExceptionvew, FormatExceptionview {
     return decodeRow(rowNumber, row, findStartGuardPattern(row), hints);
   }
 
   /**
-   * <p>Like {@link #decodeRow(int, BitArrayview, Map)}, but
+   * <p>Like {@link #decodeRow(int, RunLengthRowview, Map)}, but
    * allows caller to inform method about where the UPC/EAN start pattern is
    * found. This allows this to be computed once and reused across many implementations.</p>
    *
@@ -146,7 +150,7 @@ public abstract class UPCEANReaderview extends OneDReaderview {
    * @throws FormatExceptionview if a potential barcode is found but format is invalid
    */
   public Resultview decodeRow(int rowNumber,
-                              BitArrayview row,
+                              RunLengthRowview row,
                               int[] startGuardRange,
                               Map<DecodeHintTypeview,?> hints)
       throws NotFoundExceptionview, ChecksumExceptionvew, FormatExceptionview {
@@ -290,11 +294,11 @@ public abstract class UPCEANReaderview extends OneDReaderview {
     return (1000 - sum) % 10;
   }
 
-  int[] decodeEnd(BitArrayview row, int endStart) throws NotFoundExceptionview {
+  int[] decodeEnd(RunLengthRowview row, int endStart) throws NotFoundExceptionview {
     return findGuardPattern(row, endStart, false, START_END_PATTERN);
   }
 
-  static int[] findGuardPattern(BitArrayview row,
+  static int[] findGuardPattern(RunLengthRowview row,
                                 int rowOffset,
                                 boolean whiteFirst,
                                 int[] pattern) throws NotFoundExceptionview {
@@ -312,35 +316,31 @@ public abstract class UPCEANReaderview extends OneDReaderview {
    * @return start/end horizontal offset of guard pattern, as an array of two ints
    * @throws NotFoundExceptionview if pattern is not found
    */
-  private static int[] findGuardPattern(BitArrayview row,
+  private static int[] findGuardPattern(RunLengthRowview row,
                                         int rowOffset,
                                         boolean whiteFirst,
                                         int[] pattern,
                                         int[] counters) throws NotFoundExceptionview {
-    int width = row.getSize();
     rowOffset = whiteFirst ? row.getNextUnset(rowOffset) : row.getNextSet(rowOffset);
     int counterPosition = 0;
     int patternStart = rowOffset;
     int patternLength = pattern.length;
-    boolean isWhite = whiteFirst;
-    for (int x = rowOffset; x < width; x++) {
-      if (row.get(x) != isWhite) {
-        counters[counterPosition]++;
-      } else {
-        if (counterPosition == patternLength - 1) {
-          if (patternMatchVariance(counters, pattern, MAX_INDIVIDUAL_VARIANCE) < MAX_AVG_VARIANCE) {
-            return new int[]{patternStart, x};
-          }
-          patternStart += counters[0] + counters[1];
-          System.arraycopy(counters, 2, counters, 0, counterPosition - 1);
-          counters[counterPosition - 1] = 0;
-          counters[counterPosition] = 0;
-          counterPosition--;
-        } else {
-          counterPosition++;
+    // The pattern is checked at the end of every run that is followed by another one. The first
+    // run only counts from rowOffset on.
+    int lastRun = row.getRunCount() - 1;
+    for (int run = row.getRunIndex(rowOffset); run < lastRun; run++) {
+      counters[counterPosition] = row.getRunEnd(run) - Math.max(rowOffset, row.getRunStart(run));
+      if (counterPosition == patternLength - 1) {
+        if (patternMatchVariance(counters, pattern, MAX_INDIVIDUAL_VARIANCE) < MAX_AVG_VARIANCE) {
+          return new int[]{patternStart, row.getRunEnd(run)};
         }
-        counters[counterPosition] = 1;
-        isWhite = !isWhite;
+        patternStart += counters[0] + counters[1];
+        System.arraycopy(counters, 2, counters, 0, counterPosition - 1);
+        counters[counterPosition - 1] = 0;
+        counters[counterPosition] = 0;
+        counterPosition--;
+      } else {
+        counterPosition++;
       }
     }
     throw NotFoundExceptionview.getNotFoundInstance();
@@ -354,24 +354,14 @@ public abstract class UPCEANReaderview extends OneDReaderview {
    * @param rowOffset horizontal offset to start decoding from
    * @param patterns the set of patterns to use to decode -- sometimes different encodings
    * for the digits 0-9 are used, and this indicates the encodings for 0 to 9 that should
-   * be used
+   * be used; {@link #L_PATTERN_MATCHER} or {@link #L_AND_G_PATTERN_MATCHER}
    * @return horizontal offset of first pixel beyond the decoded digit
    * @throws NotFoundExceptionview if digit cannot be decoded
    */
-  static int decodeDigit(BitArrayview row, int[] counters, int rowOffset, int[][] patterns)
+  static int decodeDigit(RunLengthRowview row, int[] counters, int rowOffset, PatternMatcherview patterns)
       throws NotFoundExceptionview {
     recordPattern(row, rowOffset, counters);
-    float bestVariance = MAX_AVG_VARIANCE; // worst variance we'll accept
-    int bestMatch = -1;
-    int max = patterns.length;
-    for (int i = 0; i < max; i++) {
-      int[] pattern = patterns[i];
-      float variance = patternMatchVariance(counters, pattern, MAX_INDIVIDUAL_VARIANCE);
-      if (variance < bestVariance) {
-        bestVariance = variance;
-        bestMatch = i;
-      }
-    }
+    int bestMatch = patterns.match(counters);
     if (bestMatch >= 0) {
       return bestMatch;
     } else {
@@ -396,7 +386,7 @@ public abstract class UPCEANReaderview extends OneDReaderview {
    * @return horizontal offset of first pixel after the "middle" that was decoded
    * @throws NotFoundExceptionview if decoding could not complete successfully
    */
-  protected abstract int decodeMiddle(BitArrayview row,
+  protected abstract int decodeMiddle(RunLengthRowview row,
                                       int[] startRange,
                                       StringBuilder resultString) throws NotFoundExceptionview;
 
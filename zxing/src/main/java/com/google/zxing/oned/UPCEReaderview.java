@@ -19,7 +19,6 @@ package com.google.zxing.oned;
 import com.google.zxing.BarcodeFormatview;
 import com.google.zxing.FormatExceptionview;
 import com.google.zxing.NotFoundExceptionview;
-import com.google.zxing.common.BitArrayview;
 
 /**
  * <p>Implements decoding of the UPC-E format.</p>
@@ -77,7 +76,7 @@ public final class UPCEReaderview extends UPCEANReaderview {
   }
 
   @Override
-  protected int decodeMiddle(BitArrayview row, int[] startRange, StringBuilder result)
+  protected int decodeMiddle(RunLengthRowview row, int[] startRange, StringBuilder result)
       throws NotFoundExceptionview {
     int[] counters = decodeMiddleCounters;
     counters[0] = 0;
@@ -90,7 +89,7 @@ public final class UPCEReaderview extends UPCEANReaderview {
     int lgPatternFound = 0;
 
     for (int x = 0; x < 6 && rowOffset < end; x++) {
-      int bestMatch = decodeDigit(row, counters, rowOffset, L_AND_G_PATTERNS);
+      int bestMatch = decodeDigit(row, counters, rowOffset, L_AND_G_PATTERN_MATCHER);
       result.append((char) ('0' + bestMatch % 10));
       for (int counter : counters) {
         rowOffset += counter;
@@ -106,7 +105,7 @@ public final class UPCEReaderview extends UPCEANReaderview {
   }
 
   @Override
-  protected int[] decodeEnd(BitArrayview row, int endStart) throws NotFoundExceptionview {
+  protected int[] decodeEnd(RunLengthRowview row, int endStart) throws NotFoundExceptionview {
     return findGuardPattern(row, endStart, true, MIDDLE_END_PATTERN);
   }
 
@@ -22,8 +22,8 @@ import com.google.zxing.NotFoundExceptionview;
 import com.google.zxing.Resultview;
 import com.google.zxing.ResultPointview;
 import com.google.zxing.ResultPointCallbackview;
-import com.google.zxing.common.BitArrayview;
 import com.google.zxing.common.detector.MathUtilsview;
+import com.google.zxing.oned.RunLengthRowview;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -64,10 +64,11 @@ public final class RSS14Readerview extends AbstractRSSReaderview {
 
   @Override
   public Resultview decodeRow(int rowNumber,
-                              BitArrayview row,
+                              RunLengthRowview row,
                               Map<DecodeHintTypeview,?> hints) throws NotFoundExceptionview {
     Pairview leftPairview = decodePair(row, false, rowNumber, hints);
     addOrTally(possibleLeftPairviews, leftPairview);
+    // Reversing the runs is cheap, and the row is put back before returning.
     row.reverse();
     Pairview rightPairview = decodePair(row, true, rowNumber, hints);
     addOrTally(possibleRightPairviews, rightPairview);
@@ -155,7 +156,7 @@ public final class RSS14Readerview extends AbstractRSSReaderview {
     return checkValue == targetCheckValue;
   }
 
-  private Pairview decodePair(BitArrayview row, boolean right, int rowNumber, Map<DecodeHintTypeview,?> hints) {
+  private Pairview decodePair(RunLengthRowview row, boolean right, int rowNumber, Map<DecodeHintTypeview,?> hints) {
     try {
       int[] startEnd = findFinderPattern(row, right);
       FinderPatternview pattern = parseFoundFinderPattern(row, rowNumber, right, startEnd);
@@ -182,7 +183,7 @@ public final class RSS14Readerview extends AbstractRSSReaderview {
     }
   }
 
-  private DataCharacterview decodeDataCharacter(BitArrayview row, FinderPatternview pattern, boolean outsideChar)
+  private DataCharacterview decodeDataCharacter(RunLengthRowview row, FinderPatternview pattern, boolean outsideChar)
       throws NotFoundExceptionview {
 
     int[] counters = getDataCharacterCounters();
@@ -279,7 +280,7 @@ public final class RSS14Readerview extends AbstractRSSReaderview {
 
   }
 
-  private int[] findFinderPattern(BitArrayview row, boolean rightFinderPattern)
+  private int[] findFinderPattern(RunLengthRowview row, boolean rightFinderPattern)
       throws NotFoundExceptionview {
 
     int[] counters = getDecodeFinderCounters();
@@ -288,55 +289,45 @@ public final class RSS14Readerview extends AbstractRSSReaderview {
     counters[2] = 0;
     counters[3] = 0;
 
-    int width = row.getSize();
-    boolean isWhite = false;
-    int rowOffset = 0;
-    while (rowOffset < width) {
-      isWhite = !row.get(rowOffset);
-      if (rightFinderPattern == isWhite) {
-        // Will encounter white first when searching for right finder pattern
-        break;
-      }
-      rowOffset++;
-    }
+    // Will encounter white first when searching for right finder pattern
+    int rowOffset = rightFinderPattern ? row.getNextUnset(0) : row.getNextSet(0);
 
     int counterPosition = 0;
     int patternStart = rowOffset;
-    for (int x = rowOffset; x < width; x++) {
-      if (row.get(x) != isWhite) {
-        counters[counterPosition]++;
-      } else {
-        if (counterPosition == 3) {
-          if (isFinderPattern(counters)) {
-            return new int[]{patternStart, x};
-          }
-          patternStart += counters[0] + counters[1];
-          counters[0] = counters[2];
-          counters[1] = counters[3];
-          counters[2] = 0;
-          counters[3] = 0;
-          counterPosition--;
-        } else {
-          counterPosition++;
+    // The pattern is checked at the end of every run that is followed by another one.
+    int lastRun = row.getRunCount() - 1;
+    for (int run = row.getRunIndex(rowOffset); run < lastRun; run++) {
+      counters[counterPosition] = row.getRunLength(run);
+      if (counterPosition == 3) {
+        if (isFinderPattern(counters)) {
+          return new int[]{patternStart, row.getRunEnd(run)};
         }
-        counters[counterPosition] = 1;
-        isWhite = !isWhite;
+        patternStart += counters[0] + counters[1];
+        counters[0] = counters[2];
+        counters[1] = counters[3];
+        counters[2] = 0;
+        counters[3] = 0;
+        counterPosition--;
+      } else {
+        counterPosition++;
       }
     }
     throw NotFoundExceptionview.getNotFoundInstance();
 
   }
 
-  private FinderPatternview parseFoundFinderPattern(BitArrayview row, int rowNumber, boolean right, int[] startEnd)
+  private FinderPatternview parseFoundFinderPattern(RunLengthRowview row, int rowNumber, boolean right, int[] startEnd)
       throws NotFoundExceptionview {
     // Actually we found elements 2-5
     boolean firstIsBlack = row.get(startEnd[0]);
-    int firstElementStart = startEnd[0] - 1;
-    // Locate element 1
-    while (firstElementStart >= 0 && firstIsBlack != row.get(firstElementStart)) {
-      firstElementStart--;
+    int firstElementStart = startEnd[0];
+    // Locate element 1, the run before the pattern
+    if (firstElementStart > 0) {
+      int run = row.getRunIndex(firstElementStart - 1);
+      if (row.isBlack(run) != firstIsBlack) {
+        firstElementStart = row.getRunStart(run);
+      }
     }
-    firstElementStart++;
     int firstCounter = startEnd[0] - firstElementStart;
     // Make 'counters' hold 1-4
     int[] counters = getDecodeFinderCounters();
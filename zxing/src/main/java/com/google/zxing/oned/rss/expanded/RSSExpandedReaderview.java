@@ -34,6 +34,7 @@ import com.google.zxing.Resultview;
 import com.google.zxing.ResultPointview;
 import com.google.zxing.common.BitArrayview;
 import com.google.zxing.common.detector.MathUtilsview;
+import com.google.zxing.oned.RunLengthRowview;
 import com.google.zxing.oned.rss.AbstractRSSReaderview;
 import com.google.zxing.oned.rss.DataCharacterview;
 import com.google.zxing.oned.rss.FinderPatternview;
@@ -120,7 +121,7 @@ public final class RSSExpandedReaderview extends AbstractRSSReaderview {
 
   @Override
   public Resultview decodeRow(int rowNumber,
-                              BitArrayview row,
+                              RunLengthRowview row,
                               Map<DecodeHintTypeview,?> hints) throws NotFoundExceptionview, FormatExceptionview {
     // Rows can start with even pattern in case in prev rows there where odd number of patters.
     // So lets try twice
@@ -144,7 +145,7 @@ public final class RSSExpandedReaderview extends AbstractRSSReaderview {
   }
 
   // Not private for testing
-  List<ExpandedPairview> decodeRow2pairs(int rowNumber, BitArrayview row) throws NotFoundExceptionview {
+  List<ExpandedPairview> decodeRow2pairs(int rowNumber, RunLengthRowview row) throws NotFoundExceptionview {
     try {
       while (true) {
         ExpandedPairview nextPair = retrieveNextPair(row, this.pairs, rowNumber);
@@ -403,7 +404,7 @@ public final class RSSExpandedReaderview extends AbstractRSSReaderview {
     return checkCharacterValue == checkCharacter.getValue();
   }
 
-  private static int getNextSecondBar(BitArrayview row, int initialPos) {
+  private static int getNextSecondBar(RunLengthRowview row, int initialPos) {
     int currentPos;
     if (row.get(initialPos)) {
       currentPos = row.getNextUnset(initialPos);
@@ -416,7 +417,7 @@ public final class RSSExpandedReaderview extends AbstractRSSReaderview {
   }
 
   // not private for testing
-  ExpandedPairview retrieveNextPair(BitArrayview row, List<ExpandedPairview> previousPairs, int rowNumber)
+  ExpandedPairview retrieveNextPair(RunLengthRowview row, List<ExpandedPairview> previousPairs, int rowNumber)
       throws NotFoundExceptionview {
     boolean isOddPattern  = previousPairs.size() % 2 == 0;
     if (startFromEven) {
@@ -455,7 +456,7 @@ public final class RSSExpandedReaderview extends AbstractRSSReaderview {
     return new ExpandedPairview(leftChar, rightChar, pattern, true);
   }
 
-  private void findNextPair(BitArrayview row, List<ExpandedPairview> previousPairs, int forcedOffset)
+  private void findNextPair(RunLengthRowview row, List<ExpandedPairview> previousPairs, int forcedOffset)
       throws NotFoundExceptionview {
     int[] counters = this.getDecodeFinderCounters();
     counters[0] = 0;
@@ -463,8 +464,6 @@ public final class RSSExpandedReaderview extends AbstractRSSReaderview {
     counters[2] = 0;
     counters[3] = 0;
 
-    int width = row.getSize();
-
     int rowOffset;
     if (forcedOffset >= 0) {
       rowOffset = forcedOffset;
@@ -479,47 +478,38 @@ public final class RSSExpandedReaderview extends AbstractRSSReaderview {
       searchingEvenPair = !searchingEvenPair;
     }
 
-    boolean isWhite = false;
-    while (rowOffset < width) {
-      isWhite = !row.get(rowOffset);
-      if (!isWhite) {
-        break;
-      }
-      rowOffset++;
-    }
+    rowOffset = row.getNextSet(rowOffset);
 
     int counterPosition = 0;
     int patternStart = rowOffset;
-    for (int x = rowOffset; x < width; x++) {
-      if (row.get(x) != isWhite) {
-        counters[counterPosition]++;
-      } else {
-        if (counterPosition == 3) {
-          if (searchingEvenPair) {
-            reverseCounters(counters);
-          }
-
-          if (isFinderPattern(counters)) {
-            this.startEnd[0] = patternStart;
-            this.startEnd[1] = x;
-            return;
-          }
+    // The pattern is checked at the end of every run that is followed by another one. The first
+    // run only counts from rowOffset on.
+    int lastRun = row.getRunCount() - 1;
+    for (int run = row.getRunIndex(rowOffset); run < lastRun; run++) {
+      counters[counterPosition] = row.getRunEnd(run) - Math.max(rowOffset, row.getRunStart(run));
+      if (counterPosition == 3) {
+        if (searchingEvenPair) {
+          reverseCounters(counters);
+        }
 
-          if (searchingEvenPair) {
-            reverseCounters(counters);
-          }
+        if (isFinderPattern(counters)) {
+          this.startEnd[0] = patternStart;
+          this.startEnd[1] = row.getRunEnd(run);
+          return;
+        }
 
-          patternStart += counters[0] + counters[1];
-          counters[0] = counters[2];
-          counters[1] = counters[3];
-          counters[2] = 0;
-          counters[3] = 0;
-          counterPosition--;
-        } else {
-          counterPosition++;
+        if (searchingEvenPair) {
+          reverseCounters(counters);
         }
-        counters[counterPosition] = 1;
-        isWhite = !isWhite;
+
+        patternStart += counters[0] + counters[1];
+        counters[0] = counters[2];
+        counters[1] = counters[3];
+        counters[2] = 0;
+        counters[3] = 0;
+        counterPosition--;
+      } else {
+        counterPosition++;
       }
     }
     throw NotFoundExceptionview.getNotFoundInstance();
@@ -534,7 +524,7 @@ public final class RSSExpandedReaderview extends AbstractRSSReaderview {
     }
   }
 
-  private FinderPatternview parseFoundFinderPattern(BitArrayview row, int rowNumber, boolean oddPattern) {
+  private FinderPatternview parseFoundFinderPattern(RunLengthRowview row, int rowNumber, boolean oddPattern) {
     // Actually we found elements 2-5.
     int firstCounter;
     int start;
@@ -543,13 +533,14 @@ public final class RSSExpandedReaderview extends AbstractRSSReaderview {
     if (oddPattern) {
       // If pattern number is odd, we need to locate element 1 *before* the current block.
 
-      int firstElementStart = this.startEnd[0] - 1;
-      // Locate element 1
-      while (firstElementStart >= 0 && !row.get(firstElementStart)) {
-        firstElementStart--;
+      int firstElementStart = this.startEnd[0];
+      // Locate element 1, the white run before the pattern
+      if (firstElementStart > 0) {
+        int run = row.getRunIndex(firstElementStart - 1);
+        if (!row.isBlack(run)) {
+          firstElementStart = row.getRunStart(run);
+        }
       }
-
-      firstElementStart++;
       firstCounter = this.startEnd[0] - firstElementStart;
       start = firstElementStart;
       end = this.startEnd[1];
@@ -577,7 +568,7 @@ public final class RSSExpandedReaderview extends AbstractRSSReaderview {
     return new FinderPatternview(value, new int[] {start, end}, start, end, rowNumber);
   }
 
-  DataCharacterview decodeDataCharacter(BitArrayview row,
+  DataCharacterview decodeDataCharacter(RunLengthRowview row,
                                         FinderPatternview pattern,
                                         boolean isOddPattern,
                                         boolean leftChar) throws NotFoundExceptionview {
@@ -20,8 +20,10 @@ import com.google.zxing.BarcodeFormatview;
 import com.google.zxing.BinaryBitmapview;
 import com.google.zxing.ChecksumExceptionvew;
 import com.google.zxing.DecodeHintTypeview;
+import com.google.zxing.DecodeTraceview;
 import com.google.zxing.FormatExceptionview;
 import com.google.zxing.NotFoundExceptionview;
+import com.google.zxing.ReaderExceptionview;
 import com.google.zxing.Readerview;
 import com.google.zxing.Resultview;
 import com.google.zxing.ResultMetadataTypeview;
@@ -32,6 +34,7 @@ import com.google.zxing.common.DetectorResultview;
 import com.google.zxing.qrcode.decoder.Decoderview;
 import com.google.zxing.qrcode.decoder.QRCodeDecoderMetaDataview;
 import com.google.zxing.qrcode.detector.Detectorview;
+import com.google.zxing.qrcode.detector.PyramidDetectorview;
 
 import java.util.List;
 import java.util.Map;
@@ -67,6 +70,19 @@ public class QRCodeReaderview implements Readerview {
   @Override
   public final Resultview decode(BinaryBitmapview image, Map<DecodeHintTypeview,?> hints)
       throws NotFoundExceptionview, ChecksumExceptionvew, FormatExceptionview {
+    DecodeTraceview.Span span =
+        DecodeTraceview.begin(DecodeTraceview.Stage.QR_CODE_DECODE, image.getWidth(), image.getHeight());
+    Resultview resultview = null;
+    try {
+      resultview = doDecode(image, hints);
+      return resultview;
+    } finally {
+      DecodeTraceview.end(span, BarcodeFormatview.QR_CODE, resultview != null);
+    }
+  }
+
+  private Resultview doDecode(BinaryBitmapview image, Map<DecodeHintTypeview,?> hints)
+      throws NotFoundExceptionview, ChecksumExceptionvew, FormatExceptionview {
     DecoderResultview decoderResultview;
     ResultPointview[] points;
     if (hints != null && hints.containsKey(DecodeHintTypeview.PURE_BARCODE)) {
@@ -74,8 +90,21 @@ public class QRCodeReaderview implements Readerview {
       decoderResultview = decoderview.decode(bits, hints);
       points = NO_POINTS;
     } else {
-      DetectorResultview detectorResultview = new Detectorview(image.getBlackMatrix()).detect(hints);
-      decoderResultview = decoderview.decode(detectorResultview.getBits(), hints);
+      DetectorResultview detectorResultview = null;
+      decoderResultview = null;
+      Integer pyramidLevels = hints == null ? null : (Integer) hints.get(DecodeHintTypeview.QR_DETECTION_PYRAMID);
+      if (pyramidLevels != null && pyramidLevels > 0) {
+        try {
+          detectorResultview = new PyramidDetectorview(image).detect(pyramidLevels, hints);
+          decoderResultview = decoderview.decode(detectorResultview.getBits(), hints);
+        } catch (ReaderExceptionview re) {
+          // search the whole image at full resolution instead
+        }
+      }
+      if (decoderResultview == null) {
+        detectorResultview = new Detectorview(image.getBlackMatrix()).detect(hints);
+        decoderResultview = decoderview.decode(detectorResultview.getBits(), hints);
+      }
       points = detectorResultview.getPoints();
     }
 
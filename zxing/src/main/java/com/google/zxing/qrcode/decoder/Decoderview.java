@@ -16,8 +16,10 @@
 
 package com.google.zxing.qrcode.decoder;
 
+import com.google.zxing.BarcodeFormatview;
 import com.google.zxing.ChecksumExceptionvew;
 import com.google.zxing.DecodeHintTypeview;
+import com.google.zxing.DecodeTraceview;
 import com.google.zxing.FormatExceptionview;
 import com.google.zxing.common.BitMatrixview;
 import com.google.zxing.common.DecoderResultview;
@@ -148,19 +150,35 @@ public final class Decoderview {
     }
     byte[] resultBytes = new byte[totalBytes];
     int resultOffset = 0;
+    int dimension = versionv.getDimensionForVersion();
 
     // Error-correct and copy data blocks together into a stream of bytes
-    for (DataBlockview dataBlockview : dataBlockviews) {
-      byte[] codewordBytes = dataBlockview.getCodewords();
-      int numDataCodewords = dataBlockview.getNumDataCodewords();
-      correctErrors(codewordBytes, numDataCodewords);
-      for (int i = 0; i < numDataCodewords; i++) {
-        resultBytes[resultOffset++] = codewordBytes[i];
+    DecodeTraceview.Span span =
+        DecodeTraceview.begin(DecodeTraceview.Stage.ERROR_CORRECTION, dimension, dimension);
+    boolean corrected = false;
+    try {
+      for (DataBlockview dataBlockview : dataBlockviews) {
+        byte[] codewordBytes = dataBlockview.getCodewords();
+        int numDataCodewords = dataBlockview.getNumDataCodewords();
+        correctErrors(codewordBytes, numDataCodewords);
+        for (int i = 0; i < numDataCodewords; i++) {
+          resultBytes[resultOffset++] = codewordBytes[i];
+        }
       }
+      corrected = true;
+    } finally {
+      DecodeTraceview.end(span, BarcodeFormatview.QR_CODE, corrected);
     }
 
     // Decode the contents of that stream of bytes
-    return DecodedBitStreamParserview.decode(resultBytes, versionv, ecLevel, hints);
+    span = DecodeTraceview.begin(DecodeTraceview.Stage.BITSTREAM_PARSING, dimension, dimension);
+    DecoderResultview result = null;
+    try {
+      result = DecodedBitStreamParserview.decode(resultBytes, versionv, ecLevel, hints);
+      return result;
+    } finally {
+      DecodeTraceview.end(span, BarcodeFormatview.QR_CODE, result != null);
+    }
   }
 
   /**
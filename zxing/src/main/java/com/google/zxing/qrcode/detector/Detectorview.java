@@ -16,7 +16,9 @@
 
 package com.google.zxing.qrcode.detector;
 
+import com.google.zxing.BarcodeFormatview;
 import com.google.zxing.DecodeHintTypeview;
+import com.google.zxing.DecodeTraceview;
 import com.google.zxing.FormatExceptionview;
 import com.google.zxing.NotFoundExceptionview;
 import com.google.zxing.ResultPointview;
@@ -85,6 +87,19 @@ public class Detectorview {
 
   protected final DetectorResultview processFinderPatternInfo(FinderPatternInfoview info)
       throws NotFoundExceptionview, FormatExceptionview {
+    DecodeTraceview.Span span =
+        DecodeTraceview.begin(DecodeTraceview.Stage.GRID_SAMPLING, image.getWidth(), image.getHeight());
+    DetectorResultview result = null;
+    try {
+      result = sampleSymbol(info);
+      return result;
+    } finally {
+      DecodeTraceview.end(span, BarcodeFormatview.QR_CODE, result != null);
+    }
+  }
+
+  private DetectorResultview sampleSymbol(FinderPatternInfoview info)
+      throws NotFoundExceptionview, FormatExceptionview {
 
     FinderPatternview topLeft = info.getTopLeft();
     FinderPatternview topRight = info.getTopRight();
@@ -16,10 +16,13 @@
 
 package com.google.zxing.qrcode.detector;
 
+import com.google.zxing.BarcodeFormatview;
 import com.google.zxing.DecodeHintTypeview;
+import com.google.zxing.DecodeTraceview;
 import com.google.zxing.NotFoundExceptionview;
 import com.google.zxing.ResultPointCallbackview;
 import com.google.zxing.ResultPointview;
+import com.google.zxing.common.BitArrayview;
 import com.google.zxing.common.BitMatrixview;
 
 import java.io.Serializable;
@@ -28,6 +31,8 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 /**
  * <p>This class attempts to find finder patterns in a QR Code. Finder patterns are the square
@@ -40,6 +45,8 @@ import java.util.Map;
 public class FinderPatternFinderview {
 
   private static final int CENTER_QUORUM = 2;
+  // Images at least twice this tall are searched in bands when there is an executor to use
+  private static final int MIN_BAND_HEIGHT = 256;
   protected static final int MIN_SKIP = 3; // 1 pixel/module times 3 modules/center
   protected static final int MAX_MODULES = 57; // support up to version 10 for mobile clients
 
@@ -74,12 +81,21 @@ public class FinderPatternFinderview {
   }
 
   final FinderPatternInfoview find(Map<DecodeHintTypeview,?> hints) throws NotFoundExceptionview {
+    DecodeTraceview.Span span =
+        DecodeTraceview.begin(DecodeTraceview.Stage.FINDER_SEARCH, image.getWidth(), image.getHeight());
+    FinderPatternInfoview info = null;
+    try {
+      info = doFind(hints);
+      return info;
+    } finally {
+      DecodeTraceview.end(span, BarcodeFormatview.QR_CODE, info != null);
+    }
+  }
+
+  private FinderPatternInfoview doFind(Map<DecodeHintTypeview,?> hints) throws NotFoundExceptionview {
     boolean tryHarder = hints != null && hints.containsKey(DecodeHintTypeview.TRY_HARDER);
     boolean pureBarcode = hints != null && hints.containsKey(DecodeHintTypeview.PURE_BARCODE);
     int maxI = image.getHeight();
-    int maxJ = image.getWidth();
-    // We are looking for black/white/black/white/black modules in
-    // 1:1:3:1:1 ratio; this tracks the number of such modules seen so far
 
     // Let's assume that the maximum version QR Code we support takes up 1/4 the height of the
     // image, and then account for the center being 3 modules in size. This gives the smallest
@@ -90,82 +106,65 @@ public class FinderPatternFinderview {
       iSkip = MIN_SKIP;
     }
 
+    ExecutorService executor = hints == null ? null :
+        (ExecutorService) hints.get(DecodeHintTypeview.ROW_SCAN_EXECUTOR);
+    int bands = Math.min(maxI / MIN_BAND_HEIGHT, 4 * Runtime.getRuntime().availableProcessors());
+    if (executor != null && bands > 1) {
+      findInBands(executor, bands, iSkip, pureBarcode);
+    } else {
+      findInRows(iSkip, pureBarcode);
+    }
+
+    FinderPatternview[] patternInfo = selectBestPatterns();
+    ResultPointview.orderBestPatterns(patternInfo);
+
+    return new FinderPatternInfoview(patternInfo);
+  }
+
+  /**
+   * Scans the whole image from the top, iSkip rows apart until a pattern is confirmed and every
+   * other row after that, skipping ahead where the centers found so far allow and stopping once
+   * three have been confirmed.
+   */
+  private void findInRows(int iSkip, boolean pureBarcode) throws NotFoundExceptionview {
+    int maxI = image.getHeight();
+    int maxJ = image.getWidth();
     boolean done = false;
     int[] stateCount = new int[5];
+    BitArrayview row = null;
     for (int i = iSkip - 1; i < maxI && !done; i += iSkip) {
+      // Give up early if a parallel decode has already found the barcode elsewhere.
+      if (Thread.currentThread().isInterrupted()) {
+        throw NotFoundExceptionview.getNotFoundInstance();
+      }
       // Get a row of black/white values
-      stateCount[0] = 0;
-      stateCount[1] = 0;
-      stateCount[2] = 0;
-      stateCount[3] = 0;
-      stateCount[4] = 0;
-      int currentState = 0;
-      for (int j = 0; j < maxJ; j++) {
-        if (image.get(j, i)) {
-          // Black pixel
-          if ((currentState & 1) == 1) { // Counting white pixels
-            currentState++;
-          }
-          stateCount[currentState]++;
-        } else { // White pixel
-          if ((currentState & 1) == 0) { // Counting black pixels
-            if (currentState == 4) { // A winner?
-              if (foundPatternCross(stateCount)) { // Yes
-                boolean confirmed = handlePossibleCenter(stateCount, i, j, pureBarcode);
-                if (confirmed) {
-                  // Start examining every other line. Checking each line turned out to be too
-                  // expensive and didn't improve performance.
-                  iSkip = 2;
-                  if (hasSkipped) {
-                    done = haveMultiplyConfirmedCenters();
-                  } else {
-                    int rowSkip = findRowSkip();
-                    if (rowSkip > stateCount[2]) {
-                      // Skip rows between row of lower confirmed center
-                      // and top of presumed third confirmed center
-                      // but back up a bit to get a full chance of detecting
-                      // it, entire width of center of finder pattern
-
-                      // Skip by rowSkip, but back off by stateCount[2] (size of last center
-                      // of pattern we saw) to be conservative, and also back off by iSkip which
-                      // is about to be re-added
-                      i += rowSkip - stateCount[2] - iSkip;
-                      j = maxJ - 1;
-                    }
-                  }
-                } else {
-                  stateCount[0] = stateCount[2];
-                  stateCount[1] = stateCount[3];
-                  stateCount[2] = stateCount[4];
-                  stateCount[3] = 1;
-                  stateCount[4] = 0;
-                  currentState = 3;
-                  continue;
-                }
-                // Clear state to start looking again
-                currentState = 0;
-                stateCount[0] = 0;
-                stateCount[1] = 0;
-                stateCount[2] = 0;
-                stateCount[3] = 0;
-                stateCount[4] = 0;
-              } else { // No, shift counts back by two
-                stateCount[0] = stateCount[2];
-                stateCount[1] = stateCount[3];
-                stateCount[2] = stateCount[4];
-                stateCount[3] = 1;
-                stateCount[4] = 0;
-                currentState = 3;
-              }
-            } else {
-              stateCount[++currentState]++;
-            }
-          } else { // Counting white pixels
-            stateCount[currentState]++;
+      row = image.getRow(i, row);
+      int j = findCenterInRow(row, i, 0, stateCount, pureBarcode);
+      while (j < maxJ) {
+        // Start examining every other line. Checking each line turned out to be too
+        // expensive and didn't improve performance.
+        iSkip = 2;
+        if (hasSkipped) {
+          done = haveMultiplyConfirmedCenters();
+        } else {
+          int rowSkip = findRowSkip();
+          if (rowSkip > stateCount[2]) {
+            // Skip rows between row of lower confirmed center
+            // and top of presumed third confirmed center
+            // but back up a bit to get a full chance of detecting
+            // it, entire width of center of finder pattern
+
+            // Skip by rowSkip, but back off by stateCount[2] (size of last center
+            // of pattern we saw) to be conservative, and also back off by iSkip which
+            // is about to be re-added
+            i += rowSkip - stateCount[2] - iSkip;
+            break;
           }
         }
+        // Look for another one after the pixel that ended this one
+        j = findCenterInRow(row, i, j + 1, stateCount, pureBarcode);
       }
-      if (foundPatternCross(stateCount)) {
+      if (j == maxJ && foundPatternCross(stateCount)) {
         boolean confirmed = handlePossibleCenter(stateCount, i, maxJ, pureBarcode);
         if (confirmed) {
           iSkip = stateCount[0];
@@ -176,11 +175,139 @@ public class FinderPatternFinderview {
         }
       }
     }
+  }
 
-    FinderPatternview[] patternInfo = selectBestPatterns();
-    ResultPointview.orderBestPatterns(patternInfo);
+  /**
+   * <p>Splits the image into horizontal bands and scans them on this thread and on tasks on the
+   * executor at the same time, each band with a finder of its own. A band is scanned like the
+   * whole image in {@link #findInRows(int, boolean)}, but without skipping ahead or stopping
+   * early, since neither can be decided from one band alone.</p>
+   *
+   * <p>Each band also scans a margin of the bands above and below it, so that a finder pattern
+   * straddling two bands is seen in full by at least one of them. A band only scans every row
+   * once it has confirmed a center, so a pattern just past its edge may be found by it and missed
+   * by the band it is in; every band therefore keeps all the centers it found. The centers of all
+   * bands are merged into the possible centers in the order of the bands, so the outcome does not
+   * depend on which thread finished first, and a pattern seen by two bands becomes one center.</p>
+   */
+  private void findInBands(ExecutorService executor, int bands, int iSkip, boolean pureBarcode)
+      throws NotFoundExceptionview {
+    BandSearch search = new BandSearch(image, bands, iSkip, pureBarcode);
+    int helpers = Math.min(bands - 1, Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+    List<Future<?>> futures = new ArrayList<>(helpers);
+    List<List<FinderPatternview>> found;
+    try {
+      for (int i = 0; i < helpers; i++) {
+        futures.add(executor.submit(new BandSearchTask(search)));
+      }
+      // This thread scans bands too, so the search finishes even if no helper ever gets to run.
+      search.run();
+      found = search.awaitBands();
+    } finally {
+      for (Future<?> future : futures) {
+        future.cancel(true);
+      }
+    }
 
-    return new FinderPatternInfoview(patternInfo);
+    // Every center has already been cross-checked in the whole image by the band that found it.
+    for (List<FinderPatternview> bandCenters : found) {
+      for (FinderPatternview center : bandCenters) {
+        addCenter(center);
+      }
+    }
+  }
+
+  /**
+   * Scans the rows of one band, as described in
+   * {@link #findInBands(ExecutorService, int, int, boolean)}.
+   *
+   * @param top first row of the band
+   * @param bottom row just below the band
+   * @param margin how many rows of the bands above and below to scan as well
+   * @return the centers found in the band and its margins
+   */
+  private List<FinderPatternview> findInBand(int top, int bottom, int margin, int iSkip, boolean pureBarcode)
+      throws NotFoundExceptionview {
+    int maxJ = image.getWidth();
+    int end = Math.min(image.getHeight(), bottom + margin);
+    // Start on a row the scan of the whole image would look at
+    int from = Math.max(0, top - margin - (iSkip - 1));
+    int[] stateCount = new int[5];
+    BitArrayview row = null;
+    for (int i = iSkip - 1 + (from + iSkip - 1) / iSkip * iSkip; i < end; i += iSkip) {
+      if (Thread.currentThread().isInterrupted()) {
+        throw NotFoundExceptionview.getNotFoundInstance();
+      }
+      row = image.getRow(i, row);
+      int j = findCenterInRow(row, i, 0, stateCount, pureBarcode);
+      while (j < maxJ) {
+        iSkip = 2;
+        j = findCenterInRow(row, i, j + 1, stateCount, pureBarcode);
+      }
+      if (foundPatternCross(stateCount) && handlePossibleCenter(stateCount, i, maxJ, pureBarcode)) {
+        iSkip = 2;
+      }
+    }
+    return possibleCenters;
+  }
+
+  /**
+   * Runs the black/white/black/white/black state machine along a row until a finder pattern is
+   * confirmed, a run of same-colored pixels at a time rather than pixel by pixel. Only the first
+   * pixel of a run can change the state; the rest of it is just counted.
+   *
+   * @param row the row
+   * @param i index of the row in the image
+   * @param start pixel to start from, with nothing seen yet
+   * @param stateCount receives the counts of the pattern confirmed, or of what was seen by the end
+   *  of the row if none was
+   * @param pureBarcode true if in "pure barcode" mode
+   * @return the white pixel just after a confirmed pattern, or the width of the row if no pattern
+   *  was confirmed before its end
+   */
+  private int findCenterInRow(BitArrayview row, int i, int start, int[] stateCount, boolean pureBarcode) {
+    int maxJ = image.getWidth();
+    stateCount[0] = 0;
+    stateCount[1] = 0;
+    stateCount[2] = 0;
+    stateCount[3] = 0;
+    stateCount[4] = 0;
+    // We are looking for black/white/black/white/black modules in
+    // 1:1:3:1:1 ratio; this tracks the number of such modules seen so far
+    int currentState = 0;
+    int j = start;
+    while (j < maxJ) {
+      boolean black = row.get(j);
+      int runEnd = black ? row.getNextUnset(j) : row.getNextSet(j);
+      int runLength = runEnd - j;
+      if (black) {
+        if ((currentState & 1) == 1) { // Counting white pixels
+          currentState++;
+        }
+        stateCount[currentState] += runLength;
+      } else { // White pixels
+        if ((currentState & 1) == 0) { // Counting black pixels
+          if (currentState == 4) { // A winner?
+            if (foundPatternCross(stateCount) && handlePossibleCenter(stateCount, i, j, pureBarcode)) { // Yes
+              return j;
+            }
+            // No, shift counts back by two
+            stateCount[0] = stateCount[2];
+            stateCount[1] = stateCount[3];
+            stateCount[2] = stateCount[4];
+            stateCount[3] = runLength;
+            stateCount[4] = 0;
+            currentState = 3;
+          } else {
+            stateCount[++currentState] += runLength;
+          }
+        } else { // Counting white pixels
+          stateCount[currentState] += runLength;
+        }
+      }
+      j = runEnd;
+    }
+    return maxJ;
   }
 
   /**
@@ -518,6 +645,56 @@ public class FinderPatternFinderview {
     return false;
   }
 
+  /**
+   * Cross-checks an estimated finder pattern center, vertically and then horizontally, as
+   * {@link #handlePossibleCenter(int[], int, int, boolean)} does after a row scan. This confirms
+   * a center found in one band, or locates one found in a downsampled copy of the image.
+   *
+   * @param estimate where the center is thought to be, and its estimated module size
+   * @param pureBarcode true if in "pure barcode" mode
+   * @return the center and module size measured by the cross checks, or null if there is no finder
+   *  pattern there
+   */
+  final FinderPatternview crossCheckCenter(FinderPatternview estimate, boolean pureBarcode) {
+    float moduleSize = estimate.getEstimatedModuleSize();
+    int stateCountTotal = Math.round(7.0f * moduleSize);
+    int maxCount = Math.round(3.0f * moduleSize);
+    float centerI = crossCheckVertical((int) estimate.getY(), (int) estimate.getX(), maxCount, stateCountTotal);
+    if (Float.isNaN(centerI)) {
+      return null;
+    }
+    // Go on with what the vertical check measured rather than the estimate
+    stateCountTotal = crossCheckStateCount[0] + crossCheckStateCount[1] + crossCheckStateCount[2] +
+        crossCheckStateCount[3] + crossCheckStateCount[4];
+    maxCount = crossCheckStateCount[2];
+    float centerJ = crossCheckHorizontal((int) estimate.getX(), (int) centerI, maxCount, stateCountTotal);
+    if (Float.isNaN(centerJ)) {
+      return null;
+    }
+    if (pureBarcode && !crossCheckDiagonal((int) centerI, (int) centerJ, maxCount, stateCountTotal)) {
+      return null;
+    }
+    return new FinderPatternview(centerJ, centerI, stateCountTotal / 7.0f);
+  }
+
+  /**
+   * Adds a center found in one band to the possible centers, combining it with one already there
+   * at about the same place.
+   */
+  private void addCenter(FinderPatternview point) {
+    for (int index = 0; index < possibleCenters.size(); index++) {
+      FinderPatternview center = possibleCenters.get(index);
+      if (center.aboutEquals(point.getEstimatedModuleSize(), point.getY(), point.getX())) {
+        possibleCenters.set(index, center.combineEstimate(point));
+        return;
+      }
+    }
+    possibleCenters.add(point);
+    if (resultPointCallback != null) {
+      resultPointCallback.foundPossibleResultPoint(point);
+    }
+  }
+
   /**
    * @return number of rows we could safely skip during scanning, based on the first
    *         two finder patterns that have been located. In some cases their position will
@@ -677,4 +854,116 @@ public class FinderPatternFinderview {
     }
   }
 
+  /**
+   * The bands of one {@link #findInBands(ExecutorService, int, int, boolean)} search, handed out
+   * to threads one at a time.
+   */
+  private static final class BandSearch {
+
+    private final BitMatrixview image;
+    private final int bandHeight;
+    private final int margin;
+    private final int iSkip;
+    private final boolean pureBarcode;
+    private final int bands;
+    private final List<List<FinderPatternview>> found;
+
+    // All guarded by this.
+    private int nextBand;
+    private int finishedBands;
+    private boolean abandoned;
+
+    BandSearch(BitMatrixview image, int bands, int iSkip, boolean pureBarcode) {
+      this.image = image;
+      this.iSkip = iSkip;
+      this.pureBarcode = pureBarcode;
+      this.bands = bands;
+      bandHeight = (image.getHeight() + bands - 1) / bands;
+      // Enough to see the whole center of any finder pattern up to about half a band tall
+      margin = bandHeight / 8;
+      found = new ArrayList<>(Collections.<List<FinderPatternview>>nCopies(bands, null));
+    }
+
+    /**
+     * Scans bands until there are none left.
+     */
+    void run() {
+      int band;
+      while ((band = claimBand()) >= 0) {
+        List<FinderPatternview> centers = null;
+        try {
+          int top = band * bandHeight;
+          int bottom = Math.min(image.getHeight(), top + bandHeight);
+          centers = new FinderPatternFinderview(image).findInBand(top, bottom, margin, iSkip, pureBarcode);
+        } catch (NotFoundExceptionview ignored) {
+          // interrupted; the search is being given up
+        } finally {
+          finishBand(band, centers);
+        }
+      }
+    }
+
+    /**
+     * Waits for every band to be scanned.
+     *
+     * @return the centers found in each band
+     * @throws NotFoundExceptionview if a band could not be scanned, or the calling thread was
+     *  interrupted
+     */
+    synchronized List<List<FinderPatternview>> awaitBands() throws NotFoundExceptionview {
+      // Every band before nextBand has been claimed by a thread that is running, so it finishes.
+      try {
+        while (finishedBands < nextBand) {
+          wait();
+        }
+      } catch (InterruptedException ie) {
+        abandoned = true;
+        Thread.currentThread().interrupt();
+        throw NotFoundExceptionview.getNotFoundInstance();
+      }
+      if (abandoned) {
+        throw NotFoundExceptionview.getNotFoundInstance();
+      }
+      return found;
+    }
+
+    /**
+     * @return the next band to scan, or -1 if there are none left
+     */
+    private synchronized int claimBand() {
+      if (abandoned || nextBand == bands) {
+        return -1;
+      }
+      if (Thread.currentThread().isInterrupted()) {
+        abandoned = true;
+        notifyAll();
+        return -1;
+      }
+      return nextBand++;
+    }
+
+    private synchronized void finishBand(int band, List<FinderPatternview> centers) {
+      found.set(band, centers);
+      if (centers == null) {
+        abandoned = true;
+      }
+      finishedBands++;
+      notifyAll();
+    }
+  }
+
+  private static final class BandSearchTask implements Runnable {
+
+    private final BandSearch search;
+
+    BandSearchTask(BandSearch search) {
+      this.search = search;
+    }
+
+    @Override
+    public void run() {
+      search.run();
+    }
+  }
+
 }
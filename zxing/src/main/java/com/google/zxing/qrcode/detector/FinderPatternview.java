@@ -79,4 +79,17 @@ public final class FinderPatternview extends ResultPointview {
     return new FinderPatternview(combinedX, combinedY, combinedModuleSize, combinedCount);
   }
 
+  /**
+   * Like {@link #combineEstimate(float, float, float)}, but with another finder pattern that may
+   * itself combine several estimates, each weighted by its count.
+   */
+  FinderPatternview combineEstimate(FinderPatternview other) {
+    int combinedCount = count + other.count;
+    float combinedX = (count * getX() + other.count * other.getX()) / combinedCount;
+    float combinedY = (count * getY() + other.count * other.getY()) / combinedCount;
+    float combinedModuleSize =
+        (count * estimatedModuleSize + other.count * other.estimatedModuleSize) / combinedCount;
+    return new FinderPatternview(combinedX, combinedY, combinedModuleSize, combinedCount);
+  }
+
 }
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2023 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.qrcode.detector;
+
+import com.google.zxing.BinaryBitmapview;
+import com.google.zxing.DecodeHintTypeview;
+import com.google.zxing.FormatExceptionview;
+import com.google.zxing.NotFoundExceptionview;
+import com.google.zxing.ReaderExceptionview;
+import com.google.zxing.ResultPointCallbackview;
+import com.google.zxing.ResultPointview;
+import com.google.zxing.common.BitMatrixview;
+import com.google.zxing.common.DetectorResultview;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * <p>Detects a QR Code in a large image by finding its finder patterns in a downsampled copy of
+ * the image, a level of an image pyramid, which is much cheaper to binarize and scan than the
+ * image itself. Finder patterns are big enough to still be seen there.</p>
+ *
+ * <p>The patterns found are scaled back up, and only the part of the full image they enclose is
+ * binarized. There they are located again with the finder's cross checks, and the alignment
+ * pattern is found and the grid sampled at full resolution, so the result is read as accurately
+ * as by {@link Detectorview}.</p>
+ *
+ * <p>Levels are tried from the smallest, and the next larger one is only made and searched if
+ * no code was found in it.</p>
+ */
+public final class PyramidDetectorview {
+
+  // Levels smaller than this in either direction are not worth searching
+  private static final int MIN_LEVEL_DIMENSION = 64;
+  // Modules of quiet zone and more to include around the code when cropping the full image
+  private static final int CROP_MARGIN_MODULES = 8;
+
+  private final BinaryBitmapview image;
+
+  public PyramidDetectorview(BinaryBitmapview image) {
+    this.image = image;
+  }
+
+  /**
+   * <p>Detects a QR Code in the image.</p>
+   *
+   * @param levels how many times the image may be halved, the smallest level being searched first
+   * @param hints optional hints to detector
+   * @return {@link DetectorResultview} encapsulating results of detecting a QR Code, in the
+   *  coordinates of the full image
+   * @throws NotFoundExceptionview if no level has a QR Code that can be found
+   */
+  public DetectorResultview detect(int levels, Map<DecodeHintTypeview,?> hints) throws NotFoundExceptionview {
+    BinaryBitmapview[] pyramid = new BinaryBitmapview[levels + 1];
+    pyramid[0] = image;
+    int smallest = 0;
+    while (smallest < levels &&
+           Math.min(pyramid[smallest].getWidth(), pyramid[smallest].getHeight()) / 2 >= MIN_LEVEL_DIMENSION) {
+      pyramid[smallest + 1] = pyramid[smallest].downsample(2);
+      smallest++;
+    }
+
+    // Points are reported at full resolution once they have been found there.
+    ResultPointCallbackview resultPointCallback = null;
+    Map<DecodeHintTypeview,?> levelHints = hints;
+    if (hints != null && hints.containsKey(DecodeHintTypeview.NEED_RESULT_POINT_CALLBACK)) {
+      resultPointCallback = (ResultPointCallbackview) hints.get(DecodeHintTypeview.NEED_RESULT_POINT_CALLBACK);
+      Map<DecodeHintTypeview,Object> newHints = new EnumMap<>(DecodeHintTypeview.class);
+      newHints.putAll(hints);
+      newHints.remove(DecodeHintTypeview.NEED_RESULT_POINT_CALLBACK);
+      levelHints = newHints;
+    }
+    boolean pureBarcode = hints != null && hints.containsKey(DecodeHintTypeview.PURE_BARCODE);
+
+    for (int level = smallest; level > 0; level--) {
+      try {
+        FinderPatternInfoview info = new FinderPatternFinderview(pyramid[level].getBlackMatrix()).find(levelHints);
+        return detectAtFullResolution(info, 1 << level, pureBarcode, resultPointCallback);
+      } catch (ReaderExceptionview re) {
+        // try the next larger level
+      }
+    }
+    throw NotFoundExceptionview.getNotFoundInstance();
+  }
+
+  private DetectorResultview detectAtFullResolution(FinderPatternInfoview info,
+                                                    int factor,
+                                                    boolean pureBarcode,
+                                                    ResultPointCallbackview resultPointCallback)
+      throws NotFoundExceptionview, FormatExceptionview {
+    FinderPatternview[] estimates = {
+        scale(info.getBottomLeft(), factor),
+        scale(info.getTopLeft(), factor),
+        scale(info.getTopRight(), factor)
+    };
+
+    int left = 0;
+    int top = 0;
+    BitMatrixview matrix;
+    if (image.isCropSupported()) {
+      // The fourth corner is about where a finder pattern would be, and the margin covers the
+      // quiet zone beyond the outer edges of the patterns and some perspective distortion.
+      float bottomRightX = estimates[2].getX() - estimates[1].getX() + estimates[0].getX();
+      float bottomRightY = estimates[2].getY() - estimates[1].getY() + estimates[0].getY();
+      float minX = Math.min(Math.min(estimates[0].getX(), estimates[1].getX()),
+                            Math.min(estimates[2].getX(), bottomRightX));
+      float maxX = Math.max(Math.max(estimates[0].getX(), estimates[1].getX()),
+                            Math.max(estimates[2].getX(), bottomRightX));
+      float minY = Math.min(Math.min(estimates[0].getY(), estimates[1].getY()),
+                            Math.min(estimates[2].getY(), bottomRightY));
+      float maxY = Math.max(Math.max(estimates[0].getY(), estimates[1].getY()),
+                            Math.max(estimates[2].getY(), bottomRightY));
+      float moduleSize = (estimates[0].getEstimatedModuleSize() + estimates[1].getEstimatedModuleSize() +
+          estimates[2].getEstimatedModuleSize()) / 3.0f;
+      int margin = (int) Math.ceil(CROP_MARGIN_MODULES * moduleSize);
+      left = Math.max(0, (int) minX - margin);
+      top = Math.max(0, (int) minY - margin);
+      int right = Math.min(image.getWidth(), (int) maxX + margin + 1);
+      int bottom = Math.min(image.getHeight(), (int) maxY + margin + 1);
+      if (left >= right || top >= bottom) {
+        throw NotFoundExceptionview.getNotFoundInstance();
+      }
+      matrix = image.crop(left, top, right - left, bottom - top).getBlackMatrix();
+    } else {
+      matrix = image.getBlackMatrix();
+    }
+
+    FinderPatternFinderview finder = new FinderPatternFinderview(matrix);
+    FinderPatternview[] centers = new FinderPatternview[3];
+    for (int i = 0; i < 3; i++) {
+      FinderPatternview estimate = new FinderPatternview(estimates[i].getX() - left,
+                                                         estimates[i].getY() - top,
+                                                         estimates[i].getEstimatedModuleSize());
+      centers[i] = finder.crossCheckCenter(estimate, pureBarcode);
+      if (centers[i] == null) {
+        throw NotFoundExceptionview.getNotFoundInstance();
+      }
+    }
+
+    DetectorResultview result = new Detectorview(matrix).processFinderPatternInfo(new FinderPatternInfoview(centers));
+    ResultPointview[] points = result.getPoints();
+    for (int i = 0; i < points.length; i++) {
+      points[i] = new ResultPointview(points[i].getX() + left, points[i].getY() + top);
+      if (resultPointCallback != null) {
+        resultPointCallback.foundPossibleResultPoint(points[i]);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Maps a finder pattern from a level of the pyramid to the full image. Pixel x of the level
+   * covers pixels factor * x to factor * (x + 1) of the image, so coordinates, which the finder
+   * measures from pixel edges, just multiply.
+   */
+  private static FinderPatternview scale(FinderPatternview pattern, int factor) {
+    return new FinderPatternview(pattern.getX() * factor,
+                                 pattern.getY() * factor,
+                                 pattern.getEstimatedModuleSize() * factor);
+  }
+
+}
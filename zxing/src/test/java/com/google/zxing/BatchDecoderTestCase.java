@@ -0,0 +1,320 @@
+/*
+ * Copyright 2023 ZXing authors
+ *
+ * Licensed under the Apache License, Versionv 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.zxing;
+
+import com.google.zxing.common.BitMatrixview;
+import com.google.zxing.qrcode.QRCodeWriterview;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Tests {@link BatchDecoderview}.
+ */
+public final class BatchDecoderTestCase extends Assert {
+
+  private static final Pattern FIRST_POINT = Pattern.compile("\"points\":\\[\\[([0-9.]+),([0-9.]+)\\]");
+
+  @Test
+  public void testWindowsBoundLargestMatrix() throws Exception {
+    BitMatrixview code = new QRCodeWriterview().encode("windowed", BarcodeFormatview.QR_CODE, 300, 300);
+    // Far from the top left window, and across the edges of tiles
+    final Page page = new Page(3000, 2000, code, 2450, 1530);
+
+    final AtomicInteger largestMatrix = new AtomicInteger();
+    BatchDecoderview.ImageLoader loader = new BatchDecoderview.ImageLoader() {
+      @Override
+      public LuminanceSourceview load(File file) {
+        return new RecordingSource(new TiledLuminanceSourceview(page), largestMatrix);
+      }
+    };
+
+    StringBuilder out = new StringBuilder();
+    assertEquals(1, new BatchDecoderview(loader, null, 1, 1024)
+        .decode(Collections.singletonList(new File("page.png")).iterator(), out));
+    assertTrue(out.toString(), out.toString().contains("\"text\":\"windowed\""));
+    assertTrue(largestMatrix.get() <= 1024 * 1024);
+    // Points are in the coordinates of the page, not of the window
+    Matcher matcher = FIRST_POINT.matcher(out);
+    assertTrue(out.toString(), matcher.find());
+    assertTrue(Float.parseFloat(matcher.group(1)) > 2450);
+    assertTrue(Float.parseFloat(matcher.group(2)) > 1530);
+
+    // Whole, the page is binarized all at once
+    out.setLength(0);
+    assertEquals(1, new BatchDecoderview(loader, null, 1)
+        .decode(Collections.singletonList(new File("page.png")).iterator(), out));
+    assertEquals(3000 * 2000, largestMatrix.get());
+  }
+
+  @Test
+  public void testJsonIsEscaped() throws Exception {
+    BitMatrixview code =
+        new QRCodeWriterview().encode("say \"hi\"\\\n\tthere", BarcodeFormatview.QR_CODE, 200, 200);
+    final Page page = new Page(240, 240, code, 20, 20);
+    BatchDecoderview.ImageLoader loader = new BatchDecoderview.ImageLoader() {
+      @Override
+      public LuminanceSourceview load(File file) throws IOException {
+        if (file.getName().contains("code")) {
+          return new TiledLuminanceSourceview(page);
+        }
+        if (file.getName().startsWith("blank")) {
+          return new TiledLuminanceSourceview(new Page(100, 100, new BitMatrixview(1), 200, 200));
+        }
+        throw new IOException("no \"" + file.getName() + "\"\r\u0001");
+      }
+    };
+    StringBuilder out = new StringBuilder();
+    assertEquals(1, new BatchDecoderview(loader, null, 1).decode(Arrays.asList(
+        new File("dir\\code \"1\".png"),
+        new File("blank.png"),
+        new File("bad\n.png")).iterator(), out));
+
+    String[] lines = out.toString().replaceAll(",\"loadMs\":[0-9]+,\"decodeMs\":[0-9]+", "").split("\n");
+    assertEquals(3, lines.length);
+    Arrays.sort(lines);
+    assertEquals("{\"file\":\"bad\\n.png\",\"error\":" +
+                 "\"Could not load image: java.io.IOException: no \\\"bad\\n.png\\\"\\r\\u0001\"}", lines[0]);
+    assertEquals("{\"file\":\"blank.png\",\"error\":\"No barcode found\"}", lines[1]);
+    assertTrue(lines[2], lines[2].startsWith(
+        "{\"file\":\"dir\\\\code \\\"1\\\".png\",\"text\":\"say \\\"hi\\\"\\\\\\n\\tthere\"," +
+        "\"format\":\"QR_CODE\",\"points\":[["));
+  }
+
+  @Test
+  public void testErrorsStayWithTheirFile() throws Exception {
+    BatchDecoderview.ImageLoader loader = new BatchDecoderview.ImageLoader() {
+      @Override
+      public LuminanceSourceview load(File file) {
+        if (file.getName().startsWith("huge")) {
+          throw new OutOfMemoryError("Java heap space");
+        }
+        if (file.getName().startsWith("deep")) {
+          return new FailingSource(60, 60, new StackOverflowError());
+        }
+        return new TiledLuminanceSourceview(new Page(60, 60, new BitMatrixview(1), 100, 100));
+      }
+    };
+    StringBuilder out = new StringBuilder();
+    assertEquals(0, new BatchDecoderview(loader, null, 2).decode(Arrays.asList(
+        new File("huge.png"),
+        new File("deep.png"),
+        new File("blank.png")).iterator(), out));
+
+    String[] lines = out.toString().replaceAll(",\"loadMs\":[0-9]+,\"decodeMs\":[0-9]+", "").split("\n");
+    assertEquals(3, lines.length);
+    Arrays.sort(lines);
+    assertEquals("{\"file\":\"blank.png\",\"error\":\"No barcode found\"}", lines[0]);
+    assertEquals("{\"file\":\"deep.png\",\"error\":\"Decoding failed: java.lang.StackOverflowError\"}",
+                 lines[1]);
+    assertEquals("{\"file\":\"huge.png\",\"error\":" +
+                 "\"Could not load image: java.lang.OutOfMemoryError: Java heap space\"}", lines[2]);
+  }
+
+  @Test
+  public void testPointsAreValidJson() {
+    StringBuilder json = new StringBuilder();
+    BatchDecoderview.appendPoints(json, new ResultPointview[] {
+        new ResultPointview(1.5f, 2.0f),
+        null,
+        new ResultPointview(Float.NaN, 3.0f),
+        new ResultPointview(4.0f, Float.POSITIVE_INFINITY),
+        new ResultPointview(5.0f, 6.25f),
+    });
+    assertEquals("[[1.5,2.0],[5.0,6.25]]", json.toString());
+
+    json.setLength(0);
+    BatchDecoderview.appendPoints(json, null);
+    assertEquals("[]", json.toString());
+  }
+
+  @Test
+  public void testFilesInFlightAreBounded() throws Exception {
+    final int threads = 2;
+    final int files = 50;
+    final StringBuilder out = new StringBuilder();
+    final int[] maxInFlight = new int[1];
+    Iterator<File> iterator = new Iterator<File>() {
+      private int taken;
+
+      @Override
+      public boolean hasNext() {
+        return taken < files;
+      }
+
+      @Override
+      public File next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        taken++;
+        // Taken from the calling thread, which is also the only one writing lines
+        maxInFlight[0] = Math.max(maxInFlight[0], taken - lineCount(out));
+        return new File("blank" + taken + ".png");
+      }
+
+      @Override
+      public void remove() {
+        throw new UnsupportedOperationException();
+      }
+    };
+    BatchDecoderview.ImageLoader loader = new BatchDecoderview.ImageLoader() {
+      @Override
+      public LuminanceSourceview load(File file) {
+        return new TiledLuminanceSourceview(new Page(50, 50, new BitMatrixview(1), 100, 100));
+      }
+    };
+    assertEquals(0, new BatchDecoderview(loader, null, threads).decode(iterator, out));
+    assertEquals(files, lineCount(out));
+    assertEquals(2 * threads, maxInFlight[0]);
+  }
+
+  @Test
+  public void testWindowStarts() {
+    assertArrayEquals(new int[] {0}, BatchDecoderview.windowStarts(1000, 1024));
+    assertArrayEquals(new int[] {0}, BatchDecoderview.windowStarts(1024, 1024));
+    assertArrayEquals(new int[] {0, 1}, BatchDecoderview.windowStarts(1025, 1024));
+    assertArrayEquals(new int[] {0, 512, 976}, BatchDecoderview.windowStarts(2000, 1024));
+    assertArrayEquals(new int[] {0, 512, 1024}, BatchDecoderview.windowStarts(2048, 1024));
+  }
+
+  private static int lineCount(CharSequence out) {
+    int count = 0;
+    for (int i = 0; i < out.length(); i++) {
+      if (out.charAt(i) == '\n') {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * A white page with a code on it, read in tiles.
+   */
+  private static final class Page implements TiledLuminanceSourceview.TileReader {
+
+    private final int width;
+    private final int height;
+    private final BitMatrixview code;
+    private final int codeLeft;
+    private final int codeTop;
+
+    Page(int width, int height, BitMatrixview code, int codeLeft, int codeTop) {
+      this.width = width;
+      this.height = height;
+      this.code = code;
+      this.codeLeft = codeLeft;
+      this.codeTop = codeTop;
+    }
+
+    @Override
+    public int getWidth() {
+      return width;
+    }
+
+    @Override
+    public int getHeight() {
+      return height;
+    }
+
+    @Override
+    public void readTile(int left, int top, int width, int height, byte[] luminances) {
+      for (int y = 0; y < height; y++) {
+        for (int x = 0; x < width; x++) {
+          int codeX = left + x - codeLeft;
+          int codeY = top + y - codeTop;
+          boolean dark = codeX >= 0 && codeY >= 0 && codeX < code.getWidth() && codeY < code.getHeight() &&
+              code.get(codeX, codeY);
+          luminances[y * width + x] = (byte) (dark ? 30 : 220);
+        }
+      }
+    }
+  }
+
+  /**
+   * Throws the given error when read.
+   */
+  private static final class FailingSource extends LuminanceSourceview {
+
+    private final Error error;
+
+    FailingSource(int width, int height, Error error) {
+      super(width, height);
+      this.error = error;
+    }
+
+    @Override
+    public byte[] getRow(int y, byte[] row) {
+      throw error;
+    }
+
+    @Override
+    public byte[] getMatrix() {
+      throw error;
+    }
+  }
+
+  /**
+   * Passes everything to another source, noting the largest matrix asked of it or its crops.
+   */
+  private static final class RecordingSource extends LuminanceSourceview {
+
+    private final LuminanceSourceview delegate;
+    private final AtomicInteger largestMatrix;
+
+    RecordingSource(LuminanceSourceview delegate, AtomicInteger largestMatrix) {
+      super(delegate.getWidth(), delegate.getHeight());
+      this.delegate = delegate;
+      this.largestMatrix = largestMatrix;
+    }
+
+    @Override
+    public byte[] getRow(int y, byte[] row) {
+      return delegate.getRow(y, row);
+    }
+
+    @Override
+    public byte[] getMatrix() {
+      byte[] matrix = delegate.getMatrix();
+      int largest;
+      do {
+        largest = largestMatrix.get();
+      } while (matrix.length > largest && !largestMatrix.compareAndSet(largest, matrix.length));
+      return matrix;
+    }
+
+    @Override
+    public boolean isCropSupported() {
+      return true;
+    }
+
+    @Override
+    public LuminanceSourceview crop(int left, int top, int width, int height) {
+      return new RecordingSource(delegate.crop(left, top, width, height), largestMatrix);
+    }
+  }
+
+}
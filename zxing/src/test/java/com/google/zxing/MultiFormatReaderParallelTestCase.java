@@ -0,0 +1,203 @@
+/*
+ * Copyright 2023 ZXing authors
+ *
+ * Licensed under the Apache License, Versionv 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.zxing;
+
+import com.google.zxing.common.BitArrayview;
+import com.google.zxing.common.BitMatrixview;
+import com.google.zxing.common.GlobalHistogramBinarizerView;
+import com.google.zxing.common.HybridBinarizerView;
+import com.google.zxing.oned.Code128Writerview;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests {@link MultiFormatReaderview#decodeWithBinarizers(BinarizerView...)} with an executor.
+ */
+public final class MultiFormatReaderParallelTestCase extends Assert {
+
+  private static final String TEXT = "Parallel-1234";
+
+  private static ExecutorService executor;
+
+  @BeforeClass
+  public static void startExecutor() {
+    executor = Executors.newFixedThreadPool(4);
+  }
+
+  @AfterClass
+  public static void stopExecutor() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testSameResultAsSequential() throws NotFoundExceptionview {
+    LuminanceSourceview source = code128(TEXT);
+    Resultview sequential = reader(null).decodeWithBinarizers(
+        new HybridBinarizerView(source), new GlobalHistogramBinarizerView(source));
+    Resultview parallel = reader(executor).decodeWithBinarizers(
+        new HybridBinarizerView(source), new GlobalHistogramBinarizerView(source));
+    assertEquals(TEXT, sequential.getText());
+    assertEquals(sequential.getText(), parallel.getText());
+    assertEquals(sequential.getBarcodeFormat(), parallel.getBarcodeFormat());
+  }
+
+  @Test
+  public void testBinarizedOncePerBinarizer() {
+    // No barcode, so every reader of every binarizer runs to the end
+    LuminanceSourceview source = blank(300, 200);
+    AtomicInteger matrices = new AtomicInteger();
+    AtomicInteger copies = new AtomicInteger();
+    try {
+      reader(executor).decodeWithBinarizers(new CountingBinarizer(source, matrices, copies),
+                                             new CountingBinarizer(source, matrices, copies));
+      fail("Found a barcode in a blank image");
+    } catch (NotFoundExceptionview nfe) {
+      // continue
+    }
+    assertEquals(2, matrices.get());
+    assertEquals(0, copies.get());
+  }
+
+  @Test
+  public void testFirstResultWinsAndOthersAreCancelled() throws Exception {
+    LuminanceSourceview source = code128(TEXT);
+    BlockingBinarizer blocking = new BlockingBinarizer(source);
+    Resultview result = reader(executor).decodeWithBinarizers(blocking, new HybridBinarizerView(source));
+    assertEquals(TEXT, result.getText());
+    // The 1D and QR tasks of the blocking binarizer are both interrupted
+    assertTrue(blocking.interrupted.await(5, TimeUnit.SECONDS));
+  }
+
+  private static MultiFormatReaderview reader(ExecutorService executor) {
+    MultiFormatReaderview reader = new MultiFormatReaderview();
+    reader.setHints(null);
+    reader.setExecutor(executor);
+    return reader;
+  }
+
+  private static LuminanceSourceview code128(String text) {
+    boolean[] modules = new Code128Writerview().encode(text);
+    int scale = 3;
+    int quiet = 20;
+    int width = (modules.length + 2 * quiet) * scale;
+    int height = 120;
+    byte[] luminances = new byte[width * height];
+    for (int x = 0; x < width; x++) {
+      int module = x / scale - quiet;
+      byte luminance = module >= 0 && module < modules.length && modules[module] ? (byte) 20 : (byte) 230;
+      for (int y = 0; y < height; y++) {
+        luminances[y * width + x] = luminance;
+      }
+    }
+    return new PlanarYUVLuminanceSourceview(luminances, width, height, 0, 0, width, height, false);
+  }
+
+  private static LuminanceSourceview blank(int width, int height) {
+    byte[] luminances = new byte[width * height];
+    for (int i = 0; i < luminances.length; i++) {
+      luminances[i] = (byte) (i % 7 == 0 ? 40 : 220);
+    }
+    return new PlanarYUVLuminanceSourceview(luminances, width, height, 0, 0, width, height, false);
+  }
+
+  /**
+   * Counts the matrices it binarizes, and the copies of itself made, across all its copies.
+   */
+  private static final class CountingBinarizer extends GlobalHistogramBinarizerView {
+
+    private final AtomicInteger matrices;
+    private final AtomicInteger copies;
+
+    CountingBinarizer(LuminanceSourceview source, AtomicInteger matrices, AtomicInteger copies) {
+      super(source);
+      this.matrices = matrices;
+      this.copies = copies;
+    }
+
+    @Override
+    public BitMatrixview getBlackMatrix() throws NotFoundExceptionview {
+      matrices.incrementAndGet();
+      return super.getBlackMatrix();
+    }
+
+    @Override
+    public BinarizerView createBinarizer(LuminanceSourceview source) {
+      copies.incrementAndGet();
+      return new CountingBinarizer(source, matrices, copies);
+    }
+  }
+
+  /**
+   * Never produces a row or matrix, but waits until the thread asking for one is interrupted.
+   */
+  private static final class BlockingBinarizer extends BinarizerView {
+
+    final CountDownLatch interrupted;
+    private final Set<Thread> threads;
+
+    BlockingBinarizer(LuminanceSourceview source) {
+      this(source, new CountDownLatch(2), Collections.newSetFromMap(new ConcurrentHashMap<Thread,Boolean>()));
+    }
+
+    private BlockingBinarizer(LuminanceSourceview source, CountDownLatch interrupted, Set<Thread> threads) {
+      super(source);
+      this.interrupted = interrupted;
+      this.threads = threads;
+    }
+
+    @Override
+    public BitArrayview getBlackRow(int y, BitArrayview row) throws NotFoundExceptionview {
+      block();
+      throw NotFoundExceptionview.getNotFoundInstance();
+    }
+
+    @Override
+    public BitMatrixview getBlackMatrix() throws NotFoundExceptionview {
+      block();
+      throw NotFoundExceptionview.getNotFoundInstance();
+    }
+
+    @Override
+    public BinarizerView createBinarizer(LuminanceSourceview source) {
+      return new BlockingBinarizer(source, interrupted, threads);
+    }
+
+    private void block() {
+      try {
+        new CountDownLatch(1).await();
+      } catch (InterruptedException ie) {
+        if (threads.add(Thread.currentThread())) {
+          interrupted.countDown();
+        }
+        // Keep the interrupt, so the reader gives up instead of asking for another row
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+}
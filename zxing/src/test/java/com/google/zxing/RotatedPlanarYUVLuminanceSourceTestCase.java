@@ -0,0 +1,98 @@
+/*
+ * Copyright 2023 ZXing authors
+ *
+ * Licensed under the Apache License, Versionv 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.zxing;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Tests that {@link RotatedPlanarYUVLuminanceSourceview} reads what the preview decoder used to
+ * get by rotating the whole frame into a buffer and wrapping that in a
+ * {@link PlanarYUVLuminanceSourceview}.
+ */
+public final class RotatedPlanarYUVLuminanceSourceTestCase extends Assert {
+
+  // A landscape NV21 frame, with its chroma after the Y plane
+  private static final int DATA_WIDTH = 64;
+  private static final int DATA_HEIGHT = 40;
+
+  @Test
+  public void testWholeFrame() {
+    byte[] yuv = frame(1L);
+    assertSameSource(rotateAndCrop(yuv, 0, 0, DATA_HEIGHT, DATA_WIDTH),
+                     new RotatedPlanarYUVLuminanceSourceview(yuv, DATA_WIDTH, DATA_HEIGHT, 0, 0, DATA_HEIGHT, DATA_WIDTH));
+  }
+
+  @Test
+  public void testOffsetCrop() {
+    byte[] yuv = frame(2L);
+    // In portrait coordinates, touching neither edge
+    assertSameSource(rotateAndCrop(yuv, 7, 11, 25, 37),
+                     new RotatedPlanarYUVLuminanceSourceview(yuv, DATA_WIDTH, DATA_HEIGHT, 7, 11, 25, 37));
+  }
+
+  @Test
+  public void testCropOfCrop() {
+    byte[] yuv = frame(3L);
+    LuminanceSourceview expected = rotateAndCrop(yuv, 7, 11, 25, 37).crop(3, 5, 19, 29);
+    LuminanceSourceview actual =
+        new RotatedPlanarYUVLuminanceSourceview(yuv, DATA_WIDTH, DATA_HEIGHT, 7, 11, 25, 37).crop(3, 5, 19, 29);
+    assertSameSource(expected, actual);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testCropMustFitRotatedFrame() {
+    // Fits the landscape frame, but not the portrait one
+    new RotatedPlanarYUVLuminanceSourceview(frame(4L), DATA_WIDTH, DATA_HEIGHT, 0, 0, DATA_WIDTH, DATA_HEIGHT);
+  }
+
+  private static void assertSameSource(LuminanceSourceview expected, LuminanceSourceview actual) {
+    assertEquals(expected.getWidth(), actual.getWidth());
+    assertEquals(expected.getHeight(), actual.getHeight());
+    assertArrayEquals(expected.getMatrix(), actual.getMatrix());
+    byte[] row = new byte[actual.getWidth() + 3];
+    for (int y = 0; y < actual.getHeight(); y++) {
+      byte[] expectedRow = expected.getRow(y, null);
+      row = actual.getRow(y, row);
+      for (int x = 0; x < actual.getWidth(); x++) {
+        assertEquals("row " + y + " at " + x, expectedRow[x], row[x]);
+      }
+    }
+  }
+
+  /**
+   * What the preview decoder did before: rotate the whole frame clockwise into a new buffer, then
+   * crop it.
+   */
+  private static LuminanceSourceview rotateAndCrop(byte[] data, int left, int top, int width, int height) {
+    byte[] rotated = new byte[DATA_WIDTH * DATA_HEIGHT];
+    for (int y = 0; y < DATA_HEIGHT; y++) {
+      for (int x = 0; x < DATA_WIDTH; x++) {
+        rotated[x * DATA_HEIGHT + DATA_HEIGHT - y - 1] = data[x + y * DATA_WIDTH];
+      }
+    }
+    return new PlanarYUVLuminanceSourceview(rotated, DATA_HEIGHT, DATA_WIDTH, left, top, width, height, false);
+  }
+
+  private static byte[] frame(long seed) {
+    byte[] yuv = new byte[DATA_WIDTH * DATA_HEIGHT * 3 / 2];
+    new Random(seed).nextBytes(yuv);
+    return yuv;
+  }
+
+}
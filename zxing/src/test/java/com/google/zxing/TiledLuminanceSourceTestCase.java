@@ -0,0 +1,158 @@
+/*
+ * Copyright 2023 ZXing authors
+ *
+ * Licensed under the Apache License, Versionv 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.zxing;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tests that {@link TiledLuminanceSourceview} gives the same luminance as the image it reads,
+ * whichever tiles a row or crop spans, and that its cache reads each tile again only once it
+ * has been dropped as least recently used.
+ */
+public final class TiledLuminanceSourceTestCase extends Assert {
+
+  @Test
+  public void testRowsAndCropsAcrossTileEdges() {
+    Random random = new Random(0x711eL);
+    // Neither side a multiple of the tile size, so the last row and column of tiles are partial
+    Image image = new Image(253, 187, random);
+    for (int tileSize : new int[] {1, 7, 16, 64, 300}) {
+      LuminanceSourceview source = new TiledLuminanceSourceview(image, tileSize, 4);
+      for (int y = 0; y < image.height; y++) {
+        byte[] row = source.getRow(y, null);
+        for (int x = 0; x < image.width; x++) {
+          assertEquals(image.get(x, y), row[x]);
+        }
+      }
+      for (int i = 0; i < 200; i++) {
+        int left = random.nextInt(image.width);
+        int top = random.nextInt(image.height);
+        int width = 1 + random.nextInt(image.width - left);
+        int height = 1 + random.nextInt(image.height - top);
+        LuminanceSourceview crop = source.crop(left, top, width, height);
+        assertCrop(image, left, top, crop);
+        // A crop of a crop is still relative to its parent
+        int innerLeft = random.nextInt(width);
+        int innerTop = random.nextInt(height);
+        assertCrop(image, left + innerLeft, top + innerTop,
+                   crop.crop(innerLeft, innerTop, width - innerLeft, height - innerTop));
+      }
+    }
+  }
+
+  @Test
+  public void testRowScanReadsEachTileOnce() {
+    Image image = new Image(100, 90, new Random(1L));
+    // Ten tiles across, so a row of tiles does not fit in the four asked for; a full row is kept
+    LuminanceSourceview source = new TiledLuminanceSourceview(image, 10, 4);
+    byte[] row = null;
+    for (int y = 0; y < image.height; y++) {
+      row = source.getRow(y, row);
+    }
+    assertEquals(90, image.reads.size());
+    for (int i = 0; i < 90; i++) {
+      assertArrayEquals(new int[] {i % 10 * 10, i / 10 * 10, 10, 10}, image.reads.get(i));
+    }
+  }
+
+  @Test
+  public void testLeastRecentlyUsedTileIsDropped() {
+    Image image = new Image(40, 40, new Random(2L));
+    // Tiles 0..3 across the top row; a row of four tiles is all that is kept
+    LuminanceSourceview source = new TiledLuminanceSourceview(image, 10, 4);
+    source.getRow(0, null);
+    assertEquals(4, image.reads.size());
+    // Touch the first tile so that the second is now the least recently used
+    source.crop(0, 0, 1, 1).getMatrix();
+    assertEquals(4, image.reads.size());
+    // Reading a tile of the next row drops the second tile, and only it
+    source.crop(0, 10, 1, 1).getMatrix();
+    assertEquals(5, image.reads.size());
+    source.crop(0, 0, 1, 1).getMatrix();
+    source.crop(20, 0, 1, 1).getMatrix();
+    source.crop(30, 0, 1, 1).getMatrix();
+    assertEquals(5, image.reads.size());
+    source.crop(10, 0, 1, 1).getMatrix();
+    assertEquals(6, image.reads.size());
+    assertArrayEquals(new int[] {10, 0, 10, 10}, image.reads.get(5));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testCropOutsideImage() {
+    new TiledLuminanceSourceview(new Image(20, 20, new Random(3L)), 8, 4).crop(10, 10, 11, 10);
+  }
+
+  private static void assertCrop(Image image, int left, int top, LuminanceSourceview crop) {
+    byte[] matrix = crop.getMatrix();
+    assertEquals(crop.getWidth() * crop.getHeight(), matrix.length);
+    for (int y = 0; y < crop.getHeight(); y++) {
+      for (int x = 0; x < crop.getWidth(); x++) {
+        assertEquals(image.get(left + x, top + y), matrix[y * crop.getWidth() + x]);
+      }
+    }
+    int y = crop.getHeight() / 2;
+    byte[] row = crop.getRow(y, new byte[1]);
+    for (int x = 0; x < crop.getWidth(); x++) {
+      assertEquals(image.get(left + x, top + y), row[x]);
+    }
+  }
+
+  /**
+   * Random luminance, recording every tile read.
+   */
+  private static final class Image implements TiledLuminanceSourceview.TileReader {
+
+    final int width;
+    final int height;
+    final byte[] luminances;
+    final List<int[]> reads = new ArrayList<>();
+
+    Image(int width, int height, Random random) {
+      this.width = width;
+      this.height = height;
+      luminances = new byte[width * height];
+      random.nextBytes(luminances);
+    }
+
+    byte get(int x, int y) {
+      return luminances[y * width + x];
+    }
+
+    @Override
+    public int getWidth() {
+      return width;
+    }
+
+    @Override
+    public int getHeight() {
+      return height;
+    }
+
+    @Override
+    public void readTile(int left, int top, int width, int height, byte[] tile) {
+      reads.add(new int[] {left, top, width, height});
+      for (int y = 0; y < height; y++) {
+        System.arraycopy(luminances, (top + y) * this.width + left, tile, y * width, width);
+      }
+    }
+  }
+
+}
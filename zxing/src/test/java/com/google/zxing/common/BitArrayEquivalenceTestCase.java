@@ -0,0 +1,319 @@
+/*
+ * Copyright 2023 ZXing authors
+ *
+ * Licensed under the Apache License, Versionv 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.zxing.common;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Tests that the long-backed {@link BitArrayview} and {@link BitMatrixview} behave exactly like the
+ * int-backed versions they replaced, kept here as {@link IntBitArray} and {@link IntBitMatrix}.
+ */
+public final class BitArrayEquivalenceTestCase extends Assert {
+
+  private static final int[] SIZES = {1, 2, 31, 32, 33, 63, 64, 65, 95, 96, 127, 128, 129, 200, 1000};
+
+  @Test
+  public void testArraySingleBits() {
+    Random random = new Random(0xb17);
+    for (int size : SIZES) {
+      BitArrayview array = new BitArrayview(size);
+      IntBitArray expected = new IntBitArray(size);
+      for (int n = 0; n < 4 * size; n++) {
+        int i = random.nextInt(size);
+        if (random.nextBoolean()) {
+          array.set(i);
+          expected.set(i);
+        } else {
+          array.flip(i);
+          expected.flip(i);
+        }
+        if (n % 7 == 0) {
+          assertSameBits(expected, array);
+        }
+      }
+      assertSameBits(expected, array);
+      array.clear();
+      expected.clear();
+      assertSameBits(expected, array);
+    }
+  }
+
+  @Test
+  public void testArrayRanges() {
+    Random random = new Random(0x5e7);
+    for (int size : SIZES) {
+      for (int n = 0; n < 50; n++) {
+        BitArrayview array = new BitArrayview(size);
+        IntBitArray expected = new IntBitArray(size);
+        for (int r = 0; r < 3; r++) {
+          int start = random.nextInt(size);
+          int end = start + random.nextInt(size - start + 1);
+          array.setRange(start, end);
+          expected.setRange(start, end);
+        }
+        assertSameBits(expected, array);
+        for (int r = 0; r < 20; r++) {
+          int start = random.nextInt(size);
+          int end = start + random.nextInt(size - start + 1);
+          boolean value = random.nextBoolean();
+          assertEquals(expected.isRange(start, end, value), array.isRange(start, end, value));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testArrayBulkAppendAndXor() {
+    Random random = new Random(0xa99);
+    for (int size : SIZES) {
+      BitArrayview array = new BitArrayview(size);
+      IntBitArray expected = new IntBitArray(size);
+      for (int i = 0; i < size; i += 32) {
+        int bits = random.nextInt();
+        array.setBulk(i, bits);
+        expected.setBulk(i, bits);
+      }
+      assertSameBits(expected, array);
+
+      BitArrayview other = new BitArrayview(size);
+      IntBitArray expectedOther = new IntBitArray(size);
+      for (int i = 0; i < size; i++) {
+        if (random.nextInt(3) == 0) {
+          other.set(i);
+          expectedOther.set(i);
+        }
+      }
+      array.xor(other);
+      expected.xor(expectedOther);
+      assertSameBits(expected, array);
+
+      BitArrayview appended = new BitArrayview();
+      IntBitArray expectedAppended = new IntBitArray();
+      for (int n = 0; n < size / 8 + 1; n++) {
+        int numBits = random.nextInt(33);
+        int value = numBits == 0 ? 0 : random.nextInt() >>> (32 - numBits);
+        appended.appendBits(value, numBits);
+        expectedAppended.appendBits(value, numBits);
+        boolean bit = random.nextBoolean();
+        appended.appendBit(bit);
+        expectedAppended.appendBit(bit);
+      }
+      appended.appendBitArray(array);
+      expectedAppended.appendBitArray(expected);
+      assertSameBits(expectedAppended, appended);
+    }
+  }
+
+  @Test
+  public void testArrayReverseAndClone() {
+    Random random = new Random(0x4e7);
+    for (int size : SIZES) {
+      BitArrayview array = new BitArrayview(size);
+      IntBitArray expected = new IntBitArray(size);
+      for (int i = 0; i < size; i++) {
+        if (random.nextBoolean()) {
+          array.set(i);
+          expected.set(i);
+        }
+      }
+      array.reverse();
+      expected.reverse();
+      assertSameBits(expected, array);
+      BitArrayview clone = array.clone();
+      assertEquals(array, clone);
+      assertEquals(array.hashCode(), clone.hashCode());
+      clone.flip(0);
+      assertNotEquals(array, clone);
+      assertSameBits(expected, array);
+    }
+  }
+
+  @Test
+  public void testGetBitArrayIsCopy() {
+    BitArrayview array = new BitArrayview(100);
+    IntBitArray expected = new IntBitArray(100);
+    array.set(3);
+    expected.set(3);
+    array.set(70);
+    expected.set(70);
+    int[] bits = array.getBitArray();
+    assertArrayEquals(expected.getBitArray(), bits);
+    // The int-backed array handed out its backing store; the long-backed one returns a copy.
+    bits[0] = -1;
+    assertFalse(array.get(0));
+    assertArrayEquals(expected.getBitArray(), array.getBitArray());
+    expected.getBitArray()[0] = -1;
+    assertTrue(expected.get(0));
+    // Writes now go through the longs
+    array.getLongBitArray()[0] |= 1L;
+    assertTrue(array.get(0));
+  }
+
+  @Test
+  public void testMatrixOperations() {
+    Random random = new Random(0x3a7);
+    int[][] shapes = {{1, 1}, {31, 5}, {32, 32}, {33, 7}, {64, 3}, {65, 65}, {100, 37}, {200, 129}};
+    for (int[] shape : shapes) {
+      int width = shape[0];
+      int height = shape[1];
+      BitMatrixview matrix = new BitMatrixview(width, height);
+      IntBitMatrix expected = new IntBitMatrix(width, height);
+      assertSameMatrix(expected, matrix);
+      for (int n = 0; n < width * height / 3; n++) {
+        int x = random.nextInt(width);
+        int y = random.nextInt(height);
+        switch (random.nextInt(3)) {
+          case 0:
+            matrix.set(x, y);
+            expected.set(x, y);
+            break;
+          case 1:
+            matrix.unset(x, y);
+            expected.unset(x, y);
+            break;
+          default:
+            matrix.flip(x, y);
+            expected.flip(x, y);
+            break;
+        }
+      }
+      assertSameMatrix(expected, matrix);
+
+      int left = random.nextInt(width);
+      int top = random.nextInt(height);
+      int regionWidth = 1 + random.nextInt(width - left);
+      int regionHeight = 1 + random.nextInt(height - top);
+      matrix.setRegion(left, top, regionWidth, regionHeight);
+      expected.setRegion(left, top, regionWidth, regionHeight);
+      assertSameMatrix(expected, matrix);
+
+      BitMatrixview mask = new BitMatrixview(width, height);
+      IntBitMatrix expectedMask = new IntBitMatrix(width, height);
+      for (int y = 0; y < height; y++) {
+        for (int x = 0; x < width; x++) {
+          if (random.nextInt(4) == 0) {
+            mask.set(x, y);
+            expectedMask.set(x, y);
+          }
+        }
+      }
+      matrix.xor(mask);
+      expected.xor(expectedMask);
+      assertSameMatrix(expected, matrix);
+
+      int y = random.nextInt(height);
+      BitArrayview row = new BitArrayview(width);
+      IntBitArray expectedRow = new IntBitArray(width);
+      for (int x = 0; x < width; x += 2) {
+        row.set(x);
+        expectedRow.set(x);
+      }
+      matrix.setRow(y, row);
+      expected.setRow(y, expectedRow);
+      assertSameMatrix(expected, matrix);
+
+      matrix.rotate180();
+      expected.rotate180();
+      assertSameMatrix(expected, matrix);
+
+      BitMatrixview clone = matrix.clone();
+      assertEquals(matrix, clone);
+      assertEquals(matrix.hashCode(), clone.hashCode());
+
+      matrix.clear();
+      expected.clear();
+      assertSameMatrix(expected, matrix);
+    }
+  }
+
+  @Test
+  public void testMatrixUnsetRegionAndThreshold() {
+    Random random = new Random(0x7e5);
+    int width = 150;
+    int height = 20;
+    BitMatrixview matrix = new BitMatrixview(width, height);
+    IntBitMatrix expected = new IntBitMatrix(width, height);
+    expected.setRegion(0, 0, width, height);
+    matrix.setRegion(0, 0, width, height);
+    matrix.unsetRegion(13, 2, 100, 9);
+    for (int y = 2; y < 11; y++) {
+      for (int x = 13; x < 113; x++) {
+        expected.unset(x, y);
+      }
+    }
+    assertSameMatrix(expected, matrix);
+
+    byte[] luminances = new byte[width];
+    random.nextBytes(luminances);
+    int threshold = 100;
+    matrix.setThresholded(5, 15, 140, luminances, 3, threshold);
+    for (int i = 0; i < 140; i++) {
+      if ((luminances[3 + i] & 0xff) <= threshold) {
+        expected.set(5 + i, 15);
+      }
+    }
+    assertSameMatrix(expected, matrix);
+  }
+
+  @Test
+  public void testMatrixParse() {
+    String image = "X X   X\n X  XX \nXX XX X\n";
+    assertEquals(IntBitMatrix.parse(image, "X", " ").toString(), BitMatrixview.parse(image, "X", " ").toString());
+  }
+
+  private static void assertSameBits(IntBitArray expected, BitArrayview actual) {
+    int size = expected.getSize();
+    assertEquals(size, actual.getSize());
+    assertEquals(expected.getSizeInBytes(), actual.getSizeInBytes());
+    assertEquals(expected.toString(), actual.toString());
+    assertArrayEquals(expected.getBitArray(), actual.getBitArray());
+    for (int i = 0; i <= size; i++) {
+      if (i < size) {
+        assertEquals(expected.get(i), actual.get(i));
+      }
+      assertEquals("next set from " + i, expected.getNextSet(i), actual.getNextSet(i));
+      assertEquals("next unset from " + i, expected.getNextUnset(i), actual.getNextUnset(i));
+    }
+    int numBytes = (size + 7) / 8;
+    byte[] expectedBytes = new byte[numBytes + 2];
+    byte[] actualBytes = new byte[numBytes + 2];
+    expected.toBytes(0, expectedBytes, 1, numBytes);
+    actual.toBytes(0, actualBytes, 1, numBytes);
+    assertArrayEquals(expectedBytes, actualBytes);
+  }
+
+  private static void assertSameMatrix(IntBitMatrix expected, BitMatrixview actual) {
+    int width = expected.getWidth();
+    int height = expected.getHeight();
+    assertEquals(width, actual.getWidth());
+    assertEquals(height, actual.getHeight());
+    assertEquals(expected.toString(), actual.toString());
+    assertArrayEquals(expected.getEnclosingRectangle(), actual.getEnclosingRectangle());
+    assertArrayEquals(expected.getTopLeftOnBit(), actual.getTopLeftOnBit());
+    assertArrayEquals(expected.getBottomRightOnBit(), actual.getBottomRightOnBit());
+    IntBitArray expectedRow = null;
+    BitArrayview row = null;
+    for (int y = 0; y < height; y++) {
+      expectedRow = expected.getRow(y, expectedRow);
+      row = actual.getRow(y, row);
+      assertSameBits(expectedRow, row);
+    }
+  }
+
+}
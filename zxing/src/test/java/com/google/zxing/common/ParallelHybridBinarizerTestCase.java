@@ -0,0 +1,119 @@
+/*
+ * Copyright 2023 ZXing authors
+ *
+ * Licensed under the Apache License, Versionv 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.zxing.common;
+
+import com.google.zxing.LuminanceSourceview;
+import com.google.zxing.NotFoundExceptionview;
+import com.google.zxing.PlanarYUVLuminanceSourceview;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Tests that {@link ParallelHybridBinarizerView} produces exactly what {@link HybridBinarizerView} does.
+ */
+public final class ParallelHybridBinarizerTestCase extends Assert {
+
+  private static ExecutorService executor;
+
+  @BeforeClass
+  public static void startExecutor() {
+    executor = Executors.newFixedThreadPool(4);
+  }
+
+  @AfterClass
+  public static void stopExecutor() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testSmallImage() throws NotFoundExceptionview {
+    // Below PARALLEL_MIN_PIXELS, so only the summed-area table differs from HybridBinarizer
+    assertSameAsHybrid(640, 480, 1L);
+    assertSameAsHybrid(333, 217, 2L);
+  }
+
+  @Test
+  public void testLargeImage() throws NotFoundExceptionview {
+    assertSameAsHybrid(2048, 1100, 3L);
+  }
+
+  @Test
+  public void testLargeImageWithPartialBlocks() throws NotFoundExceptionview {
+    // Neither side a multiple of the block size, so the last row and column of blocks overlap
+    assertSameAsHybrid(2051, 1037, 4L);
+  }
+
+  @Test
+  public void testTooSmallForBlocks() throws NotFoundExceptionview {
+    // Falls back to the global histogram, as HybridBinarizer does
+    assertSameAsHybrid(39, 200, 5L);
+  }
+
+  @Test
+  public void testSharedContext() throws NotFoundExceptionview {
+    LuminanceSourceview source = image(2048, 1100, 6L);
+    BitMatrixview expected = new HybridBinarizerView(source).getBlackMatrix();
+    BinarizationContextview context = new BinarizationContextview(source);
+    assertEquals(expected, new ParallelHybridBinarizerView(context, executor).getBlackMatrix());
+    assertEquals(expected, new HybridBinarizerView(context).getBlackMatrix());
+  }
+
+  private static void assertSameAsHybrid(int width, int height, long seed) throws NotFoundExceptionview {
+    LuminanceSourceview source = image(width, height, seed);
+    BitMatrixview expected = new HybridBinarizerView(source).getBlackMatrix();
+    assertEquals(expected, new ParallelHybridBinarizerView(source, null).getBlackMatrix());
+    assertEquals(expected, new ParallelHybridBinarizerView(source, executor).getBlackMatrix());
+  }
+
+  /**
+   * Dark and light rectangles of every size over uneven lighting, with noise, so that blocks are
+   * flat, high-contrast and in between.
+   */
+  static LuminanceSourceview image(int width, int height, long seed) {
+    Random random = new Random(seed);
+    byte[] pixels = new byte[width * height];
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < width; x++) {
+        pixels[y * width + x] = (byte) (120 + 80 * x / width - 40 * y / height);
+      }
+    }
+    for (int i = 0; i < 400; i++) {
+      int w = 1 + random.nextInt(width / 8);
+      int h = 1 + random.nextInt(height / 8);
+      int left = random.nextInt(width - w + 1);
+      int top = random.nextInt(height - h + 1);
+      int value = random.nextInt(256);
+      for (int y = top; y < top + h; y++) {
+        for (int x = left; x < left + w; x++) {
+          pixels[y * width + x] = (byte) value;
+        }
+      }
+    }
+    for (int i = 0; i < pixels.length; i++) {
+      int value = (pixels[i] & 0xFF) + random.nextInt(9) - 4;
+      pixels[i] = (byte) Math.max(0, Math.min(255, value));
+    }
+    return new PlanarYUVLuminanceSourceview(pixels, width, height, 0, 0, width, height, false);
+  }
+
+}
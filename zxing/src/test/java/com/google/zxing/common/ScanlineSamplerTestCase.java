@@ -0,0 +1,126 @@
+/*
+ * Copyright 2023 ZXing authors
+ *
+ * Licensed under the Apache License, Versionv 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.zxing.common;
+
+import com.google.zxing.ResultPointview;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Tests {@link ScanlineSamplerview}.
+ */
+public final class ScanlineSamplerTestCase extends Assert {
+
+  private static final int[] ANGLES = {-45, -30, -1, 0, 1, 17, 30, 44, 45, 60, 89, 90, 91, 120, 134};
+
+  @Test
+  public void testColumns() {
+    BitMatrixview matrix = randomMatrix(37, 23, 1L);
+    ScanlineSamplerview sampler = new ScanlineSamplerview(matrix, 90);
+    assertEquals(37, sampler.getLineCount());
+    for (int x = 0; x < 37; x++) {
+      BitArrayview line = sampler.sampleLine(x, null);
+      assertEquals(23, line.getSize());
+      for (int y = 0; y < 23; y++) {
+        assertEquals(matrix.get(x, y), line.get(y));
+        assertPoint(x, y, sampler.toImagePoint(x, y));
+      }
+    }
+  }
+
+  @Test
+  public void testRows() {
+    BitMatrixview matrix = randomMatrix(37, 23, 2L);
+    ScanlineSamplerview sampler = new ScanlineSamplerview(matrix, 0);
+    assertEquals(23, sampler.getLineCount());
+    BitArrayview line = null;
+    for (int y = 0; y < 23; y++) {
+      line = sampler.sampleLine(y, line);
+      assertEquals(matrix.getRow(y, null), line);
+      for (int x = 0; x < 37; x++) {
+        assertPoint(x, y, sampler.toImagePoint(y, x));
+      }
+    }
+  }
+
+  @Test
+  public void testEveryPixelReadOnce() {
+    int[][] sizes = {{37, 23}, {23, 37}, {1, 19}, {19, 1}, {64, 64}};
+    for (int[] size : sizes) {
+      int width = size[0];
+      int height = size[1];
+      BitMatrixview matrix = randomMatrix(width, height, width * 31L + height);
+      for (int angle : ANGLES) {
+        ScanlineSamplerview sampler = new ScanlineSamplerview(matrix, angle);
+        int[] reads = new int[width * height];
+        for (int line = 0; line < sampler.getLineCount(); line++) {
+          BitArrayview bits = sampler.sampleLine(line, null);
+          for (int i = 0; i < bits.getSize(); i++) {
+            // The nearest pixel to the point on the line is the one that was read
+            ResultPointview point = sampler.toImagePoint(line, i);
+            int x = (int) Math.floor(point.getX() + 0.5f);
+            int y = (int) Math.floor(point.getY() + 0.5f);
+            String where = angle + " degrees, " + width + "x" + height + ", line " + line + " at " + i;
+            assertTrue(where, x >= 0 && x < width && y >= 0 && y < height);
+            assertEquals(where, matrix.get(x, y), bits.get(i));
+            reads[y * width + x]++;
+          }
+        }
+        for (int i = 0; i < reads.length; i++) {
+          assertEquals(angle + " degrees, " + width + "x" + height + ", pixel " + i, 1, reads[i]);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testLinesFollowTheAngle() {
+    ScanlineSamplerview sampler = new ScanlineSamplerview(new BitMatrixview(100, 100), 30);
+    for (int line = 0; line < sampler.getLineCount(); line += 7) {
+      ResultPointview start = sampler.toImagePoint(line, 0.0f);
+      ResultPointview end = sampler.toImagePoint(line, 10.0f);
+      double angle = Math.toDegrees(Math.atan2(end.getY() - start.getY(), end.getX() - start.getX()));
+      assertEquals(30.0, angle, 0.01);
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testBadAngle() {
+    new ScanlineSamplerview(new BitMatrixview(10, 10), 135);
+  }
+
+  private static void assertPoint(float x, float y, ResultPointview point) {
+    assertEquals(x, point.getX(), 0.0f);
+    assertEquals(y, point.getY(), 0.0f);
+  }
+
+  private static BitMatrixview randomMatrix(int width, int height, long seed) {
+    Random random = new Random(seed);
+    BitMatrixview matrix = new BitMatrixview(width, height);
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < width; x++) {
+        if (random.nextBoolean()) {
+          matrix.set(x, y);
+        }
+      }
+    }
+    return matrix;
+  }
+
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2023 ZXing authors
+ *
+ * Licensed under the Apache License, Versionv 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.zxing.common;
+
+import com.google.zxing.BinarizerView;
+import com.google.zxing.LuminanceSourceview;
+import com.google.zxing.NotFoundExceptionview;
+import com.google.zxing.PlanarYUVLuminanceSourceview;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Tests that {@link TemporalHybridBinarizerView} follows a pattern that moves from frame to frame.
+ */
+public final class TemporalHybridBinarizerTestCase extends Assert {
+
+  private static final int WIDTH = 100;
+  private static final int HEIGHT = 68;
+  private static final int DARK = 40;
+  private static final int LIGHT = 200;
+
+  @Test
+  public void testStripesMovingSideways() throws NotFoundExceptionview {
+    // With a period of 4, every phase has the same number of dark pixels per block: the sum,
+    // minimum and maximum of each block never change while the bits do
+    for (int tolerance : new int[] {0, TemporalHybridBinarizerView.State.DEFAULT_TOLERANCE}) {
+      TemporalHybridBinarizerView.State state = new TemporalHybridBinarizerView.State(tolerance);
+      for (int frame = 0; frame < 12; frame++) {
+        assertSameAsHybrid(stripes(frame, 0, 0L), state);
+      }
+    }
+  }
+
+  @Test
+  public void testStripesMovingDown() throws NotFoundExceptionview {
+    for (int tolerance : new int[] {0, TemporalHybridBinarizerView.State.DEFAULT_TOLERANCE}) {
+      TemporalHybridBinarizerView.State state = new TemporalHybridBinarizerView.State(tolerance);
+      for (int frame = 0; frame < 12; frame++) {
+        assertSameAsHybrid(stripes(frame, 0, 0L).transpose(), state);
+      }
+    }
+  }
+
+  @Test
+  public void testCheckerboardMovingDiagonally() throws NotFoundExceptionview {
+    for (int tolerance : new int[] {0, TemporalHybridBinarizerView.State.DEFAULT_TOLERANCE}) {
+      TemporalHybridBinarizerView.State state = new TemporalHybridBinarizerView.State(tolerance);
+      for (int frame = 0; frame < 12; frame++) {
+        assertSameAsHybrid(stripes(frame, frame, 0L), state);
+      }
+    }
+  }
+
+  @Test
+  public void testStillFrames() throws NotFoundExceptionview {
+    TemporalHybridBinarizerView.State state = new TemporalHybridBinarizerView.State(0);
+    for (int frame = 0; frame < 5; frame++) {
+      assertSameAsHybrid(stripes(3, 1, 0L), state);
+    }
+  }
+
+  @Test
+  public void testNoisyMovingStripes() throws NotFoundExceptionview {
+    // Sensor noise keeps blocks within the default tolerance; the stripes moving must still show
+    TemporalHybridBinarizerView.State state = new TemporalHybridBinarizerView.State();
+    for (int frame = 0; frame < 12; frame++) {
+      Frame image = stripes(frame, 0, frame + 1L);
+      BitMatrixview actual = new TemporalHybridBinarizerView(image.source(), state).getBlackMatrix();
+      BitMatrixview expected = new HybridBinarizerView(image.source()).getBlackMatrix();
+      // Noise may flip a few pixels close to a threshold that was kept, but never whole stripes
+      assertTrue("frame " + frame, differingBits(expected, actual) < WIDTH * HEIGHT / 100);
+    }
+  }
+
+  @Test
+  public void testRefreshInterval() throws NotFoundExceptionview {
+    TemporalHybridBinarizerView.State state = new TemporalHybridBinarizerView.State(1000, 3);
+    Frame still = stripes(0, 0, 0L);
+    Frame moved = stripes(1, 0, 0L);
+    BitMatrixview expected = new HybridBinarizerView(moved.source()).getBlackMatrix();
+    new TemporalHybridBinarizerView(still.source(), state).getBlackMatrix();
+    // Every block is within a tolerance of 1000, so the first two frames keep the first one's bits
+    BitMatrixview stale = new TemporalHybridBinarizerView(moved.source(), state).getBlackMatrix();
+    assertTrue(differingBits(expected, stale) > 0);
+    new TemporalHybridBinarizerView(moved.source(), state).getBlackMatrix();
+    // and the third is binarized from scratch
+    BitMatrixview refreshed = new TemporalHybridBinarizerView(moved.source(), state).getBlackMatrix();
+    assertEquals(0, differingBits(expected, refreshed));
+  }
+
+  @Test
+  public void testSameFrameIsBinarizedOnce() throws NotFoundExceptionview {
+    TemporalHybridBinarizerView.State state = new TemporalHybridBinarizerView.State(1000, 3);
+    BinarizationContextview context = new BinarizationContextview(stripes(0, 0, 0L).source());
+    TemporalHybridBinarizerView first = new TemporalHybridBinarizerView(context, state);
+    BitMatrixview matrix = first.getBlackMatrix();
+    // As every reader of a frame decoded in parallel does
+    for (int i = 0; i < 5; i++) {
+      assertSame(matrix, first.createBinarizer(context.getLuminanceSource()).getBlackMatrix());
+    }
+    // Those were not frames, so the refresh is still two frames away and the next frame is stale
+    Frame moved = stripes(1, 0, 0L);
+    BitMatrixview expected = new HybridBinarizerView(moved.source()).getBlackMatrix();
+    assertTrue(differingBits(expected, new TemporalHybridBinarizerView(moved.source(), state).getBlackMatrix()) > 0);
+  }
+
+  @Test
+  public void testOtherSourcesDoNotShareState() throws NotFoundExceptionview {
+    TemporalHybridBinarizerView.State state = new TemporalHybridBinarizerView.State(1000, 3);
+    LuminanceSourceview still = stripes(0, 0, 0L).source();
+    BinarizerView binarizer = new TemporalHybridBinarizerView(new BinarizationContextview(still), state);
+    binarizer.getBlackMatrix();
+    BinarizerView crop = binarizer.createBinarizer(still.crop(8, 8, 60, 40));
+    assertTrue(crop instanceof HybridBinarizerView);
+    crop.getBlackMatrix();
+    // The state still holds the full frame, so the next one is done incrementally, and stale
+    Frame moved = stripes(1, 0, 0L);
+    BitMatrixview expected = new HybridBinarizerView(moved.source()).getBlackMatrix();
+    assertTrue(differingBits(expected, new TemporalHybridBinarizerView(moved.source(), state).getBlackMatrix()) > 0);
+  }
+
+  private static void assertSameAsHybrid(Frame image, TemporalHybridBinarizerView.State state)
+      throws NotFoundExceptionview {
+    BitMatrixview expected = new HybridBinarizerView(image.source()).getBlackMatrix();
+    assertEquals(0, differingBits(expected, new TemporalHybridBinarizerView(image.source(), state).getBlackMatrix()));
+    BinarizationContextview context = new BinarizationContextview(image.source());
+    assertEquals(0, differingBits(expected, new TemporalHybridBinarizerView(context, state).getBlackMatrix()));
+  }
+
+  private static int differingBits(BitMatrixview a, BitMatrixview b) {
+    int count = 0;
+    for (int y = 0; y < a.getHeight(); y++) {
+      for (int x = 0; x < a.getWidth(); x++) {
+        if (a.get(x, y) != b.get(x, y)) {
+          count++;
+        }
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Stripes two pixels wide every four pixels, shifted right by dx; with dy, also shifted down
+   * every other two rows, which makes a checkerboard. A light border keeps the edge blocks apart
+   * from the stripes.
+   *
+   * @param seed for noise of up to 2 levels, or 0 for none
+   */
+  private static Frame stripes(int dx, int dy, long seed) {
+    Random random = seed == 0 ? null : new Random(seed);
+    byte[] pixels = new byte[WIDTH * HEIGHT];
+    for (int y = 0; y < HEIGHT; y++) {
+      for (int x = 0; x < WIDTH; x++) {
+        boolean dark = ((x + 4 - dx % 4) >> 1 & 1) == 0;
+        if (dy > 0 && ((y + 4 - dy % 4) >> 1 & 1) == 0) {
+          dark = !dark;
+        }
+        int value = x < 8 || y < 8 ? LIGHT : dark ? DARK : LIGHT;
+        if (random != null) {
+          value += random.nextInt(5) - 2;
+        }
+        pixels[y * WIDTH + x] = (byte) value;
+      }
+    }
+    return new Frame(pixels, WIDTH, HEIGHT);
+  }
+
+  private static final class Frame {
+    private final byte[] pixels;
+    private final int width;
+    private final int height;
+
+    Frame(byte[] pixels, int width, int height) {
+      this.pixels = pixels;
+      this.width = width;
+      this.height = height;
+    }
+
+    LuminanceSourceview source() {
+      return new PlanarYUVLuminanceSourceview(pixels, width, height, 0, 0, width, height, false);
+    }
+
+    Frame transpose() {
+      byte[] transposed = new byte[pixels.length];
+      for (int y = 0; y < height; y++) {
+        for (int x = 0; x < width; x++) {
+          transposed[x * height + y] = pixels[y * width + x];
+        }
+      }
+      return new Frame(transposed, height, width);
+    }
+  }
+
+}
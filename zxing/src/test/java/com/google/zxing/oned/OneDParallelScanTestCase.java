@@ -0,0 +1,314 @@
+/*
+ * Copyright 2023 ZXing authors
+ *
+ * Licensed under the Apache License, Versionv 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.zxing.oned;
+
+import com.google.zxing.BarcodeFormatview;
+import com.google.zxing.BinarizerView;
+import com.google.zxing.BinaryBitmapview;
+import com.google.zxing.DecodeHintTypeview;
+import com.google.zxing.LuminanceSourceview;
+import com.google.zxing.NotFoundExceptionview;
+import com.google.zxing.PlanarYUVLuminanceSourceview;
+import com.google.zxing.ReaderExceptionview;
+import com.google.zxing.ResultMetadataTypeview;
+import com.google.zxing.ResultPointview;
+import com.google.zxing.Resultview;
+import com.google.zxing.common.BitArrayview;
+import com.google.zxing.common.BitMatrixview;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Tests scanning the rows of an image on several threads with
+ * {@link DecodeHintTypeview#ROW_SCAN_EXECUTOR}.
+ */
+public final class OneDParallelScanTestCase extends Assert {
+
+  private static final int LINES_PER_IMAGE = 30;
+
+  /**
+   * Stacks the rows of {@link OneDRowCorpus} into images, so that many of their lines hold a
+   * barcode, and checks that the parallel scan picks the same one as the sequential scan.
+   */
+  @Test
+  public void testSameResultsAsSequential() throws InterruptedException {
+    // RSS readers piece a barcode together from several rows, which a parallel scan splits among
+    // threads, so they are left out; the corpus has no RSS symbols anyway.
+    List<BarcodeFormatview> formats = Arrays.asList(
+        BarcodeFormatview.CODE_128, BarcodeFormatview.CODE_39, BarcodeFormatview.CODE_93,
+        BarcodeFormatview.CODABAR, BarcodeFormatview.ITF, BarcodeFormatview.EAN_13,
+        BarcodeFormatview.EAN_8, BarcodeFormatview.UPC_E);
+    Map<DecodeHintTypeview,Object> hints = new EnumMap<>(DecodeHintTypeview.class);
+    hints.put(DecodeHintTypeview.POSSIBLE_FORMATS, formats);
+    hints.put(DecodeHintTypeview.TRY_HARDER, Boolean.TRUE);
+    Map<DecodeHintTypeview,Object> parallelHints = new EnumMap<>(hints);
+    ExecutorService executor = Executors.newFixedThreadPool(3);
+    parallelHints.put(DecodeHintTypeview.ROW_SCAN_EXECUTOR, executor);
+    try {
+      List<BitArrayview> rows = OneDRowCorpus.rows();
+      int found = 0;
+      for (int first = 0; first + LINES_PER_IMAGE <= rows.size(); first += LINES_PER_IMAGE) {
+        BinaryBitmapview image = stack(rows.subList(first, first + LINES_PER_IMAGE));
+        String sequential = describe(image, hints);
+        assertEquals("rows from " + first, sequential, describe(image, parallelHints));
+        if (!sequential.startsWith("N")) {
+          found++;
+        }
+      }
+      assertTrue(found > 0);
+    } finally {
+      executor.shutdownNow();
+      assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+    }
+  }
+
+  @Test
+  public void testHelpersStopAfterHit() throws ReaderExceptionview, InterruptedException {
+    Script script = new Script(true);
+    ExecutorService executor = script.startExecutor();
+    try {
+      Resultview result = new ScriptedReader(script).decode(blank(), script.hints(executor));
+      assertEquals("hit", result.getText());
+      assertTrue(script.helperInterrupted.await(5, TimeUnit.SECONDS));
+      // The helper went no further than the row it was interrupted on
+      assertEquals(1, script.helperRows.size());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testHelpersStopWhenInterrupted() throws InterruptedException {
+    final Script script = new Script(false);
+    final ExecutorService executor = script.startExecutor();
+    final AtomicReference<Object> outcome = new AtomicReference<>();
+    Thread caller = new Thread() {
+      @Override
+      public void run() {
+        try {
+          outcome.set(new ScriptedReader(script).decode(blank(), script.hints(executor)));
+        } catch (ReaderExceptionview re) {
+          outcome.set(isInterrupted() ? "interrupted" : re);
+        }
+      }
+    };
+    try {
+      caller.start();
+      // Every row but the helper's is done, so the caller waits for that one
+      assertTrue(script.helperBlocked.await(5, TimeUnit.SECONDS));
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+      while (caller.getState() != Thread.State.WAITING && System.nanoTime() < deadline) {
+        Thread.sleep(1);
+      }
+      assertEquals(Thread.State.WAITING, caller.getState());
+      caller.interrupt();
+      caller.join(5000);
+      assertFalse(caller.isAlive());
+      assertEquals("interrupted", outcome.get());
+      assertTrue(script.helperInterrupted.await(5, TimeUnit.SECONDS));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static String describe(BinaryBitmapview image, Map<DecodeHintTypeview,?> hints) {
+    try {
+      Resultview result = new MultiFormatOneDReaderview(hints).decode(image, hints);
+      StringBuilder line = new StringBuilder();
+      line.append(result.getBarcodeFormat()).append(':').append(result.getText());
+      for (ResultPointview point : result.getResultPoints()) {
+        line.append(String.format(Locale.ROOT, " %.1f,%.1f", point.getX(), point.getY()));
+      }
+      Map<ResultMetadataTypeview,Object> metadata = result.getResultMetadata();
+      if (metadata != null) {
+        line.append(' ').append(new TreeMap<>(metadata));
+      }
+      return line.toString();
+    } catch (ReaderExceptionview re) {
+      return re.getClass().getSimpleName();
+    }
+  }
+
+  /**
+   * @return an image whose rows are the given ones, padded with white to the widest
+   */
+  private static BinaryBitmapview stack(List<BitArrayview> rows) {
+    int width = 0;
+    for (BitArrayview row : rows) {
+      width = Math.max(width, row.getSize());
+    }
+    BitMatrixview matrix = new BitMatrixview(width, rows.size());
+    for (int y = 0; y < rows.size(); y++) {
+      BitArrayview row = rows.get(y);
+      for (int x = 0; x < row.getSize(); x++) {
+        if (row.get(x)) {
+          matrix.set(x, y);
+        }
+      }
+    }
+    return new BinaryBitmapview(new MatrixBinarizer(matrix));
+  }
+
+  private static BinaryBitmapview blank() {
+    return new BinaryBitmapview(new MatrixBinarizer(new BitMatrixview(60, 5)));
+  }
+
+  /**
+   * Hands out the rows of a matrix that is already binarized.
+   */
+  private static final class MatrixBinarizer extends BinarizerView {
+
+    private final BitMatrixview matrix;
+
+    MatrixBinarizer(BitMatrixview matrix) {
+      super(source(matrix.getWidth(), matrix.getHeight()));
+      this.matrix = matrix;
+    }
+
+    private static LuminanceSourceview source(int width, int height) {
+      byte[] luminances = new byte[width * height];
+      return new PlanarYUVLuminanceSourceview(luminances, width, height, 0, 0, width, height, false);
+    }
+
+    @Override
+    public BitArrayview getBlackRow(int y, BitArrayview row) {
+      return matrix.getRow(y, row);
+    }
+
+    @Override
+    public BitMatrixview getBlackMatrix() {
+      return matrix;
+    }
+
+    @Override
+    public BinarizerView createBinarizer(LuminanceSourceview source) {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  /**
+   * What a {@link ScriptedReader} and its helpers do. The helper starts only once the calling
+   * thread has claimed the middle row, then blocks on the next row it claims until interrupted.
+   * The calling thread waits for the helper to block, then finds a barcode in its first row or
+   * none in any.
+   */
+  private static final class Script {
+
+    final boolean hit;
+    final CountDownLatch helperMayStart = new CountDownLatch(1);
+    final CountDownLatch helperBlocked = new CountDownLatch(1);
+    final CountDownLatch helperInterrupted = new CountDownLatch(1);
+    final Set<Integer> helperRows = Collections.synchronizedSet(new HashSet<Integer>());
+    volatile Thread caller;
+
+    Script(boolean hit) {
+      this.hit = hit;
+    }
+
+    /**
+     * @return an executor that holds back the helper until the caller has started scanning
+     */
+    ExecutorService startExecutor() {
+      ExecutorService executor = Executors.newSingleThreadExecutor();
+      executor.submit(new Runnable() {
+        @Override
+        public void run() {
+          await(helperMayStart);
+        }
+      });
+      return executor;
+    }
+
+    Map<DecodeHintTypeview,?> hints(ExecutorService executor) {
+      Map<DecodeHintTypeview,Object> hints = new EnumMap<>(DecodeHintTypeview.class);
+      hints.put(DecodeHintTypeview.TRY_HARDER, Boolean.TRUE);
+      hints.put(DecodeHintTypeview.ROW_SCAN_EXECUTOR, executor);
+      return hints;
+    }
+
+    static void await(CountDownLatch latch) {
+      try {
+        if (!latch.await(10, TimeUnit.SECONDS)) {
+          throw new IllegalStateException("Timed out");
+        }
+      } catch (InterruptedException ie) {
+        throw new IllegalStateException(ie);
+      }
+    }
+  }
+
+  private static final class ScriptedReader extends OneDReaderview {
+
+    private final Script script;
+    private boolean scannedFirstRow;
+
+    ScriptedReader(Script script) {
+      this.script = script;
+    }
+
+    @Override
+    public Resultview decodeRow(int rowNumber, RunLengthRowview row, Map<DecodeHintTypeview,?> hints)
+        throws NotFoundExceptionview {
+      if (script.caller == null) {
+        script.caller = Thread.currentThread();
+      }
+      if (script.caller == Thread.currentThread()) {
+        if (!scannedFirstRow) {
+          scannedFirstRow = true;
+          script.helperMayStart.countDown();
+          Script.await(script.helperBlocked);
+          if (script.hit) {
+            return new Resultview("hit", null, new ResultPointview[0], BarcodeFormatview.CODE_128);
+          }
+        }
+        throw NotFoundExceptionview.getNotFoundInstance();
+      }
+      script.helperRows.add(rowNumber);
+      script.helperBlocked.countDown();
+      try {
+        if (!new CountDownLatch(1).await(10, TimeUnit.SECONDS)) {
+          throw new IllegalStateException("Helper was not interrupted");
+        }
+      } catch (InterruptedException ie) {
+        script.helperInterrupted.countDown();
+        Thread.currentThread().interrupt();
+      }
+      throw NotFoundExceptionview.getNotFoundInstance();
+    }
+
+    @Override
+    protected OneDReaderview createRowReader() {
+      return new ScriptedReader(script);
+    }
+  }
+
+}
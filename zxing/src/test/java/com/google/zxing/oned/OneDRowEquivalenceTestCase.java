@@ -0,0 +1,97 @@
+/*
+ * Copyright 2023 ZXing authors
+ *
+ * Licensed under the Apache License, Versionv 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.zxing.oned;
+
+import com.google.zxing.common.BitArrayview;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests that the 1D readers, which now work on {@link RunLengthRowview}, read every row of
+ * {@link OneDRowCorpus} exactly as the bit-by-bit readers did, and that the runs answer the same
+ * queries as the bits they were built from.
+ */
+public final class OneDRowEquivalenceTestCase extends Assert {
+
+  @Test
+  public void testReadersMatchRecordedResults() throws IOException {
+    List<String> expected = readExpected();
+    List<BitArrayview> rows = OneDRowCorpus.rows();
+    assertEquals(rows.size(), expected.size());
+    for (int i = 0; i < rows.size(); i++) {
+      assertEquals("row " + i, expected.get(i), OneDRowCorpus.describe(rows.get(i)));
+    }
+  }
+
+  @Test
+  public void testRunsMatchBits() {
+    for (BitArrayview bits : OneDRowCorpus.rows()) {
+      RunLengthRowview runs = new RunLengthRowview(bits);
+      assertSameQueries(bits, runs);
+      bits.reverse();
+      runs.reverse();
+      assertSameQueries(bits, runs);
+    }
+  }
+
+  @Test
+  public void testSetRowReusesRuns() {
+    RunLengthRowview runs = new RunLengthRowview();
+    for (BitArrayview bits : OneDRowCorpus.rows()) {
+      runs.setRow(bits);
+      assertSameQueries(bits, runs);
+    }
+  }
+
+  private static void assertSameQueries(BitArrayview bits, RunLengthRowview runs) {
+    int size = bits.getSize();
+    assertEquals(size, runs.getSize());
+    assertEquals(bits.toString(), runs.toString());
+    for (int i = 0; i < size; i++) {
+      assertEquals(bits.get(i), runs.get(i));
+      assertEquals(bits.getNextSet(i), runs.getNextSet(i));
+      assertEquals(bits.getNextUnset(i), runs.getNextUnset(i));
+    }
+    for (int start = 0; start < size; start += 7) {
+      for (int end = start; end <= size && end < start + 40; end += 3) {
+        assertEquals(bits.isRange(start, end, true), runs.isRange(start, end, true));
+        assertEquals(bits.isRange(start, end, false), runs.isRange(start, end, false));
+      }
+    }
+  }
+
+  private static List<String> readExpected() throws IOException {
+    List<String> lines = new ArrayList<>();
+    try (InputStream in = OneDRowEquivalenceTestCase.class.getResourceAsStream("oned-rows.txt");
+         BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        lines.add(line);
+      }
+    }
+    return lines;
+  }
+
+}
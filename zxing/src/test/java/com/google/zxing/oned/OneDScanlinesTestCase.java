@@ -0,0 +1,113 @@
+/*
+ * Copyright 2023 ZXing authors
+ *
+ * Licensed under the Apache License, Versionv 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.zxing.oned;
+
+import com.google.zxing.BinaryBitmapview;
+import com.google.zxing.DecodeHintTypeview;
+import com.google.zxing.LuminanceSourceview;
+import com.google.zxing.NotFoundExceptionview;
+import com.google.zxing.PlanarYUVLuminanceSourceview;
+import com.google.zxing.ReaderExceptionview;
+import com.google.zxing.Resultview;
+import com.google.zxing.common.HybridBinarizerView;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Tests the lines {@link OneDReaderview} reads when no row of an image decodes: columns when
+ * trying harder, and tilted lines when asked to.
+ */
+public final class OneDScanlinesTestCase extends Assert {
+
+  private static final String TEXT = "Tilted-0042";
+
+  @Test
+  public void testColumnsWhenTryingHarder() throws ReaderExceptionview {
+    // A YUV frame can't be rotated, so only the column sweep finds an upright barcode
+    BinaryBitmapview image = render(TEXT, 90);
+    assertFalse(image.isRotateSupported());
+    assertNotFound(image, hints(false, false));
+    Resultview result = new Code128Readerview().decode(image, hints(true, false));
+    assertEquals(TEXT, result.getText());
+  }
+
+  @Test
+  public void testTiltedOnlyWithHint() throws ReaderExceptionview {
+    BinaryBitmapview image = render(TEXT, 30);
+    assertNotFound(image, hints(false, false));
+    assertNotFound(image, hints(true, false));
+    Resultview result = new Code128Readerview().decode(image, hints(false, true));
+    assertEquals(TEXT, result.getText());
+  }
+
+  private static void assertNotFound(BinaryBitmapview image, Map<DecodeHintTypeview,?> hints)
+      throws ReaderExceptionview {
+    try {
+      new Code128Readerview().decode(image, hints);
+      fail("Decoded with " + hints.keySet());
+    } catch (NotFoundExceptionview nfe) {
+      // continue
+    }
+  }
+
+  private static Map<DecodeHintTypeview,Object> hints(boolean tryHarder, boolean tiltedLines) {
+    Map<DecodeHintTypeview,Object> hints = new EnumMap<>(DecodeHintTypeview.class);
+    if (tryHarder) {
+      hints.put(DecodeHintTypeview.TRY_HARDER, Boolean.TRUE);
+    }
+    if (tiltedLines) {
+      hints.put(DecodeHintTypeview.SCAN_TILTED_LINES, Boolean.TRUE);
+    }
+    return hints;
+  }
+
+  /**
+   * Draws a short Code 128 symbol, its bars turned the given angle clockwise from upright, in
+   * the middle of a white frame.
+   */
+  private static BinaryBitmapview render(String text, int angle) {
+    boolean[] modules = new Code128Writerview().encode(text);
+    int scale = 3;
+    int length = modules.length * scale;
+    int barHeight = 40;
+    int width = 600;
+    int height = 600;
+    double cos = Math.cos(Math.toRadians(angle));
+    double sin = Math.sin(Math.toRadians(angle));
+    byte[] luminances = new byte[width * height];
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < width; x++) {
+        // Position along the symbol and across its bars, from its centre
+        double dx = x - width / 2.0;
+        double dy = y - height / 2.0;
+        double along = dx * cos + dy * sin + length / 2.0;
+        double across = -dx * sin + dy * cos;
+        int module = (int) Math.floor(along / scale);
+        boolean black = Math.abs(across) < barHeight / 2.0 && module >= 0 && module < modules.length
+            && modules[module];
+        luminances[y * width + x] = black ? (byte) 30 : (byte) 220;
+      }
+    }
+    LuminanceSourceview source =
+        new PlanarYUVLuminanceSourceview(luminances, width, height, 0, 0, width, height, false);
+    return new BinaryBitmapview(new HybridBinarizerView(source));
+  }
+
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2023 ZXing authors
+ *
+ * Licensed under the Apache License, Versionv 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.zxing.qrcode.detector;
+
+import com.google.zxing.DecodeHintTypeview;
+import com.google.zxing.NotFoundExceptionview;
+import com.google.zxing.ResultPointview;
+import com.google.zxing.WriterExceptionview;
+import com.google.zxing.common.BitMatrixview;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Tests that searching horizontal bands of an image at once, as {@link FinderPatternFinderview}
+ * does given a {@link DecodeHintTypeview#ROW_SCAN_EXECUTOR}, finds the same finder patterns as
+ * {@code findInRows}, the scan from the top. The bands see more rows of each pattern, so the
+ * centers may move by a fraction of a module.
+ */
+public final class FinderPatternBandSearchTestCase extends Assert {
+
+  private static ExecutorService executor;
+
+  @BeforeClass
+  public static void startExecutor() {
+    executor = Executors.newFixedThreadPool(4);
+  }
+
+  @AfterClass
+  public static void stopExecutor() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testBandsFindSamePatterns() throws WriterExceptionview {
+    List<BitMatrixview> images = FinderPatternCorpus.images();
+    int found = 0;
+    for (int i = 0; i < images.size(); i++) {
+      // With two codes, which three patterns win depends on the order they are found in
+      if (FinderPatternCorpus.codeCount(i) > 1) {
+        continue;
+      }
+      BitMatrixview image = images.get(i);
+      for (boolean tryHarder : new boolean[] {false, true}) {
+        Map<DecodeHintTypeview,Object> hints = new EnumMap<>(DecodeHintTypeview.class);
+        if (tryHarder) {
+          hints.put(DecodeHintTypeview.TRY_HARDER, Boolean.TRUE);
+        }
+        FinderPatternview[] rows = find(image, hints);
+        hints.put(DecodeHintTypeview.ROW_SCAN_EXECUTOR, executor);
+        FinderPatternview[] bands = find(image, hints);
+        String message = "image " + i + (tryHarder ? " trying harder" : "");
+        if (rows == null) {
+          assertNull(message, bands);
+          continue;
+        }
+        assertNotNull(message, bands);
+        for (int p = 0; p < 3; p++) {
+          float distance = ResultPointview.distance(rows[p], bands[p]);
+          assertTrue(message + ": " + rows[p] + " vs " + bands[p],
+              distance < rows[p].getEstimatedModuleSize());
+        }
+        found++;
+      }
+    }
+    // Including the 3000x2000 images, which are split into several bands
+    assertTrue(found > 40);
+  }
+
+  @Test
+  public void testBandsGiveSameResultEveryTime() throws WriterExceptionview {
+    Map<DecodeHintTypeview,Object> hints = new EnumMap<>(DecodeHintTypeview.class);
+    hints.put(DecodeHintTypeview.ROW_SCAN_EXECUTOR, executor);
+    for (BitMatrixview image : FinderPatternCorpus.images().subList(0, 12)) {
+      FinderPatternview[] first = find(image, hints);
+      for (int run = 0; run < 3; run++) {
+        FinderPatternview[] again = find(image, hints);
+        if (first == null) {
+          assertNull(again);
+        } else {
+          assertArrayEquals(first, again);
+        }
+      }
+    }
+  }
+
+  /**
+   * @return bottom left, top left and top right pattern, or null if none were found
+   */
+  private static FinderPatternview[] find(BitMatrixview image, Map<DecodeHintTypeview,?> hints) {
+    try {
+      FinderPatternInfoview info = new FinderPatternFinderview(image).find(hints);
+      return new FinderPatternview[] {info.getBottomLeft(), info.getTopLeft(), info.getTopRight()};
+    } catch (NotFoundExceptionview nfe) {
+      return null;
+    }
+  }
+
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2023 ZXing authors
+ *
+ * Licensed under the Apache License, Versionv 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.zxing.qrcode.detector;
+
+import com.google.zxing.BarcodeFormatview;
+import com.google.zxing.DecodeHintTypeview;
+import com.google.zxing.NotFoundExceptionview;
+import com.google.zxing.ResultPointCallbackview;
+import com.google.zxing.ResultPointview;
+import com.google.zxing.WriterExceptionview;
+import com.google.zxing.common.BitMatrixview;
+import com.google.zxing.common.DetectorResultview;
+import com.google.zxing.multi.qrcode.detector.MultiDetectorview;
+import com.google.zxing.qrcode.QRCodeWriterview;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Builds a reproducible set of binarized images, from QR codes of assorted sizes and tilts to
+ * noise and large, mostly white frames, and describes what the finder pattern finder and the
+ * multi detector find in each, including every result point callback. The expected descriptions
+ * in {@code finder-patterns.txt} were recorded with the finders as they were before they
+ * scanned rows a run at a time, so {@link FinderPatternEquivalenceTestCase} holds the current
+ * finders to the old results.
+ */
+final class FinderPatternCorpus {
+
+  static final long SEED = 0xf1dL;
+  static final int IMAGES = 60;
+
+  private FinderPatternCorpus() {
+  }
+
+  static List<BitMatrixview> images() throws WriterExceptionview {
+    Random random = new Random(SEED);
+    List<BitMatrixview> images = new ArrayList<>(IMAGES);
+    for (int i = 0; i < IMAGES; i++) {
+      int width;
+      int height;
+      int codes = codeCount(i);
+      switch (i % 6) {
+        case 0:
+          // A large frame, mostly white around one code
+          width = 3000;
+          height = 2000;
+          break;
+        case 1:
+          width = 300 + random.nextInt(500);
+          height = 300 + random.nextInt(500);
+          break;
+        case 2:
+          width = 700 + random.nextInt(300);
+          height = 400 + random.nextInt(200);
+          break;
+        default:
+          width = 200 + random.nextInt(600);
+          height = 200 + random.nextInt(600);
+          break;
+      }
+      BitMatrixview image = new BitMatrixview(width, height);
+      for (int c = 0; c < codes; c++) {
+        int size = 80 + random.nextInt(Math.min(width / codes, height) / 2);
+        String text = "https://example.com/" + random.nextInt(1 << 20 + random.nextInt(10)) +
+            "abcdefghijklmnopqrstuvwxyz".substring(random.nextInt(26));
+        BitMatrixview code = new QRCodeWriterview().encode(text, BarcodeFormatview.QR_CODE, size, size);
+        int left = c * width / codes + random.nextInt(Math.max(1, width / codes - code.getWidth()));
+        int top = random.nextInt(Math.max(1, height - code.getHeight()));
+        double angle = Math.toRadians(random.nextInt(4) == 0 ? 0 : random.nextInt(60) - 30);
+        draw(image, code, left, top, angle);
+      }
+      // Specks of noise, more on the images without a code
+      int specks = width * height / (codes == 0 ? 40 : 400);
+      for (int s = 0; s < specks; s++) {
+        int x = random.nextInt(width - 2);
+        int y = random.nextInt(height - 2);
+        image.setRegion(x, y, 1 + random.nextInt(2), 1 + random.nextInt(2));
+      }
+      images.add(image);
+    }
+    return images;
+  }
+
+  /**
+   * @return how many QR codes image number index of {@link #images()} holds
+   */
+  static int codeCount(int index) {
+    switch (index % 6) {
+      case 1:
+        return 0;
+      case 2:
+        return 2;
+      default:
+        return 1;
+    }
+  }
+
+  /**
+   * @return the patterns found and the points reported along the way by the finder, with and
+   *  without trying harder, and by the multi detector
+   */
+  static String describe(BitMatrixview image) {
+    StringBuilder description = new StringBuilder();
+    for (int pass = 0; pass < 3; pass++) {
+      final StringBuilder points = new StringBuilder();
+      ResultPointCallbackview callback = new ResultPointCallbackview() {
+        @Override
+        public void foundPossibleResultPoint(ResultPointview point) {
+          appendPoint(points, point);
+        }
+      };
+      Map<DecodeHintTypeview,Object> hints = new EnumMap<>(DecodeHintTypeview.class);
+      if (pass > 0) {
+        hints.put(DecodeHintTypeview.TRY_HARDER, Boolean.TRUE);
+      }
+      description.append(pass == 2 ? "multi:" : pass == 1 ? "harder:" : "find:");
+      try {
+        if (pass < 2) {
+          FinderPatternInfoview info = new FinderPatternFinderview(image, callback).find(hints);
+          appendPattern(description, info.getBottomLeft());
+          appendPattern(description, info.getTopLeft());
+          appendPattern(description, info.getTopRight());
+        } else {
+          hints.put(DecodeHintTypeview.NEED_RESULT_POINT_CALLBACK, callback);
+          for (DetectorResultview result : new MultiDetectorview(image).detectMulti(hints)) {
+            description.append(" [");
+            for (ResultPointview point : result.getPoints()) {
+              appendPoint(description, point);
+            }
+            description.append(" ]");
+          }
+        }
+      } catch (NotFoundExceptionview nfe) {
+        description.append(" none");
+      }
+      description.append(" callbacks:").append(points).append('\n');
+    }
+    return description.toString();
+  }
+
+  private static void appendPattern(StringBuilder description, FinderPatternview pattern) {
+    appendPoint(description, pattern);
+    description.append(String.format(Locale.ROOT, "/%.3f/%d", pattern.getEstimatedModuleSize(), pattern.getCount()));
+  }
+
+  private static void appendPoint(StringBuilder description, ResultPointview point) {
+    description.append(String.format(Locale.ROOT, " %.2f,%.2f", point.getX(), point.getY()));
+  }
+
+  /**
+   * Draws a code turned by the given angle about its center, with its top left corner at left, top
+   * before turning, sampling the nearest module.
+   */
+  private static void draw(BitMatrixview image, BitMatrixview code, int left, int top, double angle) {
+    double cos = Math.cos(angle);
+    double sin = Math.sin(angle);
+    double centerX = code.getWidth() / 2.0;
+    double centerY = code.getHeight() / 2.0;
+    int reach = (int) Math.ceil(Math.hypot(centerX, centerY));
+    for (int dy = -reach; dy <= reach; dy++) {
+      for (int dx = -reach; dx <= reach; dx++) {
+        int x = (int) Math.floor(left + centerX) + dx;
+        int y = (int) Math.floor(top + centerY) + dy;
+        int codeX = (int) Math.floor(centerX + dx * cos + dy * sin);
+        int codeY = (int) Math.floor(centerY - dx * sin + dy * cos);
+        if (x >= 0 && y >= 0 && x < image.getWidth() && y < image.getHeight() &&
+            codeX >= 0 && codeY >= 0 && codeX < code.getWidth() && codeY < code.getHeight() &&
+            code.get(codeX, codeY)) {
+          image.set(x, y);
+        }
+      }
+    }
+  }
+
+}
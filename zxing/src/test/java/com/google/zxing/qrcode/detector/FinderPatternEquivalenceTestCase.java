@@ -0,0 +1,53 @@
+/*
+ * Copyright 2023 ZXing authors
+ *
+ * Licensed under the Apache License, Versionv 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.zxing.qrcode.detector;
+
+import com.google.zxing.WriterExceptionview;
+import com.google.zxing.common.BitMatrixview;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Tests that {@link FinderPatternFinderview} and the multi detector, which now scan rows a run at
+ * a time, find exactly what the pixel by pixel scan found in every image of
+ * {@link FinderPatternCorpus}, and report the same points along the way.
+ */
+public final class FinderPatternEquivalenceTestCase extends Assert {
+
+  @Test
+  public void testFindersMatchRecordedResults() throws IOException, WriterExceptionview {
+    List<BitMatrixview> images = FinderPatternCorpus.images();
+    try (InputStream in = FinderPatternEquivalenceTestCase.class.getResourceAsStream("finder-patterns.txt");
+         BufferedReader expected = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+      for (int i = 0; i < images.size(); i++) {
+        String[] lines = FinderPatternCorpus.describe(images.get(i)).split("\n");
+        for (String line : lines) {
+          assertEquals("image " + i, expected.readLine(), line);
+        }
+      }
+      assertNull(expected.readLine());
+    }
+  }
+
+}
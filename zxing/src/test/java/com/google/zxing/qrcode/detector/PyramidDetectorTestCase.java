@@ -0,0 +1,97 @@
+/*
+ * Copyright 2023 ZXing authors
+ *
+ * Licensed under the Apache License, Versionv 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.zxing.qrcode.detector;
+
+import com.google.zxing.BarcodeFormatview;
+import com.google.zxing.BinaryBitmapview;
+import com.google.zxing.LuminanceSourceview;
+import com.google.zxing.PlanarYUVLuminanceSourceview;
+import com.google.zxing.ReaderExceptionview;
+import com.google.zxing.ResultPointview;
+import com.google.zxing.WriterExceptionview;
+import com.google.zxing.common.BitMatrixview;
+import com.google.zxing.common.DetectorResultview;
+import com.google.zxing.common.HybridBinarizerView;
+import com.google.zxing.qrcode.QRCodeWriterview;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Tests that {@link PyramidDetectorview}, which finds the patterns in a downsampled image, ends
+ * up with the same points as {@link Detectorview} run on the whole image.
+ */
+public final class PyramidDetectorTestCase extends Assert {
+
+  private static final int WIDTH = 1600;
+  private static final int HEIGHT = 1200;
+
+  @Test
+  public void testSamePointsAsDetector() throws ReaderExceptionview, WriterExceptionview {
+    Random random = new Random(0x9d3L);
+    for (int i = 0; i < 12; i++) {
+      int size = 300 + random.nextInt(600);
+      String text = "https://example.com/" + random.nextInt(1 << 20) +
+          "abcdefghijklmnopqrstuvwxyz".substring(random.nextInt(26));
+      BitMatrixview code = new QRCodeWriterview().encode(text, BarcodeFormatview.QR_CODE, size, size);
+      int left = random.nextInt(WIDTH - code.getWidth());
+      int top = random.nextInt(HEIGHT - code.getHeight());
+      LuminanceSourceview source = render(code, left, top, random);
+
+      DetectorResultview expected =
+          new Detectorview(new BinaryBitmapview(new HybridBinarizerView(source)).getBlackMatrix()).detect(null);
+      DetectorResultview actual =
+          new PyramidDetectorview(new BinaryBitmapview(new HybridBinarizerView(source))).detect(3, null);
+
+      ResultPointview[] expectedPoints = expected.getPoints();
+      ResultPointview[] actualPoints = actual.getPoints();
+      assertEquals("image " + i, expectedPoints.length, actualPoints.length);
+      assertEquals("image " + i, expected.getBits(), actual.getBits());
+      float moduleSize = (float) code.getWidth() / expected.getBits().getWidth();
+      for (int p = 0; p < expectedPoints.length; p++) {
+        float distance = ResultPointview.distance(expectedPoints[p], actualPoints[p]);
+        assertTrue("image " + i + " point " + p + " moved " + distance, distance <= moduleSize);
+      }
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testDownsampleByZero() {
+    new BinaryBitmapview(new HybridBinarizerView(render(new BitMatrixview(21), 0, 0, new Random(1L))))
+        .downsample(0);
+  }
+
+  /**
+   * Draws the code in dark grey on light grey, with a little noise so the binarizer has
+   * something to do.
+   */
+  private static LuminanceSourceview render(BitMatrixview code, int left, int top, Random random) {
+    byte[] luminances = new byte[WIDTH * HEIGHT];
+    for (int y = 0; y < HEIGHT; y++) {
+      for (int x = 0; x < WIDTH; x++) {
+        int codeX = x - left;
+        int codeY = y - top;
+        boolean dark = codeX >= 0 && codeY >= 0 && codeX < code.getWidth() && codeY < code.getHeight() &&
+            code.get(codeX, codeY);
+        luminances[y * WIDTH + x] = (byte) ((dark ? 40 : 200) + random.nextInt(16));
+      }
+    }
+    return new PlanarYUVLuminanceSourceview(luminances, WIDTH, HEIGHT, 0, 0, WIDTH, HEIGHT, false);
+  }
+
+}